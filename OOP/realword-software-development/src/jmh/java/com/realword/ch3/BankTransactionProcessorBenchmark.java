@@ -0,0 +1,70 @@
+package com.realword.ch3;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 같은 거래내역을 List&lt;BankTransaction&gt; 의 Stream 으로 집계할 때와 BankTransactionStore 의 열 배열로 집계할 때를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BankTransactionProcessorBenchmark {
+    private static final String[] CATEGORIES = {"Deliveroo", "Tesco", "Salary", "Royalties", "Rent", "Cinema"};
+
+    @Param("1000000")
+    private int rows;
+
+    private BankTransactionProcessor objects;
+    private BankTransactionProcessor columnar;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(42);
+        List<BankTransaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(new BankTransaction(LocalDate.of(2017, 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextInt(10_000) - 5_000, CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        objects = new BankTransactionProcessor(transactions::stream);
+        columnar = new BankTransactionProcessor(BankTransactionStore.of(transactions));
+    }
+
+    @Benchmark
+    public long objectsTotals() {
+        return objects.totalDeposit() + objects.totalWithdraw() + objects.calculateMonthOf(Month.MARCH) + objects.calculateCategoryOf("Rent");
+    }
+
+    @Benchmark
+    public long columnarTotals() {
+        return columnar.totalDeposit() + columnar.totalWithdraw() + columnar.calculateMonthOf(Month.MARCH) + columnar.calculateCategoryOf("Rent");
+    }
+
+    @Benchmark
+    public String objectsMostWithdrawCategory() {
+        return objects.mostWithdrawCategory();
+    }
+
+    @Benchmark
+    public String columnarMostWithdrawCategory() {
+        return columnar.mostWithdrawCategory();
+    }
+}
@@ -0,0 +1,110 @@
+package com.realword.ch3.factory;
+
+import com.realword.ch3.BankTransaction;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * rows 행짜리 bank.csv 를 만들어(이미 있으면 재사용) 한 번 끝까지 읽는 시간을 비교한다.
+ *
+ * - splitAndLocalDate: BankFileParser.stream (readLine + split + LocalDate.parse + Long.parseLong)
+ * - mappedCursor: BankFileCursor 로 날짜 / 금액만 읽는다
+ * - mappedCursorWithDescription: description 까지 decode 한다
+ * - parallelMappedCursor: ParallelBankFileParser 로 구간별 합계를 만들어 합친다
+ * - mappedColumnar: BankTransactionStore 로 금액 / 날짜 / 카테고리 번호 열을 채운다
+ *
+ * ./gradlew jmh 로 실행하며 -prof gc 결과로 행당 할당량도 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BankFileParserBenchmark {
+    private static final String[] CATEGORIES = {"Deliveroo", "Tesco", "Salary", "Royalties", "Rent", "Cinema"};
+
+    @Param("10000000")
+    private int rows;
+
+    private Path file;
+
+    @Setup
+    public void generate() throws IOException {
+        file = Paths.get(System.getProperty("java.io.tmpdir"), "bank-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return;
+        }
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(String.format("%02d-%02d-%04d,%d,%s%n",
+                        1 + random.nextInt(28), 1 + random.nextInt(12), 2017,
+                        random.nextInt(10_000) - 5_000, CATEGORIES[random.nextInt(CATEGORIES.length)]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void splitAndLocalDate(Blackhole blackhole) {
+        try (Stream<BankTransaction> transactions = BankFileParser.stream(file.toString())) {
+            transactions.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public long mappedCursor() throws IOException {
+        long checksum = 0;
+        try (BankFileCursor cursor = BankFileCursor.open(file)) {
+            while (cursor.next()) {
+                checksum += cursor.amount() + cursor.epochDay();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public void mappedCursorWithDescription(Blackhole blackhole) throws IOException {
+        try (BankFileCursor cursor = BankFileCursor.open(file)) {
+            while (cursor.next()) {
+                blackhole.consume(cursor.amount() + cursor.epochDay());
+                blackhole.consume(cursor.description());
+            }
+        }
+    }
+
+    @Benchmark
+    public long parallelMappedCursor() {
+        return ParallelBankFileParser.parse(file.toString(), ForkJoinPool.commonPool(), cursor -> {
+            long checksum = 0;
+            while (cursor.next()) {
+                checksum += cursor.amount() + cursor.epochDay();
+            }
+            return checksum;
+        }, Long::sum);
+    }
+
+    @Benchmark
+    public int mappedColumnar() {
+        return BankFileParser.parseColumnar(file.toString()).size();
+    }
+}
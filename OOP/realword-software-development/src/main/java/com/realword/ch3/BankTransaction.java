@@ -20,6 +20,10 @@ public class BankTransaction {
         return date.getMonth() == month;
     }
 
+    public LocalDate getDate() {
+        return date;
+    }
+
     public long getAmount() {
         return amount;
     }
@@ -1,20 +1,26 @@
 package com.realword.ch3;
 
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
-
 import java.time.Month;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 
 public class BankTransactionProcessor {
-    private final List<BankTransaction> transactions;
+    private final BankTransactionSource source;
 
     public BankTransactionProcessor(List<BankTransaction> transactions) {
-        this.transactions = transactions;
+        this(new StreamBankTransactionSource(transactions::stream));
+    }
+
+    public BankTransactionProcessor(Supplier<Stream<BankTransaction>> transactions) {
+        this(new StreamBankTransactionSource(transactions));
+    }
+
+    public BankTransactionProcessor(BankTransactionSource source) {
+        this.source = source;
     }
 
     public long totalAmount() {
@@ -22,45 +28,39 @@ public class BankTransactionProcessor {
     }
 
     public long totalDeposit() {
-        return calculateTotalAmountWithFilter((BankTransaction transaction) -> transaction.getAmount() > 0);
+        return source.totalDeposit();
     }
 
     public long totalWithdraw() {
-        return calculateTotalAmountWithFilter((BankTransaction transaction) -> transaction.getAmount() < 0);
+        return source.totalWithdraw();
     }
 
     public long calculateMonthOf(Month month) {
-        return calculateTotalAmountWithFilter((BankTransaction transaction) -> transaction.isTransactedAt(month));
+        return source.totalOfMonth(month);
     }
 
     public long calculateCategoryOf(String category) {
-        return calculateTotalAmountWithFilter((BankTransaction transaction) -> transaction.getCategory().equals(category));
-    }
-
-    private long calculateTotalAmountWithFilter(Predicate<BankTransaction> predicate) {
-        return transactions.stream()
-                .filter(predicate)
-                .mapToLong(BankTransaction::getAmount)
-                .reduce(Long::sum)
-                .orElse(0);
+        return source.totalOfCategory(category);
     }
 
     public List<BankTransaction> orderedWithdrawListSizeOf(int size) {
-        return transactions.stream()
-                .sorted((o1, o2) -> (int)( o2.getAmount() - o1.getAmount()))
-                .limit(size)
-                .collect(toList());
+        if (size < 0) {
+            throw new IllegalArgumentException(Integer.toString(size));
+        }
+        return source.largest(size);
     }
 
+    // 합계가 같으면 먼저 나온 카테고리를 고른다
     public String mostWithdrawCategory() {
-        return transactions.stream()
-                .collect(groupingBy(BankTransaction::getCategory))
-                .entrySet().stream()
-                .collect(toMap(Entry::getKey,
-                        eachEntry -> eachEntry.getValue().stream().map(BankTransaction::getAmount).reduce(Long::sum)
-                                .orElse(0L)))
-                .entrySet().stream().reduce((e1, e2) -> e1.getValue() > e2.getValue() ? e2 : e1).orElseThrow().getKey();
+        Map.Entry<String, Long> most = null;
+        for (Map.Entry<String, Long> entry : source.totalByCategory().entrySet()) {
+            if (most == null || entry.getValue() < most.getValue()) {
+                most = entry;
+            }
+        }
+        if (most == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        return most.getKey();
     }
-
-
 }
@@ -0,0 +1,26 @@
+package com.realword.ch3;
+
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BankTransactionProcessor 가 집계를 맡기는 거래내역 출처.
+ *
+ * 열 배열을 primitive loop 로 훑는 {@link BankTransactionStore} 와 Stream 을 한 번씩 훑는 {@link StreamBankTransactionSource} 가 있다.
+ */
+public interface BankTransactionSource {
+    long totalDeposit();
+
+    long totalWithdraw();
+
+    long totalOfMonth(Month month);
+
+    long totalOfCategory(String category);
+
+    // 카테고리별 합계. 처음 나온 카테고리부터 순서대로 담는다
+    Map<String, Long> totalByCategory();
+
+    // 금액이 큰 순서로 size 건. 금액이 같으면 먼저 나온 거래가 앞선다
+    List<BankTransaction> largest(int size);
+}
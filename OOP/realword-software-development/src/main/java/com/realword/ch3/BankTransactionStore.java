@@ -0,0 +1,249 @@
+package com.realword.ch3;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 거래내역을 객체 대신 열(column) 단위 primitive 배열로 담는 저장소.
+ *
+ * 금액은 long[], 날짜는 epoch day int[], 카테고리는 사전(String 표)의 번호 int[] 로 저장해 거래 1건에 16 byte 만 쓴다.
+ * 월 비교는 저장된 날짜 범위의 epoch day → 월 표로 하므로 행마다 LocalDate 를 만들지 않는다.
+ * 집계는 이 열 배열을 primitive loop 로 훑는다.
+ */
+public class BankTransactionStore implements BankTransactionSource {
+    private final long[] amounts;
+    private final int[] epochDays;
+    private final int[] categoryIds;
+    private final int size;
+    private final String[] categories;
+    private final Map<String, Integer> categoryIdByName;
+    private final int firstEpochDay;
+    private final byte[] monthByDay;
+
+    private BankTransactionStore(Builder builder) {
+        this.amounts = builder.amounts;
+        this.epochDays = builder.epochDays;
+        this.categoryIds = builder.categoryIds;
+        this.size = builder.size;
+        this.categories = builder.categories.toArray(new String[0]);
+        this.categoryIdByName = new HashMap<>(builder.categoryIdByName);
+        this.firstEpochDay = builder.minEpochDay;
+        this.monthByDay = monthTable(builder.minEpochDay, builder.maxEpochDay, size);
+    }
+
+    public static BankTransactionStore of(List<BankTransaction> transactions) {
+        Builder builder = new Builder(transactions.size());
+        for (BankTransaction transaction : transactions) {
+            builder.add((int) transaction.getDate().toEpochDay(), transaction.getAmount(), transaction.getCategory());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    public String category(int categoryId) {
+        return categories[categoryId];
+    }
+
+    // 사전에 없는 카테고리면 -1
+    public int categoryIdOf(String category) {
+        return categoryIdByName.getOrDefault(category, -1);
+    }
+
+    // 1 ~ 12 (Month.getValue 와 같다)
+    public int monthValueAt(int index) {
+        return monthByDay[epochDays[index] - firstEpochDay];
+    }
+
+    public BankTransaction toBankTransaction(int index) {
+        return new BankTransaction(LocalDate.ofEpochDay(epochDays[index]), amounts[index], categories[categoryIds[index]]);
+    }
+
+    @Override
+    public long totalDeposit() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] > 0) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long totalWithdraw() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] < 0) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long totalOfMonth(Month month) {
+        long sum = 0;
+        int monthValue = month.getValue();
+        for (int i = 0; i < size; i++) {
+            if (monthValueAt(i) == monthValue) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long totalOfCategory(String category) {
+        int categoryId = categoryIdOf(category);
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            if (categoryIds[i] == categoryId) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    // 카테고리 번호가 처음 나온 순서이므로 번호 순으로 담으면 된다
+    @Override
+    public Map<String, Long> totalByCategory() {
+        long[] sums = new long[categories.length];
+        for (int i = 0; i < size; i++) {
+            sums[categoryIds[i]] += amounts[i];
+        }
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (int id = 0; id < sums.length; id++) {
+            totals.put(categories[id], sums[id]);
+        }
+        return totals;
+    }
+
+    // 객체가 없으므로 남은 행만 BankTransaction 으로 만든다
+    @Override
+    public List<BankTransaction> largest(int count) {
+        Comparator<Integer> worstFirst = (left, right) -> amounts[left] != amounts[right]
+                ? Long.compare(amounts[left], amounts[right])
+                : Integer.compare(right, left);
+        PriorityQueue<Integer> top = new PriorityQueue<>(worstFirst);
+        for (int i = 0; i < size && count > 0; i++) {
+            if (top.size() < count) {
+                top.add(i);
+            } else if (worstFirst.compare(i, top.peek()) > 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+
+        List<BankTransaction> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(toBankTransaction(top.poll()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static byte[] monthTable(int minEpochDay, int maxEpochDay, int size) {
+        if (size == 0) {
+            return new byte[0];
+        }
+        byte[] months = new byte[maxEpochDay - minEpochDay + 1];
+        LocalDate date = LocalDate.ofEpochDay(minEpochDay);
+        for (int i = 0; i < months.length; i++, date = date.plusDays(1)) {
+            months[i] = (byte) date.getMonthValue();
+        }
+        return months;
+    }
+
+    public static class Builder {
+        private long[] amounts;
+        private int[] epochDays;
+        private int[] categoryIds;
+        private int size;
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> categoryIdByName = new HashMap<>();
+        private int minEpochDay = Integer.MAX_VALUE;
+        private int maxEpochDay = Integer.MIN_VALUE;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int initialCapacity) {
+            int capacity = Math.max(initialCapacity, 16);
+            amounts = new long[capacity];
+            epochDays = new int[capacity];
+            categoryIds = new int[capacity];
+        }
+
+        // 처음 보는 카테고리면 사전에 추가한다
+        public int categoryId(String category) {
+            Integer id = categoryIdByName.get(category);
+            if (id == null) {
+                id = categories.size();
+                categories.add(category);
+                categoryIdByName.put(category, id);
+            }
+            return id;
+        }
+
+        public Builder add(int epochDay, long amount, String category) {
+            return add(epochDay, amount, categoryId(category));
+        }
+
+        // categoryId 는 이 Builder 의 categoryId(String) 가 돌려준 번호여야 한다
+        public Builder add(int epochDay, long amount, int categoryId) {
+            if (categoryId < 0 || categoryId >= categories.size()) {
+                throw new IllegalArgumentException("Unknown category id: " + categoryId);
+            }
+            if (size == amounts.length) {
+                grow();
+            }
+            amounts[size] = amount;
+            epochDays[size] = epochDay;
+            categoryIds[size] = categoryId;
+            size++;
+            minEpochDay = Math.min(minEpochDay, epochDay);
+            maxEpochDay = Math.max(maxEpochDay, epochDay);
+            return this;
+        }
+
+        // other 의 거래를 뒤에 이어 붙인다. 카테고리 번호는 이 사전 기준으로 다시 매긴다
+        public Builder addAll(Builder other) {
+            int[] remap = new int[other.categories.size()];
+            for (int id = 0; id < remap.length; id++) {
+                remap[id] = categoryId(other.categories.get(id));
+            }
+            for (int i = 0; i < other.size; i++) {
+                add(other.epochDays[i], other.amounts[i], remap[other.categoryIds[i]]);
+            }
+            return this;
+        }
+
+        public BankTransactionStore build() {
+            return new BankTransactionStore(this);
+        }
+
+        private void grow() {
+            int capacity = amounts.length + (amounts.length >> 1);
+            amounts = Arrays.copyOf(amounts, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+        }
+    }
+}
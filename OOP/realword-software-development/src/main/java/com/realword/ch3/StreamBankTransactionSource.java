@@ -0,0 +1,105 @@
+package com.realword.ch3;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingLong;
+
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 계산할 때마다 새 Stream 을 받아 한 번 훑고 닫는다. 파일 기반 Stream 이면 거래내역 수와 무관한 메모리로 집계한다.
+ */
+public class StreamBankTransactionSource implements BankTransactionSource {
+    private final Supplier<Stream<BankTransaction>> transactions;
+
+    public StreamBankTransactionSource(Supplier<Stream<BankTransaction>> transactions) {
+        this.transactions = transactions;
+    }
+
+    @Override
+    public long totalDeposit() {
+        return totalWithFilter((BankTransaction transaction) -> transaction.getAmount() > 0);
+    }
+
+    @Override
+    public long totalWithdraw() {
+        return totalWithFilter((BankTransaction transaction) -> transaction.getAmount() < 0);
+    }
+
+    @Override
+    public long totalOfMonth(Month month) {
+        return totalWithFilter((BankTransaction transaction) -> transaction.isTransactedAt(month));
+    }
+
+    @Override
+    public long totalOfCategory(String category) {
+        return totalWithFilter((BankTransaction transaction) -> transaction.getCategory().equals(category));
+    }
+
+    private long totalWithFilter(Predicate<BankTransaction> predicate) {
+        try (Stream<BankTransaction> stream = transactions.get()) {
+            return stream
+                    .filter(predicate)
+                    .mapToLong(BankTransaction::getAmount)
+                    .reduce(Long::sum)
+                    .orElse(0);
+        }
+    }
+
+    @Override
+    public Map<String, Long> totalByCategory() {
+        try (Stream<BankTransaction> stream = transactions.get()) {
+            return stream.collect(groupingBy(BankTransaction::getCategory, LinkedHashMap::new, summingLong(BankTransaction::getAmount)));
+        }
+    }
+
+    // 전체를 정렬하지 않고 size 개짜리 heap 으로 금액이 큰 거래만 남긴다
+    @Override
+    public List<BankTransaction> largest(int size) {
+        PriorityQueue<Ranked> top = new PriorityQueue<>(Ranked.WORST_FIRST);
+        try (Stream<BankTransaction> stream = transactions.get()) {
+            Iterator<BankTransaction> iterator = stream.iterator();
+            for (long index = 0; iterator.hasNext() && size > 0; index++) {
+                Ranked ranked = new Ranked(iterator.next(), index);
+                if (top.size() < size) {
+                    top.add(ranked);
+                } else if (Ranked.WORST_FIRST.compare(ranked, top.peek()) > 0) {
+                    top.poll();
+                    top.add(ranked);
+                }
+            }
+        }
+
+        List<BankTransaction> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().transaction);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static class Ranked {
+        // 금액이 작을수록, 같은 금액이면 나중에 나온 거래일수록 먼저 버린다
+        private static final Comparator<Ranked> WORST_FIRST = Comparator
+                .comparingLong((Ranked ranked) -> ranked.transaction.getAmount())
+                .thenComparing(Comparator.comparingLong((Ranked ranked) -> ranked.index).reversed());
+
+        private final BankTransaction transaction;
+        private final long index;
+
+        private Ranked(BankTransaction transaction, long index) {
+            this.transaction = transaction;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.realword.ch3.ex.analyzer;
+
+import com.realword.ch3.ex.parser.BankStatementParser;
+import com.realword.ch3.ex.processor.BankTransaction;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Month;
+import java.util.stream.Stream;
+
+// 파일이 메모리에 다 올라가지 않을 만큼 클 때의 BankStatementAnalyzer 변형
+// 파일을 한 번만 한 줄씩 읽으며 네 가지 합계를 함께 계산한다
+public class StreamingBankStatementAnalyzer {
+    private static final String RESOURCES = "src/main/resources/";
+
+    public void analyze(final String fileName, final BankStatementParser bankStatementParser) throws IOException {
+
+        final Path path = Paths.get(RESOURCES + fileName);
+        final Summary summary = new Summary();
+
+        // Stream 을 닫으면 Files.lines 로 연 파일도 닫힌다
+        try (Stream<BankTransaction> bankTransactions = bankStatementParser.parseLinesFrom(Files.lines(path))) {
+            bankTransactions.forEach(summary::add);
+        }
+
+        collectSummary(summary);
+    }
+
+    private static void collectSummary(final Summary summary) {
+
+        System.out.println("The total for all transactions is " + summary.total);
+        System.out.println("The total for transactions in January is " + summary.totalInJanuary);
+        System.out.println("The total for transactions in February is " + summary.totalInFebruary);
+        System.out.println("The total salary received is " + summary.totalSalary);
+    }
+
+    private static class Summary {
+        private double total;
+        private double totalInJanuary;
+        private double totalInFebruary;
+        private double totalSalary;
+
+        private void add(final BankTransaction bankTransaction) {
+            final double amount = bankTransaction.getAmount();
+            total += amount;
+            if (bankTransaction.getDate().getMonth() == Month.JANUARY) {
+                totalInJanuary += amount;
+            }
+            if (bankTransaction.getDate().getMonth() == Month.FEBRUARY) {
+                totalInFebruary += amount;
+            }
+            if (bankTransaction.getDescription().equals("Salary")) {
+                totalSalary += amount;
+            }
+        }
+    }
+}
@@ -2,8 +2,14 @@ package com.realword.ch3.ex.parser;
 
 import com.realword.ch3.ex.processor.BankTransaction;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BankStatementParser {
     BankTransaction parseFrom(String line);
     List<BankTransaction> parseLinesFrom(List<String> lines);
+
+    // 읽는 만큼만 parse 하는 lazy Stream. 반환된 Stream 을 닫으면 lines 도 닫힌다
+    default Stream<BankTransaction> parseLinesFrom(Stream<String> lines) {
+        return lines.map(this::parseFrom);
+    }
 }
@@ -1,36 +1,43 @@
 package com.realword.ch3.ex.processor;
 
+import static java.util.stream.Collectors.toList;
+
 import com.realword.ch3.ex.filter.BankTransactionFilter;
 import com.realword.ch3.ex.summarize.statistics.BankTransactionStaisticsSummarizer;
 import com.realword.ch3.ex.summarize.SummaryStatistics;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class BankStatementProcessor4 {
-    private final List<BankTransaction> bankTransactions;
+    private final Supplier<Stream<BankTransaction>> bankTransactions;
 
     public BankStatementProcessor4(final List<BankTransaction> bankTransactions) {
+        this(bankTransactions::stream);
+    }
+
+    // 거래내역을 메모리에 모아두지 않고, 계산할 때마다 새 Stream 을 받아 한 번 훑은 뒤 닫는다
+    public BankStatementProcessor4(final Supplier<Stream<BankTransaction>> bankTransactions) {
         this.bankTransactions = bankTransactions;
     }
 
     // 추상화된 BankTransactionSummarize에 의존
     public SummaryStatistics calculateTransactionsSummarizeAbout(BankTransactionStaisticsSummarizer summarizer) {
         SummaryStatistics summaryStatistics = new SummaryStatistics(0, 0, Double.MIN_VALUE, Double.MAX_VALUE, 0);
-        for (BankTransaction bankTransaction : bankTransactions) {
-            summaryStatistics = summarizer.summarize(summaryStatistics, bankTransaction);
+        try (Stream<BankTransaction> transactions = bankTransactions.get()) {
+            Iterator<BankTransaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                summaryStatistics = summarizer.summarize(summaryStatistics, iterator.next());
+            }
         }
         return summaryStatistics;
     }
 
     // 추상화된 BankTransactionFilter에 의존
     public List<BankTransaction> findTransactionsAbout(BankTransactionFilter filter) {
-        List<BankTransaction> result = new ArrayList<>();
-        for (BankTransaction bankTransaction : bankTransactions) {
-            if (filter.isMatched(bankTransaction)) {
-                result.add(bankTransaction);
-            }
+        try (Stream<BankTransaction> transactions = bankTransactions.get()) {
+            return transactions.filter(filter::isMatched).collect(toList());
         }
-
-        return result;
     }
 }
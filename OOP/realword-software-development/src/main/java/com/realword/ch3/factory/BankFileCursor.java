@@ -0,0 +1,281 @@
+package com.realword.ch3.factory;
+
+import com.realword.ch3.BankTransaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * memory-map 한 거래내역 CSV(dd-MM-yyyy,amount,description)를 byte 단위로 읽는 cursor.
+ *
+ * String.split / LocalDate.parse / Long.parseLong 대신 byte 를 직접 읽어 날짜는 epoch day, 금액은 long 으로 만들고
+ * 행마다 객체를 만들지 않는다. description 은 {@link #description()} 을 호출할 때만 UTF-8 로 decode 한다.
+ * 2GB 를 넘는 파일은 최대 regionSize 만큼씩 나눠 map 하고, region 경계에 걸친 줄은 그 줄 시작부터 다시 map 한다.
+ */
+public class BankFileCursor implements AutoCloseable {
+    private static final int DEFAULT_REGION_SIZE = 1 << 30;
+    private static final int DATE_LENGTH = "dd-MM-yyyy".length();
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long fileSize;
+    private final long end;
+    private final int regionSize;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int position;
+
+    private long lineStart;
+    private int epochDay;
+    private long amount;
+    private int descriptionStart;
+    private int descriptionLength;
+    private byte[] descriptionBytes = new byte[64];
+
+    BankFileCursor(FileChannel channel, boolean ownsChannel, long start, long end, int regionSize) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.fileSize = channel.size();
+        this.end = Math.min(end, fileSize);
+        this.regionSize = regionSize;
+        map(start);
+    }
+
+    public static BankFileCursor open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BankFileCursor(channel, true, 0, channel.size(), DEFAULT_REGION_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // [start, end) 안에서 시작하는 줄만 읽는다. start 는 줄의 시작이어야 하고 마지막 줄은 end 를 넘어 끝까지 읽는다
+    static BankFileCursor open(FileChannel channel, long start, long end) throws IOException {
+        return new BankFileCursor(channel, false, start, end, DEFAULT_REGION_SIZE);
+    }
+
+    // 다음 줄로 이동한다. 빈 줄은 건너뛰고, 더 읽을 줄이 없으면 false
+    public boolean next() {
+        while (regionStart + position < end) {
+            int lineEnd = indexOfLineEnd(position);
+            if (lineEnd < 0) {
+                if (regionStart + region.limit() < fileSize) {
+                    if (position == 0) {
+                        throw new IllegalArgumentException("Bank statement line at byte " + regionStart + " is longer than " + regionSize + " bytes");
+                    }
+                    map(regionStart + position);
+                    continue;
+                }
+                lineEnd = region.limit();
+            }
+
+            int start = position;
+            int contentEnd = lineEnd > start && region.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            position = lineEnd + 1;
+            if (contentEnd > start) {
+                parseLine(start, contentEnd);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int epochDay() {
+        return epochDay;
+    }
+
+    public long amount() {
+        return amount;
+    }
+
+    public String description() {
+        if (descriptionBytes.length < descriptionLength) {
+            descriptionBytes = new byte[Math.max(descriptionLength, descriptionBytes.length * 2)];
+        }
+        for (int i = 0; i < descriptionLength; i++) {
+            descriptionBytes[i] = region.get(descriptionStart + i);
+        }
+        return new String(descriptionBytes, 0, descriptionLength, StandardCharsets.UTF_8);
+    }
+
+    // description 을 decode 하지 않고 UTF-8 byte 로 계산한 hash
+    public int descriptionHashCode() {
+        int hash = 1;
+        for (int i = 0; i < descriptionLength; i++) {
+            hash = 31 * hash + region.get(descriptionStart + i);
+        }
+        return hash;
+    }
+
+    // description 의 UTF-8 byte 가 utf8 과 같은지 decode 하지 않고 비교한다
+    public boolean descriptionEquals(byte[] utf8) {
+        if (utf8.length != descriptionLength) {
+            return false;
+        }
+        for (int i = 0; i < descriptionLength; i++) {
+            if (region.get(descriptionStart + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 현재 줄이 시작하는 파일 내 byte 위치
+    public long lineStart() {
+        return lineStart;
+    }
+
+    public BankTransaction toBankTransaction() {
+        return new BankTransaction(LocalDate.ofEpochDay(epochDay), amount, description());
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+
+    private void map(long offset) {
+        try {
+            long size = Math.min(regionSize, fileSize - offset);
+            region = channel.map(MapMode.READ_ONLY, offset, size);
+            regionStart = offset;
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int indexOfLineEnd(int from) {
+        int limit = region.limit();
+        for (int i = from; i < limit; i++) {
+            if (region.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parseLine(int start, int contentEnd) {
+        lineStart = regionStart + start;
+        if (contentEnd - start <= DATE_LENGTH || region.get(start + DATE_LENGTH) != ',') {
+            throw malformed("date");
+        }
+        epochDay = parseDate(start);
+
+        int amountStart = start + DATE_LENGTH + 1;
+        int amountEnd = indexOf(',', amountStart, contentEnd);
+        if (amountEnd < 0) {
+            throw malformed("amount");
+        }
+        amount = parseAmount(amountStart, amountEnd);
+
+        // split(",")[2] 와 같이 다음 ',' 앞까지만 description 으로 본다
+        descriptionStart = amountEnd + 1;
+        int descriptionEnd = indexOf(',', descriptionStart, contentEnd);
+        descriptionLength = (descriptionEnd < 0 ? contentEnd : descriptionEnd) - descriptionStart;
+    }
+
+    private int parseDate(int start) {
+        if (region.get(start + 2) != '-' || region.get(start + 5) != '-') {
+            throw malformed("date");
+        }
+        int day = digits(start, 2);
+        int month = digits(start + 3, 2);
+        int year = digits(start + 6, 4);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw malformed("date");
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private int digits(int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            int digit = region.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed("date");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private long parseAmount(int from, int to) {
+        boolean negative = region.get(from) == '-';
+        int i = negative || region.get(from) == '+' ? from + 1 : from;
+        if (i == to) {
+            throw malformed("amount");
+        }
+        // Long.MIN_VALUE 까지 표현하도록 음수로 누적한다
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = region.get(i) - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                throw malformed("amount");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw malformed("amount");
+        }
+        return negative ? value : -value;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (region.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private IllegalArgumentException malformed(String column) {
+        return new IllegalArgumentException("Malformed " + column + " in bank statement line at byte " + lineStart);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // LocalDate.toEpochDay 와 같은 계산 (연도는 0 이상)
+    private static int toEpochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+}
@@ -1,7 +1,9 @@
 package com.realword.ch3.factory;
 
+import static java.util.stream.Collectors.toList;
+
 import com.realword.ch3.BankTransaction;
-import java.io.BufferedReader;
+import com.realword.ch3.BankTransactionStore;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -9,27 +11,50 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 public class BankFileParser {
     private static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd-MM-yyyy");
     private BankFileParser() {}
     public static List<BankTransaction> parse(String filePath) {
-        List<BankTransaction> bankTransactions = new ArrayList<>();
+        try (Stream<BankTransaction> bankTransactions = stream(filePath)) {
+            return bankTransactions.collect(toList());
+        }
+    }
 
-        try (BufferedReader br = Files.newBufferedReader(Paths.get(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] splitString = line.split(",");
-                bankTransactions.add(parseFromCSV(splitString));
-            }
+    // 파일을 한 줄씩 읽으며 lazy 하게 parse 한다. 반환된 Stream 을 닫아야 파일이 닫힌다
+    public static Stream<BankTransaction> stream(String filePath) {
+        try {
+            return Files.lines(Paths.get(filePath))
+                    .map(line -> parseFromCSV(line.split(",")));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
 
+    // String.split / LocalDate.parse 없이 memory-map 한 파일의 byte 를 직접 읽는다
+    public static List<BankTransaction> parseMapped(String filePath) {
+        List<BankTransaction> bankTransactions = new ArrayList<>();
+        try (BankFileCursor cursor = BankFileCursor.open(Paths.get(filePath))) {
+            while (cursor.next()) {
+                bankTransactions.add(cursor.toBankTransaction());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
         return bankTransactions;
     }
 
+    // 거래내역을 객체 없이 금액/날짜/카테고리 열로 읽는다
+    public static BankTransactionStore parseColumnar(String filePath) {
+        try (BankFileCursor cursor = BankFileCursor.open(Paths.get(filePath))) {
+            return CategoryReader.read(cursor).build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static BankTransaction parseFromCSV(String[] splitString) {
         return new BankTransaction(getDate(splitString[0]), getAmount(splitString[1]), getDescription(splitString[2]));
     }
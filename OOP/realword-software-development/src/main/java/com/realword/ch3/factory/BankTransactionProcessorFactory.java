@@ -1,13 +1,37 @@
 package com.realword.ch3.factory;
 
 import com.realword.ch3.BankTransactionProcessor;
-import com.realword.ch3.BankTransaction;
-import java.util.List;
+import com.realword.ch3.BankTransactionStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 
 public class BankTransactionProcessorFactory {
+
     public static BankTransactionProcessor createWith(String filePath) {
-        List<BankTransaction> transactions = BankFileParser.parse(filePath);
-        return new BankTransactionProcessor(transactions);
+        return new BankTransactionProcessor(BankFileParser.parseColumnar(filePath));
+    }
+
+    // parallelParseThreshold 이상인 파일만 구간으로 나눠 여러 코어에서 parse 한다
+    // 효과가 나는 크기는 환경마다 다르므로 BankFileParserBenchmark 로 재어 본 값을 넘긴다
+    public static BankTransactionProcessor createWith(String filePath, long parallelParseThreshold) {
+        BankTransactionStore store = sizeOf(filePath) >= parallelParseThreshold
+                ? ParallelBankFileParser.parseColumnar(filePath)
+                : BankFileParser.parseColumnar(filePath);
+        return new BankTransactionProcessor(store);
+    }
+
+    // 거래내역을 메모리에 올리지 않고 계산할 때마다 파일을 한 번씩 읽는 processor
+    public static BankTransactionProcessor createStreamingWith(String filePath) {
+        return new BankTransactionProcessor(() -> BankFileParser.stream(filePath));
+    }
+
+    private static long sizeOf(String filePath) {
+        try {
+            return Files.size(Paths.get(filePath));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 }
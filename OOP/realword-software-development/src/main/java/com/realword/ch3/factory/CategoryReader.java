@@ -0,0 +1,69 @@
+package com.realword.ch3.factory;
+
+import com.realword.ch3.BankTransactionStore;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * cursor 의 줄을 {@link BankTransactionStore.Builder} 에 담는다.
+ *
+ * description 은 UTF-8 byte 그대로 open addressing 표에서 카테고리 번호를 찾고, 처음 보는 카테고리만 decode 한다.
+ */
+class CategoryReader {
+    private final BankTransactionStore.Builder builder = new BankTransactionStore.Builder();
+    private byte[][] keys = new byte[64][];
+    private int[] ids = new int[64];
+    private int count;
+
+    static BankTransactionStore.Builder read(BankFileCursor cursor) {
+        CategoryReader reader = new CategoryReader();
+        while (cursor.next()) {
+            reader.builder.add(cursor.epochDay(), cursor.amount(), reader.categoryIdOf(cursor));
+        }
+        return reader.builder;
+    }
+
+    private int categoryIdOf(BankFileCursor cursor) {
+        int mask = keys.length - 1;
+        int slot = cursor.descriptionHashCode() & mask;
+        while (keys[slot] != null) {
+            if (cursor.descriptionEquals(keys[slot])) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String category = cursor.description();
+        int id = builder.categoryId(category);
+        keys[slot] = category.getBytes(StandardCharsets.UTF_8);
+        ids[slot] = id;
+        if (++count * 2 > keys.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        byte[][] oldKeys = keys;
+        int[] oldIds = ids;
+        keys = new byte[oldKeys.length * 2][];
+        ids = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int slot = hashCodeOf(oldKeys[i]) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            ids[slot] = oldIds[i];
+        }
+    }
+
+    // BankFileCursor.descriptionHashCode 와 같은 계산
+    private static int hashCodeOf(byte[] utf8) {
+        return Arrays.hashCode(utf8);
+    }
+}
@@ -0,0 +1,134 @@
+package com.realword.ch3.factory;
+
+import com.realword.ch3.BankTransaction;
+import com.realword.ch3.BankTransactionStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * 거래내역 파일을 줄 경계에 맞춘 byte 구간으로 나눠 ForkJoinPool 에서 구간별로 parse 한다.
+ *
+ * 구간마다 {@link BankFileCursor} 로 읽어 부분 결과를 만들고, 앞 구간 결과에 뒤 구간 결과를 합치는 순서로만 merge 해
+ * 결과는 파일 순서를 유지한다. 부분 결과는 거래 목록이어도 되고 구간별 집계여도 된다.
+ */
+public class ParallelBankFileParser {
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelBankFileParser() {}
+
+    public static List<BankTransaction> parse(String filePath) {
+        return parse(filePath, ForkJoinPool.commonPool(), ParallelBankFileParser::toList, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    // 구간마다 열 단위로 읽고, 뒤 구간의 카테고리 번호를 앞 구간 사전 기준으로 다시 매겨 이어 붙인다
+    public static BankTransactionStore parseColumnar(String filePath) {
+        return parse(filePath, ForkJoinPool.commonPool(), CategoryReader::read, BankTransactionStore.Builder::addAll).build();
+    }
+
+    // chunkParser 는 구간 하나를 끝까지 읽어 부분 결과를 만들고, merge 는 (앞 구간, 뒤 구간) 순서로 호출된다
+    public static <R> R parse(String filePath, ForkJoinPool pool, Function<BankFileCursor, R> chunkParser, BinaryOperator<R> merge) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long chunkSize = Math.max(MIN_CHUNK_SIZE, channel.size() / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+            long[] boundaries = boundaries(channel, chunkSize);
+            return pool.invoke(new ChunkTask<>(channel, boundaries, 0, boundaries.length - 1, chunkParser, merge));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // chunkSize 간격의 위치를 각각 다음 줄의 시작으로 옮긴 구간 경계. 첫 값은 0, 마지막 값은 파일 크기
+    static long[] boundaries(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long next = chunkSize;
+        while (next < size) {
+            long lineStart = nextLineStart(channel, next, buffer);
+            if (lineStart >= size) {
+                break;
+            }
+            boundaries.add(lineStart);
+            next = lineStart + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // position 이 이미 줄의 시작이면 그대로, 아니면 다음 '\n' 바로 뒤 위치
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        long offset = position - 1;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private static List<BankTransaction> toList(BankFileCursor cursor) {
+        List<BankTransaction> bankTransactions = new ArrayList<>();
+        while (cursor.next()) {
+            bankTransactions.add(cursor.toBankTransaction());
+        }
+        return bankTransactions;
+    }
+
+    // ForkJoinTask 가 Serializable 이라 붙는 경고, 작업은 pool 안에서만 쓰고 직렬화하지 않는다
+    @SuppressWarnings("serial")
+    private static class ChunkTask<R> extends RecursiveTask<R> {
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+        private final Function<BankFileCursor, R> chunkParser;
+        private final BinaryOperator<R> merge;
+
+        ChunkTask(FileChannel channel, long[] boundaries, int from, int to, Function<BankFileCursor, R> chunkParser, BinaryOperator<R> merge) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+            this.chunkParser = chunkParser;
+            this.merge = merge;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from == 1) {
+                try (BankFileCursor cursor = BankFileCursor.open(channel, boundaries[from], boundaries[to])) {
+                    return chunkParser.apply(cursor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask<R> left = new ChunkTask<>(channel, boundaries, from, middle, chunkParser, merge);
+            ChunkTask<R> right = new ChunkTask<>(channel, boundaries, middle, to, chunkParser, merge);
+            left.fork();
+            R rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.realword.ch3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.realword.ch3.factory.BankTransactionProcessorFactory;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BankTransactionProcessorTest {
+
+    private static final String BANK_TEST_CSV = "src/test/resources/bank-test.csv";
+
+    @Test
+    void 파일을_스트리밍으로_읽어도_List_기반과_같은_결과() {
+        // given
+        BankTransactionProcessor streaming = BankTransactionProcessorFactory.createStreamingWith(BANK_TEST_CSV);
+        BankTransactionProcessor loaded = BankTransactionProcessorFactory.createWith(BANK_TEST_CSV);
+
+        // then
+        assertThat(streaming.totalDeposit()).isEqualTo(11000).isEqualTo(loaded.totalDeposit());
+        assertThat(streaming.totalWithdraw()).isEqualTo(-580).isEqualTo(loaded.totalWithdraw());
+        assertThat(streaming.calculateMonthOf(Month.JANUARY)).isEqualTo(-150).isEqualTo(loaded.calculateMonthOf(Month.JANUARY));
+        assertThat(streaming.calculateCategoryOf("Tesco")).isEqualTo(2950).isEqualTo(loaded.calculateCategoryOf("Tesco"));
+        assertThat(streaming.mostWithdrawCategory()).isEqualTo("Rent").isEqualTo(loaded.mostWithdrawCategory());
+        assertThat(streaming.orderedWithdrawListSizeOf(2)).isEqualTo(loaded.orderedWithdrawListSizeOf(2));
+    }
+
+    @Test
+    void 금액_상위_거래는_같은_금액이면_먼저_나온_순서를_유지() {
+        // given
+        BankTransaction first = new BankTransaction(LocalDate.of(2017, 1, 1), 100, "A");
+        BankTransaction second = new BankTransaction(LocalDate.of(2017, 1, 2), 100, "B");
+        BankTransaction largest = new BankTransaction(LocalDate.of(2017, 1, 3), 300, "C");
+        BankTransaction third = new BankTransaction(LocalDate.of(2017, 1, 4), 100, "D");
+        BankTransactionProcessor processor = new BankTransactionProcessor(List.of(first, second, largest, third));
+
+        // when
+        List<BankTransaction> top = processor.orderedWithdrawListSizeOf(3);
+
+        // then
+        assertThat(top).containsExactly(largest, first, second);
+        assertThat(top.get(0)).isSameAs(largest);
+        assertThat(processor.orderedWithdrawListSizeOf(0)).isEmpty();
+    }
+
+    @Test
+    void 계산할_때마다_받은_Stream을_닫는다() {
+        // given
+        AtomicInteger closed = new AtomicInteger();
+        BankTransaction transaction = new BankTransaction(LocalDate.of(2017, 1, 1), -100, "Rent");
+        BankTransactionProcessor processor = new BankTransactionProcessor(
+                () -> List.of(transaction).stream().onClose(closed::incrementAndGet));
+
+        // when
+        processor.totalAmount();
+        processor.mostWithdrawCategory();
+
+        // then
+        assertThat(closed.get()).isEqualTo(3);
+    }
+}
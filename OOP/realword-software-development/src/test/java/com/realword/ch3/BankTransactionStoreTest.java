@@ -0,0 +1,91 @@
+package com.realword.ch3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.realword.ch3.factory.BankFileParser;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BankTransactionStoreTest {
+
+    private static final String BANK_TEST_CSV = "src/test/resources/bank-test.csv";
+
+    @Test
+    void 열_단위로_읽어도_List_기반과_같은_결과() {
+        // given
+        BankTransactionStore store = BankFileParser.parseColumnar(BANK_TEST_CSV);
+        BankTransactionProcessor columnar = new BankTransactionProcessor(store);
+        BankTransactionProcessor streaming = new BankTransactionProcessor(() -> BankFileParser.stream(BANK_TEST_CSV));
+
+        // then
+        assertThat(store.size()).isEqualTo(BankFileParser.parse(BANK_TEST_CSV).size());
+        assertThat(columnar.totalDeposit()).isEqualTo(streaming.totalDeposit());
+        assertThat(columnar.totalWithdraw()).isEqualTo(streaming.totalWithdraw());
+        for (Month month : Month.values()) {
+            assertThat(columnar.calculateMonthOf(month)).isEqualTo(streaming.calculateMonthOf(month));
+        }
+        assertThat(columnar.calculateCategoryOf("Tesco")).isEqualTo(streaming.calculateCategoryOf("Tesco"));
+        assertThat(columnar.calculateCategoryOf("없는 카테고리")).isZero();
+        assertThat(columnar.mostWithdrawCategory()).isEqualTo(streaming.mostWithdrawCategory());
+        assertThat(columnar.orderedWithdrawListSizeOf(3)).isEqualTo(streaming.orderedWithdrawListSizeOf(3));
+    }
+
+    @Test
+    void 이어_붙이면_뒤쪽_카테고리_번호를_앞쪽_사전_기준으로_다시_매긴다() {
+        // given
+        BankTransactionStore.Builder left = new BankTransactionStore.Builder()
+                .add(epochDayOf(2017, 1, 30), -50, "Rent")
+                .add(epochDayOf(2017, 2, 1), 300, "Salary");
+        BankTransactionStore.Builder right = new BankTransactionStore.Builder()
+                .add(epochDayOf(2017, 2, 2), 200, "Salary")
+                .add(epochDayOf(2017, 3, 3), -70, "Tesco")
+                .add(epochDayOf(2017, 3, 4), -30, "Rent");
+
+        // when
+        BankTransactionStore store = left.addAll(right).build();
+
+        // then
+        assertThat(store.size()).isEqualTo(5);
+        assertThat(store.categoryCount()).isEqualTo(3);
+        assertThat(store.toBankTransaction(2)).isEqualTo(new BankTransaction(LocalDate.of(2017, 2, 2), 200, "Salary"));
+        assertThat(store.monthValueAt(0)).isEqualTo(1);
+        assertThat(store.monthValueAt(4)).isEqualTo(3);
+        BankTransactionProcessor processor = new BankTransactionProcessor(store);
+        assertThat(processor.calculateCategoryOf("Salary")).isEqualTo(500);
+        assertThat(processor.calculateMonthOf(Month.MARCH)).isEqualTo(-100);
+        assertThat(processor.mostWithdrawCategory()).isEqualTo("Rent");
+    }
+
+    @Test
+    void 합계가_같은_카테고리는_열_단위와_Stream_모두_먼저_나온_카테고리를_고른다() {
+        // given
+        List<BankTransaction> transactions = List.of(
+                new BankTransaction(LocalDate.of(2017, 1, 1), -100, "Tesco"),
+                new BankTransaction(LocalDate.of(2017, 1, 2), -100, "Rent"),
+                new BankTransaction(LocalDate.of(2017, 1, 3), 50, "Salary"));
+
+        // then
+        assertThat(new BankTransactionProcessor(BankTransactionStore.of(transactions)).mostWithdrawCategory()).isEqualTo("Tesco");
+        assertThat(new BankTransactionProcessor(transactions).mostWithdrawCategory()).isEqualTo("Tesco");
+    }
+
+    @Test
+    void 사전에_없는_카테고리_번호로는_추가할_수_없다() {
+        // given
+        BankTransactionStore.Builder builder = new BankTransactionStore.Builder().add(epochDayOf(2017, 1, 30), -50, "Rent");
+
+        // then
+        assertThatThrownBy(() -> builder.add(epochDayOf(2017, 1, 31), -10, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.add(epochDayOf(2017, 1, 31), -10, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(builder.build().size()).isEqualTo(1);
+    }
+
+    private static int epochDayOf(int year, int month, int day) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+}
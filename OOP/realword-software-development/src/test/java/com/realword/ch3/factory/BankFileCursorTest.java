@@ -0,0 +1,72 @@
+package com.realword.ch3.factory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BankFileCursorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void memory_map_파싱_결과는_기존_파서와_같다() {
+        // given
+        String filePath = "src/test/resources/bank-test.csv";
+
+        // then
+        assertThat(BankFileParser.parseMapped(filePath)).isEqualTo(BankFileParser.parse(filePath));
+    }
+
+    @Test
+    void CRLF_빈줄_region_경계에_걸친_줄을_읽는다() throws IOException {
+        // given
+        Path file = write("29-02-2016,-9223372036854775808,편의점\r\n\r\n31-12-1999,+42,Salary,extra\r\n01-01-2000,7,Rent");
+        List<String> rows = new ArrayList<>();
+
+        // when
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BankFileCursor cursor = new BankFileCursor(channel, false, 0, channel.size(), 48)) {
+            while (cursor.next()) {
+                rows.add(LocalDate.ofEpochDay(cursor.epochDay()) + "|" + cursor.amount() + "|" + cursor.description());
+            }
+        }
+
+        // then
+        assertThat(rows).containsExactly(
+                "2016-02-29|-9223372036854775808|편의점",
+                "1999-12-31|42|Salary",
+                "2000-01-01|7|Rent");
+    }
+
+    @Test
+    void 잘못된_날짜나_금액은_줄_위치와_함께_실패한다() throws IOException {
+        // given
+        Path invalidDate = write("30-01-2017,-100,Deliveroo\n29-02-2017,-50,Tesco\n");
+        Path invalidAmount = write("30-01-2017,1O0,Deliveroo\n");
+
+        // then
+        assertThatThrownBy(() -> BankFileParser.parseMapped(invalidDate.toString()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("date")
+                .hasMessageContaining("byte 26");
+        assertThatThrownBy(() -> BankFileParser.parseMapped(invalidAmount.toString()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("amount");
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, "bank", ".csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
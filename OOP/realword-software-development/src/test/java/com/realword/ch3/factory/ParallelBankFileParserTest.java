@@ -0,0 +1,85 @@
+package com.realword.ch3.factory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.realword.ch3.BankTransaction;
+import com.realword.ch3.BankTransactionProcessor;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelBankFileParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void 구간_경계는_항상_줄의_시작이다() throws IOException {
+        // given
+        Path file = write("30-01-2017,-100,Deliveroo\n30-01-2017,-50,Tesco\n01-02-2017,6000,Salary\n");
+
+        // when
+        long[] boundaries;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boundaries = ParallelBankFileParser.boundaries(channel, 10);
+        }
+
+        // then
+        assertThat(boundaries).containsExactly(0, 26, 47, 70);
+    }
+
+    @Test
+    void 여러_구간으로_나눠_parse_해도_파일_순서를_유지한다() throws IOException {
+        // given
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append(String.format("%02d-%02d-2017,%d,Category%d%n", 1 + i % 28, 1 + i % 12, i - 100_000, i % 7));
+        }
+        Path file = write(content.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // when
+        List<BankTransaction> parsed = ParallelBankFileParser.parse(file.toString(), pool, cursor -> {
+            List<BankTransaction> chunk = new ArrayList<>();
+            while (cursor.next()) {
+                chunk.add(cursor.toBankTransaction());
+            }
+            return chunk;
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+        pool.shutdown();
+
+        // then
+        assertThat(parsed).isEqualTo(BankFileParser.parse(file.toString()));
+    }
+
+    @Test
+    void 임계값_이상의_파일은_병렬로_읽어_같은_processor를_만든다() {
+        // given
+        String filePath = "src/test/resources/bank-test.csv";
+
+        // when
+        BankTransactionProcessor parallel = BankTransactionProcessorFactory.createWith(filePath, 0);
+        BankTransactionProcessor sequential = BankTransactionProcessorFactory.createWith(filePath);
+
+        // then
+        assertThat(parallel.totalAmount()).isEqualTo(sequential.totalAmount());
+        assertThat(parallel.calculateMonthOf(Month.FEBRUARY)).isEqualTo(sequential.calculateMonthOf(Month.FEBRUARY));
+        assertThat(parallel.orderedWithdrawListSizeOf(7)).isEqualTo(sequential.orderedWithdrawListSizeOf(7));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, "bank", ".csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
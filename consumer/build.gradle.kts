@@ -5,6 +5,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7" apply false
     kotlin("plugin.jpa") version "1.9.25" apply false
     id("com.github.davidmc24.gradle.plugin.avro") version "1.9.1" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
 }
 
 allprojects {
@@ -25,6 +26,7 @@ subprojects {
     apply(plugin = "org.springframework.boot")
     apply(plugin = "io.spring.dependency-management")
     apply(plugin = "org.jetbrains.kotlin.plugin.jpa")
+    apply(plugin = "me.champeau.jmh")
     
     configure<JavaPluginExtension> {
         toolchain {
@@ -38,14 +40,17 @@ subprojects {
         val runtimeOnly by configurations
         val testImplementation by configurations
         val testRuntimeOnly by configurations
+        val jmh by configurations
         
         implementation("org.springframework.boot:spring-boot-starter-data-jpa")
         implementation("org.jetbrains.kotlin:kotlin-reflect")
         implementation("org.springframework.kafka:spring-kafka")
         implementation("org.apache.avro:avro:1.11.3")
         implementation("io.confluent:kafka-avro-serializer:7.5.0")
+        implementation("org.springframework.boot:spring-boot-starter-actuator")
         developmentOnly("org.springframework.boot:spring-boot-docker-compose")
         runtimeOnly("com.mysql:mysql-connector-j")
+        runtimeOnly("io.micrometer:micrometer-registry-prometheus")
         testImplementation("org.springframework.boot:spring-boot-starter-test")
         testImplementation("org.jetbrains.kotlin:kotlin-test-junit5")
         testImplementation("org.springframework.kafka:spring-kafka-test")
@@ -53,6 +58,7 @@ subprojects {
         testImplementation("org.awaitility:awaitility:4.2.0")
         testImplementation("org.mockito.kotlin:mockito-kotlin:5.4.0")
         testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        jmh("com.h2database:h2")
     }
     
     configure<org.jetbrains.kotlin.gradle.dsl.KotlinJvmProjectExtension> {
@@ -64,7 +70,99 @@ subprojects {
     tasks.withType<Test> {
         useJUnitPlatform()
     }
-    
+
+    // ./gradlew :<module>:jmh  (결과: build/results/jmh/results.json, ops/s + gc.alloc.rate)
+    configure<me.champeau.jmh.JmhParameters> {
+        warmupIterations.set(2)
+        iterations.set(3)
+        fork.set(1)
+        profilers.add("gc")
+        resultFormat.set("JSON")
+        zip64.set(true) // Spring Boot 의존성까지 포함된 jmhJar 는 엔트리가 65535 개를 넘는다
+    }
+
+    // ./gradlew :<module>:loadTest -PloadTest.messages=2000000 -PloadTest.duplicateRatio=0.2 [--args='--spring.kafka...']
+    // EmbeddedKafka + H2(MySQL 모드) 위에서 애플리케이션 전체를 띄워 end-to-end 처리량 / 지연을 측정 (Docker, 네트워크 불필요)
+    val sourceSets = the<SourceSetContainer>()
+    val loadTestSourceSet = sourceSets.create("loadTest") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+    // 두 구현을 같은 워크로드와 리포트 형식으로 비교하도록 발행 / 측정 코드는 loadtest/ 하나를 함께 컴파일한다
+    configure<org.jetbrains.kotlin.gradle.dsl.KotlinJvmProjectExtension> {
+        this.sourceSets["loadTest"].kotlin.srcDir(rootProject.file("loadtest/src/kotlin"))
+    }
+    configurations["loadTestImplementation"].extendsFrom(configurations["testImplementation"])
+    configurations["loadTestRuntimeOnly"].extendsFrom(configurations["testRuntimeOnly"])
+
+    tasks.register<JavaExec>("loadTest") {
+        group = "verification"
+        description = "Runs the embedded end-to-end load test and prints records/s, produce-to-upsert latency and row counts."
+        classpath = loadTestSourceSet.runtimeClasspath
+        maxHeapSize = "2g"
+        listOf("messages", "duplicateRatio", "avroRatio", "partitions", "timeoutSeconds").forEach { key ->
+            project.findProperty("loadTest.$key")?.let { systemProperty("loadTest.$key", it) }
+        }
+    }
+
+    // Spring AOT: ./gradlew :<module>:bootJar -Paot 로 빌드하면 processAot 가 만든 빈 정의 코드가 bootJar 에 포함되고,
+    // -Dspring.aot.enabled=true 로 실행할 때만 사용된다. @ConditionalOnProperty / @Profile 은 빌드 시점 기본 설정으로 고정되므로
+    // purge / backfill / sharding 처럼 빈 구성이 달라지는 모드는 -Dspring.aot.enabled 없이 실행한다.
+    val aot = project.hasProperty("aot")
+    if (aot) {
+        apply(plugin = "org.springframework.boot.aot")
+    }
+
+    // ./gradlew :<module>:cdsArchive [-Paot]
+    // bootJar 를 build/cds 에 풀고(-Djarmode=tools extract) cds-training 프로파일로 컨텍스트 refresh 까지만 띄워
+    // 로드된 클래스(Hibernate 메타모델, Avro / JSON 디코딩 경로 포함)를 build/cds/application.jsa 에 덤프한다.
+    // 실행: java -XX:SharedArchiveFile=build/cds/application.jsa [-Dspring.aot.enabled=true] -jar build/cds/<module>-<version>.jar
+    // 로그의 "Startup timing:" 줄(ready / first record consumed)로 기동 방식별 시간을 비교한다.
+    val javaLauncher = the<JavaToolchainService>().launcherFor {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+    val bootJarFile = tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar")
+        .flatMap { it.archiveFile }
+    val cdsDir = layout.buildDirectory.dir("cds")
+
+    val extractBootJar = tasks.register<Exec>("extractBootJar") {
+        group = "build"
+        description = "Extracts the boot jar into build/cds (application jar + lib/) so it can be used with a CDS archive."
+        inputs.file(bootJarFile)
+        outputs.dir(cdsDir)
+        doFirst {
+            executable = javaLauncher.get().executablePath.asFile.absolutePath
+            args(
+                "-Djarmode=tools", "-jar", bootJarFile.get().asFile.absolutePath,
+                "extract", "--force", "--destination", cdsDir.get().asFile.absolutePath
+            )
+        }
+    }
+
+    tasks.register<Exec>("cdsArchive") {
+        group = "build"
+        description = "Runs a training start of the extracted boot jar and dumps the loaded classes to build/cds/application.jsa."
+        dependsOn(extractBootJar)
+        inputs.file(bootJarFile)
+        inputs.property("aot", aot)
+        outputs.file(cdsDir.map { it.file("application.jsa") })
+        doFirst {
+            val dir = cdsDir.get().asFile
+            // JVM 이 읽기 전용으로 만든 이전 아카이브는 덮어쓰지 못한다
+            dir.resolve("application.jsa").delete()
+            executable = javaLauncher.get().executablePath.asFile.absolutePath
+            args(
+                listOfNotNull(
+                    "-XX:ArchiveClassesAtExit=${dir.resolve("application.jsa").absolutePath}",
+                    "-Dspring.context.exit=onRefresh",
+                    "-Dspring.profiles.active=cds-training",
+                    if (aot) "-Dspring.aot.enabled=true" else null,
+                    "-jar", dir.resolve(bootJarFile.get().asFile.name).absolutePath
+                )
+            )
+        }
+    }
+
     tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
         enabled = false
     }
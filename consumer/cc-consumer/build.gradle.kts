@@ -47,13 +47,17 @@ tasks.withType<Test> {
 tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
     enabled = true
     archiveClassifier = ""
-    mainClass.set("com.consumer.cconsumer.CcConsumerApplication")
+    mainClass.set("com.consumer.cconsumer.CcConsumerApplicationKt")
 }
 
 tasks.named<Jar>("jar") {
     enabled = false
 }
 
+tasks.named<JavaExec>("loadTest") {
+    mainClass.set("com.consumer.cconsumer.loadtest.CcConsumerLoadTestKt")
+}
+
 avro {
     stringType.set("String")
 }
@@ -63,5 +67,9 @@ sourceSets {
         java {
             srcDirs("build/generated-main-avro-java")
         }
+        // LocalAvroSchemaStore 가 번들 스키마로 읽을 수 있도록 .avsc 를 classpath 에 포함
+        resources {
+            srcDir("src/main/avro")
+        }
     }
 }
\ No newline at end of file
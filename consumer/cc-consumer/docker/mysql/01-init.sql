@@ -41,10 +41,25 @@ CREATE TABLE IF NOT EXISTS PAY_TERMINATE_USER (
     INDEX idx_pay_created_at (created_at)
 ) COMMENT '페이데이터 파기 대상자';
 
+-- 컨슈머 그룹의 topic-partition 별 마지막 적용 offset (파기 대상자 적재와 같은 트랜잭션에서 기록)
+CREATE TABLE IF NOT EXISTS CONSUMER_OFFSET (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    consumer_group VARCHAR(255) NOT NULL COMMENT '컨슈머 그룹',
+    topic VARCHAR(255) NOT NULL COMMENT '토픽',
+    partition_no INT NOT NULL COMMENT '파티션',
+    last_offset BIGINT NOT NULL COMMENT '마지막 적용 offset',
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '생성 시각',
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6) COMMENT '수정 시각',
+    PRIMARY KEY (id),
+    UNIQUE KEY uq_consumer_offset_group_topic_partition (consumer_group, topic, partition_no)
+) COMMENT '컨슈머 적용 offset';
+
 -- 초기 데이터 확인을 위한 쿼리 (로그 출력)
 SELECT 'MYDATA_TERMINATE_USER table created successfully' as status;
 SELECT 'PAY_TERMINATE_USER table created successfully' as status;
+SELECT 'CONSUMER_OFFSET table created successfully' as status;
 
 -- 테이블 구조 확인
 DESCRIBE MYDATA_TERMINATE_USER;
-DESCRIBE PAY_TERMINATE_USER;
\ No newline at end of file
+DESCRIBE PAY_TERMINATE_USER;
+DESCRIBE CONSUMER_OFFSET;
\ No newline at end of file
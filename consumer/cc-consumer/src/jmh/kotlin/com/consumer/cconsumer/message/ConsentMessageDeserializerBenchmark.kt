@@ -0,0 +1,61 @@
+package com.consumer.cconsumer.message
+
+import com.consumer.cconsumer.message.model.ConsentMessage
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.springframework.kafka.support.serializer.JsonDeserializer
+import java.util.concurrent.TimeUnit
+
+/**
+ * jsonConsumerFactory 의 두 value deserializer 처리량/할당량 측정.
+ * JsonDeserializer<ConsentMessage> 와 is_remove 를 먼저 확인하는 ConsentMessagePrefilterDeserializer 를 비교한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class ConsentMessageDeserializerBenchmark {
+
+    private lateinit var deserializer: JsonDeserializer<ConsentMessage>
+    private lateinit var prefilterDeserializer: ConsentMessagePrefilterDeserializer
+    private lateinit var removePayload: ByteArray
+    private lateinit var keepPayload: ByteArray
+
+    @Setup
+    fun setUp() {
+        deserializer = JsonDeserializer(ConsentMessage::class.java)
+        prefilterDeserializer = ConsentMessagePrefilterDeserializer()
+        removePayload = payload(payAccountId = 912_345_678L, isRemove = true)
+        keepPayload = payload(payAccountId = 912_345_679L, isRemove = false)
+    }
+
+    @TearDown
+    fun tearDown() {
+        deserializer.close()
+    }
+
+    @Benchmark
+    fun removeMessage(): Long = deserializer.deserialize(TOPIC, removePayload)!!.data.payAccountId
+
+    @Benchmark
+    fun nonRemoveMessage(): Long = deserializer.deserialize(TOPIC, keepPayload)!!.data.payAccountId
+
+    @Benchmark
+    fun prefilterRemoveMessage(): Long = prefilterDeserializer.deserialize(TOPIC, removePayload)!!.data.payAccountId
+
+    @Benchmark
+    fun prefilterNonRemoveMessage(): Long = prefilterDeserializer.deserialize(TOPIC, keepPayload)!!.data.payAccountId
+
+    private fun payload(payAccountId: Long, isRemove: Boolean): ByteArray =
+        """{"data":{"delete_event_type":"USER_CONSENT_WITHDRAWN","pay_account_id":$payAccountId,"is_remove":$isRemove,"is_force":false},"type":"CONSENT_EVENT"}"""
+            .toByteArray()
+
+    companion object {
+        private const val TOPIC = "mydata.consent.v1"
+    }
+}
@@ -0,0 +1,67 @@
+package com.consumer.cconsumer.message
+
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import io.confluent.kafka.serializers.KafkaAvroDeserializer
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig
+import io.confluent.kafka.serializers.KafkaAvroSerializer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.util.concurrent.TimeUnit
+
+/**
+ * avroConsumerFactory 와 같은 설정(specific reader)의 KafkaAvroDeserializer 처리량/할당량 측정.
+ * mock:// 스킴을 쓰면 직렬화기/역직렬화기가 같은 in-memory 스키마 레지스트리를 공유한다.
+ * localSchemaRecord 는 같은 payload 를 레지스트리 없이 LocalSchemaAvroDeserializer 로 읽는다 (mock 레지스트리의 첫 schema id 는 1).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class PayAccountDeletedAvroDeserializerBenchmark {
+
+    private lateinit var deserializer: KafkaAvroDeserializer
+    private lateinit var localSchemaDeserializer: LocalSchemaAvroDeserializer
+    private lateinit var payload: ByteArray
+
+    @Setup
+    fun setUp() {
+        val config = mapOf(
+            KafkaAvroDeserializerConfig.SCHEMA_REGISTRY_URL_CONFIG to SCHEMA_REGISTRY_URL,
+            KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG to true
+        )
+        val envelope = PayAccountDeletedEnvelop.newBuilder()
+            .setUuid("6517f633-eee3-4e3f-bd05-15cf98b26068")
+            .setOccurredAt(1_725_000_000_000L)
+            .setPayAccountId(912_345_678L)
+            .setReason("CUSTOMER_REQUEST")
+            .build()
+
+        payload = KafkaAvroSerializer().use { serializer ->
+            serializer.configure(config, false)
+            serializer.serialize(TOPIC, envelope)
+        }
+        deserializer = KafkaAvroDeserializer().apply { configure(config, false) }
+        localSchemaDeserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(listOf(1), null, null))
+    }
+
+    @TearDown
+    fun tearDown() {
+        deserializer.close()
+    }
+
+    @Benchmark
+    fun specificRecord(): Long = (deserializer.deserialize(TOPIC, payload) as PayAccountDeletedEnvelop).payAccountId
+
+    @Benchmark
+    fun localSchemaRecord(): Long = localSchemaDeserializer.deserialize(TOPIC, payload)!!.payAccountId
+
+    companion object {
+        private const val TOPIC = "pay-account.payaccount-deleted.v2"
+        private const val SCHEMA_REGISTRY_URL = "mock://cc-consumer-benchmark"
+    }
+}
@@ -0,0 +1,99 @@
+package com.consumer.cconsumer.service
+
+import com.consumer.cconsumer.CcConsumerApplication
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.springframework.boot.builder.SpringApplicationBuilder
+import org.springframework.context.ConfigurableApplicationContext
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 트랜잭션 + JPA + PENDING 캐시를 포함한 processTermination 전체 경로를 H2(MySQL 모드)에 대해 측정.
+ * Kafka 리스너는 lazy-initialization 으로 생성되지 않으므로 브로커 없이 실행된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class TerminationServiceBenchmark {
+
+    @Param("true", "false")
+    var cacheEnabled: Boolean = true
+
+    private lateinit var context: ConfigurableApplicationContext
+    private lateinit var mydataTerminateService: MydataTerminateService
+    private lateinit var payTerminateService: PayTerminateService
+    private val payAccountIds = AtomicLong()
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        context = SpringApplicationBuilder(CcConsumerApplication::class.java).run(
+            "--spring.profiles.active=benchmark",
+            "--spring.main.web-application-type=none",
+            "--spring.main.lazy-initialization=true",
+            "--spring.main.banner-mode=off",
+            "--spring.kafka.enabled=false",
+            "--spring.datasource.url=jdbc:h2:mem:cc-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--logging.level.com.consumer.cconsumer=WARN",
+            "--termination.cache.enabled=$cacheEnabled"
+        )
+        mydataTerminateService = context.getBean(MydataTerminateService::class.java)
+        payTerminateService = context.getBean(PayTerminateService::class.java)
+
+        mydataTerminateService.processTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+        payTerminateService.processTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        context.close()
+    }
+
+    @Benchmark
+    fun mydataNewTermination() {
+        mydataTerminateService.processTermination(payAccountIds.incrementAndGet(), REASON)
+    }
+
+    @Benchmark
+    fun mydataDuplicateTermination() {
+        mydataTerminateService.processTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    @Benchmark
+    fun payNewTermination() {
+        payTerminateService.processTermination(payAccountIds.incrementAndGet(), REASON)
+    }
+
+    @Benchmark
+    fun payDuplicateTermination() {
+        payTerminateService.processTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    // max.poll.records(500) 한 번 분량을 배치 리스너 경로로 처리, ops/s × 500 이 건 단위 처리량
+    @Benchmark
+    fun payPollBatchTerminations() {
+        payTerminateService.processTerminations(
+            List(POLL_BATCH_SIZE) { TerminationTarget(payAccountIds.incrementAndGet(), REASON) }
+        )
+    }
+
+    companion object {
+        private const val DUPLICATE_PAY_ACCOUNT_ID = -1L
+        private const val POLL_BATCH_SIZE = 500
+        private const val REASON = "USER_CONSENT_WITHDRAWN"
+    }
+}
@@ -0,0 +1,128 @@
+package com.consumer.cconsumer.loadtest
+
+import com.consumer.cconsumer.CcConsumerApplication
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import com.consumer.loadtest.LoadTestReport
+import com.consumer.loadtest.LoadTestSettings
+import com.consumer.loadtest.LoadTestWorkload
+import com.consumer.loadtest.LoadTestWorkload.Companion.CONSENT_TOPIC
+import com.consumer.loadtest.LoadTestWorkload.Companion.PAY_ACCOUNT_DELETED_TOPIC
+import com.consumer.loadtest.awaitConsumed
+import com.consumer.loadtest.countRows
+import com.consumer.loadtest.produceToUpsertLatencies
+import io.confluent.kafka.serializers.KafkaAvroSerializer
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig
+import org.apache.kafka.clients.admin.Admin
+import org.apache.kafka.clients.admin.AdminClientConfig
+import org.apache.kafka.clients.producer.KafkaProducer
+import org.apache.kafka.clients.producer.ProducerConfig
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.serialization.ByteArraySerializer
+import org.apache.kafka.common.serialization.StringSerializer
+import org.springframework.boot.builder.SpringApplicationBuilder
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry
+import org.springframework.kafka.listener.MessageListenerContainer
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker
+import org.springframework.kafka.test.utils.ContainerTestUtils
+import java.time.Duration
+
+/**
+ * cc-consumer end-to-end 부하 테스트. ./gradlew :cc-consumer:loadTest 로 실행한다.
+ *
+ * EmbeddedKafka 와 H2(MySQL 모드) 위에 애플리케이션 전체를 띄우고 JSON / Confluent Avro 메시지를 섞어 발행한 뒤,
+ * 컨슈머 그룹 lag 이 0 이 될 때까지의 처리량, 발행 -> upsert 지연(p50/p99), 테이블 row 수를 출력한다.
+ * 발행 측은 mock:// in-memory 레지스트리로 직렬화하고, 애플리케이션은 번들 스키마를 seed id 로 등록한 로컬 스키마 캐시로 읽는다.
+ * 프로그램 인자는 애플리케이션 설정으로 전달된다 (예: --args='--spring.kafka.consent.parallel=true').
+ */
+fun main(args: Array<String>) {
+    val settings = LoadTestSettings.fromSystemProperties()
+    val broker = EmbeddedKafkaZKBroker(1, true, settings.partitions, CONSENT_TOPIC, PAY_ACCOUNT_DELETED_TOPIC)
+    broker.afterPropertiesSet()
+
+    try {
+        SpringApplicationBuilder(CcConsumerApplication::class.java).run(
+            "--spring.profiles.active=loadtest",
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--spring.kafka.consumer.bootstrap-servers=${broker.brokersAsString}",
+            "--spring.kafka.schema-registry.url=$SCHEMA_REGISTRY_URL",
+            // mock 레지스트리는 처음 등록한 스키마에 id 1 을 준다
+            "--spring.kafka.avro.local-schema.enabled=true",
+            "--spring.kafka.avro.local-schema.seed-ids=1",
+            "--spring.datasource.url=jdbc:h2:mem:cc-load-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            *args
+        ).use { context ->
+            context.getBean(KafkaListenerEndpointRegistry::class.java).listenerContainers
+                .filter { it.listensTo(CONSENT_TOPIC) || it.listensTo(PAY_ACCOUNT_DELETED_TOPIC) }
+                .forEach { ContainerTestUtils.waitForAssignment(it, settings.partitions) }
+
+            val workload = KafkaAvroSerializer().use { serializer ->
+                serializer.configure(
+                    mapOf(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG to SCHEMA_REGISTRY_URL),
+                    false
+                )
+                LoadTestWorkload(settings, { payAccountId ->
+                    serializer.serialize(PAY_ACCOUNT_DELETED_TOPIC, payAccountDeleted(payAccountId))
+                }).also { workload ->
+                    KafkaProducer<String, ByteArray>(producerProperties(broker.brokersAsString)).use {
+                        workload.produce(it)
+                    }
+                }
+            }
+            val producedAtMillis = System.currentTimeMillis()
+
+            val groupId = context.environment.getRequiredProperty("spring.kafka.consumer.group-id")
+            val partitions = listOf(CONSENT_TOPIC, PAY_ACCOUNT_DELETED_TOPIC)
+                .flatMap { topic -> (0 until settings.partitions).map { TopicPartition(topic, it) } }
+            val consumedAtMillis = Admin.create(
+                mapOf<String, Any>(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG to broker.brokersAsString)
+            ).use { awaitConsumed(it, groupId, partitions, Duration.ofSeconds(settings.timeoutSeconds)) }
+
+            val jdbcTemplate = context.getBean(JdbcTemplate::class.java)
+            val tables = mapOf(MYDATA_TABLE to workload.consent, PAY_TABLE to workload.payAccountDeleted)
+            val latencies = tables.map { (table, topic) -> produceToUpsertLatencies(jdbcTemplate, table, topic) }
+                .reduce(LongArray::plus)
+            val rows = tables.mapValues { (table, topic) -> countRows(jdbcTemplate, table) to topic.uniquePayAccountIds }
+
+            LoadTestReport("cc-consumer", settings, workload)
+                .print(workload.startedAtMillis, producedAtMillis, consumedAtMillis, latencies, rows)
+            check(rows.values.all { (actual, expected) -> actual == expected.toLong() }) {
+                "Row counts do not match the number of unique payAccountIds: $rows"
+            }
+        }
+    } finally {
+        broker.destroy()
+    }
+}
+
+private fun MessageListenerContainer.listensTo(topic: String): Boolean =
+    containerProperties.topics?.contains(topic) == true
+
+private fun producerProperties(bootstrapServers: String): Map<String, Any> = mapOf(
+    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG to bootstrapServers,
+    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG to StringSerializer::class.java,
+    ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG to ByteArraySerializer::class.java,
+    ProducerConfig.ACKS_CONFIG to "1",
+    ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG to false,
+    ProducerConfig.LINGER_MS_CONFIG to 5,
+    ProducerConfig.BATCH_SIZE_CONFIG to 128 * 1024
+)
+
+private fun payAccountDeleted(payAccountId: Long): PayAccountDeletedEnvelop =
+    PayAccountDeletedEnvelop.newBuilder()
+        .setUuid("load-test-$payAccountId")
+        .setOccurredAt(System.currentTimeMillis())
+        .setPayAccountId(payAccountId)
+        .setReason("CUSTOMER_REQUEST")
+        .build()
+
+private const val SCHEMA_REGISTRY_URL = "mock://cc-consumer-load-test"
+private const val MYDATA_TABLE = "MYDATA_TERMINATE_USER"
+private const val PAY_TABLE = "PAY_TERMINATE_USER"
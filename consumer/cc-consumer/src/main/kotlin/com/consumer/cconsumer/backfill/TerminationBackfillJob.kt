@@ -0,0 +1,124 @@
+package com.consumer.cconsumer.backfill
+
+import com.consumer.cconsumer.backfill.TerminationDumpReader.DumpFormat
+import com.consumer.cconsumer.backfill.TerminationDumpReader.DumpSource
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import com.consumer.cconsumer.service.PayTerminateService
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Component
+import java.nio.file.Path
+
+/**
+ * 토픽 덤프 파일(Avro container / JSONL)에서 파기 대상자를 읽어 서비스 bulk 경로(multi-row upsert)로 적재하는 오프라인 백필.
+ *
+ * 새 환경 구성 시 수개월치 토픽을 Kafka + 레코드 단위 처리로 재생하는 대신 사용한다.
+ * 덤프를 스트리밍으로 읽으며 batchSize 건이 모일 때마다 processTerminations 로 넘기므로 메모리 사용량은 batchSize 에 비례하고,
+ * 기존 PENDING 은 건너뛰므로 같은 덤프를 다시 적재해도 결과가 같다.
+ */
+@Component
+class TerminationBackfillJob(
+    private val mydataTerminateService: MydataTerminateService,
+    private val payTerminateService: PayTerminateService,
+    private val terminationMetrics: TerminationMetrics,
+    @Value("\${termination.backfill.mydata.path:}")
+    private val mydataPath: String,
+    @Value("\${termination.backfill.mydata.format:}")
+    private val mydataFormat: String,
+    @Value("\${termination.backfill.pay.path:}")
+    private val payPath: String,
+    @Value("\${termination.backfill.pay.format:}")
+    private val payFormat: String,
+    // 서비스 bulk 적재 1회(한 트랜잭션)에 넘기는 건수, 실제 INSERT 는 termination.bulk.batch-size 단위로 나뉜다
+    @Value("\${termination.backfill.batch-size:5000}")
+    private val batchSize: Int,
+    @Value("\${termination.backfill.progress-interval:100000}")
+    private val progressInterval: Long
+) {
+    private val logger = LoggerFactory.getLogger(TerminationBackfillJob::class.java)
+    private val reader = TerminationDumpReader()
+
+    fun run(): List<BackfillResult> {
+        require(batchSize > 0) { "termination.backfill.batch-size must be positive but was $batchSize" }
+        require(progressInterval > 0) { "termination.backfill.progress-interval must be positive but was $progressInterval" }
+
+        val dumps = listOf(
+            Triple(DumpSource.MYDATA, mydataPath, mydataFormat),
+            Triple(DumpSource.PAY, payPath, payFormat)
+        ).filter { (_, path, _) -> path.isNotBlank() }
+        if (dumps.isEmpty()) {
+            logger.warn("No dump file configured. Set termination.backfill.mydata.path and/or termination.backfill.pay.path")
+        }
+
+        return dumps.map { (source, pathValue, formatValue) ->
+            val path = Path.of(pathValue)
+            val format = if (formatValue.isBlank()) TerminationDumpReader.formatOf(path) else DumpFormat.valueOf(formatValue.uppercase())
+            load(source, path, format)
+        }
+    }
+
+    private fun load(source: DumpSource, path: Path, format: DumpFormat): BackfillResult {
+        logger.info("Backfilling terminations. source: {}, path: {}, format: {}", source, path, format)
+        val startedAt = System.nanoTime()
+        val buffer = ArrayList<TerminationTarget>(batchSize)
+        var read = 0L
+        var skipped = 0L
+        var loaded = 0L
+
+        fun flush() {
+            if (buffer.isEmpty()) {
+                return
+            }
+            when (source) {
+                DumpSource.MYDATA -> mydataTerminateService.processTerminations(buffer)
+                DumpSource.PAY -> payTerminateService.processTerminations(buffer)
+            }
+            loaded += buffer.size
+            buffer.clear()
+        }
+
+        reader.read(source, path, format) { target ->
+            read++
+            if (target == null) {
+                skipped++
+            } else {
+                buffer += target
+                if (buffer.size >= batchSize) {
+                    flush()
+                }
+            }
+            if (read % progressInterval == 0L) {
+                logger.info("Backfill progress. {}", BackfillResult(source, read, skipped, loaded, elapsedMillis(startedAt)))
+            }
+        }
+        flush()
+        terminationMetrics.countSkipped(metricSource(source), skipped.coerceAtMost(Int.MAX_VALUE.toLong()).toInt())
+
+        return BackfillResult(source, read, skipped, loaded, elapsedMillis(startedAt))
+            .also { logger.info("Backfill completed. {}", it) }
+    }
+
+    private fun elapsedMillis(startedAt: Long) = (System.nanoTime() - startedAt) / 1_000_000
+
+    private fun metricSource(source: DumpSource): String = when (source) {
+        DumpSource.MYDATA -> TerminationMetrics.SOURCE_MYDATA
+        DumpSource.PAY -> TerminationMetrics.SOURCE_PAY
+    }
+
+    // loaded 는 서비스에 넘긴 건수 (덤프 안의 중복 payAccountId 와 기존 PENDING 포함)
+    data class BackfillResult(
+        val source: DumpSource,
+        val read: Long,
+        val skipped: Long,
+        val loaded: Long,
+        val elapsedMillis: Long
+    ) {
+        val recordsPerSecond: Long
+            get() = if (elapsedMillis == 0L) read else read * 1_000 / elapsedMillis
+
+        override fun toString(): String =
+            "source: $source, read: $read, skipped: $skipped, loaded: $loaded, elapsed: ${elapsedMillis}ms, records/s: $recordsPerSecond"
+    }
+}
@@ -0,0 +1,21 @@
+package com.consumer.cconsumer.backfill
+
+import org.springframework.boot.ApplicationArguments
+import org.springframework.boot.ApplicationRunner
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.stereotype.Component
+
+// backfill 프로파일(termination.backfill.enabled=true)에서 기동 시 1회 실행
+@Component
+@ConditionalOnProperty(
+    name = ["termination.backfill.enabled"],
+    havingValue = "true"
+)
+class TerminationBackfillRunner(
+    private val terminationBackfillJob: TerminationBackfillJob
+) : ApplicationRunner {
+
+    override fun run(args: ApplicationArguments) {
+        terminationBackfillJob.run()
+    }
+}
@@ -1,28 +1,51 @@
 package com.consumer.cconsumer.config
 
+import com.consumer.cconsumer.consumer.backpressure.DbBackpressureController
+import com.consumer.cconsumer.consumer.parallel.KeyOrderedParallelProcessor
+import com.consumer.cconsumer.jfr.TimedDeserializer
+import com.consumer.cconsumer.message.ConsentMessagePrefilterDeserializer
+import com.consumer.cconsumer.message.LocalAvroSchemaStore
+import com.consumer.cconsumer.message.LocalSchemaAvroDeserializer
 import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
 import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
 import com.fasterxml.jackson.core.JsonProcessingException
 import com.fasterxml.jackson.databind.ObjectMapper
 import io.confluent.kafka.serializers.KafkaAvroDeserializer
 import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig
+import io.confluent.kafka.serializers.KafkaAvroSerializer
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig
+import io.micrometer.core.instrument.MeterRegistry
 import org.apache.kafka.clients.consumer.ConsumerConfig
 import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.producer.ProducerConfig
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.serialization.Deserializer
 import org.apache.kafka.common.serialization.StringDeserializer
+import org.apache.kafka.common.serialization.StringSerializer
 import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.kafka.annotation.EnableKafka
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry
 import org.springframework.kafka.core.ConsumerFactory
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory
+import org.springframework.kafka.core.DefaultKafkaProducerFactory
+import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.core.MicrometerConsumerListener
 import org.springframework.kafka.listener.ContainerProperties
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer
 import org.springframework.kafka.listener.DefaultErrorHandler
 import org.springframework.kafka.listener.RetryListener
 import org.springframework.kafka.support.serializer.JsonDeserializer
+import org.springframework.kafka.support.serializer.JsonSerializer
 import org.springframework.util.backoff.FixedBackOff
+import java.nio.file.Path
+import java.util.function.Supplier
 
 @Configuration
 @EnableKafka
@@ -31,7 +54,11 @@ import org.springframework.util.backoff.FixedBackOff
     havingValue = "true",
     matchIfMissing = true
 )
-class KafkaConfig {
+class KafkaConfig(
+    private val meterRegistry: MeterRegistry,
+    private val terminationMetrics: TerminationMetrics,
+    private val dbBackpressureController: ObjectProvider<DbBackpressureController>
+) {
 
     private val log = LoggerFactory.getLogger(KafkaConfig::class.java)
 
@@ -47,16 +74,91 @@ class KafkaConfig {
     @Value("\${spring.kafka.schema-registry.url:http://localhost:8081}")
     private lateinit var schemaRegistryUrl: String
 
+    @Value("\${spring.kafka.consent.batch-listener:false}")
+    private var consentBatchListener: Boolean = false
+
+    @Value("\${spring.kafka.consent.prefilter:false}")
+    private var consentPrefilter: Boolean = false
+
+    @Value("\${spring.kafka.consent.parallel:false}")
+    private var consentParallel: Boolean = false
+
+    @Value("\${spring.kafka.pay-account-deleted.parallel:false}")
+    private var payAccountDeletedParallel: Boolean = false
+
+    @Value("\${spring.kafka.parallel.worker-count:8}")
+    private var parallelWorkerCount: Int = 8
+
+    @Value("\${spring.kafka.avro.local-schema.enabled:false}")
+    private var localAvroSchema: Boolean = false
+
+    @Value("\${spring.kafka.avro.local-schema.seed-ids:}")
+    private var localAvroSchemaSeedIds: List<Int> = emptyList()
+
+    @Value("\${spring.kafka.avro.local-schema.require-seed-ids:false}")
+    private var localAvroSchemaRequireSeedIds: Boolean = false
+
+    @Value("\${spring.kafka.avro.local-schema.cache-dir:}")
+    private lateinit var localAvroSchemaCacheDir: String
+
+    @Value("\${spring.kafka.poll.max-records:500}")
+    private var maxPollRecords: Int = 500
+
+    @Value("\${spring.kafka.poll.fetch-min-bytes:1024}")
+    private var fetchMinBytes: Int = 1024
+
+    @Value("\${spring.kafka.poll.timeout-ms:3000}")
+    private var pollTimeoutMillis: Long = 3000L
+
+    // JSON 파싱 에러 등 재시도해도 의미없는 예외
+    val notRetryableExceptions = listOf(
+        JsonProcessingException::class.java,
+        IllegalArgumentException::class.java
+    )
+
+    // DLT 재발행용 Producer (원본과 같은 포맷으로 직렬화)
+    @Bean
+    fun consentKafkaTemplate(): KafkaTemplate<String, ConsentMessage> {
+        val props = mutableMapOf<String, Any>(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG to bootstrapServers,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG to StringSerializer::class.java,
+            ProducerConfig.ACKS_CONFIG to "all"
+        )
+        // 상위 Producer 와 동일한 payload 를 유지하도록 타입 헤더는 추가하지 않음
+        val valueSerializer = JsonSerializer<ConsentMessage>().noTypeInfo()
+        return KafkaTemplate(DefaultKafkaProducerFactory(props, StringSerializer(), valueSerializer))
+    }
+
+    @Bean
+    fun avroKafkaTemplate(): KafkaTemplate<String, PayAccountDeletedEnvelop> {
+        val props = mutableMapOf<String, Any>(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG to bootstrapServers,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG to StringSerializer::class.java,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG to KafkaAvroSerializer::class.java,
+            ProducerConfig.ACKS_CONFIG to "all",
+            KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG to schemaRegistryUrl
+        )
+        return KafkaTemplate(DefaultKafkaProducerFactory(props))
+    }
+
+    // 재시도를 모두 소진한 레코드를 <topic>-dlt 로 옮겨 파티션 진행을 막지 않음 (파티션은 key 기준으로 재배정)
+    @Bean
+    fun deadLetterPublishingRecoverer(): DeadLetterPublishingRecoverer =
+        DeadLetterPublishingRecoverer(
+            mapOf(
+                ConsentMessage::class.java to consentKafkaTemplate(),
+                PayAccountDeletedEnvelop::class.java to avroKafkaTemplate()
+            )
+        ) { record, _ -> TopicPartition(record.topic() + DLT_SUFFIX, -1) }
+
+    // 배치 / 병렬 모드 리스너용 (단건 리스너는 RetryTopicConfig 의 non-blocking 재시도 토픽을 사용)
     @Bean
     fun kafkaErrorHandler(): DefaultErrorHandler {
         val fixedBackOff = FixedBackOff(1000L, 3L) // 1초 간격, 3회 재시도
-        val errorHandler = DefaultErrorHandler(fixedBackOff)
+        val errorHandler = DefaultErrorHandler(deadLetterPublishingRecoverer(), fixedBackOff)
         
         // JSON 파싱 에러 등 재시도해도 의미없는 예외는 재시도하지 않음
-        errorHandler.addNotRetryableExceptions(
-            JsonProcessingException::class.java,
-            IllegalArgumentException::class.java
-        )
+        errorHandler.addNotRetryableExceptions(*notRetryableExceptions.toTypedArray())
         
         // 재시도 및 최종 실패 로깅
         errorHandler.setRetryListeners(object : RetryListener {
@@ -65,6 +167,7 @@ class KafkaConfig {
                 ex: Exception,
                 deliveryAttempt: Int
             ) {
+                terminationMetrics.countRetry(record.topic())
                 log.warn(
                     "Retry attempt {} failed for topic: {}, partition: {}, offset: {}, key: {}", 
                     deliveryAttempt, record.topic(), record.partition(), record.offset(), record.key(), ex
@@ -75,17 +178,30 @@ class KafkaConfig {
                 record: ConsumerRecord<*, *>, 
                 ex: Exception
             ) {
+                terminationMetrics.countRecovered(record.topic())
                 log.error(
-                    "All retries exhausted for topic: {}, partition: {}, offset: {}, key: {}. Message will be skipped.", 
+                    "All retries exhausted for topic: {}, partition: {}, offset: {}, key: {}. Message was published to DLT.",
                     record.topic(), record.partition(), record.offset(), record.key(), ex
                 )
-                // 필요시 DLQ(Dead Letter Queue) 전송이나 알림 로직 추가 가능
             }
         })
         
         return errorHandler
     }
 
+    // 병렬 모드 리스너용 key 순서 보장 워커 풀 (재시도 정책은 kafkaErrorHandler 와 동일하게 1초 간격 3회, 대기 중에는 파티션만 pause)
+    @Bean
+    fun keyOrderedParallelProcessor(kafkaListenerEndpointRegistry: KafkaListenerEndpointRegistry): KeyOrderedParallelProcessor =
+        KeyOrderedParallelProcessor(
+            workerCount = parallelWorkerCount,
+            retryAttempts = 3,
+            backOffMillis = 1000L,
+            notRetryableExceptions = notRetryableExceptions,
+            recoverer = deadLetterPublishingRecoverer(),
+            terminationMetrics = terminationMetrics,
+            listenerContainerRegistry = kafkaListenerEndpointRegistry
+        )
+
     // JSON 메시지용 Consumer Factory
     @Bean
     fun jsonConsumerFactory(): ConsumerFactory<String, ConsentMessage> {
@@ -100,18 +216,26 @@ class KafkaConfig {
             JsonDeserializer.TRUSTED_PACKAGES to "com.consumer.cconsumer.message.model",
             
             // 성능 최적화 설정
-            ConsumerConfig.MAX_POLL_RECORDS_CONFIG to 500,
-            ConsumerConfig.FETCH_MIN_BYTES_CONFIG to 1024,
+            ConsumerConfig.MAX_POLL_RECORDS_CONFIG to maxPollRecords,
+            ConsumerConfig.FETCH_MIN_BYTES_CONFIG to fetchMinBytes,
             ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG to 500,
             ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG to 30000,
             ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG to 10000
         )
         
+        // prefilter 가 켜져 있으면 is_remove=false 메시지는 바인딩 없이 ConsentMessage.SKIP 으로 전달
+        val valueDeserializer: Deserializer<ConsentMessage> =
+            if (consentPrefilter) ConsentMessagePrefilterDeserializer() else JsonDeserializer(ConsentMessage::class.java)
+
+        // ConsumeRecord JFR 이벤트를 켠 recording 이 있으면 poll 중 역직렬화 시간을 헤더로 넘긴다
         return DefaultKafkaConsumerFactory(
             props,
             StringDeserializer(),
-            JsonDeserializer(ConsentMessage::class.java)
-        )
+            TimedDeserializer(valueDeserializer)
+        ).apply {
+            // 파티션별 consumer lag(kafka.consumer.fetch.manager.records.lag) 등 클라이언트 지표 노출
+            addListener(MicrometerConsumerListener(meterRegistry))
+        }
     }
 
     // JSON 메시지용 Listener Container Factory
@@ -121,11 +245,17 @@ class KafkaConfig {
         factory.consumerFactory = jsonConsumerFactory()
         factory.containerProperties.ackMode = ContainerProperties.AckMode.MANUAL_IMMEDIATE
         factory.setCommonErrorHandler(kafkaErrorHandler()) // 에러 핸들러 적용
+        require(!(consentBatchListener && consentParallel)) {
+            "spring.kafka.consent.batch-listener and spring.kafka.consent.parallel cannot both be enabled"
+        }
+        // true 이면 poll 단위(최대 500건)로 리스너에 전달, parallel 모드는 커밋을 KeyOrderedParallelProcessor 가 직접 수행
+        factory.isBatchListener = consentBatchListener || consentParallel
         
         // 성능 최적화 설정
         factory.setConcurrency(3) // 동시 처리할 컨슈머 스레드 수
-        factory.containerProperties.pollTimeout = 3000L // 폴링 타임아웃 3초
-        
+        factory.containerProperties.pollTimeout = pollTimeoutMillis
+        applyBackpressure(factory)
+
         return factory
     }
 
@@ -137,6 +267,7 @@ class KafkaConfig {
             ConsumerConfig.GROUP_ID_CONFIG to groupId,
             ConsumerConfig.AUTO_OFFSET_RESET_CONFIG to autoOffsetReset,
             ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG to StringDeserializer::class.java,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG to KafkaAvroDeserializer::class.java,
             ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG to false,
             
             // Avro 관련 설정
@@ -144,16 +275,51 @@ class KafkaConfig {
             KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG to true,
             
             // 성능 최적화 설정
-            ConsumerConfig.MAX_POLL_RECORDS_CONFIG to 500,
-            ConsumerConfig.FETCH_MIN_BYTES_CONFIG to 1024,
+            ConsumerConfig.MAX_POLL_RECORDS_CONFIG to maxPollRecords,
+            ConsumerConfig.FETCH_MIN_BYTES_CONFIG to fetchMinBytes,
             ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG to 500,
             ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG to 30000,
             ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG to 10000
         )
         
-        return DefaultKafkaConsumerFactory(props)
+        // 로컬 스키마 캐시를 쓰면 컨슈머마다 Deserializer 를 새로 만들어 writer 스키마 별 ResolvingDecoder 를 따로 갖게 한다
+        val consumerFactory = if (localAvroSchema) {
+            val schemaStore = localAvroSchemaStore()
+            DefaultKafkaConsumerFactory<String, PayAccountDeletedEnvelop>(
+                props,
+                Supplier<Deserializer<String>> { StringDeserializer() },
+                Supplier<Deserializer<PayAccountDeletedEnvelop>> { TimedDeserializer(LocalSchemaAvroDeserializer(schemaStore)) }
+            )
+        } else {
+            @Suppress("UNCHECKED_CAST")
+            DefaultKafkaConsumerFactory<String, PayAccountDeletedEnvelop>(
+                props,
+                Supplier<Deserializer<String>> { StringDeserializer() },
+                Supplier<Deserializer<PayAccountDeletedEnvelop>> {
+                    TimedDeserializer(KafkaAvroDeserializer() as Deserializer<PayAccountDeletedEnvelop>)
+                }
+            )
+        }
+        return consumerFactory.apply {
+            addListener(MicrometerConsumerListener(meterRegistry))
+        }
     }
 
+    // 레지스트리 왕복 / 장애 없이 writer 스키마를 찾도록 번들 스키마와 디스크 캐시로 시작 시 미리 채운다
+    @Bean
+    @ConditionalOnProperty(
+        name = ["spring.kafka.avro.local-schema.enabled"],
+        havingValue = "true"
+    )
+    fun localAvroSchemaStore(): LocalAvroSchemaStore =
+        LocalAvroSchemaStore(
+            seedSchemaIds = localAvroSchemaSeedIds,
+            cacheDir = localAvroSchemaCacheDir.takeIf { it.isNotBlank() }?.let { Path.of(it) },
+            // mock:// 등 HTTP 가 아닌 URL 은 조회하지 않는다
+            schemaRegistryUrl = schemaRegistryUrl.takeIf { it.startsWith("http") },
+            requireSeedIds = localAvroSchemaRequireSeedIds
+        )
+
     // Avro 메시지용 Listener Container Factory
     @Bean
     fun avroKafkaListenerContainerFactory(): ConcurrentKafkaListenerContainerFactory<String, PayAccountDeletedEnvelop> {
@@ -161,11 +327,26 @@ class KafkaConfig {
         factory.consumerFactory = avroConsumerFactory()
         factory.containerProperties.ackMode = ContainerProperties.AckMode.MANUAL_IMMEDIATE
         factory.setCommonErrorHandler(kafkaErrorHandler()) // 에러 핸들러 적용
+        factory.isBatchListener = payAccountDeletedParallel // parallel 모드는 커밋을 KeyOrderedParallelProcessor 가 직접 수행
         
         // 성능 최적화 설정
         factory.setConcurrency(3) // 동시 처리할 컨슈머 스레드 수
-        factory.containerProperties.pollTimeout = 3000L // 폴링 타임아웃 3초
-        
+        factory.containerProperties.pollTimeout = pollTimeoutMillis
+        applyBackpressure(factory)
+
         return factory
     }
+
+    // DB 부하에 따라 DbBackpressureController 가 유입량을 줄일 수 있도록 인터셉터를 연결
+    private fun <V> applyBackpressure(factory: ConcurrentKafkaListenerContainerFactory<String, V>) {
+        val controller = dbBackpressureController.ifAvailable ?: return
+        factory.setRecordInterceptor(controller.recordInterceptor())
+        factory.setBatchInterceptor(controller.batchInterceptor())
+        // pause 요청 시 poll 에서 남은 레코드를 처리하지 않고 seek 으로 되돌려 max.poll.interval.ms 안에 다음 poll 을 호출
+        factory.containerProperties.isPauseImmediate = true
+    }
+
+    companion object {
+        const val DLT_SUFFIX = "-dlt"
+    }
 }
\ No newline at end of file
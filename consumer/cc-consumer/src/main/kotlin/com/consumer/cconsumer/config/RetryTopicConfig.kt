@@ -0,0 +1,159 @@
+package com.consumer.cconsumer.config
+
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import org.apache.kafka.clients.admin.AdminClientConfig
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.kafka.core.KafkaAdmin
+import org.springframework.kafka.core.KafkaOperations
+import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory
+import org.springframework.kafka.retrytopic.RetryTopicComponentFactory
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport
+import org.springframework.kafka.retrytopic.RetryTopicNamesProviderFactory
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper
+import org.springframework.kafka.retrytopic.SuffixingRetryTopicNamesProviderFactory.SuffixingRetryTopicNamesProvider
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler
+import java.util.function.Consumer
+
+/**
+ * 단건 리스너의 non-blocking 재시도 설정.
+ *
+ * 처리에 실패한 레코드는 컨슈머 스레드에서 대기하지 않고 <topic>-retry-1s, <topic>-retry-10s 로 옮겨 지연 후 재처리하고,
+ * 그래도 실패하면 <topic>-dlt 로 옮긴다. 원본 파티션은 계속 진행되므로 일시적인 DB 장애가 lag 으로 번지지 않는다.
+ * 배치 / 병렬 모드 리스너는 재시도 토픽을 쓸 수 없어 KafkaConfig.kafkaErrorHandler 의 blocking 재시도를 그대로 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = ["spring.kafka.enabled"],
+    havingValue = "true",
+    matchIfMissing = true
+)
+class RetryTopicConfig(
+    private val kafkaConfig: KafkaConfig,
+    private val terminationMetrics: TerminationMetrics
+) : RetryTopicConfigurationSupport() {
+
+    @Value("\${spring.kafka.consumer.bootstrap-servers:localhost:9092}")
+    private lateinit var bootstrapServers: String
+
+    @Value("\${spring.kafka.admin.auto-create:true}")
+    private var adminAutoCreate: Boolean = true
+
+    // 재시도 / DLT 토픽 자동 생성용 (Consumer 와 같은 bootstrap-servers 사용, CDS 학습 실행에서는 브로커에 접속하지 않도록 끈다)
+    @Bean
+    fun kafkaAdmin(): KafkaAdmin =
+        KafkaAdmin(mapOf<String, Any>(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG to bootstrapServers)).apply {
+            setAutoCreate(adminAutoCreate)
+        }
+
+    // 재시도 토픽 파티션의 지연 후 resume 을 예약하는 전용 스케줄러 (애플리케이션 TaskScheduler 로 노출하지 않음)
+    @Bean
+    fun retryTopicSchedulerWrapper(): RetryTopicSchedulerWrapper =
+        RetryTopicSchedulerWrapper(
+            ThreadPoolTaskScheduler().apply { setThreadNamePrefix("retry-topic-") }
+        )
+
+    @Bean
+    @ConditionalOnProperty(
+        name = ["spring.kafka.consent.batch-listener", "spring.kafka.consent.parallel"],
+        havingValue = "false",
+        matchIfMissing = true
+    )
+    fun consentRetryTopicConfiguration(
+        consentKafkaTemplate: KafkaTemplate<String, ConsentMessage>
+    ): RetryTopicConfiguration =
+        retryTopicConfigurationBuilder(CONSENT_TOPIC)
+            .listenerFactory("jsonKafkaListenerContainerFactory")
+            .create(consentKafkaTemplate)
+
+    @Bean
+    @ConditionalOnProperty(
+        name = ["spring.kafka.pay-account-deleted.parallel"],
+        havingValue = "false",
+        matchIfMissing = true
+    )
+    fun payAccountDeletedRetryTopicConfiguration(
+        avroKafkaTemplate: KafkaTemplate<String, PayAccountDeletedEnvelop>
+    ): RetryTopicConfiguration =
+        retryTopicConfigurationBuilder(PAY_ACCOUNT_DELETED_TOPIC)
+            .listenerFactory("avroKafkaListenerContainerFactory")
+            .create(avroKafkaTemplate)
+
+    // 기본 이름(<topic>-retry-1000)을 지연 시간 단위 표기(<topic>-retry-1s)로 변경
+    override fun createComponentFactory(): RetryTopicComponentFactory =
+        object : RetryTopicComponentFactory() {
+            override fun retryTopicNamesProviderFactory() = RetryTopicNamesProviderFactory { properties ->
+                object : SuffixingRetryTopicNamesProvider(properties) {
+                    override fun getTopicName(topic: String): String =
+                        if (properties.isRetryTopic) "$topic$RETRY_SUFFIX-${delayLabel(properties.delay())}"
+                        else super.getTopicName(topic)
+                }
+            }
+        }
+
+    // 재시도 토픽으로 옮길 때마다 원본 토픽 기준 재시도 지표 집계 (DLT 로 옮겨진 건은 TerminationDltHandler 에서 집계)
+    override fun configureDeadLetterPublishingContainerFactory(): Consumer<DeadLetterPublishingRecovererFactory> =
+        Consumer { factory ->
+            factory.setDeadLetterPublisherCreator { templateResolver, destinationResolver ->
+                object : DeadLetterPublishingRecoverer(templateResolver, destinationResolver) {
+                    override fun publish(
+                        outRecord: ProducerRecord<Any, Any>,
+                        kafkaTemplate: KafkaOperations<Any, Any>,
+                        inRecord: ConsumerRecord<*, *>
+                    ) {
+                        super.publish(outRecord, kafkaTemplate, inRecord)
+                        if (!outRecord.topic().endsWith(KafkaConfig.DLT_SUFFIX)) {
+                            val originalTopic = inRecord.headers().lastHeader(KafkaHeaders.ORIGINAL_TOPIC)
+                                ?.let { String(it.value()) }
+                                ?: inRecord.topic()
+                            terminationMetrics.countRetry(originalTopic)
+                        }
+                    }
+                }
+            }
+        }
+
+    private fun retryTopicConfigurationBuilder(topic: String): RetryTopicConfigurationBuilder =
+        RetryTopicConfigurationBuilder.newInstance()
+            .includeTopic(topic)
+            .maxAttempts(MAX_ATTEMPTS)
+            .exponentialBackoff(INITIAL_DELAY_MILLIS, MULTIPLIER, MAX_DELAY_MILLIS)
+            .retryTopicSuffix(RETRY_SUFFIX)
+            .dltSuffix(KafkaConfig.DLT_SUFFIX)
+            .notRetryOn(kafkaConfig.notRetryableExceptions)
+            .autoCreateTopicsWith(TOPIC_PARTITIONS, TOPIC_REPLICATION_FACTOR)
+            .dltHandlerMethod("terminationDltHandler", "handle")
+
+    companion object {
+        private const val CONSENT_TOPIC = "mydata.consent.v1"
+        private const val PAY_ACCOUNT_DELETED_TOPIC = "pay-account.payaccount-deleted.v2"
+        private const val RETRY_SUFFIX = "-retry"
+
+        // 최초 처리 1회 + 재시도 토픽 2개(1초, 10초) 후 DLT
+        private const val MAX_ATTEMPTS = 3
+        private const val INITIAL_DELAY_MILLIS = 1_000L
+        private const val MULTIPLIER = 10.0
+        private const val MAX_DELAY_MILLIS = 10_000L
+
+        // 원본 리스너와 같은 concurrency(3) 로 소비할 수 있도록 파티션 3개, replication 은 브로커 기본값
+        private const val TOPIC_PARTITIONS = 3
+        private const val TOPIC_REPLICATION_FACTOR: Short = -1
+
+        internal fun delayLabel(delayMillis: Long): String = when {
+            delayMillis >= 60_000 && delayMillis % 60_000 == 0L -> "${delayMillis / 60_000}m"
+            delayMillis >= 1_000 && delayMillis % 1_000 == 0L -> "${delayMillis / 1_000}s"
+            else -> "${delayMillis}ms"
+        }
+    }
+}
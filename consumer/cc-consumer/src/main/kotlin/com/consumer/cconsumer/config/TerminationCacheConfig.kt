@@ -0,0 +1,52 @@
+package com.consumer.cconsumer.config
+
+import com.consumer.cconsumer.service.cache.PendingTerminationCache
+import io.micrometer.core.instrument.FunctionCounter
+import io.micrometer.core.instrument.binder.MeterBinder
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import java.time.Duration
+
+@Configuration
+class TerminationCacheConfig {
+
+    @Value("\${termination.cache.enabled:true}")
+    private var enabled: Boolean = true
+
+    // set-associative 구조라 실제 용량은 2의 거듭제곱으로 내림된다
+    @Value("\${termination.cache.capacity:100000}")
+    private var capacity: Int = 100_000
+
+    // 외부 파기 배치가 COMPLETED 로 바꾼 뒤 재유입된 이벤트가 DB 를 다시 확인하도록 TTL 로 staleness 를 제한
+    @Value("\${termination.cache.ttl:10m}")
+    private lateinit var ttl: Duration
+
+    @Bean
+    fun mydataPendingTerminationCache(): PendingTerminationCache = createCache()
+
+    @Bean
+    fun payPendingTerminationCache(): PendingTerminationCache = createCache()
+
+    // termination.cache.hits / termination.cache.misses {cache=mydata|pay}
+    @Bean
+    fun pendingTerminationCacheMetrics(
+        @Qualifier("mydataPendingTerminationCache") mydataCache: PendingTerminationCache,
+        @Qualifier("payPendingTerminationCache") payCache: PendingTerminationCache
+    ): MeterBinder = MeterBinder { registry ->
+        mapOf("mydata" to mydataCache, "pay" to payCache).forEach { (name, cache) ->
+            FunctionCounter.builder("termination.cache.hits", cache) { it.hitCount().toDouble() }
+                .tag("cache", name)
+                .register(registry)
+            FunctionCounter.builder("termination.cache.misses", cache) { it.missCount().toDouble() }
+                .tag("cache", name)
+                .register(registry)
+        }
+    }
+
+    private fun createCache() = PendingTerminationCache(
+        capacity = if (enabled) capacity else 0,
+        ttl = ttl
+    )
+}
@@ -0,0 +1,74 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.consumer.offset.ConsumerOffsetTracker
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.handler.annotation.Header
+import org.springframework.messaging.handler.annotation.Payload
+import org.springframework.stereotype.Component
+
+@Component
+@ConditionalOnProperty(
+    name = ["spring.kafka.consent.batch-listener"],
+    havingValue = "true"
+)
+class MydataConsentBatchConsumer(
+    private val mydataTerminateService: MydataTerminateService,
+    private val consumerOffsetTracker: ConsumerOffsetTracker,
+    private val terminationMetrics: TerminationMetrics
+) : ConsumerSeekAware {
+    private val logger = LoggerFactory.getLogger(MydataConsentBatchConsumer::class.java)
+
+    @KafkaListener(
+        topics = ["mydata.consent.v1"],
+        groupId = "cc-consumer-group",
+        containerFactory = "jsonKafkaListenerContainerFactory"
+    )
+    fun consumeConsentMessages(
+        @Payload messages: List<ConsentMessage>,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) topics: List<String>,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) partitions: List<Int>,
+        @Header(KafkaHeaders.OFFSET) offsets: List<Long>,
+        acknowledgment: Acknowledgment
+    ) {
+        try {
+            val targets = messages
+                .filter { it.data.isRemove }
+                .map { TerminationTarget(payAccountId = it.data.payAccountId, reason = it.data.deleteEventType) }
+
+            logger.info("Received consent batch. size: {}, termination targets: {}", messages.size, targets.size)
+            terminationMetrics.countSkipped(TerminationMetrics.SOURCE_MYDATA, messages.size - targets.size)
+
+            // 한 토픽만 구독하고 poll 안에서 partition 별 offset 은 증가 순이므로 partition 별 마지막 값이 적용 offset
+            val lastOffsets = partitions.zip(offsets).toMap()
+            consumerOffsetTracker.applyInTransaction(topics.first(), lastOffsets) {
+                if (targets.isNotEmpty()) {
+                    mydataTerminateService.processTerminations(targets)
+                }
+            }
+
+            // poll 전체를 하나의 트랜잭션으로 처리했으므로 한 번만 acknowledge
+            acknowledgment.acknowledge()
+        } catch (exception: Exception) {
+            logger.error("Failed to process consent batch. size: {}, error: {}",
+                messages.size, exception.message, exception)
+            // 에러 발생 시 acknowledge하지 않아 배치 전체가 재처리됨 (INSERT IGNORE 로 멱등)
+            throw exception
+        }
+    }
+
+    // 파티션 할당 시 CONSUMER_OFFSET 에 기록된 적용 offset 이 커밋 위치보다 앞서 있으면 그 다음부터 읽는다
+    override fun onPartitionsAssigned(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        consumerOffsetTracker.seekPastApplied(assignments, callback)
+    }
+}
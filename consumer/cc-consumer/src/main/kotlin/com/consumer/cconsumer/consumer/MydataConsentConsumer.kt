@@ -1,9 +1,16 @@
 package com.consumer.cconsumer.consumer
 
+import com.consumer.cconsumer.consumer.offset.ConsumerOffsetTracker
+import com.consumer.cconsumer.jfr.ConsumeRecordEvent
 import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
 import com.consumer.cconsumer.service.MydataTerminateService
+import org.apache.kafka.common.TopicPartition
 import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
 import org.springframework.kafka.support.Acknowledgment
 import org.springframework.kafka.support.KafkaHeaders
 import org.springframework.messaging.handler.annotation.Header
@@ -11,9 +18,16 @@ import org.springframework.messaging.handler.annotation.Payload
 import org.springframework.stereotype.Component
 
 @Component
+@ConditionalOnProperty(
+    name = ["spring.kafka.consent.batch-listener", "spring.kafka.consent.parallel"],
+    havingValue = "false",
+    matchIfMissing = true
+)
 class MydataConsentConsumer(
-    private val mydataTerminateService: MydataTerminateService
-) {
+    private val mydataTerminateService: MydataTerminateService,
+    private val consumerOffsetTracker: ConsumerOffsetTracker,
+    private val terminationMetrics: TerminationMetrics
+) : ConsumerSeekAware {
     private val logger = LoggerFactory.getLogger(MydataConsentConsumer::class.java)
 
     @KafkaListener(
@@ -26,32 +40,50 @@ class MydataConsentConsumer(
         @Header(KafkaHeaders.RECEIVED_TOPIC) topic: String,
         @Header(KafkaHeaders.RECEIVED_PARTITION) partition: Int,
         @Header(KafkaHeaders.OFFSET) offset: Long,
-        acknowledgment: Acknowledgment
+        acknowledgment: Acknowledgment,
+        @Header(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER, required = false) deserializeNanos: ByteArray? = null
     ) {
-        try {
-            logger.info("Received consent message from topic: {}, partition: {}, offset: {}, payAccountId: {}, isRemove: {}", 
-                topic, partition, offset, message.data.payAccountId, message.data.isRemove)
+        val event = ConsumeRecordEvent.begin(topic, partition, offset, deserializeNanos)
+        event.payAccountId = message.data.payAccountId
+        terminationMetrics.recordProcessing(topic) {
+            try {
+                logger.info("Received consent message from topic: {}, partition: {}, offset: {}, payAccountId: {}, isRemove: {}", 
+                    topic, partition, offset, message.data.payAccountId, message.data.isRemove)
 
-            if (message.data.isRemove) {
-                logger.info("Processing termination for payAccountId: {}, reason: {}", 
-                    message.data.payAccountId, message.data.deleteEventType)
+                if (message.data.isRemove) {
+                    logger.info("Processing termination for payAccountId: {}, reason: {}", 
+                        message.data.payAccountId, message.data.deleteEventType)
                 
-                mydataTerminateService.processTermination(
-                    payAccountId = message.data.payAccountId,
-                    reason = message.data.deleteEventType
-                )
+                    // 적재와 offset 기록을 한 트랜잭션으로 묶어 재전달 시 건너뛸 수 있게 한다
+                    event.timeService {
+                        consumerOffsetTracker.applyInTransaction(topic, partition, offset) {
+                            mydataTerminateService.processTermination(
+                                payAccountId = message.data.payAccountId,
+                                reason = message.data.deleteEventType
+                            )
+                        }
+                    }
                 
-                logger.info("Successfully processed termination for payAccountId: {}", message.data.payAccountId)
-            } else {
-                logger.debug("Skipping message with isRemove=false for payAccountId: {}", message.data.payAccountId)
-            }
+                    logger.info("Successfully processed termination for payAccountId: {}", message.data.payAccountId)
+                } else {
+                    logger.debug("Skipping message with isRemove=false for payAccountId: {}", message.data.payAccountId)
+                    terminationMetrics.countSkipped(TerminationMetrics.SOURCE_MYDATA)
+                }
 
-            acknowledgment.acknowledge()
-        } catch (exception: Exception) {
-            logger.error("Failed to process consent message for payAccountId: {}, error: {}", 
-                message.data.payAccountId, exception.message, exception)
-            // 에러 발생 시 acknowledge하지 않아 재처리됨
-            throw exception
+                acknowledgment.acknowledge()
+                event.end(if (message.data.isRemove) ConsumeRecordEvent.OUTCOME_SUCCESS else ConsumeRecordEvent.OUTCOME_SKIPPED)
+            } catch (exception: Exception) {
+                event.end(ConsumeRecordEvent.OUTCOME_FAILURE)
+                logger.error("Failed to process consent message for payAccountId: {}, error: {}", 
+                    message.data.payAccountId, exception.message, exception)
+                // 에러 발생 시 acknowledge하지 않아 재처리됨
+                throw exception
+            }
         }
     }
-}
\ No newline at end of file
+
+    // 파티션 할당 시 CONSUMER_OFFSET 에 기록된 적용 offset 이 커밋 위치보다 앞서 있으면 그 다음부터 읽는다
+    override fun onPartitionsAssigned(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        consumerOffsetTracker.seekPastApplied(assignments, callback)
+    }
+}
@@ -0,0 +1,67 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.consumer.parallel.KeyOrderedParallelProcessor
+import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.stereotype.Component
+
+@Component
+@ConditionalOnProperty(
+    name = ["spring.kafka.consent.parallel"],
+    havingValue = "true"
+)
+class MydataConsentParallelConsumer(
+    private val mydataTerminateService: MydataTerminateService,
+    private val keyOrderedParallelProcessor: KeyOrderedParallelProcessor,
+    private val terminationMetrics: TerminationMetrics
+) : ConsumerSeekAware {
+    private val logger = LoggerFactory.getLogger(MydataConsentParallelConsumer::class.java)
+
+    @KafkaListener(
+        topics = [CONSENT_TOPIC],
+        groupId = "cc-consumer-group",
+        containerFactory = "jsonKafkaListenerContainerFactory"
+    )
+    fun consumeConsentMessages(
+        records: List<ConsumerRecord<String, ConsentMessage>>,
+        consumer: Consumer<*, *>
+    ) {
+        logger.info("Received consent poll for parallel processing. size: {}", records.size)
+
+        // 커밋/재전달은 processor 가 파티션별 연속 완료 offset 기준으로 직접 수행
+        keyOrderedParallelProcessor.process(
+            records = records,
+            consumer = consumer,
+            keyOf = { it.data.payAccountId }
+        ) { message ->
+            terminationMetrics.recordProcessing(CONSENT_TOPIC) {
+                if (message.data.isRemove) {
+                    mydataTerminateService.processTermination(
+                        payAccountId = message.data.payAccountId,
+                        reason = message.data.deleteEventType
+                    )
+                } else {
+                    logger.debug("Skipping message with isRemove=false for payAccountId: {}", message.data.payAccountId)
+                    terminationMetrics.countSkipped(TerminationMetrics.SOURCE_MYDATA)
+                }
+            }
+        }
+    }
+
+    // 넘겨준 파티션의 재시도 횟수와 완료 offset 은 새 소유자에게 의미가 없으므로 버린다
+    override fun onPartitionsRevoked(partitions: Collection<TopicPartition>) {
+        keyOrderedParallelProcessor.onPartitionsRevoked(partitions)
+    }
+
+    companion object {
+        private const val CONSENT_TOPIC = "mydata.consent.v1"
+    }
+}
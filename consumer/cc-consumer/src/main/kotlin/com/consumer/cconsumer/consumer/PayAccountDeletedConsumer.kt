@@ -1,9 +1,16 @@
 package com.consumer.cconsumer.consumer
 
+import com.consumer.cconsumer.consumer.offset.ConsumerOffsetTracker
+import com.consumer.cconsumer.jfr.ConsumeRecordEvent
 import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import com.consumer.cconsumer.metrics.TerminationMetrics
 import com.consumer.cconsumer.service.PayTerminateService
+import org.apache.kafka.common.TopicPartition
 import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
 import org.springframework.kafka.support.Acknowledgment
 import org.springframework.kafka.support.KafkaHeaders
 import org.springframework.messaging.handler.annotation.Header
@@ -11,9 +18,16 @@ import org.springframework.messaging.handler.annotation.Payload
 import org.springframework.stereotype.Component
 
 @Component
+@ConditionalOnProperty(
+    name = ["spring.kafka.pay-account-deleted.parallel"],
+    havingValue = "false",
+    matchIfMissing = true
+)
 class PayAccountDeletedConsumer(
-    private val payTerminateService: PayTerminateService
-) {
+    private val payTerminateService: PayTerminateService,
+    private val consumerOffsetTracker: ConsumerOffsetTracker,
+    private val terminationMetrics: TerminationMetrics
+) : ConsumerSeekAware {
     private val logger = LoggerFactory.getLogger(PayAccountDeletedConsumer::class.java)
 
     @KafkaListener(
@@ -26,28 +40,45 @@ class PayAccountDeletedConsumer(
         @Header(KafkaHeaders.RECEIVED_TOPIC) topic: String,
         @Header(KafkaHeaders.RECEIVED_PARTITION) partition: Int,
         @Header(KafkaHeaders.OFFSET) offset: Long,
-        acknowledgment: Acknowledgment
+        acknowledgment: Acknowledgment,
+        @Header(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER, required = false) deserializeNanos: ByteArray? = null
     ) {
-        try {
-            logger.info("Received pay account deleted message from topic: {}, partition: {}, offset: {}, payAccountId: {}, uuid: {}", 
-                topic, partition, offset, envelope.payAccountId, envelope.uuid)
+        val event = ConsumeRecordEvent.begin(topic, partition, offset, deserializeNanos)
+        event.payAccountId = envelope.payAccountId
+        terminationMetrics.recordProcessing(topic) {
+            try {
+                logger.info("Received pay account deleted message from topic: {}, partition: {}, offset: {}, payAccountId: {}, uuid: {}", 
+                    topic, partition, offset, envelope.payAccountId, envelope.uuid)
 
-            logger.info("Processing termination for payAccountId: {}, reason: {}", 
-                envelope.payAccountId, envelope.reason)
+                logger.info("Processing termination for payAccountId: {}, reason: {}", 
+                    envelope.payAccountId, envelope.reason)
             
-            payTerminateService.processTermination(
-                payAccountId = envelope.payAccountId,
-                reason = envelope.reason.toString()
-            )
+                // 적재와 offset 기록을 한 트랜잭션으로 묶어 재전달 시 건너뛸 수 있게 한다
+                event.timeService {
+                    consumerOffsetTracker.applyInTransaction(topic, partition, offset) {
+                        payTerminateService.processTermination(
+                            payAccountId = envelope.payAccountId,
+                            reason = envelope.reason.toString()
+                        )
+                    }
+                }
             
-            logger.info("Successfully processed termination for payAccountId: {}", envelope.payAccountId)
+                logger.info("Successfully processed termination for payAccountId: {}", envelope.payAccountId)
 
-            acknowledgment.acknowledge()
-        } catch (exception: Exception) {
-            logger.error("Failed to process pay account deleted message for payAccountId: {}, error: {}", 
-                envelope.payAccountId, exception.message, exception)
-            // 에러 발생 시 acknowledge하지 않아 재처리됨
-            throw exception
+                acknowledgment.acknowledge()
+                event.end(ConsumeRecordEvent.OUTCOME_SUCCESS)
+            } catch (exception: Exception) {
+                event.end(ConsumeRecordEvent.OUTCOME_FAILURE)
+                logger.error("Failed to process pay account deleted message for payAccountId: {}, error: {}", 
+                    envelope.payAccountId, exception.message, exception)
+                // 에러 발생 시 acknowledge하지 않아 재처리됨
+                throw exception
+            }
         }
     }
-}
\ No newline at end of file
+
+    // 파티션 할당 시 CONSUMER_OFFSET 에 기록된 적용 offset 이 커밋 위치보다 앞서 있으면 그 다음부터 읽는다
+    override fun onPartitionsAssigned(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        consumerOffsetTracker.seekPastApplied(assignments, callback)
+    }
+}
@@ -0,0 +1,62 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.consumer.parallel.KeyOrderedParallelProcessor
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.PayTerminateService
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.stereotype.Component
+
+@Component
+@ConditionalOnProperty(
+    name = ["spring.kafka.pay-account-deleted.parallel"],
+    havingValue = "true"
+)
+class PayAccountDeletedParallelConsumer(
+    private val payTerminateService: PayTerminateService,
+    private val keyOrderedParallelProcessor: KeyOrderedParallelProcessor,
+    private val terminationMetrics: TerminationMetrics
+) : ConsumerSeekAware {
+    private val logger = LoggerFactory.getLogger(PayAccountDeletedParallelConsumer::class.java)
+
+    @KafkaListener(
+        topics = [PAY_ACCOUNT_DELETED_TOPIC],
+        groupId = "cc-consumer-group",
+        containerFactory = "avroKafkaListenerContainerFactory"
+    )
+    fun consumePayAccountDeleted(
+        records: List<ConsumerRecord<String, PayAccountDeletedEnvelop>>,
+        consumer: Consumer<*, *>
+    ) {
+        logger.info("Received pay account deleted poll for parallel processing. size: {}", records.size)
+
+        // 커밋/재전달은 processor 가 파티션별 연속 완료 offset 기준으로 직접 수행
+        keyOrderedParallelProcessor.process(
+            records = records,
+            consumer = consumer,
+            keyOf = { it.payAccountId }
+        ) { envelope ->
+            terminationMetrics.recordProcessing(PAY_ACCOUNT_DELETED_TOPIC) {
+                payTerminateService.processTermination(
+                    payAccountId = envelope.payAccountId,
+                    reason = envelope.reason.toString()
+                )
+            }
+        }
+    }
+
+    // 넘겨준 파티션의 재시도 횟수와 완료 offset 은 새 소유자에게 의미가 없으므로 버린다
+    override fun onPartitionsRevoked(partitions: Collection<TopicPartition>) {
+        keyOrderedParallelProcessor.onPartitionsRevoked(partitions)
+    }
+
+    companion object {
+        private const val PAY_ACCOUNT_DELETED_TOPIC = "pay-account.payaccount-deleted.v2"
+    }
+}
@@ -0,0 +1,37 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.slf4j.LoggerFactory
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.stereotype.Component
+
+/**
+ * 재시도 토픽까지 모두 실패해 <topic>-dlt 로 옮겨진 레코드를 기록한다.
+ * 레코드는 DLT 에 그대로 남아 원인 해소 후 재처리할 수 있으므로 여기서는 지표와 로그만 남기고 acknowledge 한다.
+ */
+@Component
+class TerminationDltHandler(
+    private val terminationMetrics: TerminationMetrics
+) {
+    private val logger = LoggerFactory.getLogger(TerminationDltHandler::class.java)
+
+    fun handle(record: ConsumerRecord<String, *>, acknowledgment: Acknowledgment) {
+        val originalTopic = record.headers().lastHeader(KafkaHeaders.ORIGINAL_TOPIC)
+            ?.value()
+            ?.let { String(it) }
+            ?: record.topic()
+        val exceptionMessage = record.headers().lastHeader(KafkaHeaders.EXCEPTION_MESSAGE)
+            ?.value()
+            ?.let { String(it) }
+
+        terminationMetrics.countRecovered(originalTopic)
+        logger.error(
+            "Message parked in DLT. topic: {}, partition: {}, offset: {}, key: {}, originalTopic: {}, error: {}",
+            record.topic(), record.partition(), record.offset(), record.key(), originalTopic, exceptionMessage
+        )
+
+        acknowledgment.acknowledge()
+    }
+}
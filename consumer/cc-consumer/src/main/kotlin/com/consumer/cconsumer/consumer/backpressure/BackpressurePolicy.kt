@@ -0,0 +1,85 @@
+package com.consumer.cconsumer.consumer.backpressure
+
+/**
+ * DB 부하 신호(upsert 평균 지연, Hikari 커넥션 대기 스레드 수)로 컨슈머의 유입량을 정하는 상태 머신.
+ *
+ * - NORMAL: 제한 없이 poll 결과를 그대로 처리한다.
+ * - THROTTLED: 샘플 구간마다 [effectiveBatchSize] 건까지만 처리하고 나머지는 다음 구간으로 미룬다.
+ * - PAUSED: 할당된 파티션을 모두 멈춘다 (poll 은 계속 돌아 max.poll.interval.ms 를 넘기지 않는다).
+ *
+ * 나빠지는 방향은 샘플 한 번에 바로 반응해 배치 크기를 절반으로 줄이고(multiplicative decrease),
+ * 좋아지는 방향은 [recoverySamples] 번 연속으로 정상일 때 한 단계씩만 풀면서 배치 크기를 조금씩 늘린다(additive increase).
+ * 회복 조건을 더 엄격하게 둬서 임계값 근처에서 pause / resume 이 반복되지 않게 한다.
+ * 샘플링 스레드 하나에서만 [onSample] 을 호출하고, 컨슈머 스레드는 [state] / [effectiveBatchSize] 를 읽기만 한다.
+ */
+class BackpressurePolicy(
+    private val maxBatchSize: Int,
+    private val minBatchSize: Int,
+    private val throttleLatencyMillis: Double,
+    private val pauseLatencyMillis: Double,
+    private val throttlePendingThreads: Int,
+    private val pausePendingThreads: Int,
+    private val recoverySamples: Int
+) {
+
+    enum class State { NORMAL, THROTTLED, PAUSED }
+
+    @Volatile
+    var state: State = State.NORMAL
+        private set
+
+    @Volatile
+    var effectiveBatchSize: Int = maxBatchSize
+        private set
+
+    private val increaseStep = maxOf(1, maxBatchSize / 10)
+
+    private var calmSamples = 0
+
+    init {
+        require(minBatchSize in 1..maxBatchSize) { "minBatchSize must be in [1, $maxBatchSize]: $minBatchSize" }
+        require(throttleLatencyMillis <= pauseLatencyMillis) { "throttle latency must not exceed pause latency" }
+        require(throttlePendingThreads <= pausePendingThreads) { "throttle pending threads must not exceed pause pending threads" }
+        require(recoverySamples > 0) { "recoverySamples must be positive: $recoverySamples" }
+    }
+
+    /**
+     * @param upsertLatencyMillis 직전 샘플 이후 upsert 평균 지연, 그 사이 upsert 가 없었다면 null
+     * @param pendingThreads Hikari 커넥션을 기다리는 스레드 수
+     */
+    fun onSample(upsertLatencyMillis: Double?, pendingThreads: Int): State {
+        val latency = upsertLatencyMillis ?: 0.0
+        val level = when {
+            latency >= pauseLatencyMillis || pendingThreads >= pausePendingThreads -> State.PAUSED
+            latency >= throttleLatencyMillis || pendingThreads >= throttlePendingThreads -> State.THROTTLED
+            else -> State.NORMAL
+        }
+
+        if (level != State.NORMAL && level >= state) {
+            // 부하가 계속되거나 커지면 바로 반응
+            state = level
+            effectiveBatchSize = maxOf(minBatchSize, effectiveBatchSize / 2)
+            calmSamples = 0
+            return state
+        }
+
+        if (state == State.NORMAL) {
+            return state
+        }
+
+        if (state == State.THROTTLED && level == State.NORMAL) {
+            effectiveBatchSize = minOf(maxBatchSize, effectiveBatchSize + increaseStep)
+        }
+        if (++calmSamples < recoverySamples) {
+            return state
+        }
+
+        calmSamples = 0
+        state = when {
+            state == State.PAUSED -> State.THROTTLED
+            level == State.NORMAL && effectiveBatchSize == maxBatchSize -> State.NORMAL
+            else -> state
+        }
+        return state
+    }
+}
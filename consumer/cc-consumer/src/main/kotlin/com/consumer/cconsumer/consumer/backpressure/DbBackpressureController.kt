@@ -0,0 +1,198 @@
+package com.consumer.cconsumer.consumer.backpressure
+
+import com.consumer.cconsumer.consumer.backpressure.BackpressurePolicy.State
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.ConsumerRecords
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression
+import org.springframework.context.SmartLifecycle
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry
+import org.springframework.kafka.listener.BatchInterceptor
+import org.springframework.kafka.listener.MessageListenerContainer
+import org.springframework.kafka.listener.RecordInterceptor
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * MySQL 이 느려질 때 쓰지 못할 레코드를 계속 가져오다 max.poll.interval.ms 를 넘겨 리밸런스가 반복되지 않도록
+ * termination.db.upsert 평균 지연과 hikaricp.connections.pending 을 주기적으로 샘플링해 유입량을 조절한다.
+ *
+ * - PAUSED 이면 [pausedTopics] 를 읽는 리스너 컨테이너만 pause 해 할당된 파티션을 멈추고, 벗어나면 이 컨트롤러가 멈춘 컨테이너만 resume 한다.
+ *   재시도 토픽 / DLT 컨테이너는 멈추지 않는다.
+ * - THROTTLED 이면 리스너 인터셉터가 샘플 구간마다 처리한 레코드 수를 세다가 유효 배치 크기에 닿으면 컨테이너를 pause 하고,
+ *   pauseImmediate 설정으로 poll 에서 남은 레코드는 seek 으로 되돌려 다음 구간에 다시 받는다.
+ * max.poll.records 는 컨슈머를 다시 만들어야 바뀌므로 poll 크기 자체 대신 구간 당 처리 건수를 줄이는 방식으로 배치 크기를 조절한다.
+ * bulk 모드 upsert 는 poll 단위 한 번의 지연이므로 [bulkLatencyFactor] 로 나눠 단건 기준 임계값과 비교한다.
+ * spring.kafka.backpressure.enabled=true 일 때만 동작한다.
+ */
+@Component
+@ConditionalOnExpression("\${spring.kafka.enabled:true} and \${spring.kafka.backpressure.enabled:false}")
+class DbBackpressureController(
+    private val kafkaListenerEndpointRegistry: KafkaListenerEndpointRegistry,
+    private val meterRegistry: MeterRegistry,
+    @Value("\${spring.kafka.poll.max-records:500}")
+    maxPollRecords: Int,
+    @Value("\${spring.kafka.backpressure.min-batch-size:10}")
+    minBatchSize: Int,
+    @Value("\${spring.kafka.backpressure.throttle-latency-ms:200}")
+    throttleLatencyMillis: Double,
+    @Value("\${spring.kafka.backpressure.pause-latency-ms:1000}")
+    pauseLatencyMillis: Double,
+    @Value("\${spring.kafka.backpressure.throttle-pending-threads:2}")
+    throttlePendingThreads: Int,
+    @Value("\${spring.kafka.backpressure.pause-pending-threads:8}")
+    pausePendingThreads: Int,
+    @Value("\${spring.kafka.backpressure.recovery-samples:3}")
+    recoverySamples: Int,
+    @Value("\${spring.kafka.backpressure.sample-interval-ms:1000}")
+    private val sampleIntervalMillis: Long,
+    @Value("\${spring.kafka.backpressure.bulk-latency-factor:10}")
+    private val bulkLatencyFactor: Double,
+    @Value("\${spring.kafka.backpressure.topics:mydata.consent.v1,pay-account.payaccount-deleted.v2}")
+    private val pausedTopics: Set<String>
+) : SmartLifecycle {
+
+    private val logger = LoggerFactory.getLogger(DbBackpressureController::class.java)
+
+    private val policy = BackpressurePolicy(
+        maxBatchSize = maxPollRecords,
+        minBatchSize = minBatchSize,
+        throttleLatencyMillis = throttleLatencyMillis,
+        pauseLatencyMillis = pauseLatencyMillis,
+        throttlePendingThreads = throttlePendingThreads,
+        pausePendingThreads = pausePendingThreads,
+        recoverySamples = recoverySamples
+    )
+
+    // 현재 샘플 구간에 리스너로 넘긴 레코드 수 (THROTTLED 일 때만 센다)
+    private val admittedRecords = AtomicInteger()
+
+    // 운영자가 직접 멈춘 컨테이너를 resume 하지 않도록 이 컨트롤러가 멈춘 것만 기억한다
+    private val pausedContainers = ConcurrentHashMap.newKeySet<MessageListenerContainer>()
+
+    // mode 별 직전 샘플의 (upsert 횟수, 누적 시간 ms)
+    private val lastUpserts = HashMap<String, Pair<Long, Double>>()
+
+    private var scheduler: ScheduledExecutorService? = null
+
+    init {
+        require(sampleIntervalMillis > 0) { "spring.kafka.backpressure.sample-interval-ms must be positive" }
+        require(bulkLatencyFactor > 0) { "spring.kafka.backpressure.bulk-latency-factor must be positive" }
+        Gauge.builder(BACKPRESSURE_STATE, policy) { it.state.ordinal.toDouble() }
+            .description("0=NORMAL, 1=THROTTLED, 2=PAUSED")
+            .register(meterRegistry)
+        Gauge.builder(BACKPRESSURE_BATCH_SIZE, policy) { it.effectiveBatchSize.toDouble() }
+            .register(meterRegistry)
+    }
+
+    val state: State
+        get() = policy.state
+
+    val effectiveBatchSize: Int
+        get() = policy.effectiveBatchSize
+
+    fun <K, V> recordInterceptor(): RecordInterceptor<K, V> = RecordInterceptor { record: ConsumerRecord<K, V>, _: Consumer<K, V> ->
+        admit(1)
+        record
+    }
+
+    fun <K, V> batchInterceptor(): BatchInterceptor<K, V> = BatchInterceptor { records: ConsumerRecords<K, V>, _: Consumer<K, V> ->
+        admit(records.count())
+        records
+    }
+
+    // 컨슈머 스레드에서 호출된다
+    private fun admit(records: Int) {
+        if (policy.state != State.THROTTLED) {
+            return
+        }
+        if (admittedRecords.addAndGet(records) >= policy.effectiveBatchSize) {
+            pauseContainers()
+        }
+    }
+
+    internal fun sample() {
+        val latencyMillis = upsertLatencyMillis()
+        val pendingThreads = meterRegistry.find(HIKARI_PENDING).gauges().sumOf { it.value() }.toInt()
+
+        val previous = policy.state
+        val current = policy.onSample(latencyMillis, pendingThreads)
+        if (current != previous) {
+            logger.warn("DB backpressure state changed {} -> {}. upsertLatency: {}ms, pendingThreads: {}, effectiveBatchSize: {}",
+                previous, current, latencyMillis, pendingThreads, policy.effectiveBatchSize)
+        }
+
+        admittedRecords.set(0)
+        if (current == State.PAUSED) {
+            pauseContainers()
+        } else {
+            resumeContainers()
+        }
+    }
+
+    // 직전 샘플 이후 mode 별 평균 지연 중 큰 값 (bulk 는 bulkLatencyFactor 로 나눈 값)
+    private fun upsertLatencyMillis(): Double? =
+        listOf(TerminationMetrics.MODE_SINGLE to 1.0, TerminationMetrics.MODE_BULK to bulkLatencyFactor).mapNotNull { (mode, factor) ->
+            val timers = meterRegistry.find(TerminationMetrics.DB_UPSERT).tag("mode", mode).timers()
+            val count = timers.sumOf { it.count() }
+            val totalMillis = timers.sumOf { it.totalTime(TimeUnit.MILLISECONDS) }
+            val (lastCount, lastTotalMillis) = lastUpserts.put(mode, count to totalMillis) ?: (0L to 0.0)
+            if (count > lastCount) (totalMillis - lastTotalMillis) / (count - lastCount) / factor else null
+        }.maxOrNull()
+
+    private fun pauseContainers() {
+        kafkaListenerEndpointRegistry.allListenerContainers
+            .filter { container -> container.containerProperties.topics.orEmpty().any { it in pausedTopics } }
+            .filter { it.isRunning && !it.isPauseRequested }
+            .forEach {
+                it.pause()
+                pausedContainers.add(it)
+            }
+    }
+
+    private fun resumeContainers() {
+        pausedContainers.removeIf {
+            it.resume()
+            true
+        }
+    }
+
+    override fun start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "db-backpressure").apply { isDaemon = true }
+        }.apply {
+            scheduleWithFixedDelay(::sampleSafely, sampleIntervalMillis, sampleIntervalMillis, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    private fun sampleSafely() {
+        try {
+            sample()
+        } catch (exception: Exception) {
+            logger.error("Failed to sample DB backpressure signals", exception)
+        }
+    }
+
+    override fun stop() {
+        scheduler?.shutdownNow()
+        scheduler = null
+        resumeContainers()
+    }
+
+    override fun isRunning(): Boolean = scheduler != null
+
+    companion object {
+        const val BACKPRESSURE_STATE = "termination.backpressure.state"
+        const val BACKPRESSURE_BATCH_SIZE = "termination.backpressure.batch.size"
+        private const val HIKARI_PENDING = "hikaricp.connections.pending"
+    }
+}
@@ -0,0 +1,85 @@
+package com.consumer.cconsumer.consumer.offset
+
+import com.consumer.cconsumer.domain.repository.ConsumerOffsetRepository
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.stereotype.Component
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 리밸런스 / 장애 후 커밋되지 않은 구간이 재전달될 때 파기 대상자 조회 없이 건너뛰기 위한 offset 저장소.
+ *
+ * 파기 대상자 적재와 CONSUMER_OFFSET 갱신을 한 DB 트랜잭션으로 묶어 "적용된 마지막 offset" 을 남기고,
+ * 파티션이 할당되면 Kafka 커밋 위치보다 앞서 있는 경우에만 그 다음 offset 으로 seek 한다.
+ * 병렬 모드 리스너는 파티션 안에서 payAccountId 별로 순서 없이 끝나 마지막 offset 이 적용 완료를 뜻하지 않으므로 사용하지 않는다.
+ *
+ * 컨슈머 그룹 offset 을 의도적으로 되돌린 경우(kafka-consumer-groups --reset-offsets) 저장된 offset 이 더 앞서 있어 되돌린 구간을 건너뛰게 된다.
+ * 이때는 spring.kafka.offset-store.reset-topics 에 토픽을 넣고 재기동하면 프로세스마다 처음 할당받을 때 그 토픽의 저장 offset 을 지우고
+ * 커밋 위치부터 읽는다. 재처리가 끝나면 설정을 다시 비운다.
+ */
+@Component
+class ConsumerOffsetTracker(
+    private val consumerOffsetRepository: ConsumerOffsetRepository,
+    transactionManager: PlatformTransactionManager,
+    private val terminationMetrics: TerminationMetrics,
+    @Value("\${spring.kafka.offset-store.enabled:false}")
+    private val enabled: Boolean,
+    @Value("\${spring.kafka.offset-store.reset-topics:}")
+    private val resetTopics: Set<String>
+) {
+    private val logger = LoggerFactory.getLogger(ConsumerOffsetTracker::class.java)
+
+    private val transactionTemplate = TransactionTemplate(transactionManager)
+
+    // 이 프로세스에서 저장 offset 을 이미 지운 (consumer group, topic)
+    private val resetDone = ConcurrentHashMap.newKeySet<Pair<String, String>>()
+
+    fun applyInTransaction(topic: String, partition: Int, offset: Long, handler: () -> Unit) =
+        applyInTransaction(topic, mapOf(partition to offset), handler)
+
+    /** 컨슈머 스레드에서 호출해야 한다 (컨슈머 그룹 id 를 컨테이너 스레드 로컬에서 읽는다) */
+    fun applyInTransaction(topic: String, offsets: Map<Int, Long>, handler: () -> Unit) {
+        val groupId = KafkaUtils.getConsumerGroupId()
+        if (!enabled || groupId == null) {
+            handler()
+            return
+        }
+
+        transactionTemplate.executeWithoutResult {
+            handler()
+            consumerOffsetRepository.saveLastOffsets(groupId, topic, offsets)
+        }
+    }
+
+    fun seekPastApplied(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        val groupId = KafkaUtils.getConsumerGroupId()
+        if (!enabled || groupId == null || assignments.isEmpty()) {
+            return
+        }
+
+        val topics = assignments.keys.mapTo(HashSet()) { it.topic() }
+        topics.filter { it in resetTopics && resetDone.add(groupId to it) }.forEach { topic ->
+            val deleted = transactionTemplate.execute { consumerOffsetRepository.deleteByConsumerGroupAndTopic(groupId, topic) }
+            logger.warn("Cleared applied offsets for reset. group: {}, topic: {}, rows: {}", groupId, topic, deleted)
+        }
+
+        val applied = consumerOffsetRepository
+            .findByConsumerGroupAndTopicIn(groupId, topics)
+            .associate { TopicPartition(it.topic, it.partitionNo) to it.lastOffset }
+
+        assignments.forEach { (partition, position) ->
+            val next = applied[partition]?.plus(1) ?: return@forEach
+            if (next > position) {
+                logger.info("Seeking past applied records. partition: {}, committed: {}, next: {}", partition, position, next)
+                terminationMetrics.countReplaySkipped(partition.topic(), next - position)
+                callback.seek(partition.topic(), partition.partition(), next)
+            }
+        }
+    }
+}
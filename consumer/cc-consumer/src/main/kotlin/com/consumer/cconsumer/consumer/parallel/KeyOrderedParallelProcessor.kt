@@ -0,0 +1,233 @@
+package com.consumer.cconsumer.consumer.parallel
+
+import com.consumer.cconsumer.jfr.ConsumeRecordEvent
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.kafka.listener.ConsumerRecordRecoverer
+import org.springframework.kafka.listener.ListenerContainerPauseService
+import org.springframework.kafka.listener.ListenerContainerRegistry
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 한 번의 poll 로 받은 레코드를 key(payAccountId) 기준 lane 으로 나눠 워커 풀에서 병렬 처리한다.
+ *
+ * - 같은 key 는 항상 같은 lane 에서 poll 순서대로 처리되므로 key 단위 순서가 보장된다.
+ *   lane 은 floorMod(key.hashCode(), workerCount) 로 정하므로 한 lane 에 여러 key 가 섞이고,
+ *   느린 key 가 있으면 같은 lane 의 다른 key 도 그 뒤에서 기다린다 (lane 단위 head-of-line blocking).
+ *   poll 은 모든 lane 이 끝나야 다음으로 넘어가므로 가장 느린 lane 이 poll 처리 시간을 정한다.
+ * - 오프셋은 파티션별로 "앞에서부터 연속으로 완료된 지점"까지만 커밋하고,
+ *   완료되지 못한 첫 레코드로 seek 해 다음 poll 에서 재전달 받는다. 그 뒤에서 이미 완료된 offset 은 기억해 두고 재전달 시 건너뛴다.
+ * - 재전달 전 대기는 컨슈머 스레드를 재우지 않고 해당 파티션만 [backOffMillis] 동안 pause 한다.
+ *   [listenerContainerRegistry] 에서 파티션을 가진 컨테이너를 찾지 못하면 대기 없이 다음 poll 에서 바로 재전달한다.
+ * - 실패한 레코드는 [retryAttempts] 회까지 재전달하며, 재시도 불가 예외이거나 횟수를 넘기면 [recoverer] 로 넘기고 건너뛴다.
+ *   recoverer 가 실패하면 건너뛰지 않고 다음 poll 에서 다시 처리한다.
+ */
+class KeyOrderedParallelProcessor(
+    private val workerCount: Int,
+    private val retryAttempts: Int,
+    private val backOffMillis: Long,
+    private val notRetryableExceptions: List<Class<out Exception>>,
+    private val recoverer: ConsumerRecordRecoverer,
+    private val terminationMetrics: TerminationMetrics,
+    private val listenerContainerRegistry: ListenerContainerRegistry? = null
+) : AutoCloseable {
+
+    private val logger = LoggerFactory.getLogger(KeyOrderedParallelProcessor::class.java)
+
+    private val threadSequence = AtomicInteger()
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(workerCount) { runnable ->
+        Thread(runnable, "key-ordered-worker-${threadSequence.incrementAndGet()}").apply { isDaemon = true }
+    }
+
+    // 재전달된 레코드의 실패 횟수를 poll 사이에서 이어서 세기 위한 저장소
+    private val failedAttempts = ConcurrentHashMap<RecordPosition, Int>()
+
+    // 커밋 지점 뒤에서 이미 완료(또는 recoverer 로 처리)된 offset. 재전달 시 다시 실행하지 않는다
+    private val completedAhead = ConcurrentHashMap<TopicPartition, Set<Long>>()
+
+    // pause 한 파티션의 resume 을 예약하는 전용 스케줄러
+    private val resumeScheduler = ThreadPoolTaskScheduler().apply {
+        setThreadNamePrefix("key-ordered-resume-")
+        initialize()
+    }
+
+    private val pauseService = ListenerContainerPauseService(listenerContainerRegistry, resumeScheduler)
+
+    init {
+        require(workerCount > 0) { "workerCount must be positive: $workerCount" }
+    }
+
+    fun <V> process(
+        records: List<ConsumerRecord<String, V>>,
+        consumer: Consumer<*, *>,
+        keyOf: (V) -> Long,
+        handler: (V) -> Unit
+    ) {
+        if (records.isEmpty()) {
+            return
+        }
+
+        val (alreadyCompleted, pending) = records.partition { completedAhead[it.topicPartition()]?.contains(it.offset()) == true }
+        val lanes = pending.groupBy { Math.floorMod(keyOf(it.value()).hashCode(), workerCount) }.values
+        val completed = lanes
+            .map { lane -> CompletableFuture.supplyAsync({ processLane(lane, keyOf, handler) }, executor) }
+            .flatMapTo(HashSet()) { it.join() }
+        alreadyCompleted.mapTo(completed) { RecordPosition(it.topicPartition(), it.offset()) }
+
+        commitContiguous(records, completed, consumer)
+    }
+
+    private fun <V> processLane(
+        lane: List<ConsumerRecord<String, V>>,
+        keyOf: (V) -> Long,
+        handler: (V) -> Unit
+    ): List<RecordPosition> {
+        val completed = ArrayList<RecordPosition>(lane.size)
+        val blockedKeys = HashSet<Long>()
+
+        for (record in lane) {
+            val key = keyOf(record.value())
+            // 같은 key 의 앞선 레코드가 실패했다면 순서 보장을 위해 뒤 레코드도 다음 poll 로 미룬다
+            if (key in blockedKeys) {
+                continue
+            }
+
+            val position = RecordPosition(record.topicPartition(), record.offset())
+            val event = recordEvent(record, key)
+            try {
+                event.timeService { handler(record.value()) }
+                event.end(ConsumeRecordEvent.OUTCOME_SUCCESS)
+                failedAttempts.remove(position)
+                completed += position
+            } catch (exception: Exception) {
+                event.end(ConsumeRecordEvent.OUTCOME_FAILURE)
+                if (skipAfterFailure(record, position, exception)) {
+                    completed += position
+                } else {
+                    blockedKeys += key
+                }
+            }
+        }
+        return completed
+    }
+
+    private fun recordEvent(record: ConsumerRecord<*, *>, key: Long) =
+        ConsumeRecordEvent.begin(
+            record.topic(),
+            record.partition(),
+            record.offset(),
+            record.headers().lastHeader(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER)?.value()
+        ).apply { payAccountId = key }
+
+    private fun skipAfterFailure(record: ConsumerRecord<*, *>, position: RecordPosition, exception: Exception): Boolean {
+        val attempt = failedAttempts.merge(position, 1, Int::plus)!!
+        val notRetryable = notRetryableExceptions.any { it.isInstance(exception) }
+
+        if (notRetryable || attempt > retryAttempts) {
+            try {
+                recoverer.accept(record, exception)
+            } catch (recoverFailure: Exception) {
+                logger.error(
+                    "Failed to recover topic: {}, partition: {}, offset: {}, key: {}. Message will be redelivered.",
+                    record.topic(), record.partition(), record.offset(), record.key(), recoverFailure
+                )
+                return false
+            }
+            failedAttempts.remove(position)
+            terminationMetrics.countRecovered(record.topic())
+            logger.error(
+                "All retries exhausted for topic: {}, partition: {}, offset: {}, key: {}. Message was recovered.",
+                record.topic(), record.partition(), record.offset(), record.key(), exception
+            )
+            return true
+        }
+
+        terminationMetrics.countRetry(record.topic())
+        logger.warn(
+            "Retry attempt {} failed for topic: {}, partition: {}, offset: {}, key: {}",
+            attempt, record.topic(), record.partition(), record.offset(), record.key(), exception
+        )
+        return false
+    }
+
+    private fun commitContiguous(
+        records: List<ConsumerRecord<String, *>>,
+        completed: Set<RecordPosition>,
+        consumer: Consumer<*, *>
+    ) {
+        val commitOffsets = HashMap<TopicPartition, OffsetAndMetadata>()
+        val seekOffsets = HashMap<TopicPartition, Long>()
+
+        records.groupBy { it.topicPartition() }.forEach { (partition, partitionRecords) ->
+            // poll 결과는 파티션 내에서 offset 오름차순이므로 첫 미완료 레코드 직전까지가 연속 완료 구간
+            val firstIncomplete = partitionRecords.firstOrNull { RecordPosition(partition, it.offset()) !in completed }
+            val nextOffset = firstIncomplete?.offset() ?: (partitionRecords.last().offset() + 1)
+
+            if (nextOffset > partitionRecords.first().offset()) {
+                commitOffsets[partition] = OffsetAndMetadata(nextOffset)
+            }
+            if (firstIncomplete != null) {
+                seekOffsets[partition] = firstIncomplete.offset()
+            }
+
+            val ahead = completedAhead[partition].orEmpty()
+                .plus(partitionRecords.map { it.offset() }.filter { RecordPosition(partition, it) in completed })
+                .filterTo(HashSet()) { it >= nextOffset }
+            if (ahead.isEmpty()) completedAhead.remove(partition) else completedAhead[partition] = ahead
+        }
+
+        if (commitOffsets.isNotEmpty()) {
+            consumer.commitSync(commitOffsets)
+        }
+        if (seekOffsets.isEmpty()) {
+            return
+        }
+
+        seekOffsets.forEach { (partition, offset) -> consumer.seek(partition, offset) }
+        logger.info("Incomplete records remain. Seeking to redeliver from: {}", seekOffsets)
+        backOff(seekOffsets.keys)
+    }
+
+    private fun backOff(partitions: Collection<TopicPartition>) {
+        if (backOffMillis <= 0) {
+            return
+        }
+        partitions.forEach { partition ->
+            val container = listenerContainerRegistry?.listenerContainers?.firstOrNull { partition in it.assignedPartitions.orEmpty() }
+            if (container == null) {
+                logger.warn("No listener container owns partition: {}. Redelivering without back-off.", partition)
+                return@forEach
+            }
+            pauseService.pausePartition(container, partition, Duration.ofMillis(backOffMillis))
+        }
+    }
+
+    /** 넘겨준 파티션의 재시도 횟수와 완료 offset 을 버린다. 새 소유자는 커밋된 offset 부터 다시 센다 */
+    fun onPartitionsRevoked(partitions: Collection<TopicPartition>) {
+        partitions.forEach { completedAhead.remove(it) }
+        failedAttempts.keys.removeIf { it.partition in partitions }
+    }
+
+    override fun close() {
+        executor.shutdown()
+        resumeScheduler.shutdown()
+    }
+
+    private fun ConsumerRecord<*, *>.topicPartition() = TopicPartition(topic(), partition())
+
+    private data class RecordPosition(
+        val partition: TopicPartition,
+        val offset: Long
+    )
+}
@@ -0,0 +1,30 @@
+package com.consumer.cconsumer.domain.entity
+
+import jakarta.persistence.*
+
+/**
+ * 컨슈머 그룹의 topic-partition 별 마지막 적용 offset. 파기 대상자 적재와 같은 트랜잭션에서 기록된다.
+ */
+@Entity
+@Table(
+    name = "CONSUMER_OFFSET",
+    uniqueConstraints = [
+        UniqueConstraint(
+            name = "uq_consumer_offset_group_topic_partition",
+            columnNames = ["consumer_group", "topic", "partition_no"]
+        )
+    ]
+)
+class ConsumerOffset(
+    @Column(name = "consumer_group", nullable = false)
+    val consumerGroup: String,
+
+    @Column(name = "topic", nullable = false)
+    val topic: String,
+
+    @Column(name = "partition_no", nullable = false)
+    val partitionNo: Int,
+
+    @Column(name = "last_offset", nullable = false)
+    val lastOffset: Long
+) : BaseEntity()
@@ -0,0 +1,16 @@
+package com.consumer.cconsumer.domain.repository
+
+import com.consumer.cconsumer.domain.entity.ConsumerOffset
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+
+interface ConsumerOffsetRepository : JpaRepository<ConsumerOffset, Long>, ConsumerOffsetUpsertRepository {
+
+    fun findByConsumerGroupAndTopicIn(consumerGroup: String, topics: Collection<String>): List<ConsumerOffset>
+
+    /** 컨슈머 그룹 offset 을 되돌릴 때 저장된 적용 offset 을 지운다 */
+    @Modifying
+    @Query("DELETE FROM ConsumerOffset o WHERE o.consumerGroup = :consumerGroup AND o.topic = :topic")
+    fun deleteByConsumerGroupAndTopic(consumerGroup: String, topic: String): Int
+}
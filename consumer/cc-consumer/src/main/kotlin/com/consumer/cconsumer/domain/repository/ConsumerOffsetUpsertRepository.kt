@@ -0,0 +1,10 @@
+package com.consumer.cconsumer.domain.repository
+
+interface ConsumerOffsetUpsertRepository {
+
+    /**
+     * partition 별 마지막 적용 offset 을 JDBC 배치 upsert 로 기록한다.
+     * 이미 저장된 offset 보다 작은 값으로는 되돌리지 않는다 (재시도 토픽 / DLT 로 넘어간 레코드가 나중에 끝나는 경우).
+     */
+    fun saveLastOffsets(consumerGroup: String, topic: String, offsets: Map<Int, Long>)
+}
@@ -0,0 +1,36 @@
+package com.consumer.cconsumer.domain.repository
+
+import org.springframework.jdbc.core.JdbcTemplate
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+class ConsumerOffsetUpsertRepositoryImpl(
+    private val jdbcTemplate: JdbcTemplate
+) : ConsumerOffsetUpsertRepository {
+
+    override fun saveLastOffsets(consumerGroup: String, topic: String, offsets: Map<Int, Long>) {
+        if (offsets.isEmpty()) {
+            return
+        }
+
+        val now = Timestamp.valueOf(LocalDateTime.now())
+        jdbcTemplate.batchUpdate(UPSERT_SQL, offsets.entries.toList(), offsets.size) { ps, (partition, offset) ->
+            ps.setString(1, consumerGroup)
+            ps.setString(2, topic)
+            ps.setInt(3, partition)
+            ps.setLong(4, offset)
+            ps.setTimestamp(5, now)
+            ps.setTimestamp(6, now)
+            ps.setLong(7, offset)
+            ps.setTimestamp(8, now)
+        }
+    }
+
+    companion object {
+        // VALUES(col) 참조는 MySQL 8.0.20 부터 deprecated 라 갱신 값도 파라미터로 다시 넘긴다
+        private const val UPSERT_SQL =
+            "INSERT INTO CONSUMER_OFFSET (consumer_group, topic, partition_no, last_offset, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE last_offset = GREATEST(last_offset, ?), updated_at = ?"
+    }
+}
@@ -10,4 +10,4 @@ interface MydataTerminateUserRepository : JpaRepository<MydataTerminateUser, Lon
         payAccountId: Long,
         terminateStatus: TerminateStatus
     ): MydataTerminateUser?
-}
\ No newline at end of file
+}
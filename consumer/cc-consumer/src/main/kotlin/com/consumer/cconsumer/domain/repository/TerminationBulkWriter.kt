@@ -0,0 +1,78 @@
+package com.consumer.cconsumer.domain.repository
+
+import com.consumer.cconsumer.domain.entity.TerminateStatus
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Component
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+/**
+ * IDENTITY 전략 때문에 Hibernate JDBC 배치가 꺼지는 문제를 우회하기 위한 JDBC 기반 bulk upsert 실행기.
+ * MySQL URL 에 rewriteBatchedStatements=true 가 있으면 드라이버가 배치를 multi-row INSERT 로 재작성한다.
+ * 배치 크기는 Hibernate 의 jdbc.batch_size 와 별개로 termination.bulk.batch-size 로 정한다.
+ */
+@Component
+class TerminationBulkWriter(
+    private val jdbcTemplate: JdbcTemplate,
+    @Value("\${termination.bulk.batch-size:500}")
+    private val batchSize: Int
+) {
+    private val logger = LoggerFactory.getLogger(TerminationBulkWriter::class.java)
+
+    init {
+        require(batchSize > 0) { "termination.bulk.batch-size must be positive but was $batchSize" }
+    }
+
+    /**
+     * (pay_account_id, terminate_status) 유니크 키 기준으로 PENDING 레코드를 upsert 한다.
+     * 이미 PENDING 레코드가 있으면 기존 사유를 유지한 채 건너뛰며, 새로 삽입한 건수를 반환한다.
+     *
+     * rewriteBatchedStatements 사용 시 드라이버는 SUCCESS_NO_INFO 를, 아니면 found rows 를 돌려줘 중복 여부를 알 수 없으므로
+     * 같은 트랜잭션에서 기존 PENDING 키를 먼저 조회하고 없는 행만 INSERT 한다.
+     * 조회와 INSERT 사이에 다른 트랜잭션이 넣은 행은 ON DUPLICATE KEY 로 건너뛰지만 삽입 건수에는 포함된다.
+     */
+    fun upsertPending(table: String, targets: List<TerminationTarget>): Int {
+        if (targets.isEmpty()) {
+            return 0
+        }
+
+        val sql = "INSERT INTO $table (pay_account_id, terminate_status, reason, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = id"
+        val now = Timestamp.valueOf(LocalDateTime.now())
+
+        return targets.chunked(batchSize).sumOf { chunk ->
+            val startedAt = System.nanoTime()
+            val existing = existingPendingIds(table, chunk)
+            val inserts = chunk.filterNot { it.payAccountId in existing }
+            if (inserts.isNotEmpty()) {
+                jdbcTemplate.batchUpdate(sql, inserts, inserts.size) { ps, target ->
+                    ps.setLong(1, target.payAccountId)
+                    ps.setString(2, TerminateStatus.PENDING.name)
+                    ps.setString(3, target.reason)
+                    ps.setTimestamp(4, now)
+                    ps.setTimestamp(5, now)
+                }
+            }
+            val elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000
+
+            logger.info("Bulk upserted into {}. batchSize: {}, inserted: {}, existing: {}, elapsed: {}ms",
+                table, chunk.size, inserts.size, existing.size, elapsedMillis)
+            inserts.size
+        }
+    }
+
+    private fun existingPendingIds(table: String, chunk: List<TerminationTarget>): Set<Long> {
+        val placeholders = chunk.joinToString(",") { "?" }
+        val sql = "SELECT pay_account_id FROM $table WHERE terminate_status = ? AND pay_account_id IN ($placeholders)"
+        val args = (listOf<Any>(TerminateStatus.PENDING.name) + chunk.map { it.payAccountId }).toTypedArray()
+        return jdbcTemplate.query(sql, RowMapper { rs, _ -> rs.getLong(1) }, *args).toHashSet()
+    }
+
+    companion object {
+        const val MYDATA_TERMINATE_USER = "MYDATA_TERMINATE_USER"
+        const val PAY_TERMINATE_USER = "PAY_TERMINATE_USER"
+    }
+}
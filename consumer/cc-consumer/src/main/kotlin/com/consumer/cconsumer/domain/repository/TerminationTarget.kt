@@ -0,0 +1,6 @@
+package com.consumer.cconsumer.domain.repository
+
+data class TerminationTarget(
+    val payAccountId: Long,
+    val reason: String?
+)
@@ -0,0 +1,110 @@
+package com.consumer.cconsumer.jfr
+
+import jdk.jfr.Category
+import jdk.jfr.Description
+import jdk.jfr.Enabled
+import jdk.jfr.EventType
+import jdk.jfr.Label
+import jdk.jfr.Name
+import jdk.jfr.StackTrace
+import jdk.jfr.Timespan
+import java.nio.ByteBuffer
+
+/**
+ * 리스너가 레코드 1건을 처리한 JFR 이벤트. histogram 으로는 알 수 없는 "어느 레코드가 왜 느렸는지"를
+ * topic / partition / offset / payAccountId 와 역직렬화 시간, 서비스(적재) 시간으로 남긴다.
+ *
+ * 기본으로는 꺼져 있고 jfr/termination.jfc 설정으로 켠다. 이벤트 duration 은 리스너 진입부터 ack 직전까지이고,
+ * poll 중에 역직렬화되는 레코드는 [TimedDeserializer] 가 붙인 [DESERIALIZE_NANOS_HEADER] 값을 deserializeTime 으로 쓴다.
+ */
+@Name(ConsumeRecordEvent.NAME)
+@Label("Consume Record")
+@Category("CC Consumer", "Kafka")
+@Description("Listener handling of a single termination record")
+@Enabled(false)
+@StackTrace(false)
+class ConsumeRecordEvent : jdk.jfr.Event() {
+
+    @field:Label("Topic")
+    @JvmField
+    var topic: String? = null
+
+    @field:Label("Partition")
+    @JvmField
+    var partition: Int = 0
+
+    @field:Label("Offset")
+    @JvmField
+    var offset: Long = 0
+
+    @field:Label("Pay Account Id")
+    @JvmField
+    var payAccountId: Long = 0
+
+    @field:Label("Deserialize Time")
+    @field:Timespan(Timespan.NANOSECONDS)
+    @JvmField
+    var deserializeTime: Long = 0
+
+    @field:Label("Service Time")
+    @field:Timespan(Timespan.NANOSECONDS)
+    @JvmField
+    var serviceTime: Long = 0
+
+    @field:Label("Outcome")
+    @field:Description("success / failure / skipped / buffered")
+    @JvmField
+    var outcome: String? = null
+
+    inline fun <T> timeDeserialize(block: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            deserializeTime += System.nanoTime() - start
+        }
+    }
+
+    inline fun <T> timeService(block: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            serviceTime += System.nanoTime() - start
+        }
+    }
+
+    fun end(outcome: String) {
+        this.outcome = outcome
+        commit()
+    }
+
+    companion object {
+        const val NAME = "com.consumer.cconsumer.ConsumeRecord"
+        const val DESERIALIZE_NANOS_HEADER = "cc_jfr_deserialize_nanos"
+
+        const val OUTCOME_SUCCESS = "success"
+        const val OUTCOME_FAILURE = "failure"
+        const val OUTCOME_SKIPPED = "skipped"
+        const val OUTCOME_BUFFERED = "buffered"
+
+        private val eventType = EventType.getEventType(ConsumeRecordEvent::class.java)
+
+        /** 실행 중인 recording 중 하나라도 이 이벤트를 켰는지 여부 */
+        fun isRecording(): Boolean = eventType.isEnabled
+
+        fun begin(topic: String, partition: Int, offset: Long, deserializeNanos: ByteArray? = null) =
+            ConsumeRecordEvent().apply {
+                this.topic = topic
+                this.partition = partition
+                this.offset = offset
+                this.deserializeTime = decodeNanos(deserializeNanos)
+                begin()
+            }
+
+        fun encodeNanos(nanos: Long): ByteArray = ByteBuffer.allocate(Long.SIZE_BYTES).putLong(nanos).array()
+
+        fun decodeNanos(header: ByteArray?): Long =
+            if (header?.size == Long.SIZE_BYTES) ByteBuffer.wrap(header).long else 0L
+    }
+}
@@ -0,0 +1,74 @@
+package com.consumer.cconsumer.jfr
+
+import jdk.jfr.Category
+import jdk.jfr.Description
+import jdk.jfr.Enabled
+import jdk.jfr.Label
+import jdk.jfr.Name
+import jdk.jfr.StackTrace
+import jdk.jfr.Timespan
+
+/**
+ * PENDING 레코드 적재 1회의 JFR 이벤트. sqlTime 은 멱등성 조회와 INSERT(또는 bulk upsert)에 쓴 시간이고,
+ * 이벤트 duration 과의 차이는 캐시 확인 등 그 밖의 서비스 로직이다. 유니크 인덱스 lock 대기는 sqlTime 과
+ * 같은 스레드의 jdk.ThreadPark / jdk.JavaMonitorEnter 이벤트로 함께 확인한다.
+ *
+ * duplicate 는 단건 모드에서 캐시나 DB 에 이미 PENDING 레코드가 있었거나 동시 INSERT 로 유니크 제약에 걸린 경우,
+ * bulk 모드에서 SQL 로 보낸 건(rows, poll 내 중복과 캐시 적중을 뺀 건) 중 DB 에 이미 PENDING 레코드가 있던 건이 있는 경우 true 다.
+ */
+@Name(TerminationUpsertEvent.NAME)
+@Label("Termination Upsert")
+@Category("CC Consumer", "Database")
+@Description("PENDING termination row insert or bulk upsert")
+@Enabled(false)
+@StackTrace(false)
+class TerminationUpsertEvent : jdk.jfr.Event() {
+
+    @field:Label("Source")
+    @JvmField
+    var source: String? = null
+
+    @field:Label("Mode")
+    @JvmField
+    var mode: String? = null
+
+    @field:Label("Pay Account Id")
+    @field:Description("0 for bulk upserts")
+    @JvmField
+    var payAccountId: Long = 0
+
+    @field:Label("Rows")
+    @JvmField
+    var rows: Int = 0
+
+    @field:Label("SQL Time")
+    @field:Timespan(Timespan.NANOSECONDS)
+    @JvmField
+    var sqlTime: Long = 0
+
+    @field:Label("Duplicate")
+    @JvmField
+    var duplicate: Boolean = false
+
+    inline fun <T> timeSql(block: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            sqlTime += System.nanoTime() - start
+        }
+    }
+
+    companion object {
+        const val NAME = "com.consumer.cconsumer.TerminationUpsert"
+
+        fun begin(source: String, mode: String, payAccountId: Long = 0, rows: Int = 1) =
+            TerminationUpsertEvent().apply {
+                this.source = source
+                this.mode = mode
+                this.payAccountId = payAccountId
+                this.rows = rows
+                begin()
+            }
+    }
+}
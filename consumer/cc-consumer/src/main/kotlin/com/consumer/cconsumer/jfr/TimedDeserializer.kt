@@ -0,0 +1,27 @@
+package com.consumer.cconsumer.jfr
+
+import org.apache.kafka.common.header.Headers
+import org.apache.kafka.common.serialization.Deserializer
+
+/**
+ * poll 중에 수행되는 역직렬화 시간을 리스너의 [ConsumeRecordEvent] 로 넘기기 위한 래퍼.
+ * 이벤트를 켠 recording 이 있을 때만 시간을 재서 [ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER] 헤더로 붙인다.
+ */
+class TimedDeserializer<T>(private val delegate: Deserializer<T>) : Deserializer<T> {
+
+    override fun configure(configs: MutableMap<String, *>, isKey: Boolean) = delegate.configure(configs, isKey)
+
+    override fun deserialize(topic: String, data: ByteArray?): T = delegate.deserialize(topic, data)
+
+    override fun deserialize(topic: String, headers: Headers, data: ByteArray?): T {
+        if (!ConsumeRecordEvent.isRecording()) {
+            return delegate.deserialize(topic, headers, data)
+        }
+        val start = System.nanoTime()
+        val value = delegate.deserialize(topic, headers, data)
+        headers.add(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER, ConsumeRecordEvent.encodeNanos(System.nanoTime() - start))
+        return value
+    }
+
+    override fun close() = delegate.close()
+}
@@ -0,0 +1,67 @@
+package com.consumer.cconsumer.message
+
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import org.apache.avro.io.EncoderFactory
+import org.apache.avro.specific.SpecificDatumWriter
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.SmartInitializingSingleton
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Component
+import java.io.ByteArrayOutputStream
+
+/**
+ * CDS 학습 실행(-Dspring.context.exit=onRefresh, cds-training 프로파일)에서 컨텍스트 refresh 가 끝나기 전에
+ * 리스너와 같은 디코딩 경로(LocalSchemaAvroDeserializer, ConsentMessagePrefilterDeserializer)를 한 번씩 실행한다.
+ * 리스너 컨테이너는 refresh 직후 종료되어 레코드를 받지 않으므로, 이렇게 해야 생성된 Avro 클래스 / ResolvingDecoder /
+ * Jackson Kotlin 바인딩 클래스가 아카이브에 들어간다. Hibernate 메타모델은 EntityManagerFactory 초기화로 이미 로드된다.
+ * AOT 는 @Profile / @ConditionalOnProperty 를 빌드 시점에 고정하므로 빈 조건 대신 termination.startup.training 값으로 실행 여부를 정한다.
+ */
+@Component
+class CdsTrainingWarmup(
+    @Value("\${termination.startup.training:false}")
+    private val training: Boolean
+) : SmartInitializingSingleton {
+
+    private val logger = LoggerFactory.getLogger(CdsTrainingWarmup::class.java)
+
+    override fun afterSingletonsInstantiated() {
+        if (!training) {
+            return
+        }
+
+        val avroDeserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(listOf(TRAINING_SCHEMA_ID), null, null))
+        val envelope = avroDeserializer.deserialize(TRAINING_TOPIC, payAccountDeletedPayload())
+        val consentDeserializer = ConsentMessagePrefilterDeserializer()
+        val consent = consentDeserializer.deserialize(TRAINING_TOPIC, consentPayload(isRemove = true))
+        consentDeserializer.deserialize(TRAINING_TOPIC, consentPayload(isRemove = false))
+        logger.info("CDS training warm-up decoded sample records. payAccountId={}, consent={}", envelope?.payAccountId, consent?.type)
+    }
+
+    // Confluent wire format: magic byte + 4 byte schema id + Avro binary
+    private fun payAccountDeletedPayload(): ByteArray {
+        val output = ByteArrayOutputStream()
+        output.write(byteArrayOf(0, 0, 0, 0, TRAINING_SCHEMA_ID.toByte()))
+        val encoder = EncoderFactory.get().binaryEncoder(output, null)
+        SpecificDatumWriter(PayAccountDeletedEnvelop::class.java).write(
+            PayAccountDeletedEnvelop.newBuilder()
+                .setUuid("cds-training")
+                .setOccurredAt(0L)
+                .setPayAccountId(TRAINING_PAY_ACCOUNT_ID)
+                .setReason("CUSTOMER_REQUEST")
+                .build(),
+            encoder
+        )
+        encoder.flush()
+        return output.toByteArray()
+    }
+
+    private fun consentPayload(isRemove: Boolean): ByteArray =
+        """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":$TRAINING_PAY_ACCOUNT_ID,"is_remove":$isRemove,"is_force":false},"type":"WITHDRAW"}"""
+            .toByteArray()
+
+    companion object {
+        private const val TRAINING_TOPIC = "cds-training"
+        private const val TRAINING_SCHEMA_ID = 1
+        private const val TRAINING_PAY_ACCOUNT_ID = 1L
+    }
+}
@@ -0,0 +1,175 @@
+package com.consumer.cconsumer.message
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.apache.avro.Schema
+import org.apache.kafka.common.errors.SerializationException
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 스키마 레지스트리 없이 Confluent schema id 로 writer 스키마를 찾는 로컬 캐시.
+ *
+ * - 번들된 PayAccountDeletedEnvelop.avsc 를 [seedSchemaIds] 로 등록한다 (레지스트리에 같은 스키마가 등록된 id).
+ *   비어 있으면 경고를 남기고, [requireSeedIds] 이면 IllegalStateException 으로 기동을 실패시킨다.
+ * - [cacheDir] 의 <id>.avsc 파일을 시작 시 모두 읽어 이전에 받아 둔 스키마를 복원한다.
+ * - 모르는 id 는 [schemaRegistryUrl] 이 있을 때만 GET /schemas/ids/{id} 로 받아 디스크에 남기고, 실패하면 SerializationException 을 던진다.
+ *   조회는 id 별로 한 스레드만 수행하고 같은 id 를 기다리는 스레드만 그 결과를 기다린다 (다른 id 와 이미 아는 id 는 막히지 않는다).
+ *   실패한 id 는 [registryFailureBackoff] 동안 레지스트리를 다시 부르지 않고 곧바로 실패시켜, 장애 중 매 레코드가 timeout 을 기다리지 않게 한다.
+ * 여러 컨슈머 스레드가 공유하므로 thread-safe 하다.
+ */
+class LocalAvroSchemaStore(
+    seedSchemaIds: Collection<Int>,
+    private val cacheDir: Path?,
+    private val schemaRegistryUrl: String?,
+    private val objectMapper: ObjectMapper = ObjectMapper(),
+    private val registryTimeout: Duration = Duration.ofSeconds(2),
+    requireSeedIds: Boolean = false,
+    private val registryFailureBackoff: Duration = Duration.ofSeconds(30)
+) {
+    private val logger = LoggerFactory.getLogger(LocalAvroSchemaStore::class.java)
+
+    private val schemas = ConcurrentHashMap<Int, Schema>()
+
+    // id 별 진행 중인 레지스트리 조회
+    private val fetches = ConcurrentHashMap<Int, CompletableFuture<Schema>>()
+
+    // 레지스트리 조회에 실패한 id 와 다시 조회할 수 있는 시각 (System.nanoTime)
+    private val failedUntil = ConcurrentHashMap<Int, Long>()
+
+    private val httpClient: HttpClient by lazy {
+        HttpClient.newBuilder().connectTimeout(registryTimeout).build()
+    }
+
+    init {
+        if (seedSchemaIds.isEmpty()) {
+            check(!requireSeedIds) { "Local Avro schema cache is enabled but no seed schema ids are configured" }
+            logger.warn(
+                "Local Avro schema cache has no seed schema ids, the bundled schema is not registered and unknown ids need the schema registry. cacheDir: {}",
+                cacheDir
+            )
+        }
+        val bundled = bundledSchema()
+        seedSchemaIds.forEach { schemas[it] = bundled }
+        loadCacheDir()
+        logger.info("Local Avro schema cache warmed. schemaIds: {}", schemas.keys.sorted())
+    }
+
+    fun knownSchemaIds(): Set<Int> = schemas.keys.toSet()
+
+    fun writerSchema(schemaId: Int): Schema {
+        schemas[schemaId]?.let { return it }
+        failedUntil[schemaId]?.let { retryAt ->
+            if (System.nanoTime() - retryAt < 0) {
+                throw SerializationException("Avro schema id $schemaId is unavailable, schema registry fetch recently failed")
+            }
+        }
+
+        val fetch = CompletableFuture<Schema>()
+        val inFlight = fetches.putIfAbsent(schemaId, fetch)
+        if (inFlight != null) {
+            return awaitFetch(schemaId, inFlight)
+        }
+        try {
+            // 앞선 조회가 끝난 직후 들어왔을 수 있으므로 다시 확인한다
+            val schema = schemas[schemaId] ?: fetchFromRegistry(schemaId).also { schemas[schemaId] = it }
+            failedUntil.remove(schemaId)
+            fetch.complete(schema)
+            return schema
+        } catch (exception: Exception) {
+            failedUntil[schemaId] = System.nanoTime() + registryFailureBackoff.toNanos()
+            fetch.completeExceptionally(exception)
+            throw exception
+        } finally {
+            fetches.remove(schemaId, fetch)
+        }
+    }
+
+    private fun awaitFetch(schemaId: Int, fetch: CompletableFuture<Schema>): Schema =
+        try {
+            fetch.join()
+        } catch (exception: CompletionException) {
+            val cause = exception.cause
+            throw cause as? SerializationException
+                ?: SerializationException("Failed to fetch Avro schema id $schemaId from schema registry", cause)
+        }
+
+    private fun loadCacheDir() {
+        if (cacheDir == null || !Files.isDirectory(cacheDir)) {
+            return
+        }
+        Files.newDirectoryStream(cacheDir, "*$SCHEMA_FILE_SUFFIX").use { files ->
+            files.forEach { file ->
+                val schemaId = file.fileName.toString().removeSuffix(SCHEMA_FILE_SUFFIX).toIntOrNull() ?: return@forEach
+                try {
+                    schemas.putIfAbsent(schemaId, Schema.Parser().parse(file.toFile()))
+                } catch (exception: Exception) {
+                    logger.warn("Ignoring unreadable cached schema file: {}", file, exception)
+                }
+            }
+        }
+    }
+
+    private fun fetchFromRegistry(schemaId: Int): Schema {
+        if (schemaRegistryUrl.isNullOrBlank()) {
+            throw SerializationException("Unknown Avro schema id $schemaId and no schema registry is configured")
+        }
+
+        val schemaJson = try {
+            val request = HttpRequest.newBuilder(URI.create("${schemaRegistryUrl.trimEnd('/')}/schemas/ids/$schemaId"))
+                .timeout(registryTimeout)
+                .header("Accept", "application/vnd.schemaregistry.v1+json")
+                .GET()
+                .build()
+            val response = httpClient.send(request, HttpResponse.BodyHandlers.ofString())
+            if (response.statusCode() != 200) {
+                throw IOException("Schema registry responded ${response.statusCode()}")
+            }
+            objectMapper.readTree(response.body()).path("schema").asText()
+        } catch (exception: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw SerializationException("Interrupted while fetching Avro schema id $schemaId", exception)
+        } catch (exception: Exception) {
+            throw SerializationException("Failed to fetch Avro schema id $schemaId from schema registry", exception)
+        }
+
+        val schema = Schema.Parser().parse(schemaJson)
+        logger.info("Fetched Avro schema id {} from schema registry", schemaId)
+        persist(schemaId, schema)
+        return schema
+    }
+
+    // 다음 기동 때 레지스트리 없이 쓸 수 있도록 임시 파일에 쓴 뒤 이름을 바꿔 원자적으로 남긴다
+    private fun persist(schemaId: Int, schema: Schema) {
+        if (cacheDir == null) {
+            return
+        }
+        try {
+            Files.createDirectories(cacheDir)
+            val temp = Files.createTempFile(cacheDir, "$schemaId-", ".tmp")
+            Files.writeString(temp, schema.toString())
+            Files.move(temp, cacheDir.resolve("$schemaId$SCHEMA_FILE_SUFFIX"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+        } catch (exception: IOException) {
+            logger.warn("Failed to persist Avro schema id {} to {}", schemaId, cacheDir, exception)
+        }
+    }
+
+    companion object {
+        const val BUNDLED_SCHEMA_RESOURCE = "/PayAccountDeletedEnvelop.avsc"
+        private const val SCHEMA_FILE_SUFFIX = ".avsc"
+
+        fun bundledSchema(): Schema =
+            LocalAvroSchemaStore::class.java.getResourceAsStream(BUNDLED_SCHEMA_RESOURCE)?.use { Schema.Parser().parse(it) }
+                ?: throw IllegalStateException("Bundled schema $BUNDLED_SCHEMA_RESOURCE is not on the classpath")
+    }
+}
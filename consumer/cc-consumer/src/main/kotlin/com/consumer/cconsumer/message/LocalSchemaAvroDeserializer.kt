@@ -0,0 +1,81 @@
+package com.consumer.cconsumer.message
+
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import org.apache.avro.Schema
+import org.apache.avro.io.BinaryDecoder
+import org.apache.avro.io.DecoderFactory
+import org.apache.avro.io.ResolvingDecoder
+import org.apache.avro.specific.SpecificDatumReader
+import org.apache.kafka.common.errors.SerializationException
+import org.apache.kafka.common.serialization.Deserializer
+import java.nio.ByteBuffer
+
+/**
+ * Confluent wire format(magic byte + 4 byte schema id + Avro binary) 의 pay-account 삭제 메시지를
+ * [LocalAvroSchemaStore] 의 writer 스키마로 읽는 Deserializer. 스키마 레지스트리를 호출하지 않는다.
+ *
+ * writer 스키마마다 ResolvingDecoder 를 한 번만 만들어 재사용하고, 생성 시점에 이미 아는 스키마는 미리 만들어 둔다.
+ * ResolvingDecoder 는 상태를 가지므로 인스턴스를 컨슈머마다 따로 만들어야 한다 (DefaultKafkaConsumerFactory 의 Supplier 로 생성).
+ */
+class LocalSchemaAvroDeserializer(
+    private val schemaStore: LocalAvroSchemaStore
+) : Deserializer<PayAccountDeletedEnvelop> {
+
+    private val readerSchema: Schema = PayAccountDeletedEnvelop.getClassSchema()
+
+    private val resolvers = HashMap<Int, SchemaResolver>()
+
+    private var binaryDecoder: BinaryDecoder? = null
+
+    init {
+        schemaStore.knownSchemaIds().forEach { resolver(it) }
+    }
+
+    override fun deserialize(topic: String?, data: ByteArray?): PayAccountDeletedEnvelop? {
+        if (data == null) {
+            return null
+        }
+        if (data.size < HEADER_LENGTH || data[0] != MAGIC_BYTE) {
+            throw SerializationException("Payload from topic [$topic] does not start with the Confluent wire format header")
+        }
+
+        val schemaId = ByteBuffer.wrap(data, 1, Int.SIZE_BYTES).int
+        try {
+            val decoder = DecoderFactory.get().binaryDecoder(data, HEADER_LENGTH, data.size - HEADER_LENGTH, binaryDecoder)
+            binaryDecoder = decoder
+            return resolver(schemaId).read(decoder)
+        } catch (ex: SerializationException) {
+            throw ex
+        } catch (ex: Exception) {
+            throw SerializationException("Can't deserialize Avro data with schema id $schemaId from topic [$topic]", ex)
+        }
+    }
+
+    private fun resolver(schemaId: Int): SchemaResolver =
+        resolvers.getOrPut(schemaId) { SchemaResolver(schemaStore.writerSchema(schemaId), readerSchema) }
+
+    private class SchemaResolver(writerSchema: Schema, readerSchema: Schema) {
+        private val datumReader = ResolvedDatumReader(writerSchema, readerSchema)
+        private val resolvingDecoder: ResolvingDecoder =
+            DecoderFactory.get().resolvingDecoder(Schema.applyAliases(writerSchema, readerSchema), readerSchema, null)
+
+        fun read(decoder: BinaryDecoder): PayAccountDeletedEnvelop {
+            resolvingDecoder.configure(decoder)
+            return datumReader.read(resolvingDecoder).also { resolvingDecoder.drain() }
+        }
+    }
+
+    // GenericDatumReader.read(reuse, decoder) 는 호출마다 스레드 로컬 캐시에서 ResolvingDecoder 를 찾으므로 이미 만든 것을 직접 넘긴다
+    private class ResolvedDatumReader(writerSchema: Schema, private val readerSchema: Schema) :
+        SpecificDatumReader<PayAccountDeletedEnvelop>(writerSchema, readerSchema) {
+
+        @Suppress("UNCHECKED_CAST")
+        fun read(resolvingDecoder: ResolvingDecoder): PayAccountDeletedEnvelop =
+            read(null, readerSchema, resolvingDecoder) as PayAccountDeletedEnvelop
+    }
+
+    companion object {
+        private const val MAGIC_BYTE: Byte = 0x0
+        private const val HEADER_LENGTH = 5
+    }
+}
@@ -8,4 +8,12 @@ data class ConsentMessage(
     
     @JsonProperty("type")
     val type: String
-)
\ No newline at end of file
+) {
+    companion object {
+        // is_remove=false 메시지를 전체 바인딩 없이 건너뛸 때 반환하는 공유 인스턴스 (ConsentMessagePrefilterDeserializer)
+        val SKIP = ConsentMessage(
+            data = ConsentData(deleteEventType = "", payAccountId = 0L, isRemove = false, isForce = false),
+            type = ""
+        )
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.consumer.cconsumer.metrics
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.springframework.stereotype.Component
+
+/**
+ * 파기 대상자 적재 파이프라인의 Micrometer 지표.
+ *
+ * - termination.record.processing{topic, outcome}: 레코드 1건 처리 시간 (histogram)
+ * - termination.db.upsert{source, mode}: PENDING 레코드 적재 쿼리 시간 (histogram)
+ * - termination.records{source, result}: processed / skipped(is_remove=false) / duplicate 건수
+ * - termination.listener.retries{topic}, termination.listener.recovered{topic}: 재시도 / 재시도 소진 후 skip 건수
+ * - termination.listener.replay.skipped{topic}: 파티션 할당 시 CONSUMER_OFFSET 기준으로 건너뛴 재전달 레코드 수
+ * - termination.startup{phase}: JVM 시작부터 ready / 첫 레코드 집계까지 걸린 시간 (초, gauge, [StartupTimingReport])
+ * - termination.backpressure.state, termination.backpressure.batch.size: DbBackpressureController 상태 / 유효 배치 크기 (gauge)
+ */
+@Component
+class TerminationMetrics(
+    private val meterRegistry: MeterRegistry,
+    private val startupTimingReport: StartupTimingReport? = null
+) {
+
+    fun <T> recordProcessing(topic: String, block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        var outcome = OUTCOME_FAILURE
+        try {
+            return block().also { outcome = OUTCOME_SUCCESS }
+        } finally {
+            sample.stop(
+                Timer.builder(RECORD_PROCESSING)
+                    .tag("topic", topic)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun <T> recordUpsert(source: String, mode: String, block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        try {
+            return block()
+        } finally {
+            sample.stop(
+                Timer.builder(DB_UPSERT)
+                    .tag("source", source)
+                    .tag("mode", mode)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun countProcessed(source: String, count: Int = 1) = countRecords(source, RESULT_PROCESSED, count)
+
+    fun countSkipped(source: String, count: Int = 1) = countRecords(source, RESULT_SKIPPED, count)
+
+    fun countDuplicate(source: String, count: Int = 1) = countRecords(source, RESULT_DUPLICATE, count)
+
+    fun countRetry(topic: String) {
+        Counter.builder(LISTENER_RETRIES).tag("topic", topic).register(meterRegistry).increment()
+    }
+
+    fun countRecovered(topic: String) {
+        Counter.builder(LISTENER_RECOVERED).tag("topic", topic).register(meterRegistry).increment()
+    }
+
+    fun countReplaySkipped(topic: String, count: Long) {
+        Counter.builder(LISTENER_REPLAY_SKIPPED).tag("topic", topic).register(meterRegistry).increment(count.toDouble())
+    }
+
+    private fun countRecords(source: String, result: String, count: Int) {
+        if (count <= 0) {
+            return
+        }
+        startupTimingReport?.markRecordConsumed()
+        Counter.builder(RECORDS)
+            .tag("source", source)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment(count.toDouble())
+    }
+
+    companion object {
+        const val RECORD_PROCESSING = "termination.record.processing"
+        const val DB_UPSERT = "termination.db.upsert"
+        const val RECORDS = "termination.records"
+        const val LISTENER_RETRIES = "termination.listener.retries"
+        const val LISTENER_RECOVERED = "termination.listener.recovered"
+        const val LISTENER_REPLAY_SKIPPED = "termination.listener.replay.skipped"
+        const val STARTUP = "termination.startup"
+
+        const val SOURCE_MYDATA = "mydata"
+        const val SOURCE_PAY = "pay"
+        const val MODE_SINGLE = "single"
+        const val MODE_BULK = "bulk"
+
+        private const val RESULT_PROCESSED = "processed"
+        private const val RESULT_SKIPPED = "skipped"
+        private const val RESULT_DUPLICATE = "duplicate"
+        private const val OUTCOME_SUCCESS = "success"
+        private const val OUTCOME_FAILURE = "failure"
+    }
+}
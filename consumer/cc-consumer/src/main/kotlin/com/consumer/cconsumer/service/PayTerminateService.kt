@@ -1,5 +1,9 @@
 package com.consumer.cconsumer.service
 
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+
 interface PayTerminateService {
     fun processTermination(payAccountId: Long, reason: String)
-}
\ No newline at end of file
+
+    fun processTerminations(targets: List<TerminationTarget>)
+}
@@ -0,0 +1,108 @@
+package com.consumer.cconsumer.service.cache
+
+import java.time.Duration
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * PENDING 레코드가 이미 존재한다고 확인된 payAccountId 를 기억하는 bounded cache.
+ *
+ * - 박싱 없이 long 키를 그대로 저장하는 set-associative 구조 (set 당 [WAYS] 슬롯)
+ * - set 이 가득 차면 가장 오래 전에 put 된 슬롯을 교체 (set 단위 write-order 교체, 조회 hit 으로는 순서를 갱신하지 않는다)
+ * - TTL 이 지나면 miss 로 취급해, 외부 배치가 COMPLETED 로 바꾼 뒤에도 DB 확인으로 돌아가게 한다
+ *   (교체 순서와 TTL 모두 put 시각 기준이라 hit 이 잦은 항목도 TTL 안에 한 번은 DB 로 확인한다)
+ * - set 별로 잠금을 나눠 리스너 스레드 간 경합을 줄인다
+ *
+ * codex-consumer 는 기존 PENDING 의 reason 을 새 이벤트의 값으로 갱신하므로 payAccountId 만으로 조회를 건너뛸 수 없어 적용하지 않는다.
+ */
+class PendingTerminationCache(
+    capacity: Int,
+    ttl: Duration,
+    private val clock: () -> Long = System::nanoTime
+) {
+    private val ttlNanos = ttl.toNanos()
+    private val setCount = if (capacity <= 0) 0 else Integer.highestOneBit(maxOf(capacity / WAYS, 1))
+    private val keys = LongArray(setCount * WAYS)
+    private val writtenAt = LongArray(setCount * WAYS)
+    private val occupied = BooleanArray(setCount * WAYS)
+    private val locks = Array(setCount) { Any() }
+
+    private val hits = LongAdder()
+    private val misses = LongAdder()
+
+    val enabled: Boolean
+        get() = setCount > 0
+
+    fun contains(payAccountId: Long): Boolean {
+        if (!enabled) {
+            return false
+        }
+
+        val set = setOf(payAccountId)
+        val base = set * WAYS
+        val now = clock()
+        synchronized(locks[set]) {
+            for (slot in base until base + WAYS) {
+                if (occupied[slot] && keys[slot] == payAccountId) {
+                    if (now - writtenAt[slot] < ttlNanos) {
+                        hits.increment()
+                        return true
+                    }
+                    occupied[slot] = false
+                    break
+                }
+            }
+        }
+        misses.increment()
+        return false
+    }
+
+    fun put(payAccountId: Long) {
+        if (!enabled) {
+            return
+        }
+
+        val set = setOf(payAccountId)
+        val base = set * WAYS
+        val now = clock()
+        synchronized(locks[set]) {
+            var victim = base
+            for (slot in base until base + WAYS) {
+                if (occupied[slot] && keys[slot] == payAccountId) {
+                    writtenAt[slot] = now
+                    return
+                }
+                if (!occupied[slot]) {
+                    victim = slot
+                } else if (occupied[victim] && writtenAt[slot] < writtenAt[victim]) {
+                    victim = slot
+                }
+            }
+            keys[victim] = payAccountId
+            writtenAt[victim] = now
+            occupied[victim] = true
+        }
+    }
+
+    fun putAll(payAccountIds: Collection<Long>) {
+        payAccountIds.forEach { put(it) }
+    }
+
+    fun hitCount(): Long = hits.sum()
+
+    fun missCount(): Long = misses.sum()
+
+    private fun setOf(payAccountId: Long): Int {
+        // murmur3 fmix64 로 연속된 ID 가 같은 set 에 몰리지 않게 섞는다
+        var h = payAccountId
+        h = h xor (h ushr 33)
+        h *= -0xae502812aa7333L
+        h = h xor (h ushr 33)
+        h *= -0x3b314601e57a13adL
+        h = h xor (h ushr 33)
+        return (h.toInt() and (setCount - 1))
+    }
+
+    companion object {
+        private const val WAYS = 8
+    }
+}
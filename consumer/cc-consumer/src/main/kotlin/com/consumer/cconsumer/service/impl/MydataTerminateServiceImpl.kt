@@ -3,53 +3,138 @@ package com.consumer.cconsumer.service.impl
 import com.consumer.cconsumer.domain.entity.MydataTerminateUser
 import com.consumer.cconsumer.domain.entity.TerminateStatus
 import com.consumer.cconsumer.domain.repository.MydataTerminateUserRepository
+import com.consumer.cconsumer.domain.repository.TerminationBulkWriter
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.jfr.TerminationUpsertEvent
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.metrics.TerminationMetrics.Companion.MODE_BULK
+import com.consumer.cconsumer.metrics.TerminationMetrics.Companion.MODE_SINGLE
+import com.consumer.cconsumer.metrics.TerminationMetrics.Companion.SOURCE_MYDATA
 import com.consumer.cconsumer.service.MydataTerminateService
+import com.consumer.cconsumer.service.cache.PendingTerminationCache
 import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.dao.DataIntegrityViolationException
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
 
 @Service
 class MydataTerminateServiceImpl(
-    private val repository: MydataTerminateUserRepository
+    private val repository: MydataTerminateUserRepository,
+    private val bulkWriter: TerminationBulkWriter,
+    @Qualifier("mydataPendingTerminationCache")
+    private val pendingCache: PendingTerminationCache,
+    private val terminationMetrics: TerminationMetrics
 ) : MydataTerminateService {
     
     private val logger = LoggerFactory.getLogger(MydataTerminateServiceImpl::class.java)
 
     @Transactional
     override fun processTermination(payAccountId: Long, reason: String) {
-        logger.info("Processing mydata termination for payAccountId: {}, reason: {}", payAccountId, reason)
-        
+        val event = TerminationUpsertEvent.begin(SOURCE_MYDATA, MODE_SINGLE, payAccountId)
         try {
-            // 멱등성 보장: PENDING 상태 레코드 존재 여부 확인
-            val existingPending = repository.findByPayAccountIdAndTerminateStatus(
-                payAccountId, TerminateStatus.PENDING
-            )
-            
-            if (existingPending != null) {
-                logger.info("PENDING status record already exists for payAccountId: {}. Skipping insertion.", payAccountId)
+            logger.info("Processing mydata termination for payAccountId: {}, reason: {}", payAccountId, reason)
+
+            // 최근에 PENDING 으로 확인된 payAccountId 는 DB 조회 없이 바로 종료
+            if (pendingCache.contains(payAccountId)) {
+                logger.info("PENDING status record is cached for payAccountId: {}. Skipping insertion.", payAccountId)
+                event.duplicate = true
+                terminationMetrics.countDuplicate(SOURCE_MYDATA)
                 return
             }
-            
-            // PENDING 상태 레코드가 없으면 새로 생성
-            val newTerminateUser = MydataTerminateUser(
-                payAccountId = payAccountId,
-                terminateStatus = TerminateStatus.PENDING,
-                reason = reason
-            )
-            
-            repository.save(newTerminateUser)
-            logger.info("Successfully created PENDING termination record for payAccountId: {}", payAccountId)
-            
-        } catch (exception: DataIntegrityViolationException) {
-            // 복합 유니크 제약조건 위반 시 (동시성 상황에서 발생 가능)
-            logger.warn("Unique constraint violation for payAccountId: {} with PENDING status. Another transaction may have inserted the record.", payAccountId)
-            // 멱등성 보장을 위해 예외를 삼키고 정상 처리로 간주
-            
+
+            try {
+                // 멱등성 보장: PENDING 상태 레코드 존재 여부 확인
+                val existingPending = event.timeSql {
+                    repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
+                }
+
+                if (existingPending != null) {
+                    logger.info("PENDING status record already exists for payAccountId: {}. Skipping insertion.", payAccountId)
+                    pendingCache.put(payAccountId)
+                    event.duplicate = true
+                    terminationMetrics.countDuplicate(SOURCE_MYDATA)
+                    return
+                }
+
+                // PENDING 상태 레코드가 없으면 새로 생성
+                val newTerminateUser = MydataTerminateUser(
+                    payAccountId = payAccountId,
+                    terminateStatus = TerminateStatus.PENDING,
+                    reason = reason
+                )
+
+                terminationMetrics.recordUpsert(SOURCE_MYDATA, MODE_SINGLE) { event.timeSql { repository.save(newTerminateUser) } }
+                cacheAfterCommit(listOf(payAccountId))
+                terminationMetrics.countProcessed(SOURCE_MYDATA)
+                logger.info("Successfully created PENDING termination record for payAccountId: {}", payAccountId)
+
+            } catch (exception: DataIntegrityViolationException) {
+                // 복합 유니크 제약조건 위반 시 (동시성 상황에서 발생 가능)
+                logger.warn("Unique constraint violation for payAccountId: {} with PENDING status. Another transaction may have inserted the record.", payAccountId)
+                // 멱등성 보장을 위해 예외를 삼키고 정상 처리로 간주
+                pendingCache.put(payAccountId)
+                event.duplicate = true
+                terminationMetrics.countDuplicate(SOURCE_MYDATA)
+
+            } catch (exception: Exception) {
+                logger.error("Failed to process mydata termination for payAccountId: {}, reason: {}", 
+                    payAccountId, reason, exception)
+                throw exception
+            }
+        } finally {
+            event.commit()
+        }
+    }
+
+    @Transactional
+    override fun processTerminations(targets: List<TerminationTarget>) {
+        if (targets.isEmpty()) {
+            return
+        }
+
+        // 같은 poll 안의 중복 payAccountId 는 단건 처리와 동일하게 최초 사유만 유지
+        val distinctTargets = targets.distinctBy { it.payAccountId }
+            .filterNot { pendingCache.contains(it.payAccountId) }
+        if (distinctTargets.isEmpty()) {
+            logger.info("All {} mydata terminations in batch are cached as PENDING. Skipping insertion.", targets.size)
+            terminationMetrics.countDuplicate(SOURCE_MYDATA, targets.size)
+            return
+        }
+
+        try {
+            val event = TerminationUpsertEvent.begin(SOURCE_MYDATA, MODE_BULK, rows = distinctTargets.size)
+            val inserted = try {
+                terminationMetrics.recordUpsert(SOURCE_MYDATA, MODE_BULK) {
+                    event.timeSql { bulkWriter.upsertPending(TerminationBulkWriter.MYDATA_TERMINATE_USER, distinctTargets) }
+                }.also { event.duplicate = it != distinctTargets.size }
+            } finally {
+                event.commit()
+            }
+            cacheAfterCommit(distinctTargets.map { it.payAccountId })
+            // 실제로 삽입된 건만 processed, 나머지(poll 내 중복, 캐시 적중, 기존 PENDING)는 duplicate
+            terminationMetrics.countProcessed(SOURCE_MYDATA, inserted)
+            terminationMetrics.countDuplicate(SOURCE_MYDATA, targets.size - inserted)
+            logger.info("Bulk processed mydata terminations. received: {}, distinct: {}, inserted: {}",
+                targets.size, distinctTargets.size, inserted)
         } catch (exception: Exception) {
-            logger.error("Failed to process mydata termination for payAccountId: {}, reason: {}", 
-                payAccountId, reason, exception)
+            logger.error("Failed to bulk process mydata terminations. size: {}", distinctTargets.size, exception)
             throw exception
         }
     }
+
+    // 롤백된 insert 가 캐시에 남지 않도록 커밋 이후에만 기록
+    private fun cacheAfterCommit(payAccountIds: List<Long>) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingCache.putAll(payAccountIds)
+            return
+        }
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() {
+                pendingCache.putAll(payAccountIds)
+            }
+        })
+    }
 }
\ No newline at end of file
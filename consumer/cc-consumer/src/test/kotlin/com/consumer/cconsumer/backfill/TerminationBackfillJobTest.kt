@@ -0,0 +1,117 @@
+package com.consumer.cconsumer.backfill
+
+import com.consumer.cconsumer.backfill.TerminationDumpReader.DumpFormat
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.message.avro.PayAccountDeletedEnvelop
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import com.consumer.cconsumer.service.PayTerminateService
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.avro.file.DataFileWriter
+import org.apache.avro.specific.SpecificDatumWriter
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.GZIPOutputStream
+
+class TerminationBackfillJobTest : DescribeSpec({
+
+    describe("TerminationBackfillJob") {
+        lateinit var dir: Path
+        lateinit var mydataService: MydataTerminateService
+        lateinit var payService: PayTerminateService
+        lateinit var meterRegistry: SimpleMeterRegistry
+        val batches = mutableListOf<List<TerminationTarget>>()
+
+        fun job(mydataPath: String = "", payPath: String = "", batchSize: Int = 2) = TerminationBackfillJob(
+            mydataTerminateService = mydataService,
+            payTerminateService = payService,
+            terminationMetrics = TerminationMetrics(meterRegistry),
+            mydataPath = mydataPath,
+            mydataFormat = "",
+            payPath = payPath,
+            payFormat = "",
+            batchSize = batchSize,
+            progressInterval = 2
+        )
+
+        beforeEach {
+            dir = Files.createTempDirectory("cc-backfill-test")
+            batches.clear()
+            meterRegistry = SimpleMeterRegistry()
+            // 서비스는 호출 후 버퍼를 재사용하므로 넘겨받은 시점의 내용을 복사해 둔다
+            mydataService = mockk(relaxed = true) {
+                every { processTerminations(any()) } answers { batches += firstArg<List<TerminationTarget>>().toList() }
+            }
+            payService = mockk(relaxed = true) {
+                every { processTerminations(any()) } answers { batches += firstArg<List<TerminationTarget>>().toList() }
+            }
+        }
+
+        afterEach {
+            dir.toFile().deleteRecursively()
+        }
+
+        context("gzip JSONL 동의 덤프를 적재할 때") {
+            it("is_remove=true 메시지만 batchSize 단위로 서비스 bulk 경로에 넘긴다") {
+                val dump = dir.resolve("consent.jsonl.gz")
+                GZIPOutputStream(Files.newOutputStream(dump)).bufferedWriter().use { writer ->
+                    listOf(1L to true, 2L to false, 3L to true, 4L to true).forEach { (id, isRemove) ->
+                        writer.write(consent(id, isRemove) + "\n")
+                    }
+                }
+
+                val result = job(mydataPath = dump.toString()).run().single()
+
+                result.read shouldBe 4L
+                result.skipped shouldBe 1L
+                result.loaded shouldBe 3L
+                batches shouldBe listOf(
+                    listOf(TerminationTarget(1L, "USER_DELETE"), TerminationTarget(3L, "USER_DELETE")),
+                    listOf(TerminationTarget(4L, "USER_DELETE"))
+                )
+                verify(exactly = 0) { payService.processTerminations(any()) }
+                meterRegistry.counter(
+                    "termination.records", "source", TerminationMetrics.SOURCE_MYDATA, "result", "skipped"
+                ).count() shouldBe 1.0
+            }
+        }
+
+        context("Avro container 파일의 pay 계정 삭제 덤프를 적재할 때") {
+            it("payAccountId 와 사유를 읽어 서비스 bulk 경로에 넘긴다") {
+                val dump = dir.resolve("pay-account-deleted.avro")
+                DataFileWriter(SpecificDatumWriter(PayAccountDeletedEnvelop::class.java)).use { writer ->
+                    writer.create(PayAccountDeletedEnvelop.getClassSchema(), dump.toFile())
+                    (1L..3L).forEach { writer.append(envelope(it)) }
+                }
+
+                val result = job(payPath = dump.toString(), batchSize = 10).run().single()
+
+                result.loaded shouldBe 3L
+                batches shouldBe listOf((1L..3L).map { TerminationTarget(it, "REASON_$it") })
+                verify(exactly = 0) { mydataService.processTerminations(any()) }
+            }
+        }
+
+        context("덤프 형식을 지정하지 않으면") {
+            it("gzip 확장자를 제외한 파일 확장자로 판단한다") {
+                TerminationDumpReader.formatOf(Path.of("/dump/pay.avro.gz")) shouldBe DumpFormat.AVRO
+                TerminationDumpReader.formatOf(Path.of("/dump/consent.jsonl")) shouldBe DumpFormat.JSONL
+            }
+        }
+    }
+})
+
+private fun consent(payAccountId: Long, isRemove: Boolean) =
+    """{"data":{"delete_event_type":"USER_DELETE","pay_account_id":$payAccountId,"is_remove":$isRemove,"is_force":false},"type":"DELETE"}"""
+
+private fun envelope(payAccountId: Long) = PayAccountDeletedEnvelop.newBuilder()
+    .setUuid("backfill-$payAccountId")
+    .setOccurredAt(1_725_000_000_000L)
+    .setPayAccountId(payAccountId)
+    .setReason("REASON_$payAccountId")
+    .build()
@@ -0,0 +1,150 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.consumer.offset.ConsumerOffsetTracker
+import com.consumer.cconsumer.domain.repository.ConsumerOffsetRepository
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.message.model.ConsentData
+import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.transaction.PlatformTransactionManager
+
+class MydataConsentBatchConsumerTest : DescribeSpec({
+
+    describe("MydataConsentBatchConsumer") {
+        lateinit var mydataTerminateService: MydataTerminateService
+        lateinit var acknowledgment: Acknowledgment
+        lateinit var consumer: MydataConsentBatchConsumer
+        lateinit var consumerOffsetRepository: ConsumerOffsetRepository
+
+        beforeEach {
+            mydataTerminateService = mockk<MydataTerminateService>()
+            acknowledgment = mockk<Acknowledgment>()
+            consumerOffsetRepository = mockk<ConsumerOffsetRepository>(relaxed = true)
+            val terminationMetrics = TerminationMetrics(SimpleMeterRegistry())
+            val consumerOffsetTracker = ConsumerOffsetTracker(
+                consumerOffsetRepository, mockk<PlatformTransactionManager>(relaxed = true), terminationMetrics, true, emptySet()
+            )
+            consumer = MydataConsentBatchConsumer(mydataTerminateService, consumerOffsetTracker, terminationMetrics)
+            every { acknowledgment.acknowledge() } just runs
+        }
+
+        describe("consumeConsentMessages 메서드 실행 시") {
+            context("isRemove가 true/false인 메시지가 섞여 있는 경우") {
+                it("isRemove가 true인 메시지만 모아 한 번에 처리하고 한 번만 acknowledge 한다") {
+                    // given
+                    val messages = listOf(
+                        consentMessage(payAccountId = 1L, isRemove = true),
+                        consentMessage(payAccountId = 2L, isRemove = false),
+                        consentMessage(payAccountId = 3L, isRemove = true)
+                    )
+                    every { mydataTerminateService.processTerminations(any()) } just runs
+
+                    // when
+                    consumer.consumeConsentMessages(messages, topics(messages), partitions(messages), offsets(messages), acknowledgment)
+
+                    // then
+                    verify(exactly = 1) {
+                        mydataTerminateService.processTerminations(
+                            listOf(
+                                TerminationTarget(1L, "USER_CONSENT_WITHDRAWN"),
+                                TerminationTarget(3L, "USER_CONSENT_WITHDRAWN")
+                            )
+                        )
+                    }
+                    verify(exactly = 1) { acknowledgment.acknowledge() }
+                }
+            }
+
+            context("컨슈머 스레드에서 여러 파티션의 메시지를 받은 경우") {
+                it("처리와 같은 트랜잭션에서 파티션 별 마지막 offset 을 기록한다") {
+                    // given
+                    val messages = listOf(
+                        consentMessage(payAccountId = 6L, isRemove = true),
+                        consentMessage(payAccountId = 7L, isRemove = false),
+                        consentMessage(payAccountId = 8L, isRemove = true)
+                    )
+                    every { mydataTerminateService.processTerminations(any()) } just runs
+                    KafkaUtils.setConsumerGroupId("cc-consumer-group")
+
+                    // when
+                    try {
+                        consumer.consumeConsentMessages(
+                            messages, topics(messages), listOf(0, 1, 0), listOf(10L, 20L, 11L), acknowledgment
+                        )
+                    } finally {
+                        KafkaUtils.clearConsumerGroupId()
+                    }
+
+                    // then
+                    verify(exactly = 1) {
+                        consumerOffsetRepository.saveLastOffsets("cc-consumer-group", "mydata.consent.v1", mapOf(0 to 11L, 1 to 20L))
+                    }
+                    verify(exactly = 1) { acknowledgment.acknowledge() }
+                }
+            }
+
+            context("모든 메시지가 isRemove=false인 경우") {
+                it("서비스를 호출하지 않고 acknowledge만 한다") {
+                    // when
+                    val messages = listOf(consentMessage(payAccountId = 4L, isRemove = false))
+                    consumer.consumeConsentMessages(
+                        messages, topics(messages), partitions(messages), offsets(messages), acknowledgment
+                    )
+
+                    // then
+                    verify(exactly = 0) { mydataTerminateService.processTerminations(any()) }
+                    verify(exactly = 1) { acknowledgment.acknowledge() }
+                }
+            }
+
+            context("Service에서 예외가 발생한 경우") {
+                it("예외를 다시 던지고 acknowledge하지 않는다") {
+                    // given
+                    every {
+                        mydataTerminateService.processTerminations(any())
+                    } throws RuntimeException("Database connection failed")
+
+                    // when & then
+                    val exception = kotlin.runCatching {
+                        val messages = listOf(consentMessage(payAccountId = 5L, isRemove = true))
+                        consumer.consumeConsentMessages(
+                            messages, topics(messages), partitions(messages), offsets(messages), acknowledgment
+                        )
+                    }.exceptionOrNull()
+
+                    exception shouldNotBe null
+                    exception?.message shouldBe "Database connection failed"
+                    verify(exactly = 0) { acknowledgment.acknowledge() }
+                }
+            }
+        }
+    }
+})
+
+private fun consentMessage(payAccountId: Long, isRemove: Boolean) = ConsentMessage(
+    data = ConsentData(
+        deleteEventType = "USER_CONSENT_WITHDRAWN",
+        payAccountId = payAccountId,
+        isRemove = isRemove,
+        isForce = false
+    ),
+    type = "CONSENT_EVENT"
+)
+
+private fun topics(messages: List<ConsentMessage>) = messages.map { "mydata.consent.v1" }
+
+private fun partitions(messages: List<ConsentMessage>) = messages.map { 0 }
+
+private fun offsets(messages: List<ConsentMessage>) = messages.indices.map { it.toLong() }
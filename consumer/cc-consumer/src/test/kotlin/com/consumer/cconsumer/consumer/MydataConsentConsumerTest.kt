@@ -1,17 +1,23 @@
 package com.consumer.cconsumer.consumer
 
+import com.consumer.cconsumer.consumer.offset.ConsumerOffsetTracker
+import com.consumer.cconsumer.domain.repository.ConsumerOffsetRepository
 import com.consumer.cconsumer.message.model.ConsentData
 import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
 import com.consumer.cconsumer.service.MydataTerminateService
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.verify
 import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.transaction.PlatformTransactionManager
 
 class MydataConsentConsumerTest : DescribeSpec({
 
@@ -19,11 +25,19 @@ class MydataConsentConsumerTest : DescribeSpec({
         lateinit var mydataTerminateService: MydataTerminateService
         lateinit var acknowledgment: Acknowledgment
         lateinit var consumer: MydataConsentConsumer
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var consumerOffsetRepository: ConsumerOffsetRepository
 
         beforeEach {
             mydataTerminateService = mockk<MydataTerminateService>()
             acknowledgment = mockk<Acknowledgment>()
-            consumer = MydataConsentConsumer(mydataTerminateService)
+            meterRegistry = SimpleMeterRegistry()
+            consumerOffsetRepository = mockk<ConsumerOffsetRepository>(relaxed = true)
+            val terminationMetrics = TerminationMetrics(meterRegistry)
+            val consumerOffsetTracker = ConsumerOffsetTracker(
+                consumerOffsetRepository, mockk<PlatformTransactionManager>(relaxed = true), terminationMetrics, true, emptySet()
+            )
+            consumer = MydataConsentConsumer(mydataTerminateService, consumerOffsetTracker, terminationMetrics)
             every { acknowledgment.acknowledge() } just runs
         }
 
@@ -61,6 +75,40 @@ class MydataConsentConsumerTest : DescribeSpec({
                     }
                     verify(exactly = 1) { acknowledgment.acknowledge() }
                 }
+
+                it("컨슈머 스레드에서 처리되면 같은 트랜잭션에서 적용 offset 을 기록한다") {
+                    // given
+                    val consentMessage = ConsentMessage(
+                        data = ConsentData(
+                            deleteEventType = "USER_CONSENT_WITHDRAWN",
+                            payAccountId = 12345L,
+                            isRemove = true,
+                            isForce = false
+                        ),
+                        type = "CONSENT_EVENT"
+                    )
+                    every { mydataTerminateService.processTermination(12345L, "USER_CONSENT_WITHDRAWN") } just runs
+                    KafkaUtils.setConsumerGroupId("cc-consumer-group")
+
+                    // when
+                    try {
+                        consumer.consumeConsentMessage(
+                            message = consentMessage,
+                            topic = "mydata.consent.v1",
+                            partition = 2,
+                            offset = 150L,
+                            acknowledgment = acknowledgment
+                        )
+                    } finally {
+                        KafkaUtils.clearConsumerGroupId()
+                    }
+
+                    // then
+                    verify(exactly = 1) {
+                        consumerOffsetRepository.saveLastOffsets("cc-consumer-group", "mydata.consent.v1", mapOf(2 to 150L))
+                    }
+                    verify(exactly = 1) { acknowledgment.acknowledge() }
+                }
             }
 
             context("isRemove가 false인 메시지인 경우") {
@@ -91,6 +139,9 @@ class MydataConsentConsumerTest : DescribeSpec({
                         mydataTerminateService.processTermination(any(), any())
                     }
                     verify(exactly = 1) { acknowledgment.acknowledge() }
+                    meterRegistry.counter(
+                        TerminationMetrics.RECORDS, "source", TerminationMetrics.SOURCE_MYDATA, "result", "skipped"
+                    ).count() shouldBe 1.0
                 }
             }
 
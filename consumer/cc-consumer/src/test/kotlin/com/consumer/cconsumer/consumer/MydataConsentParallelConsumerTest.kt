@@ -0,0 +1,87 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.consumer.parallel.KeyOrderedParallelProcessor
+import com.consumer.cconsumer.message.model.ConsentData
+import com.consumer.cconsumer.message.model.ConsentMessage
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.MydataTerminateService
+import io.kotest.core.spec.style.DescribeSpec
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.common.TopicPartition
+
+class MydataConsentParallelConsumerTest : DescribeSpec({
+
+    describe("MydataConsentParallelConsumer") {
+        lateinit var mydataTerminateService: MydataTerminateService
+        lateinit var kafkaConsumer: Consumer<*, *>
+        lateinit var processor: KeyOrderedParallelProcessor
+        lateinit var consumer: MydataConsentParallelConsumer
+
+        beforeEach {
+            val terminationMetrics = TerminationMetrics(SimpleMeterRegistry())
+            mydataTerminateService = mockk<MydataTerminateService>()
+            kafkaConsumer = mockk<Consumer<*, *>>()
+            processor = KeyOrderedParallelProcessor(
+                workerCount = 2,
+                retryAttempts = 3,
+                backOffMillis = 0L,
+                notRetryableExceptions = emptyList(),
+                recoverer = { _, _ -> },
+                terminationMetrics = terminationMetrics
+            )
+            consumer = MydataConsentParallelConsumer(mydataTerminateService, processor, terminationMetrics)
+            every { kafkaConsumer.commitSync(any<Map<TopicPartition, OffsetAndMetadata>>()) } just runs
+        }
+
+        afterEach {
+            processor.close()
+        }
+
+        describe("consumeConsentMessages 메서드 실행 시") {
+            context("isRemove가 true/false인 메시지가 섞여 있는 경우") {
+                it("isRemove가 true인 메시지만 처리하고 poll 전체 offset 을 커밋한다") {
+                    // given
+                    val records = listOf(
+                        ConsumerRecord(TOPIC, 0, 100L, "1", consentMessage(payAccountId = 1L, isRemove = true)),
+                        ConsumerRecord(TOPIC, 0, 101L, "2", consentMessage(payAccountId = 2L, isRemove = false)),
+                        ConsumerRecord(TOPIC, 0, 102L, "3", consentMessage(payAccountId = 3L, isRemove = true))
+                    )
+                    every { mydataTerminateService.processTermination(any(), any()) } just runs
+
+                    // when
+                    consumer.consumeConsentMessages(records, kafkaConsumer)
+
+                    // then
+                    verify(exactly = 1) { mydataTerminateService.processTermination(1L, "USER_CONSENT_WITHDRAWN") }
+                    verify(exactly = 1) { mydataTerminateService.processTermination(3L, "USER_CONSENT_WITHDRAWN") }
+                    verify(exactly = 0) { mydataTerminateService.processTermination(2L, any()) }
+                    verify(exactly = 1) {
+                        kafkaConsumer.commitSync(mapOf(TopicPartition(TOPIC, 0) to OffsetAndMetadata(103L)))
+                    }
+                }
+            }
+        }
+    }
+}) {
+    companion object {
+        private const val TOPIC = "mydata.consent.v1"
+
+        private fun consentMessage(payAccountId: Long, isRemove: Boolean) = ConsentMessage(
+            data = ConsentData(
+                deleteEventType = "USER_CONSENT_WITHDRAWN",
+                payAccountId = payAccountId,
+                isRemove = isRemove,
+                isForce = false
+            ),
+            type = "CONSENT_EVENT"
+        )
+    }
+}
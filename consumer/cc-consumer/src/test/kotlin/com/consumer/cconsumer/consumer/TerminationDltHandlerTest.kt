@@ -0,0 +1,49 @@
+package com.consumer.cconsumer.consumer
+
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+
+class TerminationDltHandlerTest : DescribeSpec({
+
+    describe("TerminationDltHandler의 handle 메서드 실행 시") {
+        context("원본 토픽 헤더가 있는 경우") {
+            it("원본 토픽 기준으로 recovered 지표를 올리고 acknowledge 한다") {
+                val meterRegistry = SimpleMeterRegistry()
+                val handler = TerminationDltHandler(TerminationMetrics(meterRegistry))
+                val acknowledgment = mockk<Acknowledgment>(relaxed = true)
+                val record = ConsumerRecord<String, Any>("$CONSENT_TOPIC-dlt", 0, 7L, "12345", "payload").apply {
+                    headers().add(KafkaHeaders.ORIGINAL_TOPIC, CONSENT_TOPIC.toByteArray())
+                    headers().add(KafkaHeaders.EXCEPTION_MESSAGE, "db down".toByteArray())
+                }
+
+                handler.handle(record, acknowledgment)
+
+                meterRegistry.counter(TerminationMetrics.LISTENER_RECOVERED, "topic", CONSENT_TOPIC).count() shouldBe 1.0
+                verify(exactly = 1) { acknowledgment.acknowledge() }
+            }
+        }
+
+        context("원본 토픽 헤더가 없는 경우") {
+            it("DLT 토픽 이름으로 지표를 올린다") {
+                val meterRegistry = SimpleMeterRegistry()
+                val handler = TerminationDltHandler(TerminationMetrics(meterRegistry))
+                val record = ConsumerRecord<String, Any>("$CONSENT_TOPIC-dlt", 0, 8L, "12345", "payload")
+
+                handler.handle(record, mockk(relaxed = true))
+
+                meterRegistry.counter(TerminationMetrics.LISTENER_RECOVERED, "topic", "$CONSENT_TOPIC-dlt").count() shouldBe 1.0
+            }
+        }
+    }
+}) {
+    companion object {
+        private const val CONSENT_TOPIC = "mydata.consent.v1"
+    }
+}
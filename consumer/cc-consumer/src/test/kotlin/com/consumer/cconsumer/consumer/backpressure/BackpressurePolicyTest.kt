@@ -0,0 +1,76 @@
+package com.consumer.cconsumer.consumer.backpressure
+
+import com.consumer.cconsumer.consumer.backpressure.BackpressurePolicy.State
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+
+class BackpressurePolicyTest : DescribeSpec({
+
+    fun policy() = BackpressurePolicy(
+        maxBatchSize = 100,
+        minBatchSize = 10,
+        throttleLatencyMillis = 200.0,
+        pauseLatencyMillis = 1000.0,
+        throttlePendingThreads = 2,
+        pausePendingThreads = 8,
+        recoverySamples = 3
+    )
+
+    describe("BackpressurePolicy") {
+        context("upsert 지연이 throttle 임계값을 넘으면") {
+            it("바로 THROTTLED 로 바뀌고 지연이 계속되는 동안 배치 크기를 최소값까지 절반씩 줄인다") {
+                val policy = policy()
+
+                policy.onSample(300.0, 0) shouldBe State.THROTTLED
+                policy.effectiveBatchSize shouldBe 50
+
+                repeat(5) { policy.onSample(300.0, 0) }
+                policy.effectiveBatchSize shouldBe 10
+            }
+        }
+
+        context("Hikari 대기 스레드가 pause 임계값을 넘으면") {
+            it("지연과 관계없이 PAUSED 로 바뀐다") {
+                val policy = policy()
+
+                policy.onSample(null, 8) shouldBe State.PAUSED
+            }
+        }
+
+        context("PAUSED 에서 부하가 사라지면") {
+            it("정상 샘플이 연속으로 쌓인 뒤에만 한 단계씩 회복한다") {
+                val policy = policy()
+                policy.onSample(1500.0, 0)
+
+                policy.onSample(null, 0) shouldBe State.PAUSED
+                policy.onSample(null, 0) shouldBe State.PAUSED
+                policy.onSample(null, 0) shouldBe State.THROTTLED
+            }
+
+            it("회복 중 다시 부하가 생기면 정상 샘플 수를 처음부터 다시 센다") {
+                val policy = policy()
+                policy.onSample(1500.0, 0)
+
+                policy.onSample(null, 0)
+                policy.onSample(null, 0)
+                policy.onSample(1500.0, 0) shouldBe State.PAUSED
+                policy.onSample(null, 0)
+                policy.onSample(null, 0) shouldBe State.PAUSED
+            }
+        }
+
+        context("THROTTLED 에서 부하가 사라지면") {
+            it("배치 크기를 조금씩 늘리다가 최대값에 닿은 뒤 NORMAL 로 돌아간다") {
+                val policy = policy()
+                policy.onSample(300.0, 0)
+
+                policy.onSample(50.0, 0)
+                policy.effectiveBatchSize shouldBe 60
+
+                val states = (1..10).map { policy.onSample(50.0, 0) }
+                states.last() shouldBe State.NORMAL
+                policy.effectiveBatchSize shouldBe 100
+            }
+        }
+    }
+})
@@ -0,0 +1,168 @@
+package com.consumer.cconsumer.consumer.backpressure
+
+import com.consumer.cconsumer.consumer.backpressure.BackpressurePolicy.State
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.Timer
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry
+import org.springframework.kafka.listener.ContainerProperties
+import org.springframework.kafka.listener.MessageListenerContainer
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class DbBackpressureControllerTest : DescribeSpec({
+
+    describe("DbBackpressureController") {
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var container: MessageListenerContainer
+        lateinit var retryContainer: MessageListenerContainer
+        lateinit var pendingThreads: AtomicInteger
+        lateinit var controller: DbBackpressureController
+
+        fun recordUpserts(count: Int, latency: Duration, mode: String = TerminationMetrics.MODE_SINGLE) {
+            val timer = Timer.builder(TerminationMetrics.DB_UPSERT)
+                .tag("source", TerminationMetrics.SOURCE_MYDATA)
+                .tag("mode", mode)
+                .register(meterRegistry)
+            repeat(count) { timer.record(latency) }
+        }
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            pendingThreads = AtomicInteger()
+            Gauge.builder("hikaricp.connections.pending", pendingThreads) { it.get().toDouble() }
+                .tag("pool", "HikariPool-1")
+                .register(meterRegistry)
+
+            container = listenerContainer("mydata.consent.v1")
+            retryContainer = listenerContainer("mydata.consent.v1-retry-0")
+
+            val registry = mockk<KafkaListenerEndpointRegistry>()
+            every { registry.allListenerContainers } returns listOf(container, retryContainer)
+
+            controller = DbBackpressureController(
+                kafkaListenerEndpointRegistry = registry,
+                meterRegistry = meterRegistry,
+                maxPollRecords = 100,
+                minBatchSize = 10,
+                throttleLatencyMillis = 200.0,
+                pauseLatencyMillis = 1000.0,
+                throttlePendingThreads = 2,
+                pausePendingThreads = 8,
+                recoverySamples = 1,
+                sampleIntervalMillis = 1000L,
+                bulkLatencyFactor = 10.0,
+                pausedTopics = setOf("mydata.consent.v1")
+            )
+        }
+
+        describe("sample 메서드 실행 시") {
+            context("직전 샘플 이후 upsert 평균 지연이 pause 임계값을 넘은 경우") {
+                it("리스너 컨테이너를 pause 하고 부하가 사라지면 resume 한다") {
+                    // given
+                    recordUpserts(count = 5, latency = Duration.ofMillis(10))
+                    controller.sample()
+                    recordUpserts(count = 2, latency = Duration.ofMillis(1500))
+
+                    // when
+                    controller.sample()
+
+                    // then
+                    controller.state shouldBe State.PAUSED
+                    verify(exactly = 1) { container.pause() }
+                    verify(exactly = 0) { retryContainer.pause() }
+                    meterRegistry.get(DbBackpressureController.BACKPRESSURE_STATE).gauge().value() shouldBe 2.0
+
+                    // when
+                    controller.sample()
+
+                    // then
+                    controller.state shouldBe State.THROTTLED
+                    verify(exactly = 1) { container.resume() }
+                }
+            }
+
+            context("Hikari 커넥션 대기 스레드가 throttle 임계값을 넘은 경우") {
+                it("THROTTLED 로 바꾸고 구간 당 유효 배치 크기만큼 처리하면 컨테이너를 pause 한다") {
+                    // given
+                    pendingThreads.set(3)
+                    controller.sample()
+                    val interceptor = controller.recordInterceptor<String, String>()
+                    val consumer = mockk<Consumer<String, String>>()
+
+                    // when
+                    repeat(controller.effectiveBatchSize - 1) { interceptor.intercept(record(it), consumer) }
+
+                    // then
+                    controller.state shouldBe State.THROTTLED
+                    controller.effectiveBatchSize shouldBe 50
+                    verify(exactly = 0) { container.pause() }
+
+                    // when
+                    interceptor.intercept(record(49), consumer)
+
+                    // then
+                    verify(exactly = 1) { container.pause() }
+
+                    // when (다음 샘플 구간)
+                    pendingThreads.set(0)
+                    controller.sample()
+
+                    // then
+                    verify(exactly = 1) { container.resume() }
+                }
+            }
+
+            context("bulk upsert 평균 지연이 단건 기준 pause 임계값을 넘었지만 bulkLatencyFactor 로 나눈 값은 넘지 않는 경우") {
+                it("컨테이너를 멈추지 않는다") {
+                    // given
+                    controller.sample()
+                    recordUpserts(count = 2, latency = Duration.ofMillis(1500), mode = TerminationMetrics.MODE_BULK)
+
+                    // when
+                    controller.sample()
+
+                    // then
+                    controller.state shouldBe State.NORMAL
+                    verify(exactly = 0) { container.pause() }
+                }
+            }
+
+            context("부하가 없는 경우") {
+                it("레코드 수를 세거나 컨테이너를 멈추지 않는다") {
+                    // given
+                    controller.sample()
+                    val interceptor = controller.recordInterceptor<String, String>()
+
+                    // when
+                    repeat(500) { interceptor.intercept(record(it), mockk()) }
+
+                    // then
+                    controller.state shouldBe State.NORMAL
+                    verify(exactly = 0) { container.pause() }
+                }
+            }
+        }
+    }
+})
+
+private fun listenerContainer(topic: String): MessageListenerContainer {
+    var pauseRequested = false
+    return mockk<MessageListenerContainer>(relaxed = true).also { container ->
+        every { container.containerProperties } returns ContainerProperties(topic)
+        every { container.isRunning } returns true
+        every { container.isPauseRequested } answers { pauseRequested }
+        every { container.pause() } answers { pauseRequested = true }
+        every { container.resume() } answers { pauseRequested = false }
+    }
+}
+
+private fun record(offset: Int) = ConsumerRecord("mydata.consent.v1", 0, offset.toLong(), "key", "value")
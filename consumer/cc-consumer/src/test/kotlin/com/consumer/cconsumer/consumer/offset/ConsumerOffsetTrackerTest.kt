@@ -0,0 +1,116 @@
+package com.consumer.cconsumer.consumer.offset
+
+import com.consumer.cconsumer.domain.entity.ConsumerOffset
+import com.consumer.cconsumer.domain.repository.ConsumerOffsetRepository
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.kafka.common.TopicPartition
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.transaction.PlatformTransactionManager
+
+class ConsumerOffsetTrackerTest : DescribeSpec({
+
+    describe("ConsumerOffsetTracker") {
+        lateinit var consumerOffsetRepository: ConsumerOffsetRepository
+        lateinit var callback: ConsumerSeekCallback
+        lateinit var meterRegistry: SimpleMeterRegistry
+
+        fun tracker(enabled: Boolean = true, resetTopics: Set<String> = emptySet()) = ConsumerOffsetTracker(
+            consumerOffsetRepository,
+            mockk<PlatformTransactionManager>(relaxed = true),
+            TerminationMetrics(meterRegistry),
+            enabled,
+            resetTopics
+        )
+
+        beforeEach {
+            consumerOffsetRepository = mockk<ConsumerOffsetRepository>(relaxed = true)
+            callback = mockk<ConsumerSeekCallback>(relaxed = true)
+            meterRegistry = SimpleMeterRegistry()
+            KafkaUtils.setConsumerGroupId(GROUP_ID)
+        }
+
+        afterEach {
+            KafkaUtils.clearConsumerGroupId()
+        }
+
+        describe("seekPastApplied 메서드 실행 시") {
+            context("저장된 적용 offset 이 커밋 위치보다 앞선 파티션이 있는 경우") {
+                it("해당 파티션만 적용 offset 다음으로 seek 하고 건너뛴 건수를 기록한다") {
+                    // given
+                    every { consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, setOf(TOPIC)) } returns listOf(
+                        ConsumerOffset(GROUP_ID, TOPIC, partitionNo = 0, lastOffset = 99L),
+                        ConsumerOffset(GROUP_ID, TOPIC, partitionNo = 1, lastOffset = 10L)
+                    )
+
+                    // when
+                    tracker().seekPastApplied(
+                        mapOf(
+                            TopicPartition(TOPIC, 0) to 80L,
+                            TopicPartition(TOPIC, 1) to 11L,
+                            TopicPartition(TOPIC, 2) to 0L
+                        ),
+                        callback
+                    )
+
+                    // then
+                    verify(exactly = 1) { callback.seek(TOPIC, 0, 100L) }
+                    verify(exactly = 1) { callback.seek(any(), any(), any<Long>()) }
+                    meterRegistry.counter(TerminationMetrics.LISTENER_REPLAY_SKIPPED, "topic", TOPIC).count() shouldBe 20.0
+                }
+            }
+
+            context("컨슈머 그룹 offset 을 되돌려 reset-topics 에 토픽이 설정된 경우") {
+                it("처음 할당받을 때만 저장된 offset 을 지우고 커밋 위치부터 읽는다") {
+                    // given
+                    every { consumerOffsetRepository.deleteByConsumerGroupAndTopic(GROUP_ID, TOPIC) } returns 1
+                    every { consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, setOf(TOPIC)) } returns emptyList()
+                    val tracker = tracker(resetTopics = setOf(TOPIC))
+
+                    // when
+                    tracker.seekPastApplied(mapOf(TopicPartition(TOPIC, 0) to 0L), callback)
+                    tracker.seekPastApplied(mapOf(TopicPartition(TOPIC, 0) to 10L), callback)
+
+                    // then
+                    verify(exactly = 1) { consumerOffsetRepository.deleteByConsumerGroupAndTopic(GROUP_ID, TOPIC) }
+                    verify(exactly = 0) { callback.seek(any(), any(), any<Long>()) }
+                }
+            }
+
+            context("offset 저장소가 비활성화된 경우") {
+                it("저장소를 조회하지 않고 커밋 위치를 그대로 사용한다") {
+                    // when
+                    tracker(enabled = false).seekPastApplied(mapOf(TopicPartition(TOPIC, 0) to 80L), callback)
+
+                    // then
+                    verify(exactly = 0) { consumerOffsetRepository.findByConsumerGroupAndTopicIn(any(), any()) }
+                    verify(exactly = 0) { callback.seek(any(), any(), any<Long>()) }
+                }
+            }
+        }
+
+        describe("applyInTransaction 메서드 실행 시") {
+            context("처리 중 예외가 발생한 경우") {
+                it("적용 offset 을 기록하지 않고 예외를 다시 던진다") {
+                    // when
+                    val exception = kotlin.runCatching {
+                        tracker().applyInTransaction(TOPIC, 0, 5L) { throw RuntimeException("Database connection failed") }
+                    }.exceptionOrNull()
+
+                    // then
+                    exception?.message shouldBe "Database connection failed"
+                    verify(exactly = 0) { consumerOffsetRepository.saveLastOffsets(any(), any(), any()) }
+                }
+            }
+        }
+    }
+})
+
+private const val GROUP_ID = "cc-consumer-group"
+private const val TOPIC = "mydata.consent.v1"
@@ -0,0 +1,294 @@
+package com.consumer.cconsumer.consumer.parallel
+
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.comparables.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.common.TopicPartition
+import org.springframework.kafka.listener.ListenerContainerRegistry
+import org.springframework.kafka.listener.MessageListenerContainer
+
+class KeyOrderedParallelProcessorTest : DescribeSpec({
+
+    describe("KeyOrderedParallelProcessor") {
+        lateinit var consumer: Consumer<*, *>
+        lateinit var processor: KeyOrderedParallelProcessor
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var recovered: MutableList<Any?>
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            recovered = Collections.synchronizedList(mutableListOf())
+            consumer = mockk<Consumer<*, *>>()
+            every { consumer.commitSync(any<Map<TopicPartition, OffsetAndMetadata>>()) } just runs
+            every { consumer.seek(any<TopicPartition>(), any<Long>()) } just runs
+            processor = KeyOrderedParallelProcessor(
+                workerCount = 4,
+                retryAttempts = 2,
+                backOffMillis = 0L,
+                notRetryableExceptions = listOf(IllegalArgumentException::class.java),
+                recoverer = { record, _ -> recovered += record.value() },
+                terminationMetrics = TerminationMetrics(meterRegistry)
+            )
+        }
+
+        afterEach {
+            processor.close()
+        }
+
+        describe("process 메서드 실행 시") {
+            context("모든 레코드가 성공하는 경우") {
+                it("같은 key 는 poll 순서대로 처리하고 파티션별 마지막 offset 다음을 커밋한다") {
+                    // given
+                    val records = listOf(
+                        record(partition = 0, offset = 10, key = 1L, value = "1-a"),
+                        record(partition = 1, offset = 20, key = 2L, value = "2-a"),
+                        record(partition = 0, offset = 11, key = 1L, value = "1-b"),
+                        record(partition = 1, offset = 21, key = 1L, value = "1-c")
+                    )
+                    val processed = Collections.synchronizedList(mutableListOf<String>())
+
+                    // when
+                    processor.process(records, consumer, keyOf = { it.substringBefore("-").toLong() }) { value ->
+                        processed += value
+                    }
+
+                    // then
+                    processed.filter { it.startsWith("1-") } shouldContainExactly listOf("1-a", "1-b", "1-c")
+                    verify(exactly = 1) {
+                        consumer.commitSync(
+                            mapOf(
+                                TopicPartition(TOPIC, 0) to OffsetAndMetadata(12),
+                                TopicPartition(TOPIC, 1) to OffsetAndMetadata(22)
+                            )
+                        )
+                    }
+                    verify(exactly = 0) { consumer.seek(any<TopicPartition>(), any<Long>()) }
+                }
+            }
+
+            context("서로 다른 key 를 처리하는 경우") {
+                it("한 key 의 처리가 끝나기를 기다리지 않고 다른 key 를 동시에 처리한다") {
+                    // given
+                    val records = listOf(
+                        record(partition = 0, offset = 0, key = 1L, value = "1"),
+                        record(partition = 0, offset = 1, key = 2L, value = "2")
+                    )
+                    val bothStarted = CountDownLatch(2)
+                    var overlapped = true
+
+                    // when
+                    processor.process(records, consumer, keyOf = { it.toLong() }) {
+                        bothStarted.countDown()
+                        overlapped = overlapped && bothStarted.await(5, TimeUnit.SECONDS)
+                    }
+
+                    // then
+                    overlapped shouldBe true
+                }
+            }
+
+            context("중간 레코드 처리가 실패하는 경우") {
+                it("연속으로 완료된 offset 까지만 커밋하고 실패한 레코드로 seek 한다") {
+                    // given
+                    val records = listOf(
+                        record(partition = 0, offset = 10, key = 1L, value = "1-a"),
+                        record(partition = 0, offset = 11, key = 2L, value = "2-fail"),
+                        record(partition = 0, offset = 12, key = 3L, value = "3-a"),
+                        record(partition = 0, offset = 13, key = 2L, value = "2-b")
+                    )
+                    val processed = Collections.synchronizedList(mutableListOf<String>())
+
+                    // when
+                    processor.process(records, consumer, keyOf = { it.substringBefore("-").toLong() }) { value ->
+                        if (value.endsWith("fail")) throw IllegalStateException("Database connection failed")
+                        processed += value
+                    }
+
+                    // then
+                    processed.contains("2-b") shouldBe false // 같은 key 의 뒤 레코드는 순서 보장을 위해 보류
+                    processed.contains("3-a") shouldBe true
+                    verify(exactly = 1) {
+                        consumer.commitSync(mapOf(TopicPartition(TOPIC, 0) to OffsetAndMetadata(11)))
+                    }
+                    verify(exactly = 1) { consumer.seek(TopicPartition(TOPIC, 0), 11L) }
+                }
+
+                it("재전달 시 실패한 레코드 뒤에서 이미 완료된 레코드는 다시 실행하지 않는다") {
+                    // given
+                    val records = listOf(
+                        record(partition = 0, offset = 10, key = 1L, value = "1-a"),
+                        record(partition = 0, offset = 11, key = 2L, value = "2-a"),
+                        record(partition = 0, offset = 12, key = 3L, value = "3-a")
+                    )
+                    val processed = Collections.synchronizedList(mutableListOf<String>())
+                    var failing = true
+
+                    // when: 첫 poll 에서 offset 11 만 실패하고, seek 으로 11 부터 재전달된다
+                    repeat(2) {
+                        processor.process(records.drop(it), consumer, keyOf = { it.substringBefore("-").toLong() }) { value ->
+                            if (failing && value == "2-a") throw IllegalStateException("Database connection failed")
+                            processed += value
+                        }
+                        failing = false
+                    }
+
+                    // then
+                    processed.count { it == "3-a" } shouldBe 1
+                    processed.count { it == "2-a" } shouldBe 1
+                    verify(exactly = 1) {
+                        consumer.commitSync(mapOf(TopicPartition(TOPIC, 0) to OffsetAndMetadata(13)))
+                    }
+                }
+
+                it("재시도 대기는 컨슈머 스레드를 재우지 않고 해당 파티션만 pause 했다가 resume 한다") {
+                    // given
+                    val partition = TopicPartition(TOPIC, 0)
+                    val container = mockk<MessageListenerContainer>(relaxed = true)
+                    every { container.assignedPartitions } returns listOf(partition)
+                    val registry = mockk<ListenerContainerRegistry>()
+                    every { registry.listenerContainers } returns listOf(container)
+                    val pausingProcessor = KeyOrderedParallelProcessor(
+                        workerCount = 1,
+                        retryAttempts = 3,
+                        backOffMillis = 50L,
+                        notRetryableExceptions = emptyList(),
+                        recoverer = { _, _ -> },
+                        terminationMetrics = TerminationMetrics(meterRegistry),
+                        listenerContainerRegistry = registry
+                    )
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-fail"))
+
+                    // when
+                    pausingProcessor.use {
+                        it.process(records, consumer, keyOf = { 1L }) { throw IllegalStateException("Database connection failed") }
+
+                        // then
+                        verify(exactly = 1) { consumer.seek(partition, 5L) }
+                        verify(exactly = 1) { container.pausePartition(partition) }
+                        verify(timeout = 5_000, exactly = 1) { container.resumePartition(partition) }
+                    }
+                }
+
+                it("파티션을 가진 컨테이너를 찾지 못하면 컨슈머 스레드를 재우지 않고 바로 재전달한다") {
+                    // given
+                    val registry = mockk<ListenerContainerRegistry>()
+                    every { registry.listenerContainers } returns emptyList()
+                    val noContainerProcessor = KeyOrderedParallelProcessor(
+                        workerCount = 1,
+                        retryAttempts = 3,
+                        backOffMillis = 10_000L,
+                        notRetryableExceptions = emptyList(),
+                        recoverer = { _, _ -> },
+                        terminationMetrics = TerminationMetrics(meterRegistry),
+                        listenerContainerRegistry = registry
+                    )
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-fail"))
+
+                    // when
+                    val startedAt = System.nanoTime()
+                    noContainerProcessor.use {
+                        it.process(records, consumer, keyOf = { 1L }) { throw IllegalStateException("Database connection failed") }
+                    }
+
+                    // then
+                    Duration.ofNanos(System.nanoTime() - startedAt) shouldBeLessThan Duration.ofSeconds(5)
+                    verify(exactly = 1) { consumer.seek(TopicPartition(TOPIC, 0), 5L) }
+                }
+
+                it("파티션이 revoke 되면 그 파티션의 재시도 횟수를 버린다") {
+                    // given
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-fail"))
+                    val handler: (String) -> Unit = { throw IllegalStateException("Database connection failed") }
+
+                    // when: 재시도 2회를 채운 뒤 revoke 되고 다시 할당되어 한 번 더 실패
+                    repeat(2) { processor.process(records, consumer, keyOf = { 1L }, handler = handler) }
+                    processor.onPartitionsRevoked(listOf(TopicPartition(TOPIC, 0)))
+                    processor.process(records, consumer, keyOf = { 1L }, handler = handler)
+
+                    // then
+                    recovered shouldBe emptyList()
+                    verify(exactly = 3) { consumer.seek(TopicPartition(TOPIC, 0), 5L) }
+                }
+
+                it("재시도 횟수를 넘기면 recoverer 로 넘기고 offset 을 전진시킨다") {
+                    // given
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-fail"))
+                    val handler: (String) -> Unit = { throw IllegalStateException("Database connection failed") }
+
+                    // when: 최초 1회 + 재시도 2회
+                    repeat(3) { processor.process(records, consumer, keyOf = { 1L }, handler = handler) }
+
+                    // then
+                    verify(exactly = 2) { consumer.seek(TopicPartition(TOPIC, 0), 5L) }
+                    meterRegistry.counter(TerminationMetrics.LISTENER_RETRIES, "topic", TOPIC).count() shouldBe 2.0
+                    meterRegistry.counter(TerminationMetrics.LISTENER_RECOVERED, "topic", TOPIC).count() shouldBe 1.0
+                    recovered shouldContainExactly listOf("1-fail")
+                    verify(exactly = 1) {
+                        consumer.commitSync(mapOf(TopicPartition(TOPIC, 0) to OffsetAndMetadata(6)))
+                    }
+                }
+
+                it("재시도 불가 예외는 즉시 recoverer 로 넘긴다") {
+                    // given
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-invalid"))
+
+                    // when
+                    processor.process(records, consumer, keyOf = { 1L }) {
+                        throw IllegalArgumentException("Invalid payload")
+                    }
+
+                    // then
+                    recovered shouldContainExactly listOf("1-invalid")
+                    verify(exactly = 0) { consumer.seek(any<TopicPartition>(), any<Long>()) }
+                    verify(exactly = 1) {
+                        consumer.commitSync(mapOf(TopicPartition(TOPIC, 0) to OffsetAndMetadata(6)))
+                    }
+                }
+
+                it("recoverer 가 실패하면 건너뛰지 않고 해당 레코드로 seek 한다") {
+                    // given
+                    val failingProcessor = KeyOrderedParallelProcessor(
+                        workerCount = 1,
+                        retryAttempts = 0,
+                        backOffMillis = 0L,
+                        notRetryableExceptions = emptyList(),
+                        recoverer = { _, _ -> throw IllegalStateException("DLT unavailable") },
+                        terminationMetrics = TerminationMetrics(meterRegistry)
+                    )
+                    val records = listOf(record(partition = 0, offset = 5, key = 1L, value = "1-fail"))
+
+                    // when
+                    failingProcessor.use {
+                        it.process(records, consumer, keyOf = { 1L }) { throw IllegalStateException("Database connection failed") }
+                    }
+
+                    // then
+                    verify(exactly = 0) { consumer.commitSync(any<Map<TopicPartition, OffsetAndMetadata>>()) }
+                    verify(exactly = 1) { consumer.seek(TopicPartition(TOPIC, 0), 5L) }
+                }
+            }
+        }
+    }
+}) {
+    companion object {
+        private const val TOPIC = "mydata.consent.v1"
+
+        private fun record(partition: Int, offset: Long, key: Long, value: String) =
+            ConsumerRecord(TOPIC, partition, offset, key.toString(), value)
+    }
+}
@@ -0,0 +1,48 @@
+package com.consumer.cconsumer.domain.repository
+
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+
+@DataJpaTest(
+    properties = [
+        // ON DUPLICATE KEY UPDATE / GREATEST 문법 검증을 위해 MySQL 호환 모드 사용
+        "spring.datasource.url=jdbc:h2:mem:consumer-offset-test;MODE=MySQL;DB_CLOSE_DELAY=-1"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ConsumerOffsetRepositoryTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var repository: ConsumerOffsetRepository
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        describe("saveLastOffsets는") {
+
+            it("partition 별 offset 을 저장하고 더 작은 offset 으로는 되돌리지 않는다") {
+                repository.saveLastOffsets(GROUP_ID, TOPIC, mapOf(0 to 42L, 1 to 7L))
+                repository.saveLastOffsets(GROUP_ID, TOPIC, mapOf(0 to 10L, 1 to 8L))
+
+                val stored = repository.findByConsumerGroupAndTopicIn(GROUP_ID, listOf(TOPIC))
+                    .associate { it.partitionNo to it.lastOffset }
+                stored shouldBe mapOf(0 to 42L, 1 to 8L)
+            }
+
+            it("컨슈머 그룹 별로 따로 기록한다") {
+                repository.saveLastOffsets("other-group", TOPIC, mapOf(0 to 3L))
+
+                repository.findByConsumerGroupAndTopicIn("other-group", listOf(TOPIC)).single().lastOffset shouldBe 3L
+                repository.findByConsumerGroupAndTopicIn("unknown-group", listOf(TOPIC)).shouldBeEmpty()
+            }
+        }
+    }
+}
+
+private const val GROUP_ID = "cc-consumer-group"
+private const val TOPIC = "mydata.consent.v1"
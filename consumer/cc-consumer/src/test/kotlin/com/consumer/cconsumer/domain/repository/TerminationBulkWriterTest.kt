@@ -0,0 +1,82 @@
+package com.consumer.cconsumer.domain.repository
+
+import com.consumer.cconsumer.domain.entity.MydataTerminateUser
+import com.consumer.cconsumer.domain.entity.TerminateStatus
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.context.annotation.Import
+
+@DataJpaTest(
+    properties = [
+        // INSERT IGNORE 문법 검증을 위해 MySQL 호환 모드 사용
+        "spring.datasource.url=jdbc:h2:mem:bulk-test;MODE=MySQL;DB_CLOSE_DELAY=-1"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TerminationBulkWriter::class)
+class TerminationBulkWriterTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var bulkWriter: TerminationBulkWriter
+
+    @Autowired
+    private lateinit var repository: MydataTerminateUserRepository
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        describe("upsertPending은") {
+
+            it("여러 건을 한 번에 PENDING 상태로 저장한다") {
+                val inserted = bulkWriter.upsertPending(
+                    TerminationBulkWriter.MYDATA_TERMINATE_USER,
+                    listOf(
+                        TerminationTarget(1_001L, "FIRST"),
+                        TerminationTarget(1_002L, "SECOND")
+                    )
+                )
+
+                inserted shouldBe 2
+                repository.findByPayAccountIdAndTerminateStatus(1_001L, TerminateStatus.PENDING)?.reason shouldBe "FIRST"
+                repository.findByPayAccountIdAndTerminateStatus(1_002L, TerminateStatus.PENDING)?.reason shouldBe "SECOND"
+            }
+
+            it("이미 PENDING 레코드가 있는 payAccountId는 건너뛰고 기존 사유를 유지한다") {
+                repository.saveAndFlush(MydataTerminateUser(payAccountId = 2_001L, reason = "EXISTING"))
+
+                val inserted = bulkWriter.upsertPending(
+                    TerminationBulkWriter.MYDATA_TERMINATE_USER,
+                    listOf(
+                        TerminationTarget(2_001L, "IGNORED"),
+                        TerminationTarget(2_002L, "NEW")
+                    )
+                )
+
+                inserted shouldBe 1
+                val existing = repository.findAll().filter { it.payAccountId == 2_001L }
+                existing shouldHaveSize 1
+                existing.first().reason shouldBe "EXISTING"
+            }
+
+            it("COMPLETED 레코드만 있는 payAccountId는 새로운 PENDING 레코드를 허용한다") {
+                repository.saveAndFlush(
+                    MydataTerminateUser(payAccountId = 3_001L, terminateStatus = TerminateStatus.COMPLETED)
+                )
+
+                val inserted = bulkWriter.upsertPending(TerminationBulkWriter.MYDATA_TERMINATE_USER, listOf(TerminationTarget(3_001L, "AGAIN")))
+
+                inserted shouldBe 1
+                repository.findAll().filter { it.payAccountId == 3_001L } shouldHaveSize 2
+            }
+
+            it("빈 목록이면 아무것도 하지 않는다") {
+                bulkWriter.upsertPending(TerminationBulkWriter.MYDATA_TERMINATE_USER, emptyList()) shouldBe 0
+            }
+        }
+    }
+}
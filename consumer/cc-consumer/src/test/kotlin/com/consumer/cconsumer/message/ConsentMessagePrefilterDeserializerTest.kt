@@ -0,0 +1,65 @@
+package com.consumer.cconsumer.message
+
+import com.consumer.cconsumer.message.model.ConsentMessage
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.apache.kafka.common.errors.SerializationException
+
+class ConsentMessagePrefilterDeserializerTest : DescribeSpec({
+
+    val deserializer = ConsentMessagePrefilterDeserializer()
+
+    describe("ConsentMessagePrefilterDeserializer의 deserialize 메서드 실행 시") {
+        context("is_remove가 false인 경우") {
+            it("객체를 바인딩하지 않고 공유 SKIP 인스턴스를 반환한다") {
+                val json = """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":12345,"is_remove":false,"is_force":false},"type":"CONSENT_WITHDRAWN"}"""
+
+                val result = deserializer.deserialize(TOPIC, json.toByteArray())
+
+                result shouldBeSameInstanceAs ConsentMessage.SKIP
+            }
+
+            it("type 이 data 보다 앞에 있어도 플래그를 찾아 건너뛴다") {
+                val json = """{"type":"CONSENT_WITHDRAWN","meta":{"data":{"is_remove":true}},"data":{"pay_account_id":12345,"is_remove":false}}"""
+
+                val result = deserializer.deserialize(TOPIC, json.toByteArray())
+
+                result shouldBeSameInstanceAs ConsentMessage.SKIP
+            }
+        }
+
+        context("is_remove가 true인 경우") {
+            it("전체 메시지를 바인딩한다") {
+                val json = """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":12345,"is_remove":true,"is_force":false},"type":"CONSENT_WITHDRAWN"}"""
+
+                val result = deserializer.deserialize(TOPIC, json.toByteArray())!!
+
+                result.type shouldBe "CONSENT_WITHDRAWN"
+                result.data.deleteEventType shouldBe "PFM_SERVICE_CLOSED_BY_USER"
+                result.data.payAccountId shouldBe 12345L
+                result.data.isRemove shouldBe true
+            }
+        }
+
+        context("payload 가 올바르지 않은 경우") {
+            it("is_remove 를 찾지 못하면 전체 바인딩을 시도해 SerializationException 을 던진다") {
+                val json = """{"data":{"pay_account_id":12345"""
+
+                shouldThrow<SerializationException> {
+                    deserializer.deserialize(TOPIC, json.toByteArray())
+                }
+            }
+
+            it("null payload 는 null 을 반환한다") {
+                deserializer.deserialize(TOPIC, null).shouldBeNull()
+            }
+        }
+    }
+}) {
+    companion object {
+        private const val TOPIC = "mydata.consent.v1"
+    }
+}
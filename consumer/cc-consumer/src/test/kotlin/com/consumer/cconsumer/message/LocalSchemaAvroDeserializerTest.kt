@@ -0,0 +1,198 @@
+package com.consumer.cconsumer.message
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.sun.net.httpserver.HttpServer
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.paths.shouldExist
+import io.kotest.matchers.shouldBe
+import org.apache.avro.Schema
+import org.apache.avro.generic.GenericData
+import org.apache.avro.generic.GenericDatumWriter
+import org.apache.avro.generic.GenericRecord
+import org.apache.avro.io.EncoderFactory
+import org.apache.kafka.common.errors.SerializationException
+import java.io.ByteArrayOutputStream
+import java.net.InetSocketAddress
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class LocalSchemaAvroDeserializerTest : DescribeSpec({
+
+    val bundledSchema = LocalAvroSchemaStore.bundledSchema()
+
+    // reader 에 없는 channel 필드가 추가된 writer 스키마 (resolve 시 건너뛰어야 한다)
+    val legacySchema = Schema.Parser().parse(
+        """
+        {"type":"record","name":"PayAccountDeletedEnvelop","namespace":"com.consumer.cconsumer.message.avro",
+         "fields":[{"name":"uuid","type":"string"},{"name":"occurred_at","type":"long"},
+                   {"name":"payAccountId","type":"long"},{"name":"reason","type":"string"},
+                   {"name":"channel","type":"string"}]}
+        """.trimIndent()
+    )
+
+    describe("LocalSchemaAvroDeserializer") {
+
+        context("seed id 로 등록된 번들 스키마로 쓰인 메시지인 경우") {
+            it("레지스트리 없이 역직렬화한다") {
+                val deserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(listOf(1), null, null))
+
+                val envelope = deserializer.deserialize(TOPIC, confluentPayload(1, bundledSchema, record(bundledSchema, 12345L)))
+
+                envelope?.payAccountId shouldBe 12345L
+                envelope?.reason shouldBe "CUSTOMER_REQUEST"
+            }
+        }
+
+        context("디스크 캐시에 있는 다른 writer 스키마로 쓰인 메시지인 경우") {
+            it("reader 스키마로 resolve 해서 역직렬화한다") {
+                val cacheDir = Files.createTempDirectory("avro-schemas")
+                Files.writeString(cacheDir.resolve("7.avsc"), legacySchema.toString())
+                val deserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(emptyList(), cacheDir, null))
+
+                val payload = confluentPayload(7, legacySchema, record(legacySchema, 777L).apply { put("channel", "APP") })
+                val envelope = deserializer.deserialize(TOPIC, payload)
+
+                envelope?.payAccountId shouldBe 777L
+                // 같은 인스턴스로 여러 번 읽어도 ResolvingDecoder 상태가 섞이지 않는다
+                deserializer.deserialize(TOPIC, payload)?.payAccountId shouldBe 777L
+            }
+        }
+
+        context("모르는 schema id 인 경우") {
+            it("레지스트리에서 받아 디스크 캐시에 남긴다") {
+                val cacheDir = Files.createTempDirectory("avro-schemas")
+                val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+                    createContext("/schemas/ids/42") { exchange ->
+                        val body = """{"schema":${ObjectMapper().writeValueAsString(bundledSchema.toString())}}"""
+                            .toByteArray()
+                        exchange.sendResponseHeaders(200, body.size.toLong())
+                        exchange.responseBody.use { it.write(body) }
+                    }
+                    start()
+                }
+                try {
+                    val store = LocalAvroSchemaStore(emptyList(), cacheDir, "http://127.0.0.1:${server.address.port}")
+                    val deserializer = LocalSchemaAvroDeserializer(store)
+
+                    deserializer.deserialize(TOPIC, confluentPayload(42, bundledSchema, record(bundledSchema, 42L)))
+                        ?.payAccountId shouldBe 42L
+                    cacheDir.resolve("42.avsc").shouldExist()
+                } finally {
+                    server.stop(0)
+                }
+
+                // 레지스트리가 없어도 다음 기동 시 디스크 캐시로 읽는다
+                LocalAvroSchemaStore(emptyList(), cacheDir, null).knownSchemaIds() shouldBe setOf(42)
+            }
+
+            it("레지스트리 조회에 실패한 id 는 backoff 동안 다시 조회하지 않고 곧바로 실패한다") {
+                val requests = AtomicInteger()
+                val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+                    createContext("/schemas/ids/") { exchange ->
+                        requests.incrementAndGet()
+                        exchange.sendResponseHeaders(503, -1)
+                        exchange.close()
+                    }
+                    start()
+                }
+                try {
+                    val store = LocalAvroSchemaStore(emptyList(), null, "http://127.0.0.1:${server.address.port}")
+
+                    repeat(3) { shouldThrow<SerializationException> { store.writerSchema(42) } }
+                    shouldThrow<SerializationException> { store.writerSchema(43) }
+
+                    requests.get() shouldBe 2
+                } finally {
+                    server.stop(0)
+                }
+            }
+
+            it("같은 id 를 조회 중이면 결과를 기다리고, 다른 id 의 조회는 막지 않는다") {
+                val release = CountDownLatch(1)
+                val requests = AtomicInteger()
+                val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+                    executor = Executors.newCachedThreadPool()
+                    createContext("/schemas/ids/") { exchange ->
+                        requests.incrementAndGet()
+                        if (exchange.requestURI.path.endsWith("/42")) {
+                            release.await(5, TimeUnit.SECONDS)
+                        }
+                        val body = """{"schema":${ObjectMapper().writeValueAsString(bundledSchema.toString())}}"""
+                            .toByteArray()
+                        exchange.sendResponseHeaders(200, body.size.toLong())
+                        exchange.responseBody.use { it.write(body) }
+                    }
+                    start()
+                }
+                try {
+                    val store = LocalAvroSchemaStore(
+                        emptyList(), null, "http://127.0.0.1:${server.address.port}", registryTimeout = Duration.ofSeconds(10)
+                    )
+                    val slow = (1..2).map { CompletableFuture.supplyAsync { store.writerSchema(42) } }
+
+                    // 42 의 조회가 끝나지 않아도 43 은 바로 받는다
+                    store.writerSchema(43) shouldBe bundledSchema
+                    release.countDown()
+
+                    slow.map { it.get(5, TimeUnit.SECONDS) } shouldBe listOf(bundledSchema, bundledSchema)
+                    requests.get() shouldBe 2
+                } finally {
+                    server.stop(0)
+                }
+            }
+
+            it("레지스트리가 설정되지 않았으면 SerializationException 을 던진다") {
+                val deserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(emptyList(), null, null))
+
+                shouldThrow<SerializationException> {
+                    deserializer.deserialize(TOPIC, confluentPayload(99, bundledSchema, record(bundledSchema, 1L)))
+                }
+            }
+        }
+
+        context("seed id 가 설정되지 않은 경우") {
+            it("requireSeedIds 이면 IllegalStateException 으로 기동을 실패시킨다") {
+                shouldThrow<IllegalStateException> {
+                    LocalAvroSchemaStore(emptyList(), null, null, requireSeedIds = true)
+                }
+            }
+        }
+
+        context("Confluent wire format 헤더가 없는 경우") {
+            it("SerializationException 을 던진다") {
+                val deserializer = LocalSchemaAvroDeserializer(LocalAvroSchemaStore(listOf(1), null, null))
+
+                shouldThrow<SerializationException> {
+                    deserializer.deserialize(TOPIC, byteArrayOf(1, 2, 3))
+                }
+            }
+        }
+    }
+})
+
+private const val TOPIC = "pay-account.payaccount-deleted.v2"
+
+private fun record(schema: Schema, payAccountId: Long): GenericRecord =
+    GenericData.Record(schema).apply {
+        put("uuid", "uuid-$payAccountId")
+        put("occurred_at", 1697360000000L)
+        put("payAccountId", payAccountId)
+        put("reason", "CUSTOMER_REQUEST")
+    }
+
+private fun confluentPayload(schemaId: Int, schema: Schema, record: GenericRecord): ByteArray {
+    val output = ByteArrayOutputStream()
+    output.write(0)
+    output.write(ByteBuffer.allocate(Int.SIZE_BYTES).putInt(schemaId).array())
+    val encoder = EncoderFactory.get().binaryEncoder(output, null)
+    GenericDatumWriter<GenericRecord>(schema).write(record, encoder)
+    encoder.flush()
+    return output.toByteArray()
+}
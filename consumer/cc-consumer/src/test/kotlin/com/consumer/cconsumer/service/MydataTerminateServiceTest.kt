@@ -3,27 +3,42 @@ package com.consumer.cconsumer.service
 import com.consumer.cconsumer.domain.entity.MydataTerminateUser
 import com.consumer.cconsumer.domain.entity.TerminateStatus
 import com.consumer.cconsumer.domain.repository.MydataTerminateUserRepository
+import com.consumer.cconsumer.domain.repository.TerminationBulkWriter
+import com.consumer.cconsumer.domain.repository.TerminationTarget
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.cache.PendingTerminationCache
 import com.consumer.cconsumer.service.impl.MydataTerminateServiceImpl
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.slot
 import io.mockk.verify
+import java.time.Duration
 import org.springframework.dao.DataIntegrityViolationException
 
 class MydataTerminateServiceTest : DescribeSpec({
 
     describe("MydataTerminateService") {
         lateinit var repository: MydataTerminateUserRepository
+        lateinit var bulkWriter: TerminationBulkWriter
         lateinit var service: MydataTerminateService
+        lateinit var meterRegistry: SimpleMeterRegistry
 
         beforeEach {
+            meterRegistry = SimpleMeterRegistry()
             repository = mockk<MydataTerminateUserRepository>()
-            service = MydataTerminateServiceImpl(repository)
+            bulkWriter = mockk<TerminationBulkWriter>()
+            service = MydataTerminateServiceImpl(
+                repository,
+                bulkWriter,
+                PendingTerminationCache(capacity = 1_024, ttl = Duration.ofMinutes(10)),
+                TerminationMetrics(meterRegistry)
+            )
         }
 
         describe("processTermination 메서드 실행 시") {
@@ -85,6 +100,26 @@ class MydataTerminateServiceTest : DescribeSpec({
                 }
             }
 
+            context("같은 payAccountId가 다시 들어오는 경우") {
+                it("최근 PENDING으로 확인된 payAccountId는 DB를 조회하지 않는다") {
+                    // given
+                    val payAccountId = 24680L
+                    every {
+                        repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
+                    } returns MydataTerminateUser(payAccountId = payAccountId, reason = "EXISTING")
+
+                    // when
+                    service.processTermination(payAccountId, "FIRST")
+                    service.processTermination(payAccountId, "REPLAYED")
+
+                    // then
+                    verify(exactly = 1) {
+                        repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
+                    }
+                    verify(exactly = 0) { repository.save(any()) }
+                }
+            }
+
             context("DataIntegrityViolationException이 발생하는 경우") {
                 it("멱등성을 보장하기 위해 예외를 삼키고 정상 처리한다") {
                     // given
@@ -134,5 +169,57 @@ class MydataTerminateServiceTest : DescribeSpec({
                 }
             }
         }
+
+        describe("processTerminations 메서드 실행 시") {
+            context("poll 안에 중복된 payAccountId가 섞여 있는 경우") {
+                it("payAccountId 기준으로 중복을 제거한 뒤 한 번의 bulk insert로 위임한다") {
+                    // given
+                    val capturedTargets = slot<List<TerminationTarget>>()
+                    every { bulkWriter.upsertPending(any(), capture(capturedTargets)) } returns 2
+
+                    // when
+                    service.processTerminations(
+                        listOf(
+                            TerminationTarget(1L, "FIRST"),
+                            TerminationTarget(2L, "SECOND"),
+                            TerminationTarget(1L, "DUPLICATED")
+                        )
+                    )
+
+                    // then
+                    verify(exactly = 1) { bulkWriter.upsertPending(any(), any()) }
+                    verify(exactly = 0) { repository.findByPayAccountIdAndTerminateStatus(any(), any()) }
+                    capturedTargets.captured shouldBe listOf(
+                        TerminationTarget(1L, "FIRST"),
+                        TerminationTarget(2L, "SECOND")
+                    )
+                }
+            }
+
+            context("대상이 비어 있는 경우") {
+                it("repository를 호출하지 않는다") {
+                    // when
+                    service.processTerminations(emptyList())
+
+                    // then
+                    verify(exactly = 0) { bulkWriter.upsertPending(any(), any()) }
+                }
+            }
+
+            context("bulk insert 중 예외가 발생하는 경우") {
+                it("예외를 다시 던진다") {
+                    // given
+                    every { bulkWriter.upsertPending(any(), any()) } throws RuntimeException("Lock wait timeout")
+
+                    // when & then
+                    val exception = kotlin.runCatching {
+                        service.processTerminations(listOf(TerminationTarget(3L, "REASON")))
+                    }.exceptionOrNull()
+
+                    exception shouldNotBe null
+                    exception?.message shouldBe "Lock wait timeout"
+                }
+            }
+        }
     }
 })
\ No newline at end of file
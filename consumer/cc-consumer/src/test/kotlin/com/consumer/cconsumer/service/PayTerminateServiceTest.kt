@@ -3,25 +3,39 @@ package com.consumer.cconsumer.service
 import com.consumer.cconsumer.domain.entity.PayTerminateUser
 import com.consumer.cconsumer.domain.entity.TerminateStatus
 import com.consumer.cconsumer.domain.repository.PayTerminateUserRepository
+import com.consumer.cconsumer.domain.repository.TerminationBulkWriter
+import com.consumer.cconsumer.metrics.TerminationMetrics
+import com.consumer.cconsumer.service.cache.PendingTerminationCache
 import com.consumer.cconsumer.service.impl.PayTerminateServiceImpl
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.slot
 import io.mockk.verify
+import java.time.Duration
 import org.springframework.dao.DataIntegrityViolationException
 
 class PayTerminateServiceTest : DescribeSpec({
 
     describe("PayTerminateService") {
         lateinit var repository: PayTerminateUserRepository
+        lateinit var bulkWriter: TerminationBulkWriter
         lateinit var service: PayTerminateService
+        lateinit var meterRegistry: SimpleMeterRegistry
 
         beforeEach {
+            meterRegistry = SimpleMeterRegistry()
             repository = mockk<PayTerminateUserRepository>()
-            service = PayTerminateServiceImpl(repository)
+            bulkWriter = mockk<TerminationBulkWriter>()
+            service = PayTerminateServiceImpl(
+                repository,
+                bulkWriter,
+                PendingTerminationCache(capacity = 1_024, ttl = Duration.ofMinutes(10)),
+                TerminationMetrics(meterRegistry)
+            )
         }
 
         describe("processTermination 메서드 실행 시") {
@@ -109,6 +123,26 @@ class PayTerminateServiceTest : DescribeSpec({
                 }
             }
 
+            context("같은 payAccountId가 다시 들어오는 경우") {
+                it("최근 PENDING으로 확인된 payAccountId는 DB를 조회하지 않는다") {
+                    // given
+                    val payAccountId = 24680L
+                    every {
+                        repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
+                    } returns PayTerminateUser(payAccountId = payAccountId, reason = "EXISTING")
+
+                    // when
+                    service.processTermination(payAccountId, "FIRST")
+                    service.processTermination(payAccountId, "REPLAYED")
+
+                    // then
+                    verify(exactly = 1) {
+                        repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
+                    }
+                    verify(exactly = 0) { repository.save(any()) }
+                }
+            }
+
             context("DataIntegrityViolationException이 발생하는 경우") {
                 it("멱등성을 보장하기 위해 예외를 삼키고 정상 처리한다") {
                     // given
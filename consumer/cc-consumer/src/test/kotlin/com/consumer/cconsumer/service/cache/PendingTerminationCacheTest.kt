@@ -0,0 +1,60 @@
+package com.consumer.cconsumer.service.cache
+
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import java.time.Duration
+
+class PendingTerminationCacheTest : DescribeSpec({
+
+    describe("PendingTerminationCache") {
+        var now = 0L
+        lateinit var cache: PendingTerminationCache
+
+        beforeEach {
+            now = 0L
+            cache = PendingTerminationCache(capacity = 1_024, ttl = Duration.ofSeconds(10)) { now }
+        }
+
+        context("put 한 payAccountId를 조회하면") {
+            it("hit 으로 집계하고 true 를 반환한다") {
+                cache.put(1L)
+
+                cache.contains(1L) shouldBe true
+                cache.contains(2L) shouldBe false
+                cache.hitCount() shouldBe 1L
+                cache.missCount() shouldBe 1L
+            }
+        }
+
+        context("TTL 이 지나면") {
+            it("miss 로 취급한다") {
+                cache.put(1L)
+                now = Duration.ofSeconds(11).toNanos()
+
+                cache.contains(1L) shouldBe false
+            }
+        }
+
+        context("용량을 초과해 적재하면") {
+            it("가장 최근에 기록한 항목은 유지하고 전체 크기는 용량을 넘지 않는다") {
+                (1L..10_000L).forEach {
+                    now++
+                    cache.put(it)
+                }
+
+                cache.contains(10_000L) shouldBe true
+                (1L..10_000L).count { cache.contains(it) } shouldBe 1_024
+            }
+        }
+
+        context("용량이 0 이면") {
+            it("아무것도 저장하지 않는다") {
+                val disabled = PendingTerminationCache(capacity = 0, ttl = Duration.ofMinutes(1))
+                disabled.put(1L)
+
+                disabled.enabled shouldBe false
+                disabled.contains(1L) shouldBe false
+            }
+        }
+    }
+})
@@ -4,6 +4,7 @@ plugins {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
+    implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("com.fasterxml.jackson.module:jackson-module-kotlin")
 
     // Kotest
@@ -38,7 +39,7 @@ tasks.named<org.jetbrains.kotlin.gradle.tasks.KotlinCompile>("compileKotlin") {
 tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
     enabled = true
     archiveClassifier = ""
-    mainClass.set("com.codex.consumer.CodexConsumerApplication")
+    mainClass.set("com.codex.consumer.CodexConsumerApplicationKt")
 }
 
 tasks.named<Jar>("jar") {
@@ -48,3 +49,7 @@ tasks.named<Jar>("jar") {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+tasks.named<JavaExec>("loadTest") {
+    mainClass.set("com.codex.consumer.loadtest.CodexConsumerLoadTestKt")
+}
@@ -0,0 +1,64 @@
+package com.codex.consumer.model
+
+import com.codex.consumer.support.ConsentMessagePrefilterDeserializer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.springframework.kafka.support.serializer.JsonDeserializer
+import java.util.concurrent.TimeUnit
+
+/**
+ * consentConsumerFactory 의 두 value deserializer(JsonDeserializer, ConsentMessagePrefilterDeserializer) 처리량/할당량 측정.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class ConsentMessageDeserializerBenchmark {
+
+    private lateinit var deserializer: JsonDeserializer<ConsentMessage>
+    private lateinit var prefilterDeserializer: ConsentMessagePrefilterDeserializer
+    private lateinit var removePayload: ByteArray
+    private lateinit var keepPayload: ByteArray
+
+    @Setup
+    fun setUp() {
+        deserializer = JsonDeserializer(ConsentMessage::class.java).apply {
+            addTrustedPackages("com.codex.consumer.model")
+            setUseTypeMapperForKey(false)
+            setRemoveTypeHeaders(false)
+        }
+        prefilterDeserializer = ConsentMessagePrefilterDeserializer()
+        removePayload = payload(payAccountId = 912_345_678L, isRemove = true)
+        keepPayload = payload(payAccountId = 912_345_679L, isRemove = false)
+    }
+
+    @TearDown
+    fun tearDown() {
+        deserializer.close()
+    }
+
+    @Benchmark
+    fun removeMessage(): Long = deserializer.deserialize(TOPIC, removePayload)!!.data.payAccountId
+
+    @Benchmark
+    fun nonRemoveMessage(): Long = deserializer.deserialize(TOPIC, keepPayload)!!.data.payAccountId
+
+    @Benchmark
+    fun prefilterRemoveMessage(): Long = prefilterDeserializer.deserialize(TOPIC, removePayload)!!.data.payAccountId
+
+    @Benchmark
+    fun prefilterNonRemoveMessage(): Long = prefilterDeserializer.deserialize(TOPIC, keepPayload)!!.data.payAccountId
+
+    private fun payload(payAccountId: Long, isRemove: Boolean): ByteArray =
+        """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":$payAccountId,"is_remove":$isRemove,"is_force":false},"type":"WITHDRAW"}"""
+            .toByteArray()
+
+    companion object {
+        private const val TOPIC = "mydata.consent.v1"
+    }
+}
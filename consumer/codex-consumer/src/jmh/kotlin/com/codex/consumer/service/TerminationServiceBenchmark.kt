@@ -0,0 +1,91 @@
+package com.codex.consumer.service
+
+import com.codex.consumer.CodexConsumerApplication
+import com.codex.consumer.domain.repository.TerminationTarget
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.springframework.boot.builder.SpringApplicationBuilder
+import org.springframework.context.ConfigurableApplicationContext
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 트랜잭션 + JPA/JDBC 를 포함한 handleTermination(s) 전체 경로를 H2(MySQL 모드)에 대해 측정.
+ * Kafka 리스너는 lazy-initialization 으로 생성되지 않으므로 브로커 없이 실행된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class TerminationServiceBenchmark {
+
+    private lateinit var context: ConfigurableApplicationContext
+    private lateinit var mydataTerminateService: MydataTerminateService
+    private lateinit var payTerminateService: PayTerminateService
+    private val payAccountIds = AtomicLong()
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        context = SpringApplicationBuilder(CodexConsumerApplication::class.java).run(
+            "--spring.main.lazy-initialization=true",
+            "--spring.main.banner-mode=off",
+            "--spring.main.web-application-type=none",
+            "--spring.datasource.url=jdbc:h2:mem:codex-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.sql.init.mode=never",
+            "--logging.level.com.codex.consumer=WARN"
+        )
+        mydataTerminateService = context.getBean(MydataTerminateService::class.java)
+        payTerminateService = context.getBean(PayTerminateService::class.java)
+
+        mydataTerminateService.handleTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+        payTerminateService.handleTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        context.close()
+    }
+
+    @Benchmark
+    fun mydataNewTermination() {
+        mydataTerminateService.handleTermination(payAccountIds.incrementAndGet(), REASON)
+    }
+
+    @Benchmark
+    fun mydataDuplicateTermination() {
+        mydataTerminateService.handleTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    @Benchmark
+    fun payNewTermination() {
+        payTerminateService.handleTermination(payAccountIds.incrementAndGet(), REASON)
+    }
+
+    @Benchmark
+    fun payDuplicateTermination() {
+        payTerminateService.handleTermination(DUPLICATE_PAY_ACCOUNT_ID, REASON)
+    }
+
+    // max.poll.records(500) 한 번 분량을 일괄 upsert 하는 경로, ops/s × 500 이 건 단위 처리량
+    @Benchmark
+    fun payPollBatchTerminations() {
+        payTerminateService.handleTerminations(
+            List(POLL_BATCH_SIZE) { TerminationTarget(payAccountIds.incrementAndGet(), REASON) }
+        )
+    }
+
+    companion object {
+        private const val DUPLICATE_PAY_ACCOUNT_ID = -1L
+        private const val POLL_BATCH_SIZE = 500
+        private const val REASON = "PFM_SERVICE_CLOSED_BY_USER"
+    }
+}
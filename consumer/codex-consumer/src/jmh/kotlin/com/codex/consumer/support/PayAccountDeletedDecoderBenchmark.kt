@@ -0,0 +1,78 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.DecodingMode
+import com.codex.consumer.config.KafkaConsumerProperties.WireFormat
+import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import org.apache.avro.io.EncoderFactory
+import org.apache.avro.specific.SpecificDatumWriter
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+
+/**
+ * 기존(ALLOCATING) 디코딩과 스레드별 재사용(THREAD_CONFINED) 디코딩의 처리량/할당량 비교.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class PayAccountDeletedDecoderBenchmark {
+
+    private lateinit var rawPayload: ByteArray
+    private lateinit var confluentBuffer: ByteBuffer
+    private lateinit var allocatingDecoder: PayAccountDeletedDecoder
+    private lateinit var threadConfinedDecoder: PayAccountDeletedDecoder
+    private lateinit var confluentDecoder: PayAccountDeletedDecoder
+
+    @Setup
+    fun setUp() {
+        rawPayload = encode(
+            PayAccountDeletedEnvelop("6517f633-eee3-4e3f-bd05-15cf98b26068", 1_725_000_000_000L, 912_345_678L, "CUSTOMER_REQUEST")
+        )
+        // 앞쪽 여유 공간 + Confluent 헤더를 두어 slice 디코딩을 재현
+        confluentBuffer = ByteBuffer.allocate(16 + 5 + rawPayload.size).apply {
+            position(16)
+            put(0x0)
+            putInt(42)
+            put(rawPayload)
+            flip()
+            position(16)
+        }.slice()
+
+        allocatingDecoder = decoder(WireFormat.RAW, DecodingMode.ALLOCATING)
+        threadConfinedDecoder = decoder(WireFormat.RAW, DecodingMode.THREAD_CONFINED)
+        confluentDecoder = decoder(WireFormat.CONFLUENT, DecodingMode.THREAD_CONFINED)
+    }
+
+    @Benchmark
+    fun allocating(): Long = allocatingDecoder.decode(rawPayload).payAccountId
+
+    @Benchmark
+    fun threadConfined(): Long = threadConfinedDecoder.decode(rawPayload).payAccountId
+
+    @Benchmark
+    fun threadConfinedConfluentSlice(): Long = confluentDecoder.decode(confluentBuffer).payAccountId
+
+    private fun decoder(wireFormat: WireFormat, decodingMode: DecodingMode) =
+        PayAccountDeletedDecoder(
+            KafkaConsumerProperties().apply {
+                avro.wireFormat = wireFormat
+                avro.decodingMode = decodingMode
+            }
+        )
+
+    private fun encode(record: PayAccountDeletedEnvelop): ByteArray {
+        val output = ByteArrayOutputStream()
+        val encoder = EncoderFactory.get().binaryEncoder(output, null)
+        SpecificDatumWriter(PayAccountDeletedEnvelop::class.java).write(record, encoder)
+        encoder.flush()
+        return output.toByteArray()
+    }
+}
@@ -0,0 +1,104 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.ListenerExecutor
+import com.zaxxer.hikari.HikariDataSource
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.springframework.kafka.listener.ConsumerRecordRecoverer
+import org.springframework.kafka.support.Acknowledgment
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * 같은 Hikari 풀 크기에서 PLATFORM(컨슈머 스레드에서 순차 처리) 과 VIRTUAL(레코드별 virtual thread) 의 처리량 비교.
+ * 1 op = max.poll.records(500) 한 번 분량, 컨슈머 스레드 수는 codex.kafka.listener.concurrency 에 해당한다.
+ * 레코드 처리는 커넥션을 잡은 채로 쿼리 + DB 왕복 지연(1ms)을 흉내낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+open class RecordHandlingExecutorBenchmark {
+
+    @Param("1", "3")
+    var consumerThreads: Int = 3
+
+    private lateinit var dataSource: HikariDataSource
+    private lateinit var consumerPool: ExecutorService
+    private lateinit var platformExecutor: RecordHandlingExecutor
+    private lateinit var virtualExecutor: RecordHandlingExecutor
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        dataSource = HikariDataSource().apply {
+            jdbcUrl = "jdbc:h2:mem:record-handling-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1"
+            driverClassName = "org.h2.Driver"
+            username = "sa"
+            maximumPoolSize = HIKARI_POOL_SIZE
+        }
+        consumerPool = Executors.newFixedThreadPool(consumerThreads)
+        val terminationMetrics = TerminationMetrics(SimpleMeterRegistry())
+        val noDeadLetter = ConsumerRecordRecoverer { _, _ -> }
+        platformExecutor = RecordHandlingExecutor(properties(ListenerExecutor.PLATFORM), dataSource, terminationMetrics, noDeadLetter)
+        virtualExecutor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL), dataSource, terminationMetrics, noDeadLetter)
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        virtualExecutor.close()
+        platformExecutor.close()
+        consumerPool.shutdown()
+        dataSource.close()
+    }
+
+    @Benchmark
+    fun platform() = poll(platformExecutor)
+
+    @Benchmark
+    fun virtual() = poll(virtualExecutor)
+
+    private fun poll(executor: RecordHandlingExecutor) {
+        val acked = CountDownLatch(POLL_SIZE)
+        val acknowledgment = Acknowledgment { acked.countDown() }
+
+        (0 until consumerThreads)
+            .map { consumer ->
+                consumerPool.submit {
+                    for (offset in consumer until POLL_SIZE step consumerThreads) {
+                        executor.execute(ConsumerRecord(TOPIC, 0, offset.toLong(), "key-$offset", null), acknowledgment) { handleRecord() }
+                    }
+                }
+            }
+            .forEach { it.get() }
+        acked.await()
+    }
+
+    private fun handleRecord() {
+        dataSource.connection.use { connection ->
+            connection.createStatement().use { it.execute("SELECT 1") }
+            Thread.sleep(DB_LATENCY_MILLIS)
+        }
+    }
+
+    private fun properties(executor: ListenerExecutor) =
+        KafkaConsumerProperties().apply { listener.executor = executor }
+
+    companion object {
+        private const val HIKARI_POOL_SIZE = 10
+        private const val POLL_SIZE = 500
+        private const val TOPIC = "mydata.consent.v1"
+        private const val DB_LATENCY_MILLIS = 1L
+    }
+}
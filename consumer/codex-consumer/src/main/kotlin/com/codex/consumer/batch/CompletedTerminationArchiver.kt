@@ -0,0 +1,112 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.config.ArchiveProperties
+import com.codex.consumer.config.PurgeProperties
+import com.codex.consumer.domain.repository.CompletedTerminationArchiveRepository
+import com.codex.consumer.support.ShardRoutingDataSource
+import com.codex.consumer.support.TerminationMetrics
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Component
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import java.time.Clock
+import java.time.Duration
+import java.time.LocalDateTime
+
+/**
+ * 보존 기간이 지난 COMPLETED 레코드를 MYDATA_TERMINATE_USER_ARCHIVE / PAY_TERMINATE_USER_ARCHIVE 로 옮겨
+ * 멱등성 확인이 매번 probe 하는 (pay_account_id, terminate_status) 유니크 인덱스를 작게 유지한다.
+ *
+ * 직전 chunk 의 마지막 id 다음부터 chunkSize 건씩 INSERT ... SELECT + DELETE 를 한 트랜잭션으로 수행하고, chunk 사이에 대기해 maxRowsPerSecond 를 넘지 않게 한다.
+ * 실행을 시작할 때 테이블별 지연(가장 오래된 COMPLETED 가 보존 기간을 넘긴 시간)을 gauge 로 남기고 후보가 없을 때까지 옮긴다.
+ * 샤딩 모드에서는 샤드마다 차례로 수행한다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "codex.archive", name = ["enabled"], havingValue = "true")
+class CompletedTerminationArchiver(
+    private val archiveProperties: ArchiveProperties,
+    private val archiveRepository: CompletedTerminationArchiveRepository,
+    transactionManager: PlatformTransactionManager,
+    private val terminationMetrics: TerminationMetrics,
+    private val shardRoutingDataSource: ShardRoutingDataSource? = null,
+    private val clock: Clock = Clock.systemDefaultZone()
+) {
+
+    private val transactionTemplate = TransactionTemplate(transactionManager)
+
+    @Scheduled(
+        initialDelayString = "\${codex.archive.interval:PT1M}",
+        fixedDelayString = "\${codex.archive.interval:PT1M}"
+    )
+    fun scheduledRun() {
+        run()
+    }
+
+    fun run(): Map<PurgeProperties.Target, Int> {
+        require(archiveProperties.chunkSize > 0) { "codex.archive.chunk-size must be positive but was ${archiveProperties.chunkSize}" }
+        require(archiveProperties.maxRowsPerSecond > 0) {
+            "codex.archive.max-rows-per-second must be positive but was ${archiveProperties.maxRowsPerSecond}"
+        }
+
+        val shards = 0 until (shardRoutingDataSource?.shardCount ?: 1)
+        return PurgeProperties.Target.entries.associateWith { target ->
+            shards.sumOf { shard -> onShard(shard) { archive(target) } }
+        }
+    }
+
+    private fun archive(target: PurgeProperties.Target): Int {
+        val completedBefore = LocalDateTime.now(clock).minus(archiveProperties.retention)
+        val lag = archiveRepository.oldestCompletedAt(target.tableName)
+            ?.let { Duration.between(it, completedBefore).coerceAtLeast(Duration.ZERO) }
+            ?: Duration.ZERO
+        terminationMetrics.recordArchiveLag(target.source, lag)
+
+        val pacer = Pacer(archiveProperties.maxRowsPerSecond)
+        var moved = 0
+        var lastId = 0L
+        while (true) {
+            val (ids, archived) = transactionTemplate.execute {
+                val ids = archiveRepository.findArchivableIds(target.tableName, completedBefore, lastId, archiveProperties.chunkSize)
+                ids to archiveRepository.moveToArchive(target.tableName, ids, LocalDateTime.now(clock))
+            }!!
+            moved += archived
+            terminationMetrics.countArchived(target.source, archived)
+            if (ids.size < archiveProperties.chunkSize) {
+                break
+            }
+            lastId = ids.last()
+            pacer.pace(ids.size)
+        }
+
+        if (moved > 0) {
+            log.info("Archived completed terminations. table={}, moved={}, lagSeconds={}", target.tableName, moved, lag.seconds)
+        }
+        return moved
+    }
+
+    private fun <T> onShard(shard: Int, block: () -> T): T {
+        val router = shardRoutingDataSource ?: return block()
+        return router.withShard(shard, block)
+    }
+
+    /** 누적 처리량이 rowsPerSecond 를 넘지 않도록 다음 chunk 전에 대기한다 */
+    private class Pacer(private val rowsPerSecond: Int) {
+        private val startedAt = System.nanoTime()
+        private var rows = 0L
+
+        fun pace(chunkRows: Int) {
+            rows += chunkRows
+            val earliestNanos = rows * 1_000_000_000L / rowsPerSecond
+            val waitNanos = earliestNanos - (System.nanoTime() - startedAt)
+            if (waitNanos > 0) {
+                Thread.sleep(Duration.ofNanos(waitNanos))
+            }
+        }
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(CompletedTerminationArchiver::class.java)
+    }
+}
@@ -0,0 +1,145 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.config.PurgeProperties
+import com.codex.consumer.domain.repository.CompletedTerminationArchiveRepository
+import com.codex.consumer.domain.repository.PendingTerminationPurgeRepository
+import com.codex.consumer.domain.repository.PurgeCheckpointRepository
+import com.codex.consumer.support.ShardRoutingDataSource
+import com.codex.consumer.support.TerminationMetrics
+import org.slf4j.LoggerFactory
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import org.springframework.stereotype.Component
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import java.time.LocalDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+/**
+ * MYDATA_TERMINATE_USER / PAY_TERMINATE_USER 의 PENDING 레코드를 COMPLETED 로 정리하는 배치.
+ *
+ * 테이블마다 pay_account_id 를 bucketCount 개의 hash bucket 으로 나눠 parallelism 개 스레드에서 동시에 처리하고,
+ * 각 bucket 은 id keyset 으로 chunkSize 건씩 훑으며 한 트랜잭션에서 다음을 수행한다.
+ * 1. 같은 계정의 이전 COMPLETED 레코드를 <table>_ARCHIVE 로 이동 (uq_*_pay_account_status 는 계정당 COMPLETED 1건만 허용)
+ * 2. chunk 의 PENDING 레코드를 COMPLETED 로 일괄 UPDATE
+ * 3. PURGE_CHECKPOINT 에 chunk 의 마지막 id 기록
+ * 중단되어도 다음 실행은 bucket 별 체크포인트 다음 id 부터 이어서 진행한다.
+ * 샤딩 모드에서는 샤드마다 같은 작업을 수행하며, 체크포인트도 각 샤드의 PURGE_CHECKPOINT 에 남는다.
+ */
+@Component
+class PendingTerminationPurgeJob(
+    private val purgeProperties: PurgeProperties,
+    private val purgeRepository: PendingTerminationPurgeRepository,
+    private val archiveRepository: CompletedTerminationArchiveRepository,
+    private val purgeCheckpointRepository: PurgeCheckpointRepository,
+    transactionManager: PlatformTransactionManager,
+    private val terminationMetrics: TerminationMetrics,
+    private val shardRoutingDataSource: ShardRoutingDataSource? = null
+) {
+
+    private val transactionTemplate = TransactionTemplate(transactionManager)
+
+    fun run(): List<PurgeResult> {
+        val bucketCount = purgeProperties.bucketCount
+        require(bucketCount > 0) { "codex.purge.bucket-count must be positive but was $bucketCount" }
+        require(purgeProperties.chunkSize > 0) { "codex.purge.chunk-size must be positive but was ${purgeProperties.chunkSize}" }
+
+        val shards = 0 until (shardRoutingDataSource?.shardCount ?: 1)
+        val executor = Executors.newFixedThreadPool(
+            purgeProperties.parallelism.coerceIn(1, bucketCount * shards.count()),
+            CustomizableThreadFactory("termination-purge-")
+        )
+        try {
+            val futures = purgeProperties.targets.distinct().associateWith { target ->
+                shards.flatMap { shard ->
+                    val checkpoints = onShard(shard) {
+                        purgeCheckpointRepository.findByTableNameAndBucketCount(target.tableName, bucketCount)
+                    }.associate { it.bucketNo to it.lastId }
+                    (0 until bucketCount).map { bucketNo ->
+                        executor.submit(Callable { onShard(shard) { purgeBucket(target, bucketNo, checkpoints[bucketNo] ?: 0L) } })
+                    }
+                }
+            }
+            return futures.map { (target, bucketFutures) ->
+                bucketFutures.fold(PurgeResult(target.tableName)) { total, future -> total + await(future) }
+                    .also { log.info("Purged pending terminations. {}", it) }
+            }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    private fun <T> onShard(shard: Int, block: () -> T): T {
+        val router = shardRoutingDataSource ?: return block()
+        return router.withShard(shard, block)
+    }
+
+    private fun purgeBucket(target: PurgeProperties.Target, bucketNo: Int, startAfterId: Long): PurgeResult {
+        var result = PurgeResult(target.tableName)
+        var lastId = startAfterId
+        while (true) {
+            val chunk = terminationMetrics.recordPurgeChunk(target.source) {
+                transactionTemplate.execute { purgeChunk(target, bucketNo, lastId) }
+            } ?: break
+
+            terminationMetrics.countPurged(target.source, chunk.completed, chunk.superseded)
+            result += PurgeResult(target.tableName, chunks = 1, completed = chunk.completed, superseded = chunk.superseded)
+            lastId = chunk.lastId
+            if (chunk.scanned < purgeProperties.chunkSize) {
+                break
+            }
+        }
+        log.debug("Purged bucket. table={}, bucket={}, lastId={}, result={}", target.tableName, bucketNo, lastId, result)
+        return result
+    }
+
+    private fun purgeChunk(target: PurgeProperties.Target, bucketNo: Int, afterId: Long): ChunkResult? {
+        val rows = purgeRepository.findPendingChunk(
+            target.tableName, purgeProperties.bucketCount, bucketNo, afterId, purgeProperties.chunkSize
+        )
+        if (rows.isEmpty()) {
+            return null
+        }
+
+        val superseded = archiveRepository.moveSupersededToArchive(
+            target.tableName, rows.mapTo(HashSet()) { it.payAccountId }, LocalDateTime.now()
+        )
+        val completed = purgeRepository.markCompleted(target.tableName, rows.map { it.id })
+        val lastId = rows.last().id
+        purgeCheckpointRepository.saveLastId(target.tableName, purgeProperties.bucketCount, bucketNo, lastId)
+        return ChunkResult(lastId, rows.size, completed, superseded)
+    }
+
+    private fun await(future: Future<PurgeResult>): PurgeResult =
+        try {
+            future.get()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+
+    private data class ChunkResult(
+        val lastId: Long,
+        val scanned: Int,
+        val completed: Int,
+        val superseded: Int
+    )
+
+    data class PurgeResult(
+        val tableName: String,
+        val chunks: Int = 0,
+        val completed: Int = 0,
+        val superseded: Int = 0
+    ) {
+        operator fun plus(other: PurgeResult) = copy(
+            chunks = chunks + other.chunks,
+            completed = completed + other.completed,
+            superseded = superseded + other.superseded
+        )
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(PendingTerminationPurgeJob::class.java)
+    }
+}
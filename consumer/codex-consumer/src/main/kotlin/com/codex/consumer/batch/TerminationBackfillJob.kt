@@ -0,0 +1,119 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.batch.TerminationDumpReader.DumpSource
+import com.codex.consumer.config.BackfillProperties
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.service.MydataTerminateService
+import com.codex.consumer.service.PayTerminateService
+import com.codex.consumer.support.TerminationMetrics
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+import java.nio.file.Path
+
+/**
+ * 토픽 덤프 파일(Avro container / JSONL)에서 파기 대상자를 읽어 서비스의 bulk upsert 로 적재하는 오프라인 백필.
+ *
+ * 새 환경을 구성할 때 수개월치 토픽을 Kafka + 레코드 단위 처리로 재생하는 대신 사용한다.
+ * 덤프를 스트리밍으로 읽으며 batchSize 건이 모일 때마다 handleTerminations 로 넘기므로 메모리 사용량은 batchSize 에 비례한다.
+ * 적재 의미(PENDING upsert, 중복 payAccountId 병합)는 컨슈머의 bulk 경로와 같아 같은 덤프를 다시 적재해도 결과가 같다.
+ */
+@Component
+class TerminationBackfillJob(
+    private val backfillProperties: BackfillProperties,
+    private val mydataTerminateService: MydataTerminateService,
+    private val payTerminateService: PayTerminateService,
+    private val terminationMetrics: TerminationMetrics
+) {
+
+    private val reader = TerminationDumpReader()
+
+    fun run(): List<BackfillResult> {
+        require(backfillProperties.batchSize > 0) {
+            "codex.backfill.batch-size must be positive but was ${backfillProperties.batchSize}"
+        }
+        require(backfillProperties.progressInterval > 0) {
+            "codex.backfill.progress-interval must be positive but was ${backfillProperties.progressInterval}"
+        }
+        val dumps = listOf(DumpSource.MYDATA to backfillProperties.mydata, DumpSource.PAY to backfillProperties.pay)
+            .mapNotNull { (source, dump) -> dump.path?.let { Triple(source, it, dump.format ?: TerminationDumpReader.formatOf(it)) } }
+        if (dumps.isEmpty()) {
+            log.warn("No dump file configured. Set codex.backfill.mydata.path and/or codex.backfill.pay.path")
+        }
+        return dumps.map { (source, path, format) -> load(source, path, format) }
+    }
+
+    private fun load(source: DumpSource, path: Path, format: BackfillProperties.DumpFormat): BackfillResult {
+        log.info("Backfilling terminations. source={}, path={}, format={}", source, path, format)
+        val progress = Progress(source, System.nanoTime())
+        val buffer = ArrayList<TerminationTarget>(backfillProperties.batchSize)
+
+        reader.read(source, path, format) { target ->
+            progress.read++
+            if (target == null) {
+                progress.skipped++
+            } else {
+                buffer += target
+                if (buffer.size >= backfillProperties.batchSize) {
+                    flush(source, buffer, progress)
+                }
+            }
+            if (progress.read % backfillProperties.progressInterval == 0L) {
+                log.info("Backfill progress. {}", progress.snapshot())
+            }
+        }
+        flush(source, buffer, progress)
+        terminationMetrics.countSkipped(source.metricSource(), progress.skipped.coerceAtMost(Int.MAX_VALUE.toLong()).toInt())
+
+        return progress.snapshot().also { log.info("Backfill completed. {}", it) }
+    }
+
+    private fun flush(source: DumpSource, buffer: MutableList<TerminationTarget>, progress: Progress) {
+        if (buffer.isEmpty()) {
+            return
+        }
+        when (source) {
+            DumpSource.MYDATA -> mydataTerminateService.handleTerminations(buffer)
+            DumpSource.PAY -> payTerminateService.handleTerminations(buffer)
+        }
+        progress.loaded += buffer.size
+        buffer.clear()
+    }
+
+    private fun DumpSource.metricSource(): String = when (this) {
+        DumpSource.MYDATA -> TerminationMetrics.SOURCE_MYDATA
+        DumpSource.PAY -> TerminationMetrics.SOURCE_PAY
+    }
+
+    private class Progress(
+        val source: DumpSource,
+        val startedAtNanos: Long
+    ) {
+        var read: Long = 0
+        var skipped: Long = 0
+        var loaded: Long = 0
+
+        fun snapshot(): BackfillResult {
+            val elapsedMillis = (System.nanoTime() - startedAtNanos) / 1_000_000
+            return BackfillResult(source, read, skipped, loaded, elapsedMillis)
+        }
+    }
+
+    /** loaded 는 서비스에 넘긴 대상 수 (덤프 안의 중복 payAccountId 와 기존 PENDING 포함) */
+    data class BackfillResult(
+        val source: DumpSource,
+        val read: Long,
+        val skipped: Long,
+        val loaded: Long,
+        val elapsedMillis: Long
+    ) {
+        val recordsPerSecond: Long
+            get() = if (elapsedMillis == 0L) read else read * 1_000 / elapsedMillis
+
+        override fun toString(): String =
+            "source=$source, read=$read, skipped=$skipped, loaded=$loaded, elapsedMs=$elapsedMillis, recordsPerSec=$recordsPerSecond"
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(TerminationBackfillJob::class.java)
+    }
+}
@@ -0,0 +1,113 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.config.BackfillProperties.DumpFormat
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import com.codex.consumer.support.ConsentMessagePrefilterDeserializer
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.apache.avro.file.DataFileStream
+import org.apache.avro.generic.GenericDatumReader
+import org.apache.avro.generic.GenericRecord
+import org.apache.avro.io.DatumReader
+import org.apache.avro.specific.SpecificDatumReader
+import org.springframework.kafka.support.JacksonUtils
+import java.io.BufferedInputStream
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.GZIPInputStream
+
+/**
+ * 토픽 덤프 파일을 한 레코드씩 읽어 종료 대상으로 바꾼다. 파일 전체를 메모리에 올리지 않는다.
+ *
+ * - mydata: JSONL 은 컨슈머와 같은 ConsentMessagePrefilterDeserializer 로 읽고, Avro 는 메시지 JSON 과 같은 필드명(data.is_remove 등)으로 읽는다.
+ *   is_remove=false 인 메시지는 MydataConsentConsumer 와 같이 건너뛰며 onRecord 에 null 을 넘긴다.
+ * - pay: Avro 는 파일의 writer 스키마를 번들 PayAccountDeletedEnvelop 스키마로 resolve 해 읽고, JSONL 은 payAccountId / reason 필드만 읽는다.
+ * 파일명이 .gz 로 끝나면 gzip 으로 풀어 읽는다.
+ */
+class TerminationDumpReader(
+    private val objectMapper: ObjectMapper = JacksonUtils.enhancedObjectMapper()
+) {
+
+    private val consentDeserializer = ConsentMessagePrefilterDeserializer(objectMapper)
+
+    fun read(source: DumpSource, path: Path, format: DumpFormat, onRecord: (TerminationTarget?) -> Unit) {
+        open(path).use { input ->
+            when (format) {
+                DumpFormat.JSONL -> input.bufferedReader().useLines { lines ->
+                    lines.filter { it.isNotBlank() }.forEach { line -> onRecord(parseJson(source, line)) }
+                }
+                DumpFormat.AVRO -> when (source) {
+                    DumpSource.MYDATA -> readAvro(input, GenericDatumReader<GenericRecord>()) { onRecord(consentTarget(it)) }
+                    DumpSource.PAY -> readAvro(input, SpecificDatumReader(PayAccountDeletedEnvelop::class.java)) {
+                        onRecord(TerminationTarget(it.payAccountId, it.reason?.toString()))
+                    }
+                }
+            }
+        }
+    }
+
+    private fun parseJson(source: DumpSource, line: String): TerminationTarget? = when (source) {
+        DumpSource.MYDATA -> consentDeserializer.deserialize(null, line.toByteArray())!!.data
+            .takeIf { it.isRemove }
+            ?.let { TerminationTarget(it.payAccountId, it.deleteEventType) }
+        DumpSource.PAY -> objectMapper.readTree(line).let { node ->
+            TerminationTarget(
+                payAccountId = node.required(PAY_ACCOUNT_ID_FIELD).asLong(),
+                reason = node.get(REASON_FIELD)?.takeUnless { it.isNull }?.asText()
+            )
+        }
+    }
+
+    private fun consentTarget(record: GenericRecord): TerminationTarget? {
+        val data = record.get(DATA_FIELD) as GenericRecord
+        if (data.get(IS_REMOVE_FIELD) != true) {
+            return null
+        }
+        return TerminationTarget(
+            payAccountId = (data.get(CONSENT_PAY_ACCOUNT_ID_FIELD) as Number).toLong(),
+            reason = data.get(DELETE_EVENT_TYPE_FIELD)?.toString()
+        )
+    }
+
+    // 레코드 인스턴스를 재사용해 레코드당 할당을 줄인다 (onRecord 로는 변환된 TerminationTarget 만 넘긴다)
+    private fun <T> readAvro(input: InputStream, datumReader: DatumReader<T>, onDatum: (T) -> Unit) {
+        DataFileStream(input, datumReader).use { stream ->
+            var reuse: T? = null
+            while (stream.hasNext()) {
+                reuse = stream.next(reuse)
+                onDatum(reuse!!)
+            }
+        }
+    }
+
+    private fun open(path: Path): InputStream {
+        val input = BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)
+        return if (path.fileName.toString().endsWith(GZIP_SUFFIX)) GZIPInputStream(input, BUFFER_SIZE) else input
+    }
+
+    enum class DumpSource {
+        MYDATA,
+        PAY
+    }
+
+    companion object {
+        private const val BUFFER_SIZE = 64 * 1024
+        private const val GZIP_SUFFIX = ".gz"
+        private const val DATA_FIELD = "data"
+        private const val IS_REMOVE_FIELD = "is_remove"
+        private const val CONSENT_PAY_ACCOUNT_ID_FIELD = "pay_account_id"
+        private const val DELETE_EVENT_TYPE_FIELD = "delete_event_type"
+        private const val PAY_ACCOUNT_ID_FIELD = "payAccountId"
+        private const val REASON_FIELD = "reason"
+
+        fun formatOf(path: Path): DumpFormat {
+            val name = path.fileName.toString().removeSuffix(GZIP_SUFFIX)
+            return when {
+                name.endsWith(".avro") -> DumpFormat.AVRO
+                name.endsWith(".jsonl") || name.endsWith(".json") -> DumpFormat.JSONL
+                else -> throw IllegalArgumentException("Can't infer dump format from file name: $path")
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Configuration
+import org.springframework.scheduling.annotation.EnableScheduling
+
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties::class)
+class ArchiveConfig {
+
+    /** 아카이브 작업(codex.archive.interval 주기)을 위한 스케줄링은 켰을 때만 활성화한다 */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "codex.archive", name = ["enabled"], havingValue = "true")
+    class Scheduling
+}
@@ -0,0 +1,21 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+import java.time.Duration
+
+/**
+ * 보존 기간이 지난 COMPLETED 파기 대상자를 *_ARCHIVE 테이블로 옮기는 주기 작업 설정.
+ */
+@ConfigurationProperties(prefix = "codex.archive")
+class ArchiveProperties {
+
+    var enabled: Boolean = false
+    /** 이전 실행이 끝난 뒤 다음 실행까지의 간격 (@Scheduled 가 ISO-8601 형식으로 읽는다) */
+    var interval: Duration = Duration.ofMinutes(1)
+    /** updated_at(COMPLETED 전환 시각) 이 이 기간보다 오래된 레코드를 옮긴다 */
+    var retention: Duration = Duration.ofDays(30)
+    /** 한 트랜잭션에서 옮기는 row 수, 작게 둬야 컨슈머 upsert 와 잠금 경합이 짧다 */
+    var chunkSize: Int = 500
+    /** 초당 옮기는 row 수 상한, chunk 사이에 대기해 맞춘다 */
+    var maxRowsPerSecond: Int = 2_000
+}
@@ -0,0 +1,19 @@
+package com.codex.consumer.config
+
+import com.codex.consumer.batch.TerminationBackfillJob
+import org.springframework.boot.ApplicationRunner
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+@EnableConfigurationProperties(BackfillProperties::class)
+class BackfillConfig {
+
+    /** codex.backfill.enabled=true 이면 기동 시 1회 실행한다 (backfill 프로파일은 Kafka 리스너를 띄우지 않는다) */
+    @Bean
+    @ConditionalOnProperty(prefix = "codex.backfill", name = ["enabled"], havingValue = "true")
+    fun terminationBackfillRunner(terminationBackfillJob: TerminationBackfillJob): ApplicationRunner =
+        ApplicationRunner { terminationBackfillJob.run() }
+}
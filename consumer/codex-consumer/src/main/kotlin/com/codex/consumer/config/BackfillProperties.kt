@@ -0,0 +1,36 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+import java.nio.file.Path
+
+/**
+ * 토픽 덤프 파일에서 파기 대상자를 적재하는 오프라인 백필 설정. backfill 프로파일로 컨슈머 없이 1회 실행한다.
+ */
+@ConfigurationProperties(prefix = "codex.backfill")
+class BackfillProperties {
+
+    /** 애플리케이션 기동 시 백필을 실행한다 */
+    var enabled: Boolean = false
+    /** 서비스 bulk 적재 1회(한 트랜잭션)에 넘기는 대상 수, 실제 INSERT 는 codex.kafka.write.batch-size 단위로 나뉜다 */
+    var batchSize: Int = 5_000
+    /** 이 건수를 읽을 때마다 진행 상황과 처리량을 로그로 남긴다 */
+    var progressInterval: Long = 100_000
+    /** mydata.consent.v1 덤프 */
+    val mydata: Dump = Dump()
+    /** pay-account.payaccount-deleted.v2 덤프 */
+    val pay: Dump = Dump()
+
+    class Dump {
+        var path: Path? = null
+        /** 지정하지 않으면 확장자(.avro / .jsonl, 뒤의 .gz 제외)로 판단한다 */
+        var format: DumpFormat? = null
+    }
+
+    enum class DumpFormat {
+        /** Avro object container file (파일 헤더의 writer 스키마로 읽는다) */
+        AVRO,
+
+        /** 한 줄에 메시지 JSON 하나 */
+        JSONL
+    }
+}
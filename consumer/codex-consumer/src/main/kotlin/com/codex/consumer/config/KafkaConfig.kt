@@ -1,9 +1,15 @@
 package com.codex.consumer.config
 
 import com.codex.consumer.consumer.MydataConsentConsumer
+import com.codex.consumer.jfr.TimedDeserializer
 import com.codex.consumer.model.ConsentMessage
+import com.codex.consumer.support.ConsentMessagePrefilterDeserializer
+import com.codex.consumer.support.TerminationMetrics
+import io.micrometer.core.instrument.MeterRegistry
 import org.apache.kafka.clients.consumer.ConsumerConfig
+import org.apache.kafka.common.TopicPartition
 import org.apache.kafka.common.serialization.ByteArrayDeserializer
+import org.apache.kafka.common.serialization.Deserializer
 import org.apache.kafka.common.serialization.StringDeserializer
 import org.apache.kafka.common.serialization.StringSerializer
 import org.slf4j.LoggerFactory
@@ -16,9 +22,12 @@ import org.springframework.kafka.core.ConsumerFactory
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory
 import org.springframework.kafka.core.DefaultKafkaProducerFactory
 import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.core.MicrometerConsumerListener
 import org.springframework.kafka.listener.CommonErrorHandler
 import org.springframework.kafka.listener.ContainerProperties
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer
 import org.springframework.kafka.listener.DefaultErrorHandler
+import org.springframework.kafka.listener.RetryListener
 import org.springframework.kafka.support.serializer.JsonDeserializer
 import org.springframework.kafka.support.serializer.JsonSerializer
 import org.springframework.util.backoff.FixedBackOff
@@ -26,13 +35,34 @@ import org.springframework.util.backoff.FixedBackOff
 @Configuration
 @EnableConfigurationProperties(KafkaConsumerProperties::class)
 class KafkaConfig(
-    private val kafkaConsumerProperties: KafkaConsumerProperties
+    private val kafkaConsumerProperties: KafkaConsumerProperties,
+    private val meterRegistry: MeterRegistry,
+    private val terminationMetrics: TerminationMetrics
 ) {
 
+    /** 재시도를 모두 소진한 레코드를 <topic>-dlt 로 옮긴다. 에러 핸들러와 VIRTUAL 모드의 RecordHandlingExecutor 가 함께 쓴다 */
     @Bean
-    fun kafkaErrorHandler(): CommonErrorHandler {
+    fun deadLetterPublishingRecoverer(
+        consentKafkaTemplate: KafkaTemplate<String, ConsentMessage>,
+        byteArrayKafkaTemplate: KafkaTemplate<String, ByteArray>
+    ): DeadLetterPublishingRecoverer =
+        DeadLetterPublishingRecoverer(
+            mapOf(
+                ConsentMessage::class.java to consentKafkaTemplate,
+                ByteArray::class.java to byteArrayKafkaTemplate
+            )
+        ) { record, _ -> TopicPartition(record.topic() + DLT_SUFFIX, -1) }
+
+    /**
+     * 재시도 토픽을 쓰지 않는 경우(codex.kafka.retry-topic.enabled=false)의 blocking 재시도.
+     * 재시도를 모두 소진한 레코드는 <topic>-dlt 로 옮긴다.
+     */
+    @Bean
+    fun kafkaErrorHandler(deadLetterPublishingRecoverer: DeadLetterPublishingRecoverer): CommonErrorHandler {
         val recoverer = { record: org.apache.kafka.clients.consumer.ConsumerRecord<*, *>, exception: Exception ->
-            log.error("Kafka record processing failed for topic={}, partition={}, offset={}",
+            deadLetterPublishingRecoverer.accept(record, exception)
+            terminationMetrics.countRecovered(record.topic())
+            log.error("Kafka record processing failed for topic={}, partition={}, offset={}, published to DLT",
                 record.topic(), record.partition(), record.offset(), exception)
         }
         val backOff = FixedBackOff(
@@ -41,6 +71,7 @@ class KafkaConfig(
         )
         return DefaultErrorHandler(recoverer, backOff).apply {
             setAckAfterHandle(true)
+            setRetryListeners(RetryListener { record, _, _ -> terminationMetrics.countRetry(record.topic()) })
         }
     }
 
@@ -51,17 +82,24 @@ class KafkaConfig(
             put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer::class.java)
         }
 
-        val jsonDeserializer = JsonDeserializer(ConsentMessage::class.java).apply {
-            addTrustedPackages("com.codex.consumer.model")
-            setUseTypeMapperForKey(false)
-            setRemoveTypeHeaders(false)
+        val valueDeserializer: Deserializer<ConsentMessage> = if (kafkaConsumerProperties.consent.prefilter) {
+            ConsentMessagePrefilterDeserializer()
+        } else {
+            JsonDeserializer(ConsentMessage::class.java).apply {
+                addTrustedPackages("com.codex.consumer.model")
+                setUseTypeMapperForKey(false)
+                setRemoveTypeHeaders(false)
+            }
         }
 
+        // ConsumeRecord JFR 이벤트를 켠 recording 이 있으면 poll 중 역직렬화 시간을 헤더로 넘긴다
         return DefaultKafkaConsumerFactory(
             properties,
             StringDeserializer(),
-            jsonDeserializer
-        )
+            TimedDeserializer(valueDeserializer)
+        ).apply {
+            addListener(MicrometerConsumerListener(meterRegistry))
+        }
     }
 
     @Bean
@@ -75,7 +113,9 @@ class KafkaConfig(
             properties,
             StringDeserializer(),
             ByteArrayDeserializer()
-        )
+        ).apply {
+            addListener(MicrometerConsumerListener(meterRegistry))
+        }
     }
 
     @Bean
@@ -86,10 +126,9 @@ class KafkaConfig(
         return ConcurrentKafkaListenerContainerFactory<String, ConsentMessage>().apply {
             consumerFactory = consentConsumerFactory
             setCommonErrorHandler(kafkaErrorHandler)
-            containerProperties.ackMode = ContainerProperties.AckMode.valueOf(
-                kafkaConsumerProperties.listener.ackMode.uppercase()
-            )
+            applyListenerProperties(containerProperties)
             setConcurrency(kafkaConsumerProperties.listener.concurrency)
+            setAutoStartup(kafkaConsumerProperties.listener.autoStartup)
         }
     }
 
@@ -101,10 +140,9 @@ class KafkaConfig(
         return ConcurrentKafkaListenerContainerFactory<String, ByteArray>().apply {
             consumerFactory = byteArrayConsumerFactory
             setCommonErrorHandler(kafkaErrorHandler)
-            containerProperties.ackMode = ContainerProperties.AckMode.valueOf(
-                kafkaConsumerProperties.listener.ackMode.uppercase()
-            )
+            applyListenerProperties(containerProperties)
             setConcurrency(kafkaConsumerProperties.listener.concurrency)
+            setAutoStartup(kafkaConsumerProperties.listener.autoStartup)
         }
     }
 
@@ -129,7 +167,25 @@ class KafkaConfig(
         return KafkaTemplate(producerFactory)
     }
 
+    private fun applyListenerProperties(containerProperties: ContainerProperties) {
+        val ackMode = ContainerProperties.AckMode.valueOf(kafkaConsumerProperties.listener.ackMode.uppercase())
+        containerProperties.ackMode = ackMode
+
+        if (kafkaConsumerProperties.listener.executor == KafkaConsumerProperties.ListenerExecutor.VIRTUAL) {
+            require(ackMode == ContainerProperties.AckMode.MANUAL || ackMode == ContainerProperties.AckMode.MANUAL_IMMEDIATE) {
+                "VIRTUAL listener executor requires MANUAL or MANUAL_IMMEDIATE ack mode but was $ackMode"
+            }
+            // 레코드마다 새 virtual thread 에서 decode 하므로 ThreadLocal 상태를 재사용하지 못하고 매번 새로 만든다
+            require(kafkaConsumerProperties.avro.decodingMode != KafkaConsumerProperties.DecodingMode.THREAD_CONFINED) {
+                "VIRTUAL listener executor cannot be combined with THREAD_CONFINED decoding mode, use ALLOCATING"
+            }
+            // virtual thread 에서 완료 순서와 무관하게 ack 하므로 연속된 offset 이 채워질 때까지 커밋을 미룬다
+            containerProperties.isAsyncAcks = true
+        }
+    }
+
     companion object {
+        const val DLT_SUFFIX = "-dlt"
         private val log = LoggerFactory.getLogger(KafkaConfig::class.java)
     }
 }
@@ -7,19 +7,102 @@ class KafkaConsumerProperties {
 
     val listener: Listener = Listener()
     val retry: Retry = Retry()
+    val retryTopic: RetryTopic = RetryTopic()
     val avro: Avro = Avro()
+    val write: Write = Write()
+    val consent: Consent = Consent()
+    val offsetStore: OffsetStore = OffsetStore()
+    val writeBehind: WriteBehind = WriteBehind()
 
     class Listener {
         var concurrency: Int = 1
         var ackMode: String = "MANUAL_IMMEDIATE"
+        var executor: ListenerExecutor = ListenerExecutor.PLATFORM
+        /** VIRTUAL 모드에서 동시에 처리 중인 레코드 수 상한, 지정하지 않으면 Hikari maximum-pool-size 를 따른다 */
+        var maxInFlight: Int? = null
+        /** VIRTUAL 모드에서 제출했지만 끝나지 않은 레코드 수 상한 (같은 키 대기, 재시도 대기 포함), 기본 maxInFlight 의 2배 */
+        var maxPending: Int? = null
+        /** false 이면 리스너 컨테이너를 기동하지 않는다 (purge 배치 프로파일) */
+        var autoStartup: Boolean = true
+    }
+
+    enum class ListenerExecutor {
+        /** 컨테이너 컨슈머 스레드에서 레코드를 순차 처리한다 */
+        PLATFORM,
+
+        /** 레코드마다 virtual thread 에서 처리하고(같은 파티션 같은 키는 순서대로) 완료 순서와 무관하게 ack 한다 (asyncAcks) */
+        VIRTUAL
     }
 
     class Retry {
         var intervalMillis: Long = 1_000
         var maxAttempts: Long = 2
+        /** VIRTUAL 모드에서 DLT 발행 시도 횟수 상한, 넘기면 ack 하지 않아 다시 읽힌다 */
+        var deadLetterMaxAttempts: Int = 3
+    }
+
+    /** PLATFORM 리스너의 non-blocking 재시도 토픽(<topic>-retry-<delay>) 과 DLT(<topic>-dlt) 설정 */
+    class RetryTopic {
+        var enabled: Boolean = true
+        /** 최초 처리를 포함한 시도 횟수, 재시도 토픽은 attempts - 1 개 만들어진다 */
+        var attempts: Int = 3
+        var initialDelayMillis: Long = 1_000
+        var multiplier: Double = 10.0
+        var maxDelayMillis: Long = 10_000
+        var partitions: Int = 1
     }
 
     class Avro {
         var specificReader: Boolean = true
+        var wireFormat: WireFormat = WireFormat.RAW
+        var decodingMode: DecodingMode = DecodingMode.ALLOCATING
+    }
+
+    enum class WireFormat {
+        /** 헤더 없이 Avro binary 만 실린 payload */
+        RAW,
+
+        /** magic byte(0x0) + 4 byte schema id 헤더가 앞에 붙은 Confluent wire format */
+        CONFLUENT
+    }
+
+    enum class DecodingMode {
+        /** 메시지마다 BinaryDecoder 와 레코드 인스턴스를 새로 만든다 */
+        ALLOCATING,
+
+        /** 스레드별 BinaryDecoder 와 레코드 인스턴스를 재사용한다 (반환 값은 같은 스레드의 다음 decode 전까지만 유효, VIRTUAL listener executor 와 함께 쓸 수 없다) */
+        THREAD_CONFINED
+    }
+
+    class Write {
+        var batchSize: Int = 500
+    }
+
+    class Consent {
+        /**
+         * data.is_remove 를 streaming 파서로 먼저 확인해 false 인 메시지는 ConsentMessage.SKIP 으로 전달한다.
+         * 켜면 is_remove=false 인 메시지는 나머지 필드가 깨져 있어도 역직렬화 오류 없이 건너뛴다.
+         */
+        var prefilter: Boolean = false
+    }
+
+    /**
+     * 종료 대상 upsert 와 같은 트랜잭션에서 topic-partition 별 마지막 적용 offset 을 CONSUMER_OFFSET 에 기록하고
+     * 파티션 할당 시 그 다음 offset 으로 seek 한다. 레코드 순서가 보장되는 PLATFORM 리스너에만 적용된다.
+     */
+    class OffsetStore {
+        var enabled: Boolean = false
+        /** 컨슈머 그룹 offset 을 되돌린 토픽, 기동 후 처음 할당받을 때 저장된 offset 을 지우고 커밋 위치부터 읽는다 */
+        var resetTopics: Set<String> = emptySet()
+    }
+
+    /**
+     * 레코드를 바로 적재하지 않고 (table, payAccountId) 별로 합쳐 두었다가 한 번의 bulk upsert 로 적재한다.
+     * maxRecords 건이 모이거나 가장 오래된 레코드가 maxDelayMillis 를 넘기면 flush 하고, flush 가 끝난 레코드만 ack 한다.
+     */
+    class WriteBehind {
+        var enabled: Boolean = false
+        var maxRecords: Int = 500
+        var maxDelayMillis: Long = 1_000
     }
 }
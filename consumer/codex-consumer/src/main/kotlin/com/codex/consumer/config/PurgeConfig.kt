@@ -0,0 +1,19 @@
+package com.codex.consumer.config
+
+import com.codex.consumer.batch.PendingTerminationPurgeJob
+import org.springframework.boot.ApplicationRunner
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+@EnableConfigurationProperties(PurgeProperties::class)
+class PurgeConfig {
+
+    /** codex.purge.enabled=true 이면 기동 시 1회 실행한다 (purge 프로파일은 Kafka 리스너를 띄우지 않는다) */
+    @Bean
+    @ConditionalOnProperty(prefix = "codex.purge", name = ["enabled"], havingValue = "true")
+    fun pendingTerminationPurgeRunner(pendingTerminationPurgeJob: PendingTerminationPurgeJob): ApplicationRunner =
+        ApplicationRunner { pendingTerminationPurgeJob.run() }
+}
@@ -0,0 +1,26 @@
+package com.codex.consumer.config
+
+import com.codex.consumer.support.TerminationMetrics
+import org.springframework.boot.context.properties.ConfigurationProperties
+
+/**
+ * PENDING 파기 대상자를 COMPLETED 로 정리하는 배치 설정. purge 프로파일로 컨슈머 없이 1회 실행한다.
+ */
+@ConfigurationProperties(prefix = "codex.purge")
+class PurgeProperties {
+
+    /** 애플리케이션 기동 시 정리 배치를 실행한다 */
+    var enabled: Boolean = false
+    /** pay_account_id hash bucket 수, 바꾸면 이전 체크포인트는 쓰지 않고 처음부터 다시 훑는다 */
+    var bucketCount: Int = 16
+    /** 동시에 처리하는 bucket 수, Hikari maximum-pool-size 보다 작게 둔다 */
+    var parallelism: Int = 4
+    /** 한 트랜잭션에서 COMPLETED 로 바꾸는 row 수 */
+    var chunkSize: Int = 1_000
+    var targets: List<Target> = Target.entries
+
+    enum class Target(val tableName: String, val source: String) {
+        MYDATA("MYDATA_TERMINATE_USER", TerminationMetrics.SOURCE_MYDATA),
+        PAY("PAY_TERMINATE_USER", TerminationMetrics.SOURCE_PAY)
+    }
+}
@@ -0,0 +1,132 @@
+package com.codex.consumer.config
+
+import com.codex.consumer.consumer.MydataConsentConsumer
+import com.codex.consumer.consumer.PayAccountDeletedConsumer
+import com.codex.consumer.exception.MessageDecodingException
+import com.codex.consumer.model.ConsentMessage
+import com.codex.consumer.support.TerminationMetrics
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.TopicPartition
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.kafka.core.KafkaOperations
+import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory
+import org.springframework.kafka.retrytopic.RetryTopicComponentFactory
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport
+import org.springframework.kafka.retrytopic.RetryTopicNamesProviderFactory
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper
+import org.springframework.kafka.retrytopic.SuffixingRetryTopicNamesProviderFactory.SuffixingRetryTopicNamesProvider
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler
+import java.util.function.BiFunction
+import java.util.function.Consumer
+import java.util.function.Function
+
+/**
+ * PLATFORM 리스너의 non-blocking 재시도 설정.
+ *
+ * 실패한 레코드는 컨슈머 스레드에서 FixedBackOff 로 대기하는 대신 <topic>-retry-1s, <topic>-retry-10s 처럼
+ * 지연 시간별 재시도 토픽으로 옮겨 처리하고, 모두 실패하면 <topic>-dlt 로 옮긴다.
+ * VIRTUAL 모드는 virtual thread 안에서 재시도하므로 (파티션을 막지 않음) 적용하지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "codex.kafka.retry-topic", name = ["enabled"], havingValue = "true", matchIfMissing = true)
+@ConditionalOnProperty(prefix = "codex.kafka.listener", name = ["executor"], havingValue = "PLATFORM", matchIfMissing = true)
+class RetryTopicConfig(
+    private val kafkaConsumerProperties: KafkaConsumerProperties,
+    private val terminationMetrics: TerminationMetrics
+) : RetryTopicConfigurationSupport() {
+
+    // 재시도 토픽 파티션의 지연 후 resume 을 예약하는 전용 스케줄러 (애플리케이션 TaskScheduler 로 노출하지 않음)
+    @Bean
+    fun retryTopicSchedulerWrapper(): RetryTopicSchedulerWrapper =
+        RetryTopicSchedulerWrapper(
+            ThreadPoolTaskScheduler().apply { setThreadNamePrefix("retry-topic-") }
+        )
+
+    @Bean
+    fun consentRetryTopicConfiguration(
+        consentKafkaTemplate: KafkaTemplate<String, ConsentMessage>
+    ): RetryTopicConfiguration =
+        retryTopicConfigurationBuilder(MydataConsentConsumer.MYDATA_CONSENT_TOPIC)
+            .listenerFactory("consentKafkaListenerContainerFactory")
+            .create(consentKafkaTemplate)
+
+    @Bean
+    fun payAccountDeletedRetryTopicConfiguration(
+        byteArrayKafkaTemplate: KafkaTemplate<String, ByteArray>
+    ): RetryTopicConfiguration =
+        retryTopicConfigurationBuilder(PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC)
+            .listenerFactory("byteArrayKafkaListenerContainerFactory")
+            .create(byteArrayKafkaTemplate)
+
+    override fun createComponentFactory(): RetryTopicComponentFactory =
+        object : RetryTopicComponentFactory() {
+            override fun retryTopicNamesProviderFactory() = RetryTopicNamesProviderFactory { properties ->
+                object : SuffixingRetryTopicNamesProvider(properties) {
+                    override fun getTopicName(topic: String): String =
+                        if (properties.isRetryTopic) "$topic$RETRY_SUFFIX-${delayLabel(properties.delay())}"
+                        else super.getTopicName(topic)
+                }
+            }
+        }
+
+    override fun configureDeadLetterPublishingContainerFactory(): Consumer<DeadLetterPublishingRecovererFactory> =
+        Consumer { factory ->
+            factory.setDeadLetterPublisherCreator { templateResolver, destinationResolver ->
+                RetryCountingPublishingRecoverer(templateResolver, destinationResolver)
+            }
+        }
+
+    private fun retryTopicConfigurationBuilder(topic: String): RetryTopicConfigurationBuilder {
+        val retryTopic = kafkaConsumerProperties.retryTopic
+        return RetryTopicConfigurationBuilder.newInstance()
+            .includeTopic(topic)
+            .maxAttempts(retryTopic.attempts)
+            .exponentialBackoff(retryTopic.initialDelayMillis, retryTopic.multiplier, retryTopic.maxDelayMillis)
+            .retryTopicSuffix(RETRY_SUFFIX)
+            .dltSuffix(KafkaConfig.DLT_SUFFIX)
+            .notRetryOn(MessageDecodingException::class.java)
+            .autoCreateTopicsWith(retryTopic.partitions, DEFAULT_REPLICATION_FACTOR)
+            .dltHandlerMethod("terminationDltHandler", "handle")
+    }
+
+    /** 재시도 토픽으로 옮길 때 원본 토픽 기준으로 재시도 횟수를 집계한다 (DLT 로 옮겨진 건은 TerminationDltHandler 가 집계) */
+    private inner class RetryCountingPublishingRecoverer(
+        templateResolver: Function<ProducerRecord<*, *>, KafkaOperations<*, *>>,
+        destinationResolver: BiFunction<ConsumerRecord<*, *>, Exception, TopicPartition>
+    ) : DeadLetterPublishingRecoverer(templateResolver, destinationResolver) {
+
+        override fun publish(
+            outRecord: ProducerRecord<Any, Any>,
+            kafkaTemplate: KafkaOperations<Any, Any>,
+            inRecord: ConsumerRecord<*, *>
+        ) {
+            super.publish(outRecord, kafkaTemplate, inRecord)
+            if (!outRecord.topic().endsWith(KafkaConfig.DLT_SUFFIX)) {
+                val originalTopic = inRecord.headers().lastHeader(KafkaHeaders.ORIGINAL_TOPIC)
+                    ?.let { String(it.value()) }
+                    ?: inRecord.topic()
+                terminationMetrics.countRetry(originalTopic)
+            }
+        }
+    }
+
+    companion object {
+        private const val RETRY_SUFFIX = "-retry"
+        private const val DEFAULT_REPLICATION_FACTOR: Short = -1
+
+        /** 1000 -> 1s, 60000 -> 1m, 1500 -> 1500ms */
+        internal fun delayLabel(delayMillis: Long): String = when {
+            delayMillis >= 60_000 && delayMillis % 60_000 == 0L -> "${delayMillis / 60_000}m"
+            delayMillis >= 1_000 && delayMillis % 1_000 == 0L -> "${delayMillis / 1_000}s"
+            else -> "${delayMillis}ms"
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.codex.consumer.config
+
+import com.codex.consumer.support.ShardRoutingDataSource
+import com.zaxxer.hikari.HikariDataSource
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties::class)
+class ShardingConfig {
+
+    /**
+     * spring.datasource 자동 구성을 대신하는 라우팅 DataSource. JPA / JdbcTemplate / 트랜잭션 매니저가 모두 이 빈을 쓴다.
+     * 샤드 풀은 빈으로 노출하지 않으므로 hikaricp.* 지표는 풀마다 직접 등록한다.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "codex.sharding", name = ["enabled"], havingValue = "true")
+    fun dataSource(shardingProperties: ShardingProperties, meterRegistry: MeterRegistry): ShardRoutingDataSource {
+        require(shardingProperties.shards.isNotEmpty()) { "codex.sharding.shards must not be empty when sharding is enabled" }
+        val metricsTrackerFactory = MicrometerMetricsTrackerFactory(meterRegistry)
+        return ShardRoutingDataSource(
+            shardingProperties.shards.mapIndexed { index, shard ->
+                HikariDataSource().apply {
+                    poolName = "$POOL_NAME-shard-$index"
+                    jdbcUrl = shard.url
+                    username = shard.username
+                    password = shard.password
+                    shard.driverClassName?.let { driverClassName = it }
+                    maximumPoolSize = shard.maximumPoolSize
+                    minimumIdle = shard.minimumIdle
+                    connectionTimeout = shard.connectionTimeout
+                    this.metricsTrackerFactory = metricsTrackerFactory
+                }
+            }
+        )
+    }
+
+    companion object {
+        private const val POOL_NAME = "codexConsumerPool"
+    }
+}
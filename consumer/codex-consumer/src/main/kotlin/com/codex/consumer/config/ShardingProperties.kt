@@ -0,0 +1,26 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+
+/**
+ * 파기 대상자 테이블을 payAccountId 해시로 여러 MySQL 에 나눠 쓰는 설정.
+ * 활성화하면 spring.datasource 대신 shards 의 데이터소스들로 라우팅하며, 샤드 수는 shards 항목 수다.
+ * 목록 순서가 곧 샤드 번호이므로 운영 중 순서나 개수를 바꾸면 기존 레코드를 재배치해야 한다.
+ */
+@ConfigurationProperties(prefix = "codex.sharding")
+class ShardingProperties {
+
+    var enabled: Boolean = false
+    var shards: MutableList<Shard> = mutableListOf()
+
+    /** 샤드마다 독립된 Hikari 풀(codexConsumerPool-shard-<번호>)을 만든다 */
+    class Shard {
+        var url: String = ""
+        var username: String? = null
+        var password: String? = null
+        var driverClassName: String? = null
+        var maximumPoolSize: Int = 10
+        var minimumIdle: Int = 3
+        var connectionTimeout: Long = 30_000
+    }
+}
@@ -0,0 +1,8 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+@EnableConfigurationProperties(StartupProperties::class)
+class StartupConfig
@@ -0,0 +1,17 @@
+package com.codex.consumer.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+
+/**
+ * 기동 시간 단축(Spring AOT / CDS 아카이브) 관련 설정.
+ */
+@ConfigurationProperties(prefix = "codex.startup")
+class StartupProperties {
+
+    /**
+     * CDS 학습 실행(cds-training 프로파일)에서만 true 로 둔다. refresh 중에 Avro / JSON 디코딩 경로를 한 번 실행해
+     * 첫 레코드에서야 로드되는 클래스까지 아카이브에 담는다.
+     * AOT 는 @Profile / @ConditionalOnProperty 를 빌드 시점에 고정하므로 빈 조건 대신 이 값으로 실행 여부를 정한다.
+     */
+    var training: Boolean = false
+}
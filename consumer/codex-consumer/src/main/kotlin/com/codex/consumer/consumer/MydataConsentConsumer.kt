@@ -1,40 +1,106 @@
 package com.codex.consumer.consumer
 
+import com.codex.consumer.jfr.ConsumeRecordEvent
 import com.codex.consumer.model.ConsentMessage
 import com.codex.consumer.service.MydataTerminateService
+import com.codex.consumer.support.ConsumerOffsetTracker
+import com.codex.consumer.support.RecordHandlingExecutor
+import com.codex.consumer.support.TerminationMetrics
+import com.codex.consumer.support.TerminationWriteBehindBuffer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.common.TopicPartition
 import org.slf4j.LoggerFactory
 import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.listener.adapter.ConsumerRecordMetadata
 import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.handler.annotation.Header
 import org.springframework.stereotype.Component
 
 @Component
 class MydataConsentConsumer(
-    private val mydataTerminateService: MydataTerminateService
-) {
+    private val mydataTerminateService: MydataTerminateService,
+    private val recordHandlingExecutor: RecordHandlingExecutor,
+    private val consumerOffsetTracker: ConsumerOffsetTracker,
+    private val terminationMetrics: TerminationMetrics,
+    private val writeBehindBuffer: TerminationWriteBehindBuffer? = null
+) : ConsumerSeekAware {
 
     @KafkaListener(
         topics = [MYDATA_CONSENT_TOPIC],
         containerFactory = "consentKafkaListenerContainerFactory"
     )
-    fun consume(message: ConsentMessage, acknowledgment: Acknowledgment) {
-        try {
-            if (!message.data.isRemove) {
-                log.debug("Skip message for payAccountId={} because is_remove is false", message.data.payAccountId)
-                acknowledgment.acknowledge()
-                return
+    fun consume(
+        message: ConsentMessage,
+        metadata: ConsumerRecordMetadata,
+        acknowledgment: Acknowledgment,
+        @Header(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER, required = false) deserializeNanos: ByteArray? = null,
+        @Header(KafkaHeaders.RECEIVED_KEY, required = false) key: String? = null
+    ) {
+        if (!message.data.isRemove) {
+            log.debug("Skip message for payAccountId={} because is_remove is false", message.data.payAccountId)
+            terminationMetrics.countSkipped(TerminationMetrics.SOURCE_MYDATA)
+            acknowledgment.acknowledge()
+            recordEvent(metadata, deserializeNanos, message).end(ConsumeRecordEvent.OUTCOME_SKIPPED)
+            return
+        }
+
+        if (writeBehindBuffer != null) {
+            val event = recordEvent(metadata, deserializeNanos, message)
+            event.timeService {
+                writeBehindBuffer.submit(
+                    TerminationMetrics.SOURCE_MYDATA,
+                    message.data.payAccountId,
+                    message.data.deleteEventType,
+                    deadLetterRecord(metadata, key, message),
+                    acknowledgment
+                )
             }
+            event.end(ConsumeRecordEvent.OUTCOME_BUFFERED)
+            return
+        }
 
-            mydataTerminateService.handleTermination(
-                payAccountId = message.data.payAccountId,
-                reason = message.data.deleteEventType
-            )
-            acknowledgment.acknowledge()
-        } catch (ex: Exception) {
-            log.error("Failed to process mydata consent message for payAccountId={}", message.data.payAccountId, ex)
-            throw ex
+        recordHandlingExecutor.execute(deadLetterRecord(metadata, key, message), acknowledgment) {
+            val event = recordEvent(metadata, deserializeNanos, message)
+            try {
+                event.timeService {
+                    consumerOffsetTracker.applyInTransaction(metadata) {
+                        mydataTerminateService.handleTermination(
+                            payAccountId = message.data.payAccountId,
+                            reason = message.data.deleteEventType
+                        )
+                    }
+                }
+                event.end(ConsumeRecordEvent.OUTCOME_SUCCESS)
+            } catch (ex: Exception) {
+                event.end(ConsumeRecordEvent.OUTCOME_FAILURE)
+                log.error("Failed to process mydata consent message for payAccountId={}", message.data.payAccountId, ex)
+                throw ex
+            }
         }
     }
 
+    // 처리가 끝내 실패하면 <topic>-dlt 로 옮길 원본 레코드
+    private fun deadLetterRecord(metadata: ConsumerRecordMetadata, key: String?, message: ConsentMessage) =
+        ConsumerRecord(metadata.topic(), metadata.partition(), metadata.offset(), key, message)
+
+    private fun recordEvent(metadata: ConsumerRecordMetadata, deserializeNanos: ByteArray?, message: ConsentMessage) =
+        ConsumeRecordEvent.begin(metadata.topic(), metadata.partition(), metadata.offset(), deserializeNanos).apply {
+            payAccountId = message.data.payAccountId
+        }
+
+    // 파티션 할당 시 CONSUMER_OFFSET 에 기록된 적용 offset 이 커밋 위치보다 앞서 있으면 그 다음부터 읽는다
+    override fun onPartitionsAssigned(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        consumerOffsetTracker.seekPastApplied(assignments, callback)
+    }
+
+    // write-behind 모드에서는 파티션을 넘기기 전에 버퍼에 남은 레코드를 적재하고 ack 한다
+    override fun onPartitionsRevoked(partitions: Collection<TopicPartition>) {
+        writeBehindBuffer?.flushOnRevoke()
+    }
+
     companion object {
         const val MYDATA_CONSENT_TOPIC = "mydata.consent.v1"
         private val log = LoggerFactory.getLogger(MydataConsentConsumer::class.java)
@@ -1,34 +1,98 @@
 package com.codex.consumer.consumer
 
+import com.codex.consumer.jfr.ConsumeRecordEvent
 import com.codex.consumer.service.PayTerminateService
+import com.codex.consumer.support.ConsumerOffsetTracker
 import com.codex.consumer.support.PayAccountDeletedDecoder
+import com.codex.consumer.support.RecordHandlingExecutor
+import com.codex.consumer.support.TerminationMetrics
+import com.codex.consumer.support.TerminationWriteBehindBuffer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.common.TopicPartition
 import org.slf4j.LoggerFactory
 import org.springframework.kafka.annotation.KafkaListener
+import org.springframework.kafka.listener.ConsumerSeekAware
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.listener.adapter.ConsumerRecordMetadata
 import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.handler.annotation.Header
 import org.springframework.stereotype.Component
 
 @Component
 class PayAccountDeletedConsumer(
     private val decoder: PayAccountDeletedDecoder,
-    private val payTerminateService: PayTerminateService
-) {
+    private val payTerminateService: PayTerminateService,
+    private val recordHandlingExecutor: RecordHandlingExecutor,
+    private val consumerOffsetTracker: ConsumerOffsetTracker,
+    private val writeBehindBuffer: TerminationWriteBehindBuffer? = null
+) : ConsumerSeekAware {
 
     @KafkaListener(
         topics = [PAY_ACCOUNT_DELETED_TOPIC],
         containerFactory = "byteArrayKafkaListenerContainerFactory"
     )
-    fun consume(message: ByteArray, acknowledgment: Acknowledgment) {
-        try {
-            val envelope = decoder.decode(message)
-            payTerminateService.handleTermination(
-                payAccountId = envelope.payAccountId,
-                reason = envelope.reason
-            )
-            acknowledgment.acknowledge()
-        } catch (ex: Exception) {
-            log.error("Failed to process pay-account deleted message", ex)
-            throw ex
+    fun consume(
+        message: ByteArray,
+        metadata: ConsumerRecordMetadata,
+        acknowledgment: Acknowledgment,
+        @Header(KafkaHeaders.RECEIVED_KEY, required = false) key: String? = null
+    ) {
+        if (writeBehindBuffer != null) {
+            val event = recordEvent(metadata)
+            val envelope = event.timeDeserialize { decoder.decode(message) }
+            event.payAccountId = envelope.payAccountId
+            event.timeService {
+                writeBehindBuffer.submit(
+                    TerminationMetrics.SOURCE_PAY,
+                    envelope.payAccountId,
+                    envelope.reason,
+                    deadLetterRecord(metadata, key, message),
+                    acknowledgment
+                )
+            }
+            event.end(ConsumeRecordEvent.OUTCOME_BUFFERED)
+            return
         }
+
+        recordHandlingExecutor.execute(deadLetterRecord(metadata, key, message), acknowledgment) {
+            // Avro 디코딩은 리스너 안에서 하므로 역직렬화 시간도 여기서 잰다
+            val event = recordEvent(metadata)
+            try {
+                val envelope = event.timeDeserialize { decoder.decode(message) }
+                event.payAccountId = envelope.payAccountId
+                event.timeService {
+                    consumerOffsetTracker.applyInTransaction(metadata) {
+                        payTerminateService.handleTermination(
+                            payAccountId = envelope.payAccountId,
+                            reason = envelope.reason
+                        )
+                    }
+                }
+                event.end(ConsumeRecordEvent.OUTCOME_SUCCESS)
+            } catch (ex: Exception) {
+                event.end(ConsumeRecordEvent.OUTCOME_FAILURE)
+                log.error("Failed to process pay-account deleted message", ex)
+                throw ex
+            }
+        }
+    }
+
+    // 처리가 끝내 실패하면 <topic>-dlt 로 옮길 원본 레코드
+    private fun deadLetterRecord(metadata: ConsumerRecordMetadata, key: String?, message: ByteArray) =
+        ConsumerRecord(metadata.topic(), metadata.partition(), metadata.offset(), key, message)
+
+    private fun recordEvent(metadata: ConsumerRecordMetadata) =
+        ConsumeRecordEvent.begin(metadata.topic(), metadata.partition(), metadata.offset())
+
+    // 파티션 할당 시 CONSUMER_OFFSET 에 기록된 적용 offset 이 커밋 위치보다 앞서 있으면 그 다음부터 읽는다
+    override fun onPartitionsAssigned(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        consumerOffsetTracker.seekPastApplied(assignments, callback)
+    }
+
+    // write-behind 모드에서는 파티션을 넘기기 전에 버퍼에 남은 레코드를 적재하고 ack 한다
+    override fun onPartitionsRevoked(partitions: Collection<TopicPartition>) {
+        writeBehindBuffer?.flushOnRevoke()
     }
 
     companion object {
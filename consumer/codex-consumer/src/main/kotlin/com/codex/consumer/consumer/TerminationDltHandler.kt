@@ -0,0 +1,37 @@
+package com.codex.consumer.consumer
+
+import com.codex.consumer.support.TerminationMetrics
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.slf4j.LoggerFactory
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.stereotype.Component
+
+/**
+ * 재시도 토픽까지 모두 실패해 <topic>-dlt 로 옮겨진 레코드를 기록하고 ack 한다.
+ * 레코드 자체는 DLT 에 남아 있으므로 원인 해소 후 원본 토픽으로 재발행해 재처리한다.
+ */
+@Component
+class TerminationDltHandler(
+    private val terminationMetrics: TerminationMetrics
+) {
+
+    fun handle(record: ConsumerRecord<String, *>, acknowledgment: Acknowledgment) {
+        val originalTopic = record.headerAsString(KafkaHeaders.ORIGINAL_TOPIC) ?: record.topic()
+
+        terminationMetrics.countRecovered(originalTopic)
+        log.error(
+            "Record parked in DLT. topic={}, partition={}, offset={}, originalTopic={}, exception={}",
+            record.topic(), record.partition(), record.offset(), originalTopic,
+            record.headerAsString(KafkaHeaders.EXCEPTION_MESSAGE)
+        )
+        acknowledgment.acknowledge()
+    }
+
+    private fun ConsumerRecord<*, *>.headerAsString(name: String): String? =
+        headers().lastHeader(name)?.value()?.let { String(it) }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(TerminationDltHandler::class.java)
+    }
+}
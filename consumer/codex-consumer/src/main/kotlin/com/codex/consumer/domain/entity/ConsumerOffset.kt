@@ -0,0 +1,43 @@
+package com.codex.consumer.domain.entity
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import jakarta.persistence.UniqueConstraint
+
+/**
+ * 컨슈머 그룹의 topic-partition 별 마지막 적용 offset. 종료 대상 upsert 와 같은 트랜잭션에서 기록된다.
+ */
+@Entity
+@Table(
+    name = "CONSUMER_OFFSET",
+    uniqueConstraints = [
+        UniqueConstraint(
+            name = "uq_consumer_offset_group_topic_partition",
+            columnNames = ["consumer_group", "topic", "partition_no"]
+        )
+    ]
+)
+class ConsumerOffset(
+    @Column(name = "consumer_group", nullable = false)
+    var consumerGroup: String,
+
+    @Column(name = "topic", nullable = false)
+    var topic: String,
+
+    @Column(name = "partition_no", nullable = false)
+    var partitionNo: Int,
+
+    @Column(name = "last_offset", nullable = false)
+    var lastOffset: Long
+) : BaseEntity() {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    var id: Long? = null
+        private set
+}
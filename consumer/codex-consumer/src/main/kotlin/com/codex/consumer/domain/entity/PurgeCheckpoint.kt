@@ -0,0 +1,43 @@
+package com.codex.consumer.domain.entity
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import jakarta.persistence.UniqueConstraint
+
+/**
+ * PENDING 정리 배치가 테이블 / hash bucket 별로 마지막으로 COMPLETED 처리한 id. chunk 와 같은 트랜잭션에서 기록된다.
+ */
+@Entity
+@Table(
+    name = "PURGE_CHECKPOINT",
+    uniqueConstraints = [
+        UniqueConstraint(
+            name = "uq_purge_checkpoint_table_bucket",
+            columnNames = ["table_name", "bucket_count", "bucket_no"]
+        )
+    ]
+)
+class PurgeCheckpoint(
+    @Column(name = "table_name", nullable = false)
+    var tableName: String,
+
+    @Column(name = "bucket_count", nullable = false)
+    var bucketCount: Int,
+
+    @Column(name = "bucket_no", nullable = false)
+    var bucketNo: Int,
+
+    @Column(name = "last_id", nullable = false)
+    var lastId: Long
+) : BaseEntity() {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    var id: Long? = null
+        private set
+}
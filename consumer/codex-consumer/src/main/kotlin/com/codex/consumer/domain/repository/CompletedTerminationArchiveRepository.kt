@@ -0,0 +1,78 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.domain.entity.TerminateStatus
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.stereotype.Repository
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+/**
+ * COMPLETED 레코드를 <table>_ARCHIVE 로 옮기는 set-based 쿼리. 테이블명은 PurgeProperties.Target 에서만 넘어온다.
+ * 후보 조회는 (terminate_status, id, pay_account_id) 인덱스를 id keyset 으로 훑으며, COMPLETED 전환 시각인 updated_at 으로 보존 기간을 거른다.
+ */
+@Repository
+class CompletedTerminationArchiveRepository(
+    private val jdbcTemplate: JdbcTemplate
+) {
+
+    /** afterId 다음 id 부터 훑어, 보존 기간이 남아 건너뛴 레코드를 chunk 마다 다시 읽지 않는다 */
+    fun findArchivableIds(tableName: String, completedBefore: LocalDateTime, afterId: Long, limit: Int): List<Long> =
+        jdbcTemplate.queryForList(
+            "SELECT id FROM $tableName WHERE terminate_status = ? AND id > ? AND updated_at < ? ORDER BY id LIMIT ?",
+            Long::class.java,
+            TerminateStatus.COMPLETED.name, afterId, Timestamp.valueOf(completedBefore), limit
+        )
+
+    /** 같은 트랜잭션 안에서 호출해야 한다. 그 사이 정리 배치가 옮긴 레코드는 건너뛴다 */
+    fun moveToArchive(tableName: String, ids: Collection<Long>, archivedAt: LocalDateTime): Int =
+        moveCompleted(tableName, "id", ids, archivedAt)
+
+    /**
+     * 정리 배치가 PENDING 을 COMPLETED 로 바꾸기 전에, 같은 계정의 이전 COMPLETED 레코드를 아카이브로 옮긴다.
+     * uq_*_pay_account_status 는 계정당 COMPLETED 1건만 허용하므로 지우는 대신 이력으로 남긴다. 같은 트랜잭션 안에서 호출해야 한다.
+     */
+    fun moveSupersededToArchive(tableName: String, payAccountIds: Collection<Long>, archivedAt: LocalDateTime): Int =
+        moveCompleted(tableName, "pay_account_id", payAccountIds, archivedAt)
+
+    /**
+     * 옮길 COMPLETED 행을 SELECT ... FOR UPDATE 로 먼저 잠근 뒤 잠근 id 만 복사하고 지운다.
+     * 아카이버와 정리 배치가 같은 행을 동시에 옮기려 하면 뒤 트랜잭션은 잠금을 기다렸다가 이미 지워진 행을 건너뛰어
+     * 아카이브 테이블 PK 중복이 나지 않는다.
+     */
+    private fun moveCompleted(tableName: String, keyColumn: String, keys: Collection<Long>, archivedAt: LocalDateTime): Int {
+        if (keys.isEmpty()) {
+            return 0
+        }
+        val ids = jdbcTemplate.queryForList(
+            "SELECT id FROM $tableName WHERE terminate_status = ? AND $keyColumn IN (${placeholders(keys.size)}) FOR UPDATE",
+            Long::class.java,
+            TerminateStatus.COMPLETED.name, *keys.toTypedArray()
+        )
+        if (ids.isEmpty()) {
+            return 0
+        }
+        val idPlaceholders = placeholders(ids.size)
+        jdbcTemplate.update(
+            "INSERT INTO ${tableName}$ARCHIVE_SUFFIX " +
+                "(id, pay_account_id, terminate_status, reason, created_at, updated_at, archived_at) " +
+                "SELECT id, pay_account_id, terminate_status, reason, created_at, updated_at, ? FROM $tableName " +
+                "WHERE id IN ($idPlaceholders)",
+            Timestamp.valueOf(archivedAt), *ids.toTypedArray()
+        )
+        return jdbcTemplate.update("DELETE FROM $tableName WHERE id IN ($idPlaceholders)", *ids.toTypedArray())
+    }
+
+    private fun placeholders(count: Int) = List(count) { "?" }.joinToString(",")
+
+    /** COMPLETED 레코드 중 가장 이른 updated_at. (terminate_status, updated_at) 인덱스의 첫 항목만 읽는다 */
+    fun oldestCompletedAt(tableName: String): LocalDateTime? =
+        jdbcTemplate.queryForObject(
+            "SELECT MIN(updated_at) FROM $tableName WHERE terminate_status = ?",
+            Timestamp::class.java,
+            TerminateStatus.COMPLETED.name
+        )?.toLocalDateTime()
+
+    companion object {
+        const val ARCHIVE_SUFFIX = "_ARCHIVE"
+    }
+}
@@ -0,0 +1,6 @@
+package com.codex.consumer.domain.repository
+
+interface ConsumerOffsetWriteRepository {
+    /** 저장된 offset 보다 클 때만 갱신한다 (재시도 토픽 / DLT 로 넘어간 레코드 때문에 뒤로 가지 않도록) */
+    fun saveLastOffset(consumerGroup: String, topic: String, partition: Int, offset: Long)
+}
@@ -0,0 +1,23 @@
+package com.codex.consumer.domain.repository
+
+import org.springframework.jdbc.core.JdbcTemplate
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+class ConsumerOffsetWriteRepositoryImpl(
+    private val jdbcTemplate: JdbcTemplate
+) : ConsumerOffsetWriteRepository {
+
+    override fun saveLastOffset(consumerGroup: String, topic: String, partition: Int, offset: Long) {
+        val now = Timestamp.valueOf(LocalDateTime.now())
+        jdbcTemplate.update(UPSERT_SQL, consumerGroup, topic, partition, offset, now, now, offset, now)
+    }
+
+    companion object {
+        // VALUES(col) 참조는 MySQL 8.0.20 부터 deprecated 라 갱신 값도 파라미터로 다시 넘긴다
+        private const val UPSERT_SQL =
+            "INSERT INTO CONSUMER_OFFSET (consumer_group, topic, partition_no, last_offset, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE last_offset = GREATEST(last_offset, ?), updated_at = ?"
+    }
+}
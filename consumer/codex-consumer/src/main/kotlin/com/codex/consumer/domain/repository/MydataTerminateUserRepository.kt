@@ -4,7 +4,7 @@ import com.codex.consumer.domain.entity.MydataTerminateUser
 import com.codex.consumer.domain.entity.TerminateStatus
 import org.springframework.data.jpa.repository.JpaRepository
 
-interface MydataTerminateUserRepository : JpaRepository<MydataTerminateUser, Long> {
+interface MydataTerminateUserRepository : JpaRepository<MydataTerminateUser, Long>, MydataTerminateUserWriteRepository {
     fun findByPayAccountIdAndTerminateStatus(
         payAccountId: Long,
         terminateStatus: TerminateStatus
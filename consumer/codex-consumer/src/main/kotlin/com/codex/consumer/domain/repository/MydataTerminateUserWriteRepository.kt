@@ -0,0 +1,5 @@
+package com.codex.consumer.domain.repository
+
+interface MydataTerminateUserWriteRepository {
+    fun upsertPending(targets: List<TerminationTarget>): Int
+}
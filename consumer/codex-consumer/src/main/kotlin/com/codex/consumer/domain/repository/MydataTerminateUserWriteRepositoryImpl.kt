@@ -0,0 +1,19 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.jdbc.core.JdbcTemplate
+
+class MydataTerminateUserWriteRepositoryImpl(
+    jdbcTemplate: JdbcTemplate,
+    kafkaConsumerProperties: ObjectProvider<KafkaConsumerProperties>
+) : MydataTerminateUserWriteRepository {
+
+    private val executor = TerminationUpsertExecutor(
+        jdbcTemplate = jdbcTemplate,
+        tableName = "MYDATA_TERMINATE_USER",
+        batchSize = kafkaConsumerProperties.getIfAvailable { KafkaConsumerProperties() }.write.batchSize
+    )
+
+    override fun upsertPending(targets: List<TerminationTarget>): Int = executor.upsertPending(targets)
+}
@@ -4,7 +4,7 @@ import com.codex.consumer.domain.entity.PayTerminateUser
 import com.codex.consumer.domain.entity.TerminateStatus
 import org.springframework.data.jpa.repository.JpaRepository
 
-interface PayTerminateUserRepository : JpaRepository<PayTerminateUser, Long> {
+interface PayTerminateUserRepository : JpaRepository<PayTerminateUser, Long>, PayTerminateUserWriteRepository {
     fun findByPayAccountIdAndTerminateStatus(
         payAccountId: Long,
         terminateStatus: TerminateStatus
@@ -0,0 +1,5 @@
+package com.codex.consumer.domain.repository
+
+interface PayTerminateUserWriteRepository {
+    fun upsertPending(targets: List<TerminationTarget>): Int
+}
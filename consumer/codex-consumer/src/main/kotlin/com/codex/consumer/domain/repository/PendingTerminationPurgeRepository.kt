@@ -0,0 +1,50 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.domain.entity.TerminateStatus
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.stereotype.Repository
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+/**
+ * PENDING 정리 배치의 set-based 쿼리. 테이블명은 PurgeProperties.Target 에서만 넘어온다.
+ *
+ * 후보 조회는 (terminate_status, id, pay_account_id) 인덱스 위에서 id keyset 으로 진행하고, hash bucket 은 MOD(pay_account_id, bucketCount) 로 나눈다.
+ * MOD 조건은 인덱스 범위를 좁히지 못하지만 pay_account_id 가 인덱스에 포함돼 있어 다른 bucket 의 레코드는 테이블을 읽지 않고 인덱스에서 거른다.
+ * 같은 pay_account_id 는 항상 같은 bucket 에 속하므로 bucket 끼리 같은 유니크 키를 두고 경합하지 않는다.
+ */
+@Repository
+class PendingTerminationPurgeRepository(
+    private val jdbcTemplate: JdbcTemplate
+) {
+
+    fun findPendingChunk(tableName: String, bucketCount: Int, bucketNo: Int, afterId: Long, limit: Int): List<PendingRow> =
+        jdbcTemplate.query(
+            "SELECT id, pay_account_id FROM $tableName " +
+                "WHERE terminate_status = ? AND id > ? AND MOD(pay_account_id, ?) = ? " +
+                "ORDER BY id LIMIT ?",
+            { rs, _ -> PendingRow(rs.getLong("id"), rs.getLong("pay_account_id")) },
+            TerminateStatus.PENDING.name, afterId, bucketCount, bucketNo, limit
+        )
+
+    fun markCompleted(tableName: String, ids: Collection<Long>): Int {
+        if (ids.isEmpty()) {
+            return 0
+        }
+        return jdbcTemplate.update(
+            "UPDATE $tableName SET terminate_status = ?, updated_at = ? " +
+                "WHERE terminate_status = ? AND id IN (${placeholders(ids.size)})",
+            TerminateStatus.COMPLETED.name,
+            Timestamp.valueOf(LocalDateTime.now()),
+            TerminateStatus.PENDING.name,
+            *ids.toTypedArray()
+        )
+    }
+
+    private fun placeholders(size: Int): String = List(size) { "?" }.joinToString(",")
+
+    data class PendingRow(
+        val id: Long,
+        val payAccountId: Long
+    )
+}
@@ -0,0 +1,8 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.domain.entity.PurgeCheckpoint
+import org.springframework.data.jpa.repository.JpaRepository
+
+interface PurgeCheckpointRepository : JpaRepository<PurgeCheckpoint, Long>, PurgeCheckpointWriteRepository {
+    fun findByTableNameAndBucketCount(tableName: String, bucketCount: Int): List<PurgeCheckpoint>
+}
@@ -0,0 +1,6 @@
+package com.codex.consumer.domain.repository
+
+interface PurgeCheckpointWriteRepository {
+    /** 저장된 id 보다 클 때만 갱신한다 */
+    fun saveLastId(tableName: String, bucketCount: Int, bucketNo: Int, lastId: Long)
+}
@@ -0,0 +1,23 @@
+package com.codex.consumer.domain.repository
+
+import org.springframework.jdbc.core.JdbcTemplate
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+class PurgeCheckpointWriteRepositoryImpl(
+    private val jdbcTemplate: JdbcTemplate
+) : PurgeCheckpointWriteRepository {
+
+    override fun saveLastId(tableName: String, bucketCount: Int, bucketNo: Int, lastId: Long) {
+        val now = Timestamp.valueOf(LocalDateTime.now())
+        jdbcTemplate.update(UPSERT_SQL, tableName, bucketCount, bucketNo, lastId, now, now, lastId, now)
+    }
+
+    companion object {
+        // VALUES(col) 참조는 MySQL 8.0.20 부터 deprecated 라 갱신 값도 파라미터로 다시 넘긴다
+        private const val UPSERT_SQL =
+            "INSERT INTO PURGE_CHECKPOINT (table_name, bucket_count, bucket_no, last_id, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE last_id = GREATEST(last_id, ?), updated_at = ?"
+    }
+}
@@ -0,0 +1,6 @@
+package com.codex.consumer.domain.repository
+
+data class TerminationTarget(
+    val payAccountId: Long,
+    val reason: String?
+)
@@ -0,0 +1,65 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.domain.entity.TerminateStatus
+import org.slf4j.LoggerFactory
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+/**
+ * IDENTITY 키 생성 전략은 Hibernate JDBC 배치를 비활성화하므로, 쓰기 경로만 JdbcTemplate 배치 upsert 로 분리한다.
+ * 기존 PENDING 레코드가 있으면 새 사유가 null 이 아닐 때만 사유를 갱신해 handleTermination 과 동일한 의미를 유지한다.
+ *
+ * rewriteBatchedStatements 사용 시 드라이버는 SUCCESS_NO_INFO 를, 아니면 found rows 를 돌려줘 upsert 결과로는 신규/기존을 구분할 수 없다.
+ * 그래서 같은 트랜잭션에서 기존 PENDING 키를 먼저 조회해 새로 삽입된 건수를 계산한다.
+ */
+internal class TerminationUpsertExecutor(
+    private val jdbcTemplate: JdbcTemplate,
+    private val tableName: String,
+    private val batchSize: Int
+) {
+
+    private val upsertSql =
+        "INSERT INTO $tableName (pay_account_id, terminate_status, reason, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE reason = COALESCE(VALUES(reason), reason)"
+
+    /** 새로 삽입된 건수를 반환한다 (기존 PENDING 레코드는 사유만 갱신되고 포함되지 않는다) */
+    fun upsertPending(targets: List<TerminationTarget>): Int {
+        if (targets.isEmpty()) {
+            return 0
+        }
+
+        val now = Timestamp.valueOf(LocalDateTime.now())
+        return targets.chunked(batchSize).sumOf { chunk ->
+            val startedAt = System.nanoTime()
+            val existing = existingPendingCount(chunk)
+            jdbcTemplate.batchUpdate(upsertSql, chunk, chunk.size) { ps, target ->
+                ps.setLong(1, target.payAccountId)
+                ps.setString(2, TerminateStatus.PENDING.name)
+                ps.setString(3, target.reason)
+                ps.setTimestamp(4, now)
+                ps.setTimestamp(5, now)
+            }
+            val inserted = chunk.size - existing
+            log.info(
+                "Upserted termination batch. table={}, size={}, inserted={}, elapsedMs={}",
+                tableName, chunk.size, inserted, (System.nanoTime() - startedAt) / 1_000_000
+            )
+            inserted
+        }
+    }
+
+    // chunk 는 payAccountId 로 합쳐진 상태여야 한다
+    private fun existingPendingCount(chunk: List<TerminationTarget>): Int {
+        val placeholders = chunk.joinToString(",") { "?" }
+        val sql = "SELECT COUNT(*) FROM $tableName WHERE terminate_status = ? AND pay_account_id IN ($placeholders)"
+        val args = (listOf<Any>(TerminateStatus.PENDING.name) + chunk.map { it.payAccountId }).toTypedArray()
+        return jdbcTemplate.queryForObject(sql, RowMapper { rs, _ -> rs.getInt(1) }, *args) ?: 0
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(TerminationUpsertExecutor::class.java)
+    }
+}
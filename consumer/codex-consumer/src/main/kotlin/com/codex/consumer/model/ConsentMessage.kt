@@ -10,7 +10,15 @@ data class ConsentMessage(
 
     @JsonProperty("type")
     val type: String
-)
+) {
+    companion object {
+        /** is_remove=false 메시지를 바인딩 없이 건너뛸 때 [com.codex.consumer.support.ConsentMessagePrefilterDeserializer] 가 반환하는 공유 인스턴스 */
+        val SKIP = ConsentMessage(
+            data = ConsentData(deleteEventType = "", payAccountId = 0L, isRemove = false, isForce = false),
+            type = ""
+        )
+    }
+}
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 data class ConsentData(
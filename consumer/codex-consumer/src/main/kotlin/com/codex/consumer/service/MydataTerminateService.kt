@@ -1,5 +1,9 @@
 package com.codex.consumer.service
 
+import com.codex.consumer.domain.repository.TerminationTarget
+
 interface MydataTerminateService {
     fun handleTermination(payAccountId: Long, reason: String?)
+
+    fun handleTerminations(targets: List<TerminationTarget>)
 }
@@ -3,6 +3,9 @@ package com.codex.consumer.service
 import com.codex.consumer.domain.entity.PayTerminateUser
 import com.codex.consumer.domain.entity.TerminateStatus
 import com.codex.consumer.domain.repository.PayTerminateUserRepository
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.jfr.TerminationUpsertEvent
+import com.codex.consumer.support.TerminationMetrics
 import org.slf4j.LoggerFactory
 import org.springframework.dao.DataIntegrityViolationException
 import org.springframework.stereotype.Service
@@ -10,34 +13,70 @@ import org.springframework.transaction.annotation.Transactional
 
 @Service
 class PayTerminateServiceImpl(
-    private val repository: PayTerminateUserRepository
+    private val repository: PayTerminateUserRepository,
+    private val terminationMetrics: TerminationMetrics
 ) : PayTerminateService {
 
     @Transactional
     override fun handleTermination(payAccountId: Long, reason: String?) {
-        val existing = repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
-        if (existing != null) {
-            if (reason != null && reason != existing.reason) {
-                existing.reason = reason
-                log.debug("Updated existing PAY pending record for payAccountId={} with new reason", payAccountId)
-            } else {
-                log.debug("Skip creating duplicate PAY pending record for payAccountId={}", payAccountId)
+        val event = TerminationUpsertEvent.begin(TerminationMetrics.SOURCE_PAY, TerminationMetrics.MODE_SINGLE, payAccountId)
+        try {
+            val existing = event.timeSql {
+                repository.findByPayAccountIdAndTerminateStatus(payAccountId, TerminateStatus.PENDING)
             }
-            return
+            if (existing != null) {
+                if (reason != null && reason != existing.reason) {
+                    existing.reason = reason
+                    log.debug("Updated existing PAY pending record for payAccountId={} with new reason", payAccountId)
+                } else {
+                    log.debug("Skip creating duplicate PAY pending record for payAccountId={}", payAccountId)
+                }
+                event.duplicate = true
+                terminationMetrics.countDuplicate(TerminationMetrics.SOURCE_PAY)
+                return
+            }
+
+            val newRecord = PayTerminateUser(
+                payAccountId = payAccountId,
+                terminateStatus = TerminateStatus.PENDING,
+                reason = reason
+            )
+
+            try {
+                terminationMetrics.recordUpsert(TerminationMetrics.SOURCE_PAY, TerminationMetrics.MODE_SINGLE) {
+                    event.timeSql { repository.save(newRecord) }
+                }
+                terminationMetrics.countProcessed(TerminationMetrics.SOURCE_PAY)
+                log.info("Registered pay termination target. payAccountId={}, reason={}", payAccountId, reason)
+            } catch (ex: DataIntegrityViolationException) {
+                log.warn("Detected concurrent insert for payAccountId={}, falling back to existing record", payAccountId, ex)
+                event.duplicate = true
+                terminationMetrics.countDuplicate(TerminationMetrics.SOURCE_PAY)
+            }
+        } finally {
+            event.commit()
         }
+    }
 
-        val newRecord = PayTerminateUser(
-            payAccountId = payAccountId,
-            terminateStatus = TerminateStatus.PENDING,
-            reason = reason
-        )
+    @Transactional
+    override fun handleTerminations(targets: List<TerminationTarget>) {
+        if (targets.isEmpty()) {
+            return
+        }
 
-        try {
-            repository.save(newRecord)
-            log.info("Registered pay termination target. payAccountId={}, reason={}", payAccountId, reason)
-        } catch (ex: DataIntegrityViolationException) {
-            log.warn("Detected concurrent insert for payAccountId={}, falling back to existing record", payAccountId, ex)
+        val collapsed = targets.collapseByPayAccountId()
+        val event = TerminationUpsertEvent.begin(TerminationMetrics.SOURCE_PAY, TerminationMetrics.MODE_BULK, rows = collapsed.size)
+        val inserted = try {
+            terminationMetrics.recordUpsert(TerminationMetrics.SOURCE_PAY, TerminationMetrics.MODE_BULK) {
+                event.timeSql { repository.upsertPending(collapsed) }
+            }.also { event.duplicate = it != collapsed.size }
+        } finally {
+            event.commit()
         }
+        // 새로 삽입된 건만 processed, 나머지(poll 내 중복, 기존 PENDING)는 duplicate
+        terminationMetrics.countProcessed(TerminationMetrics.SOURCE_PAY, inserted)
+        terminationMetrics.countDuplicate(TerminationMetrics.SOURCE_PAY, targets.size - inserted)
+        log.info("Bulk registered pay termination targets. received={}, distinct={}, inserted={}", targets.size, collapsed.size, inserted)
     }
 
     companion object {
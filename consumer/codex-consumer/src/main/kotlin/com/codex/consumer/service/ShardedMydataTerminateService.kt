@@ -0,0 +1,32 @@
+package com.codex.consumer.service
+
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.support.ShardRoutingDataSource
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.annotation.Primary
+import org.springframework.stereotype.Service
+
+/**
+ * codex.sharding.enabled=true 일 때 MydataTerminateService 로 주입되는 샤드 라우팅 래퍼.
+ * payAccountId 의 샤드를 지정한 뒤 [MydataTerminateServiceImpl] 을 호출하고, bulk 요청은 샤드별로 나눠 샤드마다 한 트랜잭션으로 적재한다.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "codex.sharding", name = ["enabled"], havingValue = "true")
+class ShardedMydataTerminateService(
+    private val delegate: MydataTerminateServiceImpl,
+    private val shardRoutingDataSource: ShardRoutingDataSource
+) : MydataTerminateService {
+
+    override fun handleTermination(payAccountId: Long, reason: String?) {
+        shardRoutingDataSource.withShard(shardRoutingDataSource.shardOf(payAccountId)) {
+            delegate.handleTermination(payAccountId, reason)
+        }
+    }
+
+    override fun handleTerminations(targets: List<TerminationTarget>) {
+        targets.groupBy { shardRoutingDataSource.shardOf(it.payAccountId) }.forEach { (shard, shardTargets) ->
+            shardRoutingDataSource.withShard(shard) { delegate.handleTerminations(shardTargets) }
+        }
+    }
+}
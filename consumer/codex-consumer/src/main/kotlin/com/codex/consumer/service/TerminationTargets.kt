@@ -0,0 +1,16 @@
+package com.codex.consumer.service
+
+import com.codex.consumer.domain.repository.TerminationTarget
+
+/**
+ * 같은 payAccountId 가 여러 번 들어오면 한 건으로 합친다.
+ * handleTermination 을 순서대로 반복 호출한 결과와 같도록 마지막 non-null 사유를 유지한다.
+ */
+internal fun List<TerminationTarget>.collapseByPayAccountId(): List<TerminationTarget> {
+    val collapsed = LinkedHashMap<Long, TerminationTarget>(size)
+    for (target in this) {
+        val previous = collapsed[target.payAccountId]
+        collapsed[target.payAccountId] = if (target.reason == null && previous != null) previous else target
+    }
+    return collapsed.values.toList()
+}
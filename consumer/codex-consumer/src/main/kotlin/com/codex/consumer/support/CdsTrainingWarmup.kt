@@ -0,0 +1,63 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.WireFormat
+import com.codex.consumer.config.StartupProperties
+import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import org.apache.avro.io.EncoderFactory
+import org.apache.avro.specific.SpecificDatumWriter
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.SmartInitializingSingleton
+import org.springframework.stereotype.Component
+import java.io.ByteArrayOutputStream
+
+/**
+ * CDS 학습 실행(-Dspring.context.exit=onRefresh, codex.startup.training=true)에서 컨텍스트 refresh 가 끝나기 전에
+ * 리스너와 같은 디코딩 경로(PayAccountDeletedDecoder, ConsentMessagePrefilterDeserializer)를 한 번씩 실행한다.
+ * 리스너 컨테이너는 refresh 직후 종료되어 레코드를 받지 않으므로, 이렇게 해야 생성된 Avro 클래스 / SpecificDatumReader /
+ * Jackson Kotlin 바인딩 클래스가 아카이브에 들어간다. Hibernate 메타모델은 EntityManagerFactory 초기화로 이미 로드된다.
+ */
+@Component
+class CdsTrainingWarmup(
+    private val startupProperties: StartupProperties,
+    private val kafkaConsumerProperties: KafkaConsumerProperties,
+    private val payAccountDeletedDecoder: PayAccountDeletedDecoder
+) : SmartInitializingSingleton {
+
+    override fun afterSingletonsInstantiated() {
+        if (!startupProperties.training) {
+            return
+        }
+
+        val envelope = payAccountDeletedDecoder.decode(payAccountDeletedPayload())
+        val consentDeserializer = ConsentMessagePrefilterDeserializer()
+        val consent = consentDeserializer.deserialize(TRAINING_TOPIC, consentPayload(isRemove = true))
+        consentDeserializer.deserialize(TRAINING_TOPIC, consentPayload(isRemove = false))
+        log.info("CDS training warm-up decoded sample records. payAccountId={}, consent={}", envelope.payAccountId, consent?.type)
+    }
+
+    private fun payAccountDeletedPayload(): ByteArray {
+        val output = ByteArrayOutputStream()
+        if (kafkaConsumerProperties.avro.wireFormat == WireFormat.CONFLUENT) {
+            output.write(CONFLUENT_HEADER)
+        }
+        val encoder = EncoderFactory.get().binaryEncoder(output, null)
+        SpecificDatumWriter(PayAccountDeletedEnvelop::class.java).write(
+            PayAccountDeletedEnvelop("cds-training", 0L, TRAINING_PAY_ACCOUNT_ID, "CUSTOMER_REQUEST"),
+            encoder
+        )
+        encoder.flush()
+        return output.toByteArray()
+    }
+
+    private fun consentPayload(isRemove: Boolean): ByteArray =
+        """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":$TRAINING_PAY_ACCOUNT_ID,"is_remove":$isRemove,"is_force":false},"type":"WITHDRAW"}"""
+            .toByteArray()
+
+    companion object {
+        private const val TRAINING_TOPIC = "cds-training"
+        private const val TRAINING_PAY_ACCOUNT_ID = 1L
+        private val CONFLUENT_HEADER = byteArrayOf(0, 0, 0, 0, 1)
+        private val log = LoggerFactory.getLogger(CdsTrainingWarmup::class.java)
+    }
+}
@@ -0,0 +1,81 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.model.ConsentMessage
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.ObjectReader
+import org.apache.kafka.common.errors.SerializationException
+import org.apache.kafka.common.serialization.Deserializer
+import org.springframework.kafka.support.JacksonUtils
+import java.io.IOException
+
+/**
+ * mydata.consent.v1 메시지의 data.is_remove 를 streaming JsonParser 로 먼저 확인하는 Deserializer.
+ *
+ * - is_remove=false 이면 ConsentMessage 를 바인딩하지 않고 공유 인스턴스 [ConsentMessage.SKIP] 을 반환한다.
+ * - is_remove=true 이거나 플래그를 찾지 못하면 JsonDeserializer 와 같은 ObjectMapper 설정으로 전체를 바인딩한다.
+ * - 플래그를 찾은 뒤의 나머지 payload 는 읽지 않으므로, 그 뒤쪽이 깨진 skip 대상 메시지는 예외 없이 건너뛴다.
+ *
+ * cc-consumer 의 message.ConsentMessagePrefilterDeserializer 와 같은 규칙이어야 하지만
+ * 바인딩하는 ConsentMessage 가 모듈마다 달라 코드를 공유하지 않는다. 한쪽 규칙을 바꾸면 다른 쪽도 함께 바꾼다.
+ */
+class ConsentMessagePrefilterDeserializer(
+    objectMapper: ObjectMapper = JacksonUtils.enhancedObjectMapper()
+) : Deserializer<ConsentMessage> {
+
+    private val jsonFactory = objectMapper.factory
+    private val reader: ObjectReader = objectMapper.readerFor(ConsentMessage::class.java)
+
+    override fun deserialize(topic: String?, data: ByteArray?): ConsentMessage? {
+        if (data == null) {
+            return null
+        }
+
+        try {
+            if (peekIsRemove(data) == false) {
+                return ConsentMessage.SKIP
+            }
+            return reader.readValue(data)
+        } catch (ex: IOException) {
+            throw SerializationException("Can't deserialize data from topic [$topic]", ex)
+        }
+    }
+
+    private fun peekIsRemove(data: ByteArray): Boolean? {
+        jsonFactory.createParser(data).use { parser ->
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                val field = parser.currentName()
+                if (parser.nextToken() == JsonToken.START_OBJECT && field == DATA_FIELD) {
+                    return findIsRemove(parser)
+                }
+                parser.skipChildren()
+            }
+            return null
+        }
+    }
+
+    private fun findIsRemove(parser: JsonParser): Boolean? {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName()
+            val token = parser.nextToken()
+            if (field == IS_REMOVE_FIELD) {
+                return when (token) {
+                    JsonToken.VALUE_TRUE -> true
+                    JsonToken.VALUE_FALSE -> false
+                    else -> null
+                }
+            }
+            parser.skipChildren()
+        }
+        return null
+    }
+
+    companion object {
+        private const val DATA_FIELD = "data"
+        private const val IS_REMOVE_FIELD = "is_remove"
+    }
+}
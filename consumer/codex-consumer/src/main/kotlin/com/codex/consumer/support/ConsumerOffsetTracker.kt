@@ -0,0 +1,90 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.ListenerExecutor
+import com.codex.consumer.domain.repository.ConsumerOffsetRepository
+import org.apache.kafka.common.TopicPartition
+import org.slf4j.LoggerFactory
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.listener.adapter.ConsumerRecordMetadata
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.stereotype.Component
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 리밸런스 / 장애 후 커밋되지 않은 구간이 재전달될 때 종료 테이블 조회 없이 건너뛰기 위한 offset 저장소.
+ *
+ * 레코드 처리(종료 대상 upsert)와 CONSUMER_OFFSET 갱신을 한 DB 트랜잭션으로 묶어 "적용된 마지막 offset" 을 남기고,
+ * 파티션이 할당되면 Kafka 커밋 위치보다 앞서 있는 경우에만 그 다음 offset 으로 seek 한다.
+ * VIRTUAL 모드는 같은 파티션의 레코드를 순서 없이 처리해 마지막 offset 이 적용 완료를 뜻하지 않으므로 비활성화된다.
+ * 샤딩 모드도 upsert 가 샤드별 트랜잭션으로 나뉘어 offset 과 한 트랜잭션으로 묶을 수 없으므로 비활성화된다.
+ * write-behind 모드는 레코드가 flush 시점에 모아서 적재되고 ack 도 flush 뒤에만 하므로 비활성화된다.
+ * 컨슈머 그룹 offset 을 의도적으로 되돌렸으면 offsetStore.resetTopics 에 토픽을 넣고 재기동해 저장된 offset 을 지운다.
+ */
+@Component
+class ConsumerOffsetTracker(
+    kafkaConsumerProperties: KafkaConsumerProperties,
+    private val consumerOffsetRepository: ConsumerOffsetRepository,
+    transactionManager: PlatformTransactionManager,
+    private val terminationMetrics: TerminationMetrics,
+    shardRoutingDataSource: ShardRoutingDataSource? = null
+) {
+
+    val enabled: Boolean = kafkaConsumerProperties.offsetStore.enabled &&
+        kafkaConsumerProperties.listener.executor == ListenerExecutor.PLATFORM &&
+        shardRoutingDataSource == null &&
+        !kafkaConsumerProperties.writeBehind.enabled
+
+    private val resetTopics = kafkaConsumerProperties.offsetStore.resetTopics
+
+    private val transactionTemplate = TransactionTemplate(transactionManager)
+
+    // 이 프로세스에서 저장 offset 을 이미 지운 (consumer group, topic)
+    private val resetDone = ConcurrentHashMap.newKeySet<Pair<String, String>>()
+
+    /** 컨슈머 스레드에서 호출해야 한다 (컨슈머 그룹 id 를 컨테이너 스레드 로컬에서 읽는다) */
+    fun applyInTransaction(metadata: ConsumerRecordMetadata, handler: () -> Unit) {
+        val groupId = KafkaUtils.getConsumerGroupId()
+        if (!enabled || groupId == null) {
+            handler()
+            return
+        }
+
+        transactionTemplate.executeWithoutResult {
+            handler()
+            consumerOffsetRepository.saveLastOffset(groupId, metadata.topic(), metadata.partition(), metadata.offset())
+        }
+    }
+
+    fun seekPastApplied(assignments: Map<TopicPartition, Long>, callback: ConsumerSeekCallback) {
+        val groupId = KafkaUtils.getConsumerGroupId()
+        if (!enabled || groupId == null || assignments.isEmpty()) {
+            return
+        }
+
+        val topics = assignments.keys.mapTo(HashSet()) { it.topic() }
+        topics.filter { it in resetTopics && resetDone.add(groupId to it) }.forEach { topic ->
+            val deleted = transactionTemplate.execute { consumerOffsetRepository.deleteByConsumerGroupAndTopic(groupId, topic) }
+            log.warn("Cleared applied offsets for reset. group={}, topic={}, rows={}", groupId, topic, deleted)
+        }
+
+        val applied = consumerOffsetRepository
+            .findByConsumerGroupAndTopicIn(groupId, topics)
+            .associate { TopicPartition(it.topic, it.partitionNo) to it.lastOffset }
+
+        assignments.forEach { (partition, position) ->
+            val next = applied[partition]?.plus(1) ?: return@forEach
+            if (next > position) {
+                log.info("Seeking past applied records. partition={}, committed={}, next={}", partition, position, next)
+                terminationMetrics.countReplaySkipped(partition.topic(), next - position)
+                callback.seek(partition.topic(), partition.partition(), next)
+            }
+        }
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(ConsumerOffsetTracker::class.java)
+    }
+}
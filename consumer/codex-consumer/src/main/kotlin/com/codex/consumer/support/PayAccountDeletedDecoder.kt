@@ -1,28 +1,101 @@
 package com.codex.consumer.support
 
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.DecodingMode
+import com.codex.consumer.config.KafkaConsumerProperties.WireFormat
 import com.codex.consumer.exception.MessageDecodingException
 import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import org.apache.avro.io.BinaryDecoder
 import org.apache.avro.io.DecoderFactory
 import org.apache.avro.specific.SpecificDatumReader
+import org.apache.avro.util.ByteBufferInputStream
 import org.slf4j.LoggerFactory
 import org.springframework.stereotype.Component
+import java.nio.ByteBuffer
 
 @Component
-class PayAccountDeletedDecoder {
+class PayAccountDeletedDecoder(
+    kafkaConsumerProperties: KafkaConsumerProperties
+) {
 
     private val reader = SpecificDatumReader(PayAccountDeletedEnvelop::class.java)
+    private val wireFormat = kafkaConsumerProperties.avro.wireFormat
+    private val decodingMode = kafkaConsumerProperties.avro.decodingMode
+    private val threadState = ThreadLocal.withInitial { DecodingState() }
 
-    fun decode(payload: ByteArray): PayAccountDeletedEnvelop {
-        return runCatching {
-            val decoder = DecoderFactory.get().binaryDecoder(payload, null)
-            reader.read(null, decoder)
-        }.getOrElse { throwable ->
-            log.error("Failed to decode pay-account deletion payload", throwable)
-            throw MessageDecodingException("Failed to decode pay-account deletion payload", throwable)
+    fun decode(payload: ByteArray): PayAccountDeletedEnvelop = decode(payload, 0, payload.size)
+
+    /**
+     * 힙 버퍼는 backing array 를 그대로 읽고, direct 버퍼는 복사 없이 스트림으로 감싸 읽는다.
+     * 버퍼의 position/limit 은 변경하지 않는다.
+     */
+    fun decode(buffer: ByteBuffer): PayAccountDeletedEnvelop {
+        if (buffer.hasArray()) {
+            return decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+        }
+
+        try {
+            val slice = buffer.duplicate()
+            slice.position(slice.position() + headerLength(slice.remaining()) { slice.get(slice.position()) })
+            val decoder = DecoderFactory.get().directBinaryDecoder(ByteBufferInputStream(listOf(slice)), null)
+            return read(decoder)
+        } catch (ex: MessageDecodingException) {
+            throw ex
+        } catch (ex: Exception) {
+            throw decodingFailure(ex)
+        }
+    }
+
+    private fun decode(payload: ByteArray, offset: Int, length: Int): PayAccountDeletedEnvelop {
+        try {
+            val headerLength = headerLength(length) { payload[offset] }
+            val decoder = when (decodingMode) {
+                DecodingMode.ALLOCATING -> DecoderFactory.get()
+                    .binaryDecoder(payload, offset + headerLength, length - headerLength, null)
+                DecodingMode.THREAD_CONFINED -> threadState.get().let { state ->
+                    DecoderFactory.get()
+                        .binaryDecoder(payload, offset + headerLength, length - headerLength, state.decoder)
+                        .also { state.decoder = it }
+                }
+            }
+            return read(decoder)
+        } catch (ex: MessageDecodingException) {
+            throw ex
+        } catch (ex: Exception) {
+            throw decodingFailure(ex)
+        }
+    }
+
+    private fun read(decoder: BinaryDecoder): PayAccountDeletedEnvelop = when (decodingMode) {
+        DecodingMode.ALLOCATING -> reader.read(null, decoder)
+        DecodingMode.THREAD_CONFINED -> threadState.get().let { state ->
+            reader.read(state.record, decoder).also { state.record = it }
         }
     }
 
+    private inline fun headerLength(length: Int, firstByte: () -> Byte): Int {
+        if (wireFormat == WireFormat.RAW) {
+            return 0
+        }
+        if (length < CONFLUENT_HEADER_LENGTH || firstByte() != CONFLUENT_MAGIC_BYTE) {
+            throw MessageDecodingException("Payload does not start with the Confluent wire format header")
+        }
+        return CONFLUENT_HEADER_LENGTH
+    }
+
+    private fun decodingFailure(cause: Throwable): MessageDecodingException {
+        log.error("Failed to decode pay-account deletion payload", cause)
+        return MessageDecodingException("Failed to decode pay-account deletion payload", cause)
+    }
+
+    private class DecodingState {
+        var decoder: BinaryDecoder? = null
+        var record: PayAccountDeletedEnvelop? = null
+    }
+
     companion object {
+        private const val CONFLUENT_MAGIC_BYTE: Byte = 0x0
+        private const val CONFLUENT_HEADER_LENGTH = 5
         private val log = LoggerFactory.getLogger(PayAccountDeletedDecoder::class.java)
     }
 }
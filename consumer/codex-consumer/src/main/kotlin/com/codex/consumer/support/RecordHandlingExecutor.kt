@@ -0,0 +1,176 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.ListenerExecutor
+import com.zaxxer.hikari.HikariDataSource
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.slf4j.LoggerFactory
+import org.springframework.kafka.listener.ConsumerRecordRecoverer
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.stereotype.Component
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import javax.sql.DataSource
+
+/**
+ * 리스너의 레코드 처리를 실행한다.
+ *
+ * PLATFORM 모드는 컨슈머 스레드에서 바로 실행하고 예외를 컨테이너 에러 핸들러로 전파한다.
+ * VIRTUAL 모드는 레코드마다 virtual thread 에서 실행하며, handler 를 동시에 실행하는 수를 Hikari 풀 크기(maxInFlight)로,
+ * 제출했지만 끝나지 않은 레코드 수를 maxPending 으로 제한해 커넥션 대기 대신 컨슈머 스레드에서 backpressure 가 걸리게 한다.
+ * 재시도는 retry 설정을 그대로 따르고, 모두 실패하면 에러 핸들러와 같은 DeadLetterPublishingRecoverer 로
+ * <topic>-dlt 에 옮긴 뒤에만 ack 한다. 재시도 대기 중에는 maxInFlight 자리를 비워 다른 레코드가 커넥션을 쓰게 한다.
+ * DLT 발행은 retry.deadLetterMaxAttempts 번까지만 시도하고, 그래도 실패하면 ack 하지 않는다.
+ * asyncAcks 라 그 offset 부터 커밋이 멈추므로 리밸런스나 재기동 뒤 그 레코드부터 다시 읽힌다.
+ * 같은 (topic, partition, key) 의 레코드는 제출 순서대로 하나씩 처리하고, 키가 다른 레코드만 동시에 처리한다.
+ */
+@Component
+class RecordHandlingExecutor(
+    kafkaConsumerProperties: KafkaConsumerProperties,
+    dataSource: DataSource?,
+    private val terminationMetrics: TerminationMetrics,
+    private val deadLetterRecoverer: ConsumerRecordRecoverer
+) : AutoCloseable {
+
+    private val retry = kafkaConsumerProperties.retry
+    private val virtualExecutor: ExecutorService? =
+        if (kafkaConsumerProperties.listener.executor == ListenerExecutor.VIRTUAL) {
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("codex-record-", 0).factory())
+        } else {
+            null
+        }
+
+    val maxInFlight: Int = kafkaConsumerProperties.listener.maxInFlight ?: hikariMaximumPoolSize(dataSource)
+    private val inFlight = Semaphore(maxInFlight)
+
+    // 같은 키의 앞 레코드를 기다리거나 재시도 대기 중인 레코드까지 포함한 상한
+    val maxPending: Int = kafkaConsumerProperties.listener.maxPending ?: (maxInFlight * 2)
+    private val pending = Semaphore(maxPending)
+
+    // (topic, partition, key) 별로 마지막에 제출한 처리, 다음 레코드는 이 처리가 끝난 뒤 실행한다
+    private val keyTails = ConcurrentHashMap<RecordKey, CompletableFuture<Void>>()
+
+    init {
+        require(maxInFlight > 0) { "maxInFlight must be positive: $maxInFlight" }
+        require(maxPending >= maxInFlight) { "maxPending must not be less than maxInFlight: $maxPending < $maxInFlight" }
+    }
+
+    /** [record] 는 재시도를 모두 소진했을 때 DLT 로 옮길 원본 레코드 */
+    fun execute(record: ConsumerRecord<*, *>, acknowledgment: Acknowledgment, handler: () -> Unit) {
+        if (virtualExecutor == null) {
+            terminationMetrics.recordProcessing(record.topic(), handler)
+            acknowledgment.acknowledge()
+            return
+        }
+
+        if (virtualExecutor.isShutdown) {
+            throw RejectedExecutionException("RecordHandlingExecutor is closed")
+        }
+        pending.acquire()
+        val recordKey = RecordKey(record.topic(), record.partition(), record.key())
+        val task = keyTails.compute(recordKey) { _, tail ->
+            // 앞 레코드가 예외로 끝나도 (로그만 남기고 ack 하지 않음) 같은 키의 다음 레코드는 처리한다
+            (tail?.exceptionally { null } ?: CompletableFuture.completedFuture(null)).thenRunAsync({
+                if (handleWithRetry(record, handler)) {
+                    acknowledgment.acknowledge()
+                }
+            }, virtualExecutor)
+        }!!
+        task.whenComplete { _, ex ->
+            pending.release()
+            keyTails.remove(recordKey, task)
+            if (ex != null) {
+                log.error("Record handling aborted, record will be redelivered. topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset(), ex)
+            }
+        }
+    }
+
+    // 처리했거나 DLT 로 옮겼으면 true
+    private fun handleWithRetry(record: ConsumerRecord<*, *>, handler: () -> Unit): Boolean {
+        val topic = record.topic()
+        var attempt = 0L
+        while (true) {
+            try {
+                inFlight.acquire()
+                try {
+                    terminationMetrics.recordProcessing(topic, handler)
+                } finally {
+                    inFlight.release()
+                }
+                return true
+            } catch (ex: Exception) {
+                if (ex is InterruptedException) {
+                    throw ex
+                }
+                if (attempt >= retry.maxAttempts) {
+                    log.error("Record handling failed after {} attempts, publishing to DLT. topic={}, partition={}, offset={}",
+                        attempt + 1, topic, record.partition(), record.offset(), ex)
+                    return recover(record, ex)
+                }
+                attempt++
+                terminationMetrics.countRetry(topic)
+                log.warn("Record handling failed, retrying. attempt={}/{}", attempt, retry.maxAttempts)
+                Thread.sleep(retry.intervalMillis)
+            }
+        }
+    }
+
+    private fun recover(record: ConsumerRecord<*, *>, exception: Exception): Boolean {
+        var attempt = 0
+        while (true) {
+            try {
+                deadLetterRecoverer.accept(record, exception)
+                terminationMetrics.countRecovered(record.topic())
+                return true
+            } catch (ex: Exception) {
+                attempt++
+                if (attempt >= retry.deadLetterMaxAttempts || virtualExecutor!!.isShutdown) {
+                    log.error("Failed to publish to DLT after {} attempts, record will be redelivered. topic={}, partition={}, offset={}",
+                        attempt, record.topic(), record.partition(), record.offset(), ex)
+                    return false
+                }
+                log.warn("Failed to publish to DLT, retrying in {}ms. attempt={}/{}, offset={}",
+                    retry.intervalMillis, attempt, retry.deadLetterMaxAttempts, record.offset(), ex)
+                try {
+                    Thread.sleep(retry.intervalMillis)
+                } catch (interrupted: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    return false
+                }
+            }
+        }
+    }
+
+    private data class RecordKey(val topic: String, val partition: Int, val key: Any?)
+
+    override fun close() {
+        virtualExecutor?.let { executor ->
+            executor.shutdown()
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("In-flight records did not finish within {}s, they will be redelivered", SHUTDOWN_TIMEOUT_SECONDS)
+                executor.shutdownNow()
+            }
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_HIKARI_POOL_SIZE = 10
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 10L
+        private val log = LoggerFactory.getLogger(RecordHandlingExecutor::class.java)
+
+        // 풀이 시작되기 전에는 maximumPoolSize 가 -1 일 수 있어 Hikari 기본값으로 보정, 샤딩 모드는 샤드 풀 크기의 합
+        private fun hikariMaximumPoolSize(dataSource: DataSource?): Int {
+            if (dataSource is ShardRoutingDataSource) {
+                return dataSource.shards.sumOf { hikariMaximumPoolSize(it) }
+            }
+            val poolSize = (dataSource as? HikariDataSource)?.maximumPoolSize ?: DEFAULT_HIKARI_POOL_SIZE
+            return if (poolSize > 0) poolSize else DEFAULT_HIKARI_POOL_SIZE
+        }
+    }
+}
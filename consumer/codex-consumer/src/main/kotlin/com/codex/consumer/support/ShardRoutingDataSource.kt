@@ -0,0 +1,67 @@
+package com.codex.consumer.support
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import javax.sql.DataSource
+
+/**
+ * 현재 스레드에 지정된 샤드 번호로 커넥션을 라우팅하는 DataSource.
+ *
+ * 트랜잭션은 시작할 때 커넥션을 잡으므로 [withShard] 는 트랜잭션 밖에서 호출해야 한다.
+ * 샤드가 지정되지 않은 접근(CONSUMER_OFFSET, 스키마 초기화 등)은 0번 샤드로 간다.
+ */
+class ShardRoutingDataSource(
+    val shards: List<DataSource>
+) : AbstractRoutingDataSource(), AutoCloseable {
+
+    val shardCount: Int = shards.size
+
+    init {
+        require(shards.isNotEmpty()) { "At least one shard data source is required" }
+        setTargetDataSources(shards.withIndex().associate { (index, dataSource) -> index to dataSource })
+        setDefaultTargetDataSource(shards.first())
+        setLenientFallback(false)
+        afterPropertiesSet()
+    }
+
+    /**
+     * payAccountId 를 섞은 뒤 샤드 수로 나눈다. 연속된 id 를 고르게 나누고,
+     * 샤드 안에서 다시 MOD(pay_account_id, n) 로 나누는 정리 배치 bucket 이 한쪽으로 쏠리지 않게 한다.
+     */
+    fun shardOf(payAccountId: Long): Int = Math.floorMod(mix(payAccountId), shardCount)
+
+    fun <T> withShard(shard: Int, block: () -> T): T {
+        require(shard in 0 until shardCount) { "Shard $shard is out of range [0, $shardCount)" }
+        check(!TransactionSynchronizationManager.isActualTransactionActive()) {
+            "Shard must be selected before a transaction binds a connection"
+        }
+        val previous = currentShard.get()
+        currentShard.set(shard)
+        try {
+            return block()
+        } finally {
+            if (previous == null) currentShard.remove() else currentShard.set(previous)
+        }
+    }
+
+    override fun determineCurrentLookupKey(): Any? = currentShard.get()
+
+    // 컨텍스트 종료 시 샤드 풀을 닫는다
+    override fun close() {
+        shards.filterIsInstance<AutoCloseable>().forEach { it.close() }
+    }
+
+    companion object {
+        private val currentShard = ThreadLocal<Int>()
+
+        // MurmurHash3 fmix64
+        private fun mix(value: Long): Long {
+            var h = value
+            h = h xor (h ushr 33)
+            h *= -0xae502812aa7333L
+            h = h xor (h ushr 33)
+            h *= -0x3b314601e57a13adL
+            return h xor (h ushr 33)
+        }
+    }
+}
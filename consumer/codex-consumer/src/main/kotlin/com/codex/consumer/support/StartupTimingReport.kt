@@ -0,0 +1,75 @@
+package com.codex.consumer.support
+
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.slf4j.LoggerFactory
+import org.springframework.aot.AotDetector
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.event.EventListener
+import org.springframework.stereotype.Component
+import java.lang.management.ManagementFactory
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 스케일 아웃한 파드가 lag 을 줄이기 시작하기까지 걸리는 시간을 보기 위한 기동 시간 리포트.
+ *
+ * JVM 시작부터 ApplicationReady, 첫 레코드 처리 완료(termination.records 첫 집계)까지의 시간을 로그와
+ * termination.startup{phase} gauge 로 남기고, AOT / CDS 적용 여부를 함께 출력해 기동 방식별로 비교할 수 있게 한다.
+ */
+@Component
+class StartupTimingReport(
+    meterRegistry: MeterRegistry
+) {
+
+    private val runtime = ManagementFactory.getRuntimeMXBean()
+    private val readyMillis = AtomicLong(UNSET)
+    private val firstRecordMillis = AtomicLong(UNSET)
+
+    init {
+        register(meterRegistry, PHASE_READY, readyMillis)
+        register(meterRegistry, PHASE_FIRST_RECORD, firstRecordMillis)
+    }
+
+    @EventListener
+    fun onApplicationReady(event: ApplicationReadyEvent) {
+        readyMillis.compareAndSet(UNSET, runtime.uptime)
+        log.info(
+            "Startup timing: ready {}ms after JVM start (SpringApplication.run {}ms), aot={}, cds={}",
+            readyMillis.get(), event.timeTaken?.toMillis(), AotDetector.useGeneratedArtifacts(), cdsArchive()
+        )
+    }
+
+    /** 레코드 처리 결과가 처음 집계될 때 한 번만 기록한다 */
+    fun markRecordConsumed() {
+        if (firstRecordMillis.get() != UNSET || !firstRecordMillis.compareAndSet(UNSET, runtime.uptime)) {
+            return
+        }
+        log.info(
+            "Startup timing: first record consumed {}ms after JVM start (ready at {}ms), aot={}, cds={}",
+            firstRecordMillis.get(), readyMillis.get(), AotDetector.useGeneratedArtifacts(), cdsArchive()
+        )
+    }
+
+    private fun cdsArchive(): String =
+        runtime.inputArguments.lastOrNull { it.startsWith(SHARED_ARCHIVE_FILE_OPTION) }
+            ?.substringAfter('=')
+            ?: "none"
+
+    private fun register(meterRegistry: MeterRegistry, phase: String, elapsedMillis: AtomicLong) {
+        Gauge.builder(TerminationMetrics.STARTUP, elapsedMillis) { value ->
+            value.get().let { if (it == UNSET) Double.NaN else it / 1_000.0 }
+        }
+            .tag("phase", phase)
+            .baseUnit("seconds")
+            .register(meterRegistry)
+    }
+
+    companion object {
+        const val PHASE_READY = "ready"
+        const val PHASE_FIRST_RECORD = "first_record"
+
+        private const val UNSET = -1L
+        private const val SHARED_ARCHIVE_FILE_OPTION = "-XX:SharedArchiveFile"
+        private val log = LoggerFactory.getLogger(StartupTimingReport::class.java)
+    }
+}
@@ -0,0 +1,184 @@
+package com.codex.consumer.support
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.springframework.stereotype.Component
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 파기 대상자 적재 파이프라인의 Micrometer 지표.
+ *
+ * - termination.record.processing{topic, outcome}: 레코드 1건 처리 시간 (histogram)
+ * - termination.db.upsert{source, mode}: PENDING 레코드 적재 쿼리 시간 (histogram)
+ * - termination.records{source, result}: processed / skipped(is_remove=false) / duplicate 건수
+ * - termination.listener.retries{topic}, termination.listener.recovered{topic}: 재시도 / 재시도 소진 후 skip 건수
+ * - termination.listener.replay.skipped{topic}: 파티션 할당 시 CONSUMER_OFFSET 기준 seek 으로 건너뛴 재전달 레코드 수
+ * - termination.purge.chunk{source}: PENDING 정리 배치의 chunk 트랜잭션 시간 (histogram)
+ * - termination.purge.rows{source, result}: completed(COMPLETED 로 전환) / superseded(새 COMPLETED 에 밀려 삭제된 이전 COMPLETED) 건수
+ * - termination.archive.rows{source}: *_ARCHIVE 로 옮긴 COMPLETED 건수
+ * - termination.archive.lag{source}: 가장 오래된 COMPLETED 레코드가 보존 기간을 넘긴 시간 (초, gauge)
+ * - termination.startup{phase}: JVM 시작부터 ready / 첫 레코드 집계까지 걸린 시간 (초, gauge, [StartupTimingReport])
+ * - termination.writebehind.flush{outcome}: write-behind 버퍼 flush(source 별 bulk upsert) 시간 (histogram)
+ */
+@Component
+class TerminationMetrics(
+    private val meterRegistry: MeterRegistry,
+    private val startupTimingReport: StartupTimingReport? = null
+) {
+
+    private val archiveLagSeconds = ConcurrentHashMap<String, AtomicLong>()
+
+    fun <T> recordProcessing(topic: String, block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        var outcome = OUTCOME_FAILURE
+        try {
+            return block().also { outcome = OUTCOME_SUCCESS }
+        } finally {
+            sample.stop(
+                Timer.builder(RECORD_PROCESSING)
+                    .tag("topic", topic)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun <T> recordUpsert(source: String, mode: String, block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        try {
+            return block()
+        } finally {
+            sample.stop(
+                Timer.builder(DB_UPSERT)
+                    .tag("source", source)
+                    .tag("mode", mode)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun <T> recordWriteBehindFlush(block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        var outcome = OUTCOME_FAILURE
+        try {
+            return block().also { outcome = OUTCOME_SUCCESS }
+        } finally {
+            sample.stop(
+                Timer.builder(WRITE_BEHIND_FLUSH)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun countProcessed(source: String, count: Int = 1) = countRecords(source, RESULT_PROCESSED, count)
+
+    fun countSkipped(source: String, count: Int = 1) = countRecords(source, RESULT_SKIPPED, count)
+
+    fun countDuplicate(source: String, count: Int = 1) = countRecords(source, RESULT_DUPLICATE, count)
+
+    fun countRetry(topic: String) {
+        Counter.builder(LISTENER_RETRIES).tag("topic", topic).register(meterRegistry).increment()
+    }
+
+    fun countRecovered(topic: String) {
+        Counter.builder(LISTENER_RECOVERED).tag("topic", topic).register(meterRegistry).increment()
+    }
+
+    fun countReplaySkipped(topic: String, count: Long) {
+        if (count <= 0) {
+            return
+        }
+        Counter.builder(LISTENER_REPLAY_SKIPPED).tag("topic", topic).register(meterRegistry).increment(count.toDouble())
+    }
+
+    fun <T> recordPurgeChunk(source: String, block: () -> T): T {
+        val sample = Timer.start(meterRegistry)
+        try {
+            return block()
+        } finally {
+            sample.stop(
+                Timer.builder(PURGE_CHUNK)
+                    .tag("source", source)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            )
+        }
+    }
+
+    fun countPurged(source: String, completed: Int, superseded: Int) {
+        if (completed > 0) {
+            Counter.builder(PURGE_ROWS).tag("source", source).tag("result", RESULT_COMPLETED)
+                .register(meterRegistry).increment(completed.toDouble())
+        }
+        if (superseded > 0) {
+            Counter.builder(PURGE_ROWS).tag("source", source).tag("result", RESULT_SUPERSEDED)
+                .register(meterRegistry).increment(superseded.toDouble())
+        }
+    }
+
+    fun countArchived(source: String, count: Int) {
+        if (count <= 0) {
+            return
+        }
+        Counter.builder(ARCHIVE_ROWS).tag("source", source).register(meterRegistry).increment(count.toDouble())
+    }
+
+    fun recordArchiveLag(source: String, lag: Duration) {
+        archiveLagSeconds.computeIfAbsent(source) { tagValue ->
+            AtomicLong().also {
+                Gauge.builder(ARCHIVE_LAG, it) { value -> value.get().toDouble() }
+                    .tag("source", tagValue)
+                    .baseUnit("seconds")
+                    .register(meterRegistry)
+            }
+        }.set(lag.seconds)
+    }
+
+    private fun countRecords(source: String, result: String, count: Int) {
+        if (count <= 0) {
+            return
+        }
+        startupTimingReport?.markRecordConsumed()
+        Counter.builder(RECORDS)
+            .tag("source", source)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment(count.toDouble())
+    }
+
+    companion object {
+        const val RECORD_PROCESSING = "termination.record.processing"
+        const val DB_UPSERT = "termination.db.upsert"
+        const val RECORDS = "termination.records"
+        const val LISTENER_RETRIES = "termination.listener.retries"
+        const val LISTENER_RECOVERED = "termination.listener.recovered"
+        const val LISTENER_REPLAY_SKIPPED = "termination.listener.replay.skipped"
+        const val PURGE_CHUNK = "termination.purge.chunk"
+        const val PURGE_ROWS = "termination.purge.rows"
+        const val ARCHIVE_ROWS = "termination.archive.rows"
+        const val ARCHIVE_LAG = "termination.archive.lag"
+        const val STARTUP = "termination.startup"
+        const val WRITE_BEHIND_FLUSH = "termination.writebehind.flush"
+
+        const val SOURCE_MYDATA = "mydata"
+        const val SOURCE_PAY = "pay"
+        const val MODE_SINGLE = "single"
+        const val MODE_BULK = "bulk"
+
+        private const val RESULT_PROCESSED = "processed"
+        private const val RESULT_SKIPPED = "skipped"
+        private const val RESULT_DUPLICATE = "duplicate"
+        private const val RESULT_COMPLETED = "completed"
+        private const val RESULT_SUPERSEDED = "superseded"
+        private const val OUTCOME_SUCCESS = "success"
+        private const val OUTCOME_FAILURE = "failure"
+    }
+}
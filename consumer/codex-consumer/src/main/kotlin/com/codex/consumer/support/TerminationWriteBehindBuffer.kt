@@ -0,0 +1,337 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.service.MydataTerminateService
+import com.codex.consumer.service.PayTerminateService
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.SmartLifecycle
+import org.springframework.kafka.listener.ConsumerRecordRecoverer
+import org.springframework.kafka.listener.ListenerContainerRegistry
+import org.springframework.kafka.listener.MessageListenerContainer
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.stereotype.Component
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * 짧은 시간 안에 같은 payAccountId 가 반복해 들어올 때 DB 왕복을 줄이기 위한 write-behind 버퍼.
+ *
+ * 레코드를 (source, payAccountId) 별로 합쳐 두고(마지막 non-null reason 우선, collapseByPayAccountId 와 같은 규칙)
+ * maxRecords 건이 모이면 적재한 컨슈머 스레드에서, 가장 오래된 레코드가 maxDelayMillis 를 넘기면 flush 스레드에서
+ * source 별 handleTerminations 한 번으로 적재한다. ack 는 그 레코드를 포함한 flush 가 커밋된 뒤 도착 순서대로 호출한다.
+ * flush 가 실패하면 배치를 버퍼 앞쪽에 되돌려 다음 flush 에서 다시 시도하고 ack 하지 않는다.
+ * 가득 찬 버퍼의 flush 가 컨슈머 스레드에서 실패하면 재시도하며 잠들지 않고 리스너 컨테이너를 pause 해 유입을 멈춘다.
+ * 그 뒤의 재시도는 flush 스레드가 retry.intervalMillis 간격으로 맡고, 버퍼를 비우면 resume 한다.
+ * 따라서 버퍼는 maxRecords 에 pause 전까지 받은 한 poll 분량을 더한 크기를 넘지 않는다.
+ * retry.maxAttempts 번 재시도해도 실패하면 대상을 하나씩 적재해 실패한 대상의 레코드만 <topic>-dlt 로 옮기고 나머지와 함께 ack 한다.
+ * 컨테이너보다 먼저 stop 되어(기본 phase) 남은 레코드를 flush 하고, 그 ack 는 컨테이너가 종료하면서 커밋한다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "codex.kafka.write-behind", name = ["enabled"], havingValue = "true")
+class TerminationWriteBehindBuffer(
+    kafkaConsumerProperties: KafkaConsumerProperties,
+    private val mydataTerminateService: MydataTerminateService,
+    private val payTerminateService: PayTerminateService,
+    private val terminationMetrics: TerminationMetrics,
+    private val deadLetterRecoverer: ConsumerRecordRecoverer,
+    private val listenerContainerRegistry: ListenerContainerRegistry? = null
+) : SmartLifecycle {
+
+    private val maxRecords = kafkaConsumerProperties.writeBehind.maxRecords
+    private val maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(kafkaConsumerProperties.writeBehind.maxDelayMillis)
+    private val retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(kafkaConsumerProperties.retry.intervalMillis)
+    private val retryMaxAttempts = kafkaConsumerProperties.retry.maxAttempts
+
+    private val lock = Any()
+    private val flushLock = Any()
+    private var pending = Batch()
+
+    // 이 버퍼가 pause 한 컨테이너, lock 안에서만 접근한다
+    private val pausedContainers = HashSet<MessageListenerContainer>()
+
+    @Volatile
+    private var intakePaused = false
+
+    // intake 를 멈춘 뒤 실패한 flush 횟수와 다음 재시도 시각, flush 스레드에서만 접근한다
+    private var failedFlushes = 0L
+    private var nextRetryNanos = 0L
+
+    @Volatile
+    private var scheduler: ScheduledExecutorService? = null
+
+    init {
+        require(maxRecords > 0) { "codex.kafka.write-behind.max-records must be positive but was $maxRecords" }
+        require(maxDelayNanos > 0) { "codex.kafka.write-behind.max-delay-millis must be positive" }
+    }
+
+    /**
+     * 버퍼에 담고, maxRecords 에 도달하면 호출한 스레드에서 flush 해 backpressure 를 건다.
+     * 그 flush 가 실패하면 유입을 멈추고 돌아가며, 멈춘 동안에는 flush 없이 버퍼에만 담는다.
+     * [record] 는 대상 적재가 끝내 실패했을 때 DLT 로 옮길 원본 레코드
+     */
+    fun submit(source: String, payAccountId: Long, reason: String?, record: ConsumerRecord<*, *>, acknowledgment: Acknowledgment) {
+        val full = synchronized(lock) {
+            pending.add(source, payAccountId, reason, record, acknowledgment, System.nanoTime())
+            pending.records >= maxRecords
+        }
+        if (!full || intakePaused) {
+            return
+        }
+        try {
+            flush()
+        } catch (ex: Exception) {
+            if (!isRunning) {
+                throw ex
+            }
+            log.warn("Write-behind flush failed, pausing intake until the buffer is drained", ex)
+            pauseIntake()
+        }
+    }
+
+    /** 버퍼에 있는 레코드를 모두 적재하고 ack 한다. 실패하면 레코드를 버퍼에 되돌리고 예외를 던진다 */
+    fun flush() {
+        synchronized(flushLock) {
+            val batch = synchronized(lock) {
+                pending.also { pending = Batch() }
+            }
+            if (batch.isEmpty()) {
+                resumeIntake()
+                return
+            }
+
+            try {
+                terminationMetrics.recordWriteBehindFlush {
+                    batch.targets.forEach { (source, targets) -> handle(source, targets.values.toList()) }
+                }
+            } catch (ex: Exception) {
+                synchronized(lock) {
+                    pending = batch.mergedWith(pending)
+                }
+                throw ex
+            }
+
+            acknowledge(batch)
+            resumeIntake()
+            log.debug("Flushed write-behind buffer. records={}, targets={}", batch.records, batch.targets.values.sumOf { it.size })
+        }
+    }
+
+    /**
+     * 대상을 하나씩 적재해 실패한 대상의 레코드는 DLT 로 옮기고 배치 전체를 ack 한다.
+     * DLT 발행이 실패하면 레코드를 버퍼에 되돌리고 예외를 던진다 (이미 적재한 대상은 다음 flush 에서 멱등하게 다시 적재된다)
+     */
+    internal fun flushIsolatingFailures() {
+        synchronized(flushLock) {
+            val batch = synchronized(lock) {
+                pending.also { pending = Batch() }
+            }
+            if (batch.isEmpty()) {
+                resumeIntake()
+                return
+            }
+
+            try {
+                val failures = HashMap<Pair<String, Long>, Exception>()
+                batch.targets.forEach { (source, targets) ->
+                    targets.values.forEach { target ->
+                        try {
+                            handle(source, listOf(target))
+                        } catch (ex: Exception) {
+                            failures[source to target.payAccountId] = ex
+                        }
+                    }
+                }
+                batch.entries.forEach { entry ->
+                    val failure = failures[entry.source to entry.payAccountId] ?: return@forEach
+                    deadLetterRecoverer.accept(entry.record, failure)
+                    terminationMetrics.countRecovered(entry.record.topic())
+                    log.error("Write-behind target failed, published to DLT. topic={}, partition={}, offset={}",
+                        entry.record.topic(), entry.record.partition(), entry.record.offset(), failure)
+                }
+            } catch (ex: Exception) {
+                synchronized(lock) {
+                    pending = batch.mergedWith(pending)
+                }
+                throw ex
+            }
+
+            acknowledge(batch)
+            resumeIntake()
+        }
+    }
+
+    /** 리밸런스로 파티션을 넘기기 전에 호출한다. 실패하면 ack 되지 않은 레코드는 새 담당 컨슈머가 다시 읽는다 */
+    fun flushOnRevoke() {
+        try {
+            flush()
+        } catch (ex: Exception) {
+            log.warn("Failed to flush write-behind buffer on partition revoke, unacknowledged records will be redelivered", ex)
+        }
+    }
+
+    internal fun flushIfDue() {
+        if (intakePaused) {
+            retryPausedFlush()
+            return
+        }
+        val due = synchronized(lock) {
+            !pending.isEmpty() && System.nanoTime() - pending.firstNanos >= maxDelayNanos
+        }
+        if (due) {
+            flush()
+        }
+    }
+
+    // flush 스레드에서 retry.intervalMillis 간격으로 다시 시도하고, retry.maxAttempts 번을 넘기면 대상을 하나씩 적재한다
+    private fun retryPausedFlush() {
+        val now = System.nanoTime()
+        if (now - nextRetryNanos < 0) {
+            return
+        }
+        try {
+            if (failedFlushes >= retryMaxAttempts) {
+                log.warn("Write-behind flush failed after {} retries, flushing targets one by one", failedFlushes)
+                flushIsolatingFailures()
+            } else {
+                flush()
+            }
+            failedFlushes = 0
+        } catch (ex: Exception) {
+            failedFlushes++
+            nextRetryNanos = now + retryIntervalNanos
+            log.warn("Write-behind flush failed while intake is paused. attempt={}/{}", failedFlushes, retryMaxAttempts, ex)
+        }
+    }
+
+    private fun pauseIntake() {
+        synchronized(lock) {
+            if (intakePaused) {
+                return
+            }
+            intakePaused = true
+            failedFlushes = 0
+            nextRetryNanos = System.nanoTime() + retryIntervalNanos
+            listenerContainerRegistry?.listenerContainers.orEmpty()
+                .filter { it.isRunning && !it.isPauseRequested }
+                .forEach {
+                    it.pause()
+                    pausedContainers += it
+                }
+        }
+    }
+
+    private fun resumeIntake() {
+        synchronized(lock) {
+            if (!intakePaused) {
+                return
+            }
+            intakePaused = false
+            pausedContainers.forEach { it.resume() }
+            pausedContainers.clear()
+        }
+        log.info("Write-behind buffer drained, resumed intake")
+    }
+
+    private fun acknowledge(batch: Batch) {
+        batch.coalesced.forEach { (source, count) -> terminationMetrics.countDuplicate(source, count) }
+        batch.entries.forEach { it.acknowledgment.acknowledge() }
+    }
+
+    private fun handle(source: String, targets: List<TerminationTarget>) {
+        when (source) {
+            TerminationMetrics.SOURCE_MYDATA -> mydataTerminateService.handleTerminations(targets)
+            TerminationMetrics.SOURCE_PAY -> payTerminateService.handleTerminations(targets)
+            else -> throw IllegalArgumentException("Unknown termination source: $source")
+        }
+    }
+
+    override fun start() {
+        val tickMillis = (TimeUnit.NANOSECONDS.toMillis(maxDelayNanos) / 4).coerceAtLeast(MIN_TICK_MILLIS)
+        scheduler = Executors.newSingleThreadScheduledExecutor { Thread(it, "codex-write-behind").apply { isDaemon = true } }
+            .also { executor ->
+                executor.scheduleWithFixedDelay({
+                    try {
+                        flushIfDue()
+                    } catch (ex: Exception) {
+                        log.warn("Write-behind flush failed, records are kept for the next flush", ex)
+                    }
+                }, tickMillis, tickMillis, TimeUnit.MILLISECONDS)
+            }
+    }
+
+    override fun stop() {
+        scheduler?.let { executor ->
+            executor.shutdown()
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+        scheduler = null
+        try {
+            flush()
+        } catch (ex: Exception) {
+            log.warn("Failed to flush write-behind buffer on shutdown, unacknowledged records will be redelivered", ex)
+        }
+    }
+
+    override fun isRunning(): Boolean = scheduler != null
+
+    private class Entry(
+        val source: String,
+        val payAccountId: Long,
+        val record: ConsumerRecord<*, *>,
+        val acknowledgment: Acknowledgment
+    )
+
+    /** lock 안에서만 접근한다 */
+    private class Batch {
+        val targets = LinkedHashMap<String, LinkedHashMap<Long, TerminationTarget>>()
+        val coalesced = HashMap<String, Int>()
+        val entries = ArrayList<Entry>()
+        val records get() = entries.size
+        var firstNanos = 0L
+            private set
+
+        fun isEmpty() = entries.isEmpty()
+
+        fun add(source: String, payAccountId: Long, reason: String?, record: ConsumerRecord<*, *>, acknowledgment: Acknowledgment, nanos: Long) {
+            if (isEmpty()) {
+                firstNanos = nanos
+            }
+            entries += Entry(source, payAccountId, record, acknowledgment)
+            put(source, TerminationTarget(payAccountId, reason))
+        }
+
+        /** 실패한 배치(this) 뒤에 그 사이 들어온 레코드를 이어 붙인다 */
+        fun mergedWith(newer: Batch): Batch {
+            if (newer.isEmpty()) {
+                return this
+            }
+            newer.targets.forEach { (source, targets) -> targets.values.forEach { put(source, it) } }
+            newer.coalesced.forEach { (source, count) -> coalesced.merge(source, count, Int::plus) }
+            entries += newer.entries
+            return this
+        }
+
+        private fun put(source: String, target: TerminationTarget) {
+            val bySource = targets.getOrPut(source) { LinkedHashMap() }
+            val previous = bySource[target.payAccountId]
+            if (previous == null) {
+                bySource[target.payAccountId] = target
+                return
+            }
+            coalesced.merge(source, 1, Int::plus)
+            if (target.reason != null) {
+                bySource[target.payAccountId] = target
+            }
+        }
+    }
+
+    companion object {
+        private const val MIN_TICK_MILLIS = 10L
+        private const val SHUTDOWN_TIMEOUT_SECONDS = 5L
+        private val log = LoggerFactory.getLogger(TerminationWriteBehindBuffer::class.java)
+    }
+}
@@ -6,7 +6,9 @@ CREATE TABLE IF NOT EXISTS MYDATA_TERMINATE_USER (
     created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
     updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
     PRIMARY KEY (id),
-    UNIQUE KEY uq_mydata_pay_account_status (pay_account_id, terminate_status)
+    UNIQUE KEY uq_mydata_pay_account_status (pay_account_id, terminate_status),
+    INDEX idx_mydata_terminate_status_id (terminate_status, id, pay_account_id),
+    INDEX idx_mydata_terminate_status_updated_at (terminate_status, updated_at)
 );
 
 CREATE TABLE IF NOT EXISTS PAY_TERMINATE_USER (
@@ -17,5 +19,55 @@ CREATE TABLE IF NOT EXISTS PAY_TERMINATE_USER (
     created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
     updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
     PRIMARY KEY (id),
-    UNIQUE KEY uq_pay_pay_account_status (pay_account_id, terminate_status)
+    UNIQUE KEY uq_pay_pay_account_status (pay_account_id, terminate_status),
+    INDEX idx_pay_terminate_status_id (terminate_status, id, pay_account_id),
+    INDEX idx_pay_terminate_status_updated_at (terminate_status, updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS CONSUMER_OFFSET (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    consumer_group VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    partition_no INT NOT NULL,
+    last_offset BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uq_consumer_offset_group_topic_partition (consumer_group, topic, partition_no)
+);
+
+CREATE TABLE IF NOT EXISTS PURGE_CHECKPOINT (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    table_name VARCHAR(64) NOT NULL,
+    bucket_count INT NOT NULL,
+    bucket_no INT NOT NULL,
+    last_id BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uq_purge_checkpoint_table_bucket (table_name, bucket_count, bucket_no)
+);
+
+CREATE TABLE IF NOT EXISTS MYDATA_TERMINATE_USER_ARCHIVE (
+    id BIGINT NOT NULL,
+    pay_account_id BIGINT NOT NULL,
+    terminate_status ENUM('PENDING', 'COMPLETED') NOT NULL,
+    reason VARCHAR(255) DEFAULT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_mydata_archive_pay_account_id (pay_account_id)
+);
+
+CREATE TABLE IF NOT EXISTS PAY_TERMINATE_USER_ARCHIVE (
+    id BIGINT NOT NULL,
+    pay_account_id BIGINT NOT NULL,
+    terminate_status ENUM('PENDING', 'COMPLETED') NOT NULL,
+    reason VARCHAR(255) DEFAULT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_pay_archive_pay_account_id (pay_account_id)
 );
@@ -0,0 +1,179 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.config.ArchiveProperties
+import com.codex.consumer.config.PurgeProperties
+import com.codex.consumer.domain.repository.CompletedTerminationArchiveRepository
+import com.codex.consumer.support.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.spyk
+import io.mockk.verifyOrder
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import java.sql.Timestamp
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@DataJpaTest(
+    properties = [
+        "spring.datasource.url=jdbc:h2:mem:archiver-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "spring.jpa.hibernate.ddl-auto=none"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CompletedTerminationArchiverTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    @Autowired
+    private lateinit var transactionManager: PlatformTransactionManager
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        lateinit var meterRegistry: SimpleMeterRegistry
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            listOf(PAY_TABLE, "${PAY_TABLE}_ARCHIVE", MYDATA_TABLE, "${MYDATA_TABLE}_ARCHIVE").forEach {
+                jdbcTemplate.execute("DELETE FROM $it")
+            }
+        }
+
+        describe("run 메소드는") {
+            it("보존 기간이 지난 COMPLETED 레코드만 chunk 단위로 아카이브 테이블로 옮긴다") {
+                (1L..5L).forEach { insert(PAY_TABLE, it, "COMPLETED", NOW.minusDays(40 + it)) }
+                insert(PAY_TABLE, 6L, "COMPLETED", NOW.minusDays(10))
+                insert(PAY_TABLE, 7L, "PENDING", NOW.minusDays(90))
+
+                val moved = archiver(meterRegistry, chunkSize = 2).run()
+
+                moved shouldBe mapOf(PurgeProperties.Target.MYDATA to 0, PurgeProperties.Target.PAY to 5)
+                payAccountIds(PAY_TABLE) shouldContainExactly listOf(6L, 7L)
+                payAccountIds("${PAY_TABLE}_ARCHIVE") shouldContainExactly (1L..5L).toList()
+                jdbcTemplate.queryForList("SELECT DISTINCT archived_at FROM ${PAY_TABLE}_ARCHIVE", Timestamp::class.java)
+                    .map { it.toLocalDateTime() } shouldContainExactly listOf(NOW)
+                meterRegistry.counter(TerminationMetrics.ARCHIVE_ROWS, "source", TerminationMetrics.SOURCE_PAY).count() shouldBe 5.0
+            }
+
+            it("다음 chunk 는 직전 chunk 의 마지막 id 다음부터 조회한다") {
+                (1L..4L).forEach { insert(PAY_TABLE, it, "COMPLETED", NOW.minusDays(40)) }
+                val ids = jdbcTemplate.queryForList("SELECT id FROM $PAY_TABLE ORDER BY id", Long::class.java)
+                val repository = spyk(CompletedTerminationArchiveRepository(jdbcTemplate))
+
+                archiver(meterRegistry, chunkSize = 2, repository = repository).run()
+
+                verifyOrder {
+                    repository.findArchivableIds(PAY_TABLE, any(), 0L, 2)
+                    repository.findArchivableIds(PAY_TABLE, any(), ids[1], 2)
+                    repository.findArchivableIds(PAY_TABLE, any(), ids[3], 2)
+                }
+                payAccountIds("${PAY_TABLE}_ARCHIVE") shouldContainExactly (1L..4L).toList()
+            }
+
+            it("실행을 시작할 때 가장 오래된 COMPLETED 레코드가 보존 기간을 넘긴 시간을 지연 지표로 남긴다") {
+                insert(MYDATA_TABLE, 1L, "COMPLETED", NOW.minusDays(45))
+                insert(PAY_TABLE, 1L, "COMPLETED", NOW.minusDays(3))
+
+                archiver(meterRegistry, chunkSize = 10).run()
+
+                lagSeconds(meterRegistry, TerminationMetrics.SOURCE_MYDATA) shouldBe Duration.ofDays(15).seconds.toDouble()
+                lagSeconds(meterRegistry, TerminationMetrics.SOURCE_PAY) shouldBe 0.0
+            }
+
+            it("지연 지표는 id 순서와 무관하게 가장 먼저 COMPLETED 로 바뀐 레코드를 기준으로 한다") {
+                insert(PAY_TABLE, 1L, "COMPLETED", NOW.minusDays(3))
+                insert(PAY_TABLE, 2L, "COMPLETED", NOW.minusDays(50))
+
+                archiver(meterRegistry, chunkSize = 10).run()
+
+                lagSeconds(meterRegistry, TerminationMetrics.SOURCE_PAY) shouldBe Duration.ofDays(20).seconds.toDouble()
+            }
+        }
+
+        describe("CompletedTerminationArchiveRepository 는") {
+            it("아카이버와 정리 배치가 같은 COMPLETED 레코드를 동시에 옮겨도 한 번만 옮긴다") {
+                insert(PAY_TABLE, 1L, "COMPLETED", NOW.minusDays(40))
+                val id = jdbcTemplate.queryForObject("SELECT id FROM $PAY_TABLE", Long::class.java)!!
+                val repository = CompletedTerminationArchiveRepository(jdbcTemplate)
+                val transactionTemplate = TransactionTemplate(transactionManager)
+                val archiverMoved = CountDownLatch(1)
+                val commitArchiver = CountDownLatch(1)
+
+                // 아카이버가 옮긴 뒤 커밋하기 전에 정리 배치가 같은 계정의 이전 COMPLETED 를 옮기려 한다
+                val archiver = CompletableFuture.supplyAsync {
+                    transactionTemplate.execute {
+                        repository.moveToArchive(PAY_TABLE, listOf(id), NOW).also {
+                            archiverMoved.countDown()
+                            commitArchiver.await(5, TimeUnit.SECONDS)
+                        }
+                    }!!
+                }
+                archiverMoved.await(5, TimeUnit.SECONDS) shouldBe true
+                val purgeJob = CompletableFuture.supplyAsync {
+                    transactionTemplate.execute { repository.moveSupersededToArchive(PAY_TABLE, listOf(1L), NOW) }!!
+                }
+                Thread.sleep(200)
+                commitArchiver.countDown()
+
+                archiver.get(5, TimeUnit.SECONDS) shouldBe 1
+                purgeJob.get(5, TimeUnit.SECONDS) shouldBe 0
+                payAccountIds("${PAY_TABLE}_ARCHIVE") shouldContainExactly listOf(1L)
+                payAccountIds(PAY_TABLE) shouldContainExactly emptyList()
+            }
+        }
+    }
+
+    private fun archiver(
+        meterRegistry: SimpleMeterRegistry,
+        chunkSize: Int,
+        repository: CompletedTerminationArchiveRepository = CompletedTerminationArchiveRepository(jdbcTemplate)
+    ) = CompletedTerminationArchiver(
+        ArchiveProperties().apply {
+            retention = Duration.ofDays(30)
+            this.chunkSize = chunkSize
+            maxRowsPerSecond = 1_000
+        },
+        repository,
+        transactionManager,
+        TerminationMetrics(meterRegistry),
+        clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC)
+    )
+
+    private fun insert(table: String, payAccountId: Long, status: String, updatedAt: LocalDateTime) {
+        jdbcTemplate.update(
+            "INSERT INTO $table (pay_account_id, terminate_status, reason, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+            payAccountId, status, "R$payAccountId", Timestamp.valueOf(updatedAt), Timestamp.valueOf(updatedAt)
+        )
+    }
+
+    private fun payAccountIds(table: String): List<Long> =
+        jdbcTemplate.queryForList("SELECT pay_account_id FROM $table ORDER BY pay_account_id", Long::class.java)
+
+    private fun lagSeconds(meterRegistry: SimpleMeterRegistry, source: String): Double =
+        meterRegistry.get(TerminationMetrics.ARCHIVE_LAG).tag("source", source).gauge().value()
+
+    companion object {
+        private const val MYDATA_TABLE = "MYDATA_TERMINATE_USER"
+        private const val PAY_TABLE = "PAY_TERMINATE_USER"
+        private val NOW: LocalDateTime = LocalDateTime.ofInstant(Instant.parse("2026-03-01T00:00:00Z"), ZoneOffset.UTC)
+    }
+}
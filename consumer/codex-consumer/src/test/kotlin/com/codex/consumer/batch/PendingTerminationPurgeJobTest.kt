@@ -0,0 +1,137 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.config.PurgeProperties
+import com.codex.consumer.domain.entity.MydataTerminateUser
+import com.codex.consumer.domain.entity.PayTerminateUser
+import com.codex.consumer.domain.entity.TerminateStatus
+import com.codex.consumer.domain.repository.CompletedTerminationArchiveRepository
+import com.codex.consumer.domain.repository.MydataTerminateUserRepository
+import com.codex.consumer.domain.repository.PayTerminateUserRepository
+import com.codex.consumer.domain.repository.PendingTerminationPurgeRepository
+import com.codex.consumer.domain.repository.PurgeCheckpointRepository
+import com.codex.consumer.support.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+
+@DataJpaTest(
+    properties = [
+        "spring.datasource.url=jdbc:h2:mem:purge-job-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "spring.jpa.hibernate.ddl-auto=none"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PendingTerminationPurgeJobTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var mydataRepository: MydataTerminateUserRepository
+
+    @Autowired
+    private lateinit var payRepository: PayTerminateUserRepository
+
+    @Autowired
+    private lateinit var purgeCheckpointRepository: PurgeCheckpointRepository
+
+    @Autowired
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    @Autowired
+    private lateinit var transactionManager: PlatformTransactionManager
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        lateinit var meterRegistry: SimpleMeterRegistry
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            mydataRepository.deleteAllInBatch()
+            payRepository.deleteAllInBatch()
+            purgeCheckpointRepository.deleteAllInBatch()
+            listOf("${PAY_TABLE}_ARCHIVE", "${MYDATA_TABLE}_ARCHIVE").forEach { jdbcTemplate.execute("DELETE FROM $it") }
+        }
+
+        describe("run 메소드는") {
+            it("모든 bucket 의 PENDING 레코드를 chunk 단위로 COMPLETED 로 바꾸고 bucket 별 마지막 id 를 체크포인트로 남긴다") {
+                payRepository.saveAll((1L..25L).map { PayTerminateUser(payAccountId = it, reason = "R$it") })
+
+                val result = job(meterRegistry, bucketCount = 4, chunkSize = 3).run().single()
+
+                result.completed shouldBe 25
+                result.superseded shouldBe 0
+                payRepository.findAll().map { it.terminateStatus }.toSet() shouldBe setOf(TerminateStatus.COMPLETED)
+                val checkpoints = purgeCheckpointRepository.findByTableNameAndBucketCount(PAY_TABLE, 4)
+                checkpoints.map { it.bucketNo } shouldContainExactlyInAnyOrder listOf(0, 1, 2, 3)
+                checkpoints.maxOf { it.lastId } shouldBe payRepository.findAll().maxOf { it.id!! }
+                meterRegistry.counter(TerminationMetrics.PURGE_ROWS, "source", TerminationMetrics.SOURCE_PAY, "result", "completed")
+                    .count() shouldBe 25.0
+            }
+
+            it("같은 계정에 COMPLETED 레코드가 이미 있으면 이전 COMPLETED 를 아카이브로 옮기고 PENDING 을 COMPLETED 로 바꾼다") {
+                payRepository.save(PayTerminateUser(payAccountId = 7L, terminateStatus = TerminateStatus.COMPLETED, reason = "OLD"))
+                payRepository.save(PayTerminateUser(payAccountId = 7L, reason = "NEW"))
+                payRepository.save(PayTerminateUser(payAccountId = 8L, reason = "ONLY"))
+
+                val result = job(meterRegistry, bucketCount = 2, chunkSize = 10).run().single()
+
+                result.completed shouldBe 2
+                result.superseded shouldBe 1
+                payRepository.findAll().map { Triple(it.payAccountId, it.terminateStatus, it.reason) } shouldContainExactlyInAnyOrder listOf(
+                    Triple(7L, TerminateStatus.COMPLETED, "NEW"),
+                    Triple(8L, TerminateStatus.COMPLETED, "ONLY")
+                )
+                jdbcTemplate.queryForList("SELECT reason FROM ${PAY_TABLE}_ARCHIVE WHERE pay_account_id = 7", String::class.java) shouldBe
+                    listOf("OLD")
+            }
+
+            it("체크포인트가 있으면 그 다음 id 부터 이어서 처리한다") {
+                val saved = mydataRepository.saveAll((1L..6L).map { MydataTerminateUser(payAccountId = it) })
+                val resumeAfter = saved[2].id!!
+                purgeCheckpointRepository.saveLastId(MYDATA_TABLE, 1, 0, resumeAfter)
+
+                val result = job(meterRegistry, bucketCount = 1, chunkSize = 2, targets = listOf(PurgeProperties.Target.MYDATA))
+                    .run().single()
+
+                result.completed shouldBe 3
+                mydataRepository.findAll().filter { it.terminateStatus == TerminateStatus.PENDING }
+                    .map { it.id } shouldContainExactlyInAnyOrder saved.take(3).map { it.id }
+                purgeCheckpointRepository.findByTableNameAndBucketCount(MYDATA_TABLE, 1).single().lastId shouldBe saved.last().id
+            }
+        }
+    }
+
+    private fun job(
+        meterRegistry: SimpleMeterRegistry,
+        bucketCount: Int,
+        chunkSize: Int,
+        targets: List<PurgeProperties.Target> = listOf(PurgeProperties.Target.PAY)
+    ) = PendingTerminationPurgeJob(
+        PurgeProperties().apply {
+            this.bucketCount = bucketCount
+            this.chunkSize = chunkSize
+            this.parallelism = 2
+            this.targets = targets
+        },
+        PendingTerminationPurgeRepository(jdbcTemplate),
+        CompletedTerminationArchiveRepository(jdbcTemplate),
+        purgeCheckpointRepository,
+        transactionManager,
+        TerminationMetrics(meterRegistry)
+    )
+
+    companion object {
+        private const val MYDATA_TABLE = "MYDATA_TERMINATE_USER"
+        private const val PAY_TABLE = "PAY_TERMINATE_USER"
+    }
+}
@@ -0,0 +1,141 @@
+package com.codex.consumer.batch
+
+import com.codex.consumer.batch.TerminationDumpReader.DumpSource
+import com.codex.consumer.config.BackfillProperties
+import com.codex.consumer.domain.entity.TerminateStatus
+import com.codex.consumer.domain.repository.MydataTerminateUserRepository
+import com.codex.consumer.domain.repository.PayTerminateUserRepository
+import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import com.codex.consumer.service.MydataTerminateService
+import com.codex.consumer.service.MydataTerminateServiceImpl
+import com.codex.consumer.service.PayTerminateService
+import com.codex.consumer.service.PayTerminateServiceImpl
+import com.codex.consumer.support.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.avro.file.DataFileWriter
+import org.apache.avro.specific.SpecificDatumWriter
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.context.annotation.Import
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.GZIPOutputStream
+
+@DataJpaTest(
+    properties = [
+        "spring.datasource.url=jdbc:h2:mem:backfill-job-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MydataTerminateServiceImpl::class, PayTerminateServiceImpl::class, TerminationMetrics::class, SimpleMeterRegistry::class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TerminationBackfillJobTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var mydataRepository: MydataTerminateUserRepository
+
+    @Autowired
+    private lateinit var payRepository: PayTerminateUserRepository
+
+    @Autowired
+    private lateinit var mydataTerminateService: MydataTerminateService
+
+    @Autowired
+    private lateinit var payTerminateService: PayTerminateService
+
+    @Autowired
+    private lateinit var terminationMetrics: TerminationMetrics
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        lateinit var dir: Path
+
+        beforeEach {
+            dir = Files.createTempDirectory("backfill-job-test")
+            mydataRepository.deleteAllInBatch()
+            payRepository.deleteAllInBatch()
+        }
+
+        afterEach {
+            dir.toFile().deleteRecursively()
+        }
+
+        describe("run 메소드는") {
+            it("gzip JSONL 동의 덤프에서 is_remove=true 메시지만 batch 단위로 적재한다") {
+                val dump = dir.resolve("consent.jsonl.gz")
+                GZIPOutputStream(Files.newOutputStream(dump)).bufferedWriter().use { writer ->
+                    writer.write(consent(1L, isRemove = true, reason = "A") + "\n")
+                    writer.write(consent(2L, isRemove = false, reason = "B") + "\n")
+                    writer.write("\n")
+                    writer.write(consent(3L, isRemove = true, reason = "C") + "\n")
+                    writer.write(consent(1L, isRemove = true, reason = "D") + "\n")
+                }
+
+                val result = job(batchSize = 2) { mydata.path = dump }.run().single()
+
+                result.source shouldBe DumpSource.MYDATA
+                result.read shouldBe 4L
+                result.skipped shouldBe 1L
+                result.loaded shouldBe 3L
+                mydataRepository.findAll().map { Triple(it.payAccountId, it.terminateStatus, it.reason) } shouldContainExactlyInAnyOrder listOf(
+                    Triple(1L, TerminateStatus.PENDING, "D"),
+                    Triple(3L, TerminateStatus.PENDING, "C")
+                )
+            }
+
+            it("Avro container 파일의 pay 계정 삭제 이벤트를 적재하고 같은 덤프를 다시 적재해도 중복 행을 만들지 않는다") {
+                val dump = dir.resolve("pay-account-deleted.avro")
+                DataFileWriter(SpecificDatumWriter(PayAccountDeletedEnvelop::class.java)).use { writer ->
+                    writer.create(PayAccountDeletedEnvelop.getClassSchema(), dump.toFile())
+                    (1L..5L).forEach { writer.append(envelope(it, reason = if (it == 5L) null else "R$it")) }
+                }
+
+                job(batchSize = 2) { pay.path = dump }.run()
+                val rerun = job(batchSize = 2) { pay.path = dump }.run().single()
+
+                rerun.read shouldBe 5L
+                payRepository.count() shouldBe 5L
+                payRepository.findAll().associate { it.payAccountId to it.reason } shouldBe
+                    mapOf(1L to "R1", 2L to "R2", 3L to "R3", 4L to "R4", 5L to null)
+            }
+        }
+
+        describe("formatOf 메소드는") {
+            it("gzip 확장자를 제외한 파일 확장자로 덤프 형식을 판단한다") {
+                TerminationDumpReader.formatOf(Path.of("/dump/pay.avro.gz")) shouldBe BackfillProperties.DumpFormat.AVRO
+                TerminationDumpReader.formatOf(Path.of("/dump/consent.jsonl")) shouldBe BackfillProperties.DumpFormat.JSONL
+            }
+        }
+    }
+
+    private fun job(batchSize: Int, configure: BackfillProperties.() -> Unit) = TerminationBackfillJob(
+        BackfillProperties().apply {
+            this.batchSize = batchSize
+            progressInterval = 2
+            configure()
+        },
+        mydataTerminateService,
+        payTerminateService,
+        terminationMetrics
+    )
+
+    private fun consent(payAccountId: Long, isRemove: Boolean, reason: String) =
+        """{"data":{"delete_event_type":"$reason","pay_account_id":$payAccountId,"is_remove":$isRemove,"is_force":false},"type":"DELETE"}"""
+
+    private fun envelope(payAccountId: Long, reason: String?) = PayAccountDeletedEnvelop.newBuilder()
+        .setUuid("backfill-$payAccountId")
+        .setOccurredAt(1_725_000_000_000L)
+        .setPayAccountId(payAccountId)
+        .setReason(reason)
+        .build()
+}
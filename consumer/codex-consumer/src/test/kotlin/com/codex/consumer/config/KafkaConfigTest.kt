@@ -55,6 +55,7 @@ class KafkaConfigTest {
         assertThat(concurrency).isEqualTo(3)
         assertThat(consentKafkaListenerContainerFactory.containerProperties.ackMode.name)
             .isEqualTo(kafkaConsumerProperties.listener.ackMode.uppercase())
+        assertThat(consentKafkaListenerContainerFactory.containerProperties.isAsyncAcks).isFalse()
     }
 
     @Test
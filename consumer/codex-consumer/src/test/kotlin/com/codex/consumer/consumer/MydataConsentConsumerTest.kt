@@ -1,5 +1,6 @@
 package com.codex.consumer.consumer
 
+import com.codex.consumer.domain.repository.ConsumerOffsetRepository
 import com.codex.consumer.model.ConsentData
 import com.codex.consumer.model.ConsentMessage
 import com.codex.consumer.service.MydataTerminateService
@@ -7,6 +8,7 @@ import com.ninjasquad.springmockk.MockkBean
 import com.ninjasquad.springmockk.MockkClear
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.shouldBe
 import io.mockk.verify
 import org.awaitility.Awaitility.await
 import org.springframework.beans.factory.annotation.Autowired
@@ -19,8 +21,10 @@ import java.time.Duration
 
 @SpringBootTest(
     properties = [
+        "spring.datasource.url=jdbc:h2:mem:mydata-consumer-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
         "spring.jpa.hibernate.ddl-auto=create",
-        "spring.sql.init.mode=never"
+        "spring.sql.init.mode=never",
+        "codex.kafka.offset-store.enabled=true"
     ]
 )
 @EmbeddedKafka(partitions = 1, topics = [MydataConsentConsumer.MYDATA_CONSENT_TOPIC])
@@ -29,6 +33,9 @@ class MydataConsentConsumerTest : DescribeSpec() {
     @Autowired
     private lateinit var kafkaTemplate: KafkaTemplate<String, ConsentMessage>
 
+    @Autowired
+    private lateinit var consumerOffsetRepository: ConsumerOffsetRepository
+
     @MockkBean(relaxed = true, clear = MockkClear.BEFORE)
     private lateinit var mydataTerminateService: MydataTerminateService
 
@@ -36,7 +43,7 @@ class MydataConsentConsumerTest : DescribeSpec() {
 
     init {
         describe("MydataConsentConsumer는") {
-            it("is_remove가 true인 메시지를 받으면 서비스에 처리를 위임한다") {
+            it("is_remove가 true인 메시지를 받으면 서비스에 처리를 위임하고 적용 offset 을 기록한다") {
                 val message = ConsentMessage(
                     data = ConsentData(
                         deleteEventType = "PFM_SERVICE_CLOSED_BY_USER",
@@ -51,6 +58,8 @@ class MydataConsentConsumerTest : DescribeSpec() {
 
                 await().atMost(Duration.ofSeconds(5)).untilAsserted {
                     verify(exactly = 1) { mydataTerminateService.handleTermination(777L, "PFM_SERVICE_CLOSED_BY_USER") }
+                    consumerOffsetRepository.findAll().single { it.topic == MydataConsentConsumer.MYDATA_CONSENT_TOPIC }
+                        .lastOffset shouldBe 0L
                 }
             }
 
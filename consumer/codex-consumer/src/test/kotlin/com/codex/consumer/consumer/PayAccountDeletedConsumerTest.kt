@@ -2,18 +2,30 @@ package com.codex.consumer.consumer
 
 import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
 import com.codex.consumer.service.PayTerminateService
+import com.codex.consumer.support.TerminationMetrics
 import com.ninjasquad.springmockk.MockkBean
 import com.ninjasquad.springmockk.MockkClear
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainAll
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.MeterRegistry
+import io.mockk.every
 import io.mockk.verify
 import org.apache.avro.io.EncoderFactory
 import org.apache.avro.specific.SpecificDatumWriter
+import org.apache.kafka.clients.admin.AdminClient
+import org.apache.kafka.clients.admin.AdminClientConfig
+import org.apache.kafka.common.serialization.ByteArrayDeserializer
+import org.apache.kafka.common.serialization.StringDeserializer
 import org.awaitility.Awaitility.await
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory
 import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.test.EmbeddedKafkaBroker
 import org.springframework.kafka.test.context.EmbeddedKafka
+import org.springframework.kafka.test.utils.KafkaTestUtils
 import org.springframework.test.context.DynamicPropertyRegistry
 import org.springframework.test.context.DynamicPropertySource
 import java.io.ByteArrayOutputStream
@@ -21,8 +33,11 @@ import java.time.Duration
 
 @SpringBootTest(
     properties = [
+        "spring.datasource.url=jdbc:h2:mem:pay-consumer-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
         "spring.jpa.hibernate.ddl-auto=create",
-        "spring.sql.init.mode=never"
+        "spring.sql.init.mode=never",
+        "codex.kafka.retry-topic.initial-delay-millis=100",
+        "codex.kafka.retry-topic.multiplier=2.0"
     ]
 )
 @EmbeddedKafka(partitions = 1, topics = [PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC])
@@ -31,6 +46,12 @@ class PayAccountDeletedConsumerTest : DescribeSpec() {
     @Autowired
     private lateinit var byteArrayKafkaTemplate: KafkaTemplate<String, ByteArray>
 
+    @Autowired
+    private lateinit var embeddedKafka: EmbeddedKafkaBroker
+
+    @Autowired
+    private lateinit var meterRegistry: MeterRegistry
+
     @MockkBean(relaxed = true, clear = MockkClear.BEFORE)
     private lateinit var payTerminateService: PayTerminateService
 
@@ -73,6 +94,50 @@ class PayAccountDeletedConsumerTest : DescribeSpec() {
                     verify(exactly = 1) { payTerminateService.handleTermination(55_002L, null) }
                 }
             }
+
+            it("처리에 계속 실패하면 재시도 토픽(-retry-100ms, -retry-200ms)을 거쳐 DLT 로 옮긴다") {
+                every { payTerminateService.handleTermination(55_003L, any()) } throws IllegalStateException("db down")
+                val record = PayAccountDeletedEnvelop(
+                    "e95e31d6-6c3c-4bb5-a5ef-baceb0e7d113",
+                    1_725_123_456_791L,
+                    55_003L,
+                    "CUSTOMER_REQUEST"
+                )
+
+                byteArrayKafkaTemplate.send(
+                    PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC,
+                    encode(record)
+                ).get()
+
+                await().atMost(Duration.ofSeconds(15)).untilAsserted {
+                    verify(exactly = 3) { payTerminateService.handleTermination(55_003L, "CUSTOMER_REQUEST") }
+                    meterRegistry.counter(
+                        TerminationMetrics.LISTENER_RECOVERED, "topic", PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC
+                    ).count() shouldBe 1.0
+                }
+                meterRegistry.counter(
+                    TerminationMetrics.LISTENER_RETRIES, "topic", PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC
+                ).count() shouldBe 2.0
+
+                val dltReader = DefaultKafkaConsumerFactory(
+                    KafkaTestUtils.consumerProps("dlt-reader", "false", embeddedKafka),
+                    StringDeserializer(),
+                    ByteArrayDeserializer()
+                ).createConsumer()
+                dltReader.use {
+                    it.subscribe(listOf(PAY_ACCOUNT_DELETED_DLT))
+                    val parked = KafkaTestUtils.getSingleRecord(it, PAY_ACCOUNT_DELETED_DLT, Duration.ofSeconds(10))
+                    parked.value() shouldBe encode(record)
+                }
+                AdminClient.create(
+                    mapOf<String, Any>(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG to embeddedKafka.brokersAsString)
+                ).use {
+                    it.listTopics().names().get() shouldContainAll listOf(
+                        "${PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC}-retry-100ms",
+                        "${PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC}-retry-200ms"
+                    )
+                }
+            }
         }
     }
 
@@ -86,6 +151,8 @@ class PayAccountDeletedConsumerTest : DescribeSpec() {
     }
 
     companion object {
+        private const val PAY_ACCOUNT_DELETED_DLT = "${PayAccountDeletedConsumer.PAY_ACCOUNT_DELETED_TOPIC}-dlt"
+
         @JvmStatic
         @DynamicPropertySource
         fun registerKafkaProperties(registry: DynamicPropertyRegistry) {
@@ -0,0 +1,81 @@
+package com.codex.consumer.domain.repository
+
+import com.codex.consumer.domain.entity.MydataTerminateUser
+import com.codex.consumer.domain.entity.PayTerminateUser
+import com.codex.consumer.domain.entity.TerminateStatus
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import jakarta.persistence.EntityManager
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+
+@DataJpaTest(
+    properties = [
+        "spring.datasource.url=jdbc:h2:mem:write-repository-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TerminateUserWriteRepositoryTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var payRepository: PayTerminateUserRepository
+
+    @Autowired
+    private lateinit var mydataRepository: MydataTerminateUserRepository
+
+    @Autowired
+    private lateinit var entityManager: EntityManager
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        describe("upsertPending 메소드는") {
+            it("신규 payAccountId 를 PENDING 상태로 일괄 저장한다") {
+                val inserted = payRepository.upsertPending(
+                    listOf(TerminationTarget(1_000L, "A"), TerminationTarget(1_001L, null))
+                )
+
+                inserted shouldBe 2
+
+                payRepository.findByPayAccountIdAndTerminateStatus(1_000L, TerminateStatus.PENDING)!!.reason shouldBe "A"
+                payRepository.findByPayAccountIdAndTerminateStatus(1_001L, TerminateStatus.PENDING)!!.reason shouldBe null
+            }
+
+            it("기존 PENDING 레코드는 중복 생성하지 않고 null 이 아닌 사유로만 갱신한다") {
+                mydataRepository.saveAndFlush(MydataTerminateUser(payAccountId = 2_000L, reason = "BEFORE"))
+                mydataRepository.saveAndFlush(MydataTerminateUser(payAccountId = 2_001L, reason = "KEEP"))
+                entityManager.clear()
+
+                val inserted = mydataRepository.upsertPending(
+                    listOf(TerminationTarget(2_000L, "AFTER"), TerminationTarget(2_001L, null), TerminationTarget(2_002L, "NEW"))
+                )
+
+                inserted shouldBe 1
+
+                val stored = mydataRepository.findAll().filter { it.payAccountId in setOf(2_000L, 2_001L) }
+                stored shouldHaveSize 2
+                stored.associate { it.payAccountId to it.reason } shouldBe mapOf(2_000L to "AFTER", 2_001L to "KEEP")
+            }
+
+            it("COMPLETED 레코드가 있어도 새로운 PENDING 레코드를 추가한다") {
+                payRepository.saveAndFlush(
+                    PayTerminateUser(payAccountId = 3_000L, terminateStatus = TerminateStatus.COMPLETED)
+                )
+
+                payRepository.upsertPending(listOf(TerminationTarget(3_000L, "AGAIN"))) shouldBe 1
+
+                payRepository.findAll().filter { it.payAccountId == 3_000L }
+                    .map { it.terminateStatus } shouldContainExactlyInAnyOrder listOf(
+                    TerminateStatus.COMPLETED,
+                    TerminateStatus.PENDING
+                )
+            }
+        }
+    }
+}
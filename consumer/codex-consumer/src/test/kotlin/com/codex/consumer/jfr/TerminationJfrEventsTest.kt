@@ -0,0 +1,96 @@
+package com.codex.consumer.jfr
+
+import com.codex.consumer.domain.entity.PayTerminateUser
+import com.codex.consumer.domain.entity.TerminateStatus
+import com.codex.consumer.domain.repository.PayTerminateUserRepository
+import com.codex.consumer.service.PayTerminateServiceImpl
+import com.codex.consumer.support.TerminationMetrics
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.comparables.shouldBeGreaterThanOrEqualTo
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import jdk.jfr.Configuration
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.apache.kafka.common.serialization.StringDeserializer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+class TerminationJfrEventsTest : DescribeSpec({
+
+    describe("jfr/termination.jfc 로 시작한 recording 은") {
+
+        it("이미 PENDING 레코드가 있는 적재를 duplicate 와 SQL 시간이 담긴 TerminationUpsert 이벤트로 남긴다") {
+            val repository = mockk<PayTerminateUserRepository>()
+            every { repository.findByPayAccountIdAndTerminateStatus(42L, TerminateStatus.PENDING) } answers {
+                Thread.sleep(SLOW_MILLIS)
+                PayTerminateUser(payAccountId = 42L, terminateStatus = TerminateStatus.PENDING, reason = "REASON")
+            }
+            val service = PayTerminateServiceImpl(repository, TerminationMetrics(SimpleMeterRegistry()))
+
+            val events = record(TerminationUpsertEvent.NAME) { service.handleTermination(42L, "REASON") }
+
+            events shouldHaveSize 1
+            events.single().getLong("payAccountId") shouldBe 42L
+            events.single().getString("mode") shouldBe TerminationMetrics.MODE_SINGLE
+            events.single().getBoolean("duplicate") shouldBe true
+            events.single().getDuration("sqlTime") shouldBeGreaterThanOrEqualTo Duration.ofMillis(SLOW_MILLIS)
+        }
+
+        it("TimedDeserializer 가 붙인 역직렬화 시간을 ConsumeRecord 이벤트의 deserializeTime 으로 남긴다") {
+            val headers = RecordHeaders()
+
+            val events = record(ConsumeRecordEvent.NAME) {
+                TimedDeserializer(StringDeserializer()).deserialize("topic", headers, "value".toByteArray())
+                val header = headers.lastHeader(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER)
+                header shouldNotBe null
+
+                val event = ConsumeRecordEvent.begin("topic", 3, 100L, header.value())
+                event.payAccountId = 7L
+                event.timeService { Thread.sleep(SLOW_MILLIS) }
+                event.end(ConsumeRecordEvent.OUTCOME_SUCCESS)
+            }
+
+            events shouldHaveSize 1
+            events.single().getInt("partition") shouldBe 3
+            events.single().getLong("offset") shouldBe 100L
+            events.single().getLong("payAccountId") shouldBe 7L
+            events.single().getString("outcome") shouldBe ConsumeRecordEvent.OUTCOME_SUCCESS
+            events.single().getDuration("deserializeTime").toNanos() shouldBeGreaterThanOrEqual 1L
+        }
+
+        it("recording 이 없으면 역직렬화 시간 헤더를 붙이지 않는다") {
+            val headers = RecordHeaders()
+
+            TimedDeserializer(StringDeserializer()).deserialize("topic", headers, "value".toByteArray())
+
+            headers.lastHeader(ConsumeRecordEvent.DESERIALIZE_NANOS_HEADER) shouldBe null
+        }
+    }
+})
+
+private const val SLOW_MILLIS = 30L
+
+private fun record(eventName: String, block: () -> Unit): List<RecordedEvent> {
+    val configuration = Configuration.create(Path.of("jfr/termination.jfc"))
+    val file = Files.createTempFile("termination", ".jfr")
+    try {
+        Recording(configuration).use { recording ->
+            recording.start()
+            block()
+            recording.stop()
+            recording.dump(file)
+        }
+        return RecordingFile.readAllEvents(file).filter { it.eventType.name == eventName }
+    } finally {
+        Files.deleteIfExists(file)
+    }
+}
@@ -2,23 +2,29 @@ package com.codex.consumer.service
 
 import com.codex.consumer.domain.entity.TerminateStatus
 import com.codex.consumer.domain.repository.MydataTerminateUserRepository
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.support.TerminationMetrics
 import io.kotest.core.spec.style.DescribeSpec
 import io.kotest.extensions.spring.SpringExtension
 import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
 import io.kotest.matchers.collections.shouldHaveSize
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.shouldNotBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
 import org.springframework.context.annotation.Import
 
 @DataJpaTest(
     properties = [
+        "spring.datasource.url=jdbc:h2:mem:mydata-service-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
         "spring.jpa.hibernate.ddl-auto=create",
         "spring.sql.init.mode=never"
     ]
 )
-@Import(MydataTerminateServiceImpl::class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MydataTerminateServiceImpl::class, TerminationMetrics::class, SimpleMeterRegistry::class)
 class MydataTerminateServiceTest : DescribeSpec() {
 
     @Autowired
@@ -73,5 +79,33 @@ class MydataTerminateServiceTest : DescribeSpec() {
                 )
             }
         }
+
+        describe("MydataTerminateService의 handleTerminations 메소드는") {
+            it("여러 파기 대상자를 한 번에 저장한다") {
+                service.handleTerminations(
+                    listOf(
+                        TerminationTarget(20L, "FIRST"),
+                        TerminationTarget(21L, "SECOND")
+                    )
+                )
+
+                repository.findByPayAccountIdAndTerminateStatus(20L, TerminateStatus.PENDING)!!.reason shouldBe "FIRST"
+                repository.findByPayAccountIdAndTerminateStatus(21L, TerminateStatus.PENDING)!!.reason shouldBe "SECOND"
+            }
+
+            it("같은 payAccountId 는 한 건으로 합치고 마지막 non-null 사유를 남긴다") {
+                service.handleTerminations(
+                    listOf(
+                        TerminationTarget(22L, "INITIAL"),
+                        TerminationTarget(22L, "UPDATED"),
+                        TerminationTarget(22L, null)
+                    )
+                )
+
+                val all = repository.findAll().filter { it.payAccountId == 22L }
+                all shouldHaveSize 1
+                all.first().reason shouldBe "UPDATED"
+            }
+        }
     }
 }
@@ -0,0 +1,103 @@
+package com.codex.consumer.service
+
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.support.ConsumerOffsetTracker
+import com.codex.consumer.support.RecordHandlingExecutor
+import com.codex.consumer.support.ShardRoutingDataSource
+import com.zaxxer.hikari.HikariDataSource
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.core.io.ClassPathResource
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator
+import javax.sql.DataSource
+
+@SpringBootTest(
+    properties = [
+        "codex.sharding.enabled=true",
+        "codex.sharding.shards[0].url=jdbc:h2:mem:shard-0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "codex.sharding.shards[0].maximum-pool-size=2",
+        "codex.sharding.shards[1].url=jdbc:h2:mem:shard-1;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "codex.sharding.shards[1].maximum-pool-size=3",
+        "codex.sharding.shards[2].url=jdbc:h2:mem:shard-2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "codex.sharding.shards[2].maximum-pool-size=4",
+        "codex.kafka.listener.auto-startup=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=never"
+    ]
+)
+class ShardedTerminateServiceTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var payTerminateService: PayTerminateService
+
+    @Autowired
+    private lateinit var mydataTerminateService: MydataTerminateService
+
+    @Autowired
+    private lateinit var shardRoutingDataSource: ShardRoutingDataSource
+
+    @Autowired
+    private lateinit var consumerOffsetTracker: ConsumerOffsetTracker
+
+    @Autowired
+    private lateinit var recordHandlingExecutor: RecordHandlingExecutor
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        beforeEach {
+            shardRoutingDataSource.shards.forEach { shard ->
+                ResourceDatabasePopulator(ClassPathResource("schema.sql")).execute(shard)
+                JdbcTemplate(shard).execute("DELETE FROM PAY_TERMINATE_USER")
+                JdbcTemplate(shard).execute("DELETE FROM MYDATA_TERMINATE_USER")
+            }
+        }
+
+        describe("샤딩 모드의 파기 대상자 서비스는") {
+            it("bulk 적재 대상을 payAccountId 해시 샤드에 나눠 저장한다") {
+                val payAccountIds = (1L..60L).toList()
+
+                payTerminateService.handleTerminations(payAccountIds.map { TerminationTarget(it, "R$it") })
+
+                val stored = shardRoutingDataSource.shards.map { payAccountIdsIn(it, "PAY_TERMINATE_USER") }
+                stored.flatten().sorted() shouldContainExactly payAccountIds
+                stored.forEachIndexed { shard, ids ->
+                    ids.all { shardRoutingDataSource.shardOf(it) == shard } shouldBe true
+                    ids.isNotEmpty() shouldBe true
+                }
+            }
+
+            it("단건 적재도 해당 샤드에만 저장하고 같은 샤드에서 중복을 확인한다") {
+                mydataTerminateService.handleTermination(1_234L, "FIRST")
+                mydataTerminateService.handleTermination(1_234L, "SECOND")
+
+                val expectedShard = shardRoutingDataSource.shardOf(1_234L)
+                shardRoutingDataSource.shards.mapIndexed { shard, dataSource ->
+                    shard to payAccountIdsIn(dataSource, "MYDATA_TERMINATE_USER")
+                }.toMap() shouldBe (0 until 3).associateWith { if (it == expectedShard) listOf(1_234L) else emptyList() }
+            }
+        }
+
+        describe("샤딩 설정은") {
+            it("샤드마다 독립된 Hikari 풀을 만들고 offset 저장은 끄며 VIRTUAL 동시 처리 한도는 풀 크기의 합을 따른다") {
+                shardRoutingDataSource.shards.map { (it as HikariDataSource).poolName to it.maximumPoolSize } shouldContainExactly listOf(
+                    "codexConsumerPool-shard-0" to 2,
+                    "codexConsumerPool-shard-1" to 3,
+                    "codexConsumerPool-shard-2" to 4
+                )
+                payTerminateService.shouldBeInstanceOf<ShardedPayTerminateService>()
+                consumerOffsetTracker.enabled shouldBe false
+                recordHandlingExecutor.maxInFlight shouldBe 9
+            }
+        }
+    }
+
+    private fun payAccountIdsIn(dataSource: DataSource, table: String): List<Long> =
+        JdbcTemplate(dataSource).queryForList("SELECT pay_account_id FROM $table ORDER BY pay_account_id", Long::class.java)
+}
@@ -0,0 +1,39 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.model.ConsentMessage
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.apache.kafka.common.errors.SerializationException
+
+class ConsentMessagePrefilterDeserializerTest : DescribeSpec({
+
+    val deserializer = ConsentMessagePrefilterDeserializer()
+
+    describe("ConsentMessagePrefilterDeserializer는") {
+        it("is_remove가 false이면 바인딩 없이 공유 SKIP 인스턴스를 반환한다") {
+            val payload = """{"type":"WITHDRAW","data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":777,"is_remove":false,"is_force":false}}"""
+
+            deserializer.deserialize(TOPIC, payload.toByteArray()) shouldBeSameInstanceAs ConsentMessage.SKIP
+        }
+
+        it("is_remove가 true이면 알 수 없는 필드를 무시하고 전체를 바인딩한다") {
+            val payload = """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":777,"is_remove":true,"is_force":false,"extra_field":{"is_remove":false}},"type":"WITHDRAW"}"""
+
+            val message = deserializer.deserialize(TOPIC, payload.toByteArray())!!
+
+            message.data.payAccountId shouldBe 777L
+            message.data.isRemove shouldBe true
+            message.type shouldBe "WITHDRAW"
+        }
+
+        it("is_remove를 찾지 못한 잘못된 payload는 SerializationException을 던진다") {
+            shouldThrow<SerializationException> {
+                deserializer.deserialize(TOPIC, "not-json".toByteArray())
+            }
+        }
+    }
+})
+
+private const val TOPIC = "mydata.consent.v1"
@@ -0,0 +1,152 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.ListenerExecutor
+import com.codex.consumer.domain.repository.ConsumerOffsetRepository
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.extensions.spring.SpringExtension
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.record.TimestampType
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback
+import org.springframework.kafka.listener.adapter.ConsumerRecordMetadata
+import org.springframework.kafka.support.KafkaUtils
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.apache.kafka.clients.producer.RecordMetadata
+
+@DataJpaTest(
+    properties = [
+        "spring.datasource.url=jdbc:h2:mem:consumer-offset-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create"
+    ]
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConsumerOffsetTrackerTest : DescribeSpec() {
+
+    @Autowired
+    private lateinit var consumerOffsetRepository: ConsumerOffsetRepository
+
+    @Autowired
+    private lateinit var transactionManager: PlatformTransactionManager
+
+    override fun extensions() = listOf(SpringExtension)
+
+    init {
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var tracker: ConsumerOffsetTracker
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            tracker = tracker(ListenerExecutor.PLATFORM, meterRegistry)
+            consumerOffsetRepository.deleteAllInBatch()
+            KafkaUtils.setConsumerGroupId(GROUP_ID)
+        }
+
+        afterEach {
+            KafkaUtils.clearConsumerGroupId()
+        }
+
+        describe("applyInTransaction 메소드는") {
+            it("처리에 성공하면 topic-partition 별 마지막 offset 을 저장하고 더 작은 offset 으로는 되돌리지 않는다") {
+                tracker.applyInTransaction(metadata(partition = 1, offset = 42)) {}
+                tracker.applyInTransaction(metadata(partition = 1, offset = 7)) {}
+
+                val stored = consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, listOf(TOPIC)).single()
+                stored.partitionNo shouldBe 1
+                stored.lastOffset shouldBe 42L
+            }
+
+            it("처리에 실패하면 offset 도 함께 롤백된다") {
+                shouldThrow<IllegalStateException> {
+                    tracker.applyInTransaction(metadata(partition = 0, offset = 3)) { throw IllegalStateException("db down") }
+                }
+
+                consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, listOf(TOPIC)).shouldBeEmpty()
+            }
+
+            it("VIRTUAL 모드에서는 offset 을 기록하지 않는다") {
+                val virtualTracker = tracker(ListenerExecutor.VIRTUAL, meterRegistry)
+                var handled = false
+
+                virtualTracker.applyInTransaction(metadata(partition = 0, offset = 3)) { handled = true }
+
+                handled shouldBe true
+                consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, listOf(TOPIC)).shouldBeEmpty()
+            }
+        }
+
+        describe("seekPastApplied 메소드는") {
+            it("적용 offset 이 커밋 위치보다 앞선 파티션만 그 다음 offset 으로 seek 한다") {
+                consumerOffsetRepository.saveLastOffset(GROUP_ID, TOPIC, 0, 99)
+                consumerOffsetRepository.saveLastOffset(GROUP_ID, TOPIC, 1, 10)
+                val callback = mockk<ConsumerSeekCallback>(relaxed = true)
+
+                tracker.seekPastApplied(
+                    mapOf(
+                        TopicPartition(TOPIC, 0) to 80L,
+                        TopicPartition(TOPIC, 1) to 11L,
+                        TopicPartition(TOPIC, 2) to 0L
+                    ),
+                    callback
+                )
+
+                verify(exactly = 1) { callback.seek(TOPIC, 0, 100L) }
+                verify(exactly = 1) { callback.seek(any(), any(), any<Long>()) }
+                meterRegistry.counter(TerminationMetrics.LISTENER_REPLAY_SKIPPED, "topic", TOPIC).count() shouldBe 20.0
+            }
+
+            it("resetTopics 에 있는 토픽은 처음 할당받을 때 저장된 offset 을 지우고 커밋 위치부터 읽는다") {
+                consumerOffsetRepository.saveLastOffset(GROUP_ID, TOPIC, 0, 99)
+                consumerOffsetRepository.saveLastOffset("other-group", TOPIC, 0, 99)
+                val resetTracker = tracker(ListenerExecutor.PLATFORM, meterRegistry, resetTopics = setOf(TOPIC))
+                val callback = mockk<ConsumerSeekCallback>(relaxed = true)
+
+                resetTracker.seekPastApplied(mapOf(TopicPartition(TOPIC, 0) to 10L), callback)
+
+                verify(exactly = 0) { callback.seek(any(), any(), any<Long>()) }
+                consumerOffsetRepository.findByConsumerGroupAndTopicIn(GROUP_ID, listOf(TOPIC)).shouldBeEmpty()
+                consumerOffsetRepository.findByConsumerGroupAndTopicIn("other-group", listOf(TOPIC)).single().lastOffset shouldBe 99L
+
+                // 되돌린 뒤 다시 적용한 offset 은 지우지 않고 다음 할당부터 건너뛴다
+                resetTracker.applyInTransaction(metadata(partition = 0, offset = 30)) {}
+                resetTracker.seekPastApplied(mapOf(TopicPartition(TOPIC, 0) to 20L), callback)
+
+                verify(exactly = 1) { callback.seek(TOPIC, 0, 31L) }
+            }
+        }
+    }
+
+    private fun tracker(executor: ListenerExecutor, meterRegistry: SimpleMeterRegistry, resetTopics: Set<String> = emptySet()) =
+        ConsumerOffsetTracker(
+            KafkaConsumerProperties().apply {
+                listener.executor = executor
+                offsetStore.enabled = true
+                offsetStore.resetTopics = resetTopics
+            },
+            consumerOffsetRepository,
+            transactionManager,
+            TerminationMetrics(meterRegistry)
+        )
+
+    private fun metadata(partition: Int, offset: Long) = ConsumerRecordMetadata(
+        RecordMetadata(TopicPartition(TOPIC, partition), offset, 0, 0L, 0, 0),
+        TimestampType.CREATE_TIME
+    )
+
+    companion object {
+        private const val TOPIC = "pay-account.payaccount-deleted.v2"
+        private const val GROUP_ID = "codex-consumer-group"
+    }
+}
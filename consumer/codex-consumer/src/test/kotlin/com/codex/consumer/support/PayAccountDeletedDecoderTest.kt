@@ -0,0 +1,105 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.DecodingMode
+import com.codex.consumer.config.KafkaConsumerProperties.WireFormat
+import com.codex.consumer.exception.MessageDecodingException
+import com.codex.consumer.model.avro.PayAccountDeletedEnvelop
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.apache.avro.io.EncoderFactory
+import org.apache.avro.specific.SpecificDatumWriter
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+
+class PayAccountDeletedDecoderTest : DescribeSpec({
+
+    val first = PayAccountDeletedEnvelop("uuid-1", 1_725_000_000_000L, 1L, "CUSTOMER_REQUEST")
+    val second = PayAccountDeletedEnvelop("uuid-2", 1_725_000_000_001L, 2L, null)
+
+    describe("PayAccountDeletedDecoder는") {
+        it("ALLOCATING 모드에서 메시지마다 새로운 인스턴스를 반환한다") {
+            val decoder = decoder(WireFormat.RAW, DecodingMode.ALLOCATING)
+
+            val decodedFirst = decoder.decode(encode(first))
+            val decodedSecond = decoder.decode(encode(second))
+
+            decodedFirst shouldBe first
+            decodedSecond shouldBe second
+        }
+
+        it("THREAD_CONFINED 모드에서 같은 스레드의 레코드 인스턴스를 재사용한다") {
+            val decoder = decoder(WireFormat.RAW, DecodingMode.THREAD_CONFINED)
+
+            val decodedFirst = decoder.decode(encode(first))
+            decodedFirst.payAccountId shouldBe 1L
+            val decodedSecond = decoder.decode(encode(second))
+
+            decodedSecond shouldBeSameInstanceAs decodedFirst
+            decodedSecond shouldBe second
+        }
+
+        it("Confluent 헤더가 붙은 ByteBuffer slice 를 복사 없이 디코딩한다") {
+            val decoder = decoder(WireFormat.CONFLUENT, DecodingMode.THREAD_CONFINED)
+            val payload = encode(first)
+            val buffer = ByteBuffer.allocate(3 + 5 + payload.size).apply {
+                put(byteArrayOf(9, 9, 9))
+                put(0x0)
+                putInt(7)
+                put(payload)
+                flip()
+                position(3)
+            }
+
+            decoder.decode(buffer.slice()) shouldBe first
+            buffer.position() shouldBe 3
+        }
+
+        it("direct ByteBuffer 도 디코딩한다") {
+            val decoder = decoder(WireFormat.CONFLUENT, DecodingMode.ALLOCATING)
+            val payload = encode(second)
+            val buffer = ByteBuffer.allocateDirect(5 + payload.size).apply {
+                put(0x0)
+                putInt(7)
+                put(payload)
+                flip()
+            }
+
+            decoder.decode(buffer) shouldBe second
+        }
+
+        it("Confluent 헤더가 없으면 MessageDecodingException 을 던진다") {
+            val decoder = decoder(WireFormat.CONFLUENT, DecodingMode.ALLOCATING)
+
+            shouldThrow<MessageDecodingException> {
+                decoder.decode(byteArrayOf(1, 2))
+            }
+        }
+
+        it("잘못된 payload 는 MessageDecodingException 으로 감싼다") {
+            val decoder = decoder(WireFormat.RAW, DecodingMode.THREAD_CONFINED)
+
+            shouldThrow<MessageDecodingException> {
+                decoder.decode(byteArrayOf(0x7f))
+            }
+        }
+    }
+})
+
+private fun decoder(wireFormat: WireFormat, decodingMode: DecodingMode) =
+    PayAccountDeletedDecoder(
+        KafkaConsumerProperties().apply {
+            avro.wireFormat = wireFormat
+            avro.decodingMode = decodingMode
+        }
+    )
+
+private fun encode(record: PayAccountDeletedEnvelop): ByteArray {
+    val output = ByteArrayOutputStream()
+    val encoder = EncoderFactory.get().binaryEncoder(output, null)
+    SpecificDatumWriter(PayAccountDeletedEnvelop::class.java).write(record, encoder)
+    encoder.flush()
+    return output.toByteArray()
+}
@@ -0,0 +1,197 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.config.KafkaConsumerProperties.ListenerExecutor
+import com.zaxxer.hikari.HikariDataSource
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.ints.shouldBeLessThanOrEqual
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.springframework.kafka.listener.ConsumerRecordRecoverer
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class RecordHandlingExecutorTest : DescribeSpec({
+
+    describe("RecordHandlingExecutor는") {
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var published: MutableList<ConsumerRecord<*, *>>
+        lateinit var deadLetters: ConsumerRecordRecoverer
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            published = CopyOnWriteArrayList()
+            deadLetters = ConsumerRecordRecoverer { record, _ -> published += record }
+        }
+
+        it("PLATFORM 모드에서 호출 스레드에서 처리하고 예외를 그대로 전파한다") {
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.PLATFORM), null, TerminationMetrics(meterRegistry), deadLetters)
+            val acked = AtomicInteger()
+            val callerThread = Thread.currentThread()
+            var handledThread: Thread? = null
+
+            executor.execute(RECORD, { acked.incrementAndGet() }) { handledThread = Thread.currentThread() }
+            shouldThrow<IllegalStateException> {
+                executor.execute(RECORD, { acked.incrementAndGet() }) { throw IllegalStateException("db down") }
+            }
+
+            handledThread shouldBe callerThread
+            acked.get() shouldBe 1
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 virtual thread 로 처리한 뒤 ack 한다") {
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 2), null, TerminationMetrics(meterRegistry), deadLetters)
+            val acked = CountDownLatch(1)
+            var virtual = false
+
+            executor.execute(RECORD, { acked.countDown() }) { virtual = Thread.currentThread().isVirtual }
+
+            acked.await(5, TimeUnit.SECONDS) shouldBe true
+            virtual shouldBe true
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 동시에 처리 중인 레코드 수를 maxInFlight 로 제한한다") {
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 3), null, TerminationMetrics(meterRegistry), deadLetters)
+            val running = AtomicInteger()
+            val peak = AtomicInteger()
+            val acked = CountDownLatch(30)
+
+            repeat(30) {
+                executor.execute(record(key = "key-$it"), { acked.countDown() }) {
+                    peak.accumulateAndGet(running.incrementAndGet()) { a, b -> maxOf(a, b) }
+                    Thread.sleep(5)
+                    running.decrementAndGet()
+                }
+            }
+
+            acked.await(5, TimeUnit.SECONDS) shouldBe true
+            peak.get() shouldBeLessThanOrEqual 3
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 재시도 후에도 실패하면 DLT 로 옮긴 뒤 ack 한다") {
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 1), null, TerminationMetrics(meterRegistry), deadLetters)
+            val attempts = AtomicInteger()
+            val acked = CountDownLatch(1)
+
+            executor.execute(RECORD, { acked.countDown() }) {
+                attempts.incrementAndGet()
+                throw IllegalStateException("db down")
+            }
+
+            acked.await(5, TimeUnit.SECONDS) shouldBe true
+            attempts.get() shouldBe 3 // 최초 1회 + max-attempts 2회
+            published shouldBe listOf(RECORD)
+            meterRegistry.counter(TerminationMetrics.LISTENER_RETRIES, "topic", TOPIC).count() shouldBe 2.0
+            meterRegistry.counter(TerminationMetrics.LISTENER_RECOVERED, "topic", TOPIC).count() shouldBe 1.0
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 같은 파티션 같은 키의 레코드는 제출 순서대로 하나씩 처리한다") {
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 4), null, TerminationMetrics(meterRegistry), deadLetters)
+            val handled = CopyOnWriteArrayList<Long>()
+            val running = AtomicInteger()
+            val peak = AtomicInteger()
+            val acked = CountDownLatch(10)
+
+            (0L until 10L).forEach { offset ->
+                executor.execute(record(offset = offset), { acked.countDown() }) {
+                    peak.accumulateAndGet(running.incrementAndGet()) { a, b -> maxOf(a, b) }
+                    Thread.sleep(2)
+                    handled += offset
+                    running.decrementAndGet()
+                }
+            }
+
+            acked.await(5, TimeUnit.SECONDS) shouldBe true
+            handled shouldBe (0L until 10L).toList()
+            peak.get() shouldBe 1
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 재시도 대기 중인 레코드는 다른 키의 처리를 막지 않는다") {
+            val executor = RecordHandlingExecutor(
+                properties(ListenerExecutor.VIRTUAL, maxInFlight = 1).apply { retry.intervalMillis = 500 },
+                null, TerminationMetrics(meterRegistry), deadLetters
+            )
+            val otherKeyAcked = CountDownLatch(1)
+            val failingAcked = CountDownLatch(1)
+
+            executor.execute(record(key = "failing"), { failingAcked.countDown() }) { throw IllegalStateException("db down") }
+            executor.execute(record(key = "other"), { otherKeyAcked.countDown() }) { }
+
+            // 재시도 대기(500ms x 2) 가 끝나기 전에 다른 키의 레코드가 처리된다
+            otherKeyAcked.await(300, TimeUnit.MILLISECONDS) shouldBe true
+            failingAcked.count shouldBe 1L
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 DLT 발행이 실패하면 deadLetterMaxAttempts 안에서 다시 발행하고 그 전에는 ack 하지 않는다") {
+            val publishAttempts = AtomicInteger()
+            val failingDeadLetters = ConsumerRecordRecoverer { record, _ ->
+                if (publishAttempts.incrementAndGet() < 3) {
+                    throw IllegalStateException("broker down")
+                }
+                published += record
+            }
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 1), null, TerminationMetrics(meterRegistry), failingDeadLetters)
+            val acked = AtomicInteger()
+            val done = CountDownLatch(1)
+
+            executor.execute(RECORD, { acked.incrementAndGet(); done.countDown() }) { throw IllegalStateException("db down") }
+
+            done.await(5, TimeUnit.SECONDS) shouldBe true
+            publishAttempts.get() shouldBe 3
+            published shouldBe listOf(RECORD)
+            acked.get() shouldBe 1
+            executor.close()
+        }
+
+        it("VIRTUAL 모드에서 DLT 발행이 deadLetterMaxAttempts 번 모두 실패하면 ack 하지 않고 다음 레코드를 처리한다") {
+            val publishAttempts = AtomicInteger()
+            val brokerDown = ConsumerRecordRecoverer { _, _ ->
+                publishAttempts.incrementAndGet()
+                throw IllegalStateException("broker down")
+            }
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL, maxInFlight = 1), null, TerminationMetrics(meterRegistry), brokerDown)
+            val acked = CopyOnWriteArrayList<Long>()
+            val nextHandled = CountDownLatch(1)
+
+            executor.execute(record(offset = 42L), { acked += 42L }) { throw IllegalStateException("db down") }
+            executor.execute(record(offset = 43L), { acked += 43L; nextHandled.countDown() }) { }
+
+            nextHandled.await(5, TimeUnit.SECONDS) shouldBe true
+            publishAttempts.get() shouldBe 3
+            acked shouldBe listOf(43L)
+            executor.close()
+        }
+
+        it("maxInFlight 를 지정하지 않으면 Hikari maximum-pool-size 를 따른다") {
+            val dataSource = HikariDataSource().apply { maximumPoolSize = 7 }
+
+            val executor = RecordHandlingExecutor(properties(ListenerExecutor.VIRTUAL), dataSource, TerminationMetrics(meterRegistry), deadLetters)
+
+            executor.maxInFlight shouldBe 7
+            executor.close()
+        }
+    }
+})
+
+private const val TOPIC = "mydata.consent.v1"
+private val RECORD = record()
+
+private fun record(offset: Long = 42L, key: String = "key") = ConsumerRecord<String, String>(TOPIC, 0, offset, key, "value")
+
+private fun properties(executor: ListenerExecutor, maxInFlight: Int? = null) =
+    KafkaConsumerProperties().apply {
+        listener.executor = executor
+        listener.maxInFlight = maxInFlight
+        retry.intervalMillis = 10
+        retry.maxAttempts = 2
+    }
@@ -0,0 +1,42 @@
+package com.codex.consumer.support
+
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.doubles.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+
+class StartupTimingReportTest : DescribeSpec({
+
+    describe("StartupTimingReport는") {
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var report: StartupTimingReport
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            report = StartupTimingReport(meterRegistry)
+        }
+
+        fun firstRecordSeconds() = meterRegistry.get(TerminationMetrics.STARTUP)
+            .tag("phase", StartupTimingReport.PHASE_FIRST_RECORD)
+            .gauge()
+            .value()
+
+        it("레코드 처리 결과가 집계되기 전까지 first_record gauge 는 NaN 이다") {
+            TerminationMetrics(meterRegistry, report).countDuplicate(TerminationMetrics.SOURCE_PAY, 0)
+
+            firstRecordSeconds().isNaN() shouldBe true
+        }
+
+        it("처음 집계된 시점의 JVM 경과 시간만 기록하고 이후 집계로 바뀌지 않는다") {
+            val metrics = TerminationMetrics(meterRegistry, report)
+
+            metrics.countSkipped(TerminationMetrics.SOURCE_MYDATA)
+            val first = firstRecordSeconds()
+            Thread.sleep(20)
+            metrics.countProcessed(TerminationMetrics.SOURCE_PAY)
+
+            first shouldBeGreaterThan 0.0
+            firstRecordSeconds() shouldBe first
+        }
+    }
+})
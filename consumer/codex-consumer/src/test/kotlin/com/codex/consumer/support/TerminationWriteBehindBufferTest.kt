@@ -0,0 +1,172 @@
+package com.codex.consumer.support
+
+import com.codex.consumer.config.KafkaConsumerProperties
+import com.codex.consumer.domain.repository.TerminationTarget
+import com.codex.consumer.service.MydataTerminateService
+import com.codex.consumer.service.PayTerminateService
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.DescribeSpec
+import io.kotest.matchers.shouldBe
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.springframework.kafka.listener.ListenerContainerRegistry
+import org.springframework.kafka.listener.MessageListenerContainer
+import java.util.concurrent.atomic.AtomicInteger
+
+class TerminationWriteBehindBufferTest : DescribeSpec({
+
+    describe("TerminationWriteBehindBuffer는") {
+        lateinit var meterRegistry: SimpleMeterRegistry
+        lateinit var mydataTerminateService: MydataTerminateService
+        lateinit var payTerminateService: PayTerminateService
+        lateinit var deadLetters: MutableList<ConsumerRecord<*, *>>
+
+        beforeEach {
+            meterRegistry = SimpleMeterRegistry()
+            mydataTerminateService = mockk(relaxed = true)
+            payTerminateService = mockk(relaxed = true)
+            deadLetters = mutableListOf()
+        }
+
+        fun buffer(maxRecords: Int = 100, maxDelayMillis: Long = 60_000, registry: ListenerContainerRegistry? = null) =
+            TerminationWriteBehindBuffer(
+                writeBehindProperties(maxRecords, maxDelayMillis),
+                mydataTerminateService,
+                payTerminateService,
+                TerminationMetrics(meterRegistry),
+                { record, _ -> deadLetters += record },
+                registry
+            )
+
+        it("같은 source 의 payAccountId 를 마지막 non-null reason 으로 합쳐 한 번에 적재한다") {
+            val buffer = buffer()
+            val acked = AtomicInteger()
+
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, "FIRST", record(1L), { acked.incrementAndGet() })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 2L, "OTHER", record(2L), { acked.incrementAndGet() })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, "LAST", record(1L), { acked.incrementAndGet() })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, null, record(1L), { acked.incrementAndGet() })
+            buffer.submit(TerminationMetrics.SOURCE_MYDATA, 1L, "MYDATA", record(1L), { acked.incrementAndGet() })
+            acked.get() shouldBe 0
+
+            buffer.flush()
+
+            verify(exactly = 1) {
+                payTerminateService.handleTerminations(listOf(TerminationTarget(1L, "LAST"), TerminationTarget(2L, "OTHER")))
+            }
+            verify(exactly = 1) { mydataTerminateService.handleTerminations(listOf(TerminationTarget(1L, "MYDATA"))) }
+            acked.get() shouldBe 5
+            meterRegistry.counter(TerminationMetrics.RECORDS, "source", TerminationMetrics.SOURCE_PAY, "result", "duplicate")
+                .count() shouldBe 2.0
+        }
+
+        it("maxRecords 건이 모이면 submit 한 스레드에서 바로 flush 한다") {
+            val buffer = buffer(maxRecords = 3)
+            val acked = AtomicInteger()
+
+            repeat(2) { buffer.submit(TerminationMetrics.SOURCE_MYDATA, it.toLong(), "REASON", record(it.toLong()), { acked.incrementAndGet() }) }
+            verify(exactly = 0) { mydataTerminateService.handleTerminations(any()) }
+
+            buffer.submit(TerminationMetrics.SOURCE_MYDATA, 2L, "REASON", record(2L), { acked.incrementAndGet() })
+
+            verify(exactly = 1) { mydataTerminateService.handleTerminations(match { it.size == 3 }) }
+            acked.get() shouldBe 3
+        }
+
+        it("가장 오래된 레코드가 maxDelayMillis 를 넘기면 flush 한다") {
+            val buffer = buffer(maxDelayMillis = 20)
+            val acked = AtomicInteger()
+
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 7L, "REASON", record(7L), { acked.incrementAndGet() })
+            buffer.flushIfDue()
+            acked.get() shouldBe 0
+
+            Thread.sleep(30)
+            buffer.flushIfDue()
+
+            verify(exactly = 1) { payTerminateService.handleTerminations(listOf(TerminationTarget(7L, "REASON"))) }
+            acked.get() shouldBe 1
+        }
+
+        it("flush 에 실패하면 ack 하지 않고 레코드를 남겨 다음 flush 에서 그 사이 들어온 레코드와 함께 적재한다") {
+            val buffer = buffer()
+            val acked = mutableListOf<Long>()
+            every { payTerminateService.handleTerminations(any()) } throws IllegalStateException("db down") andThen Unit
+
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, "FIRST", record(1L), { acked += 1L })
+            shouldThrow<IllegalStateException> { buffer.flush() }
+            acked shouldBe emptyList()
+
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, "RETRIED", record(1L), { acked += 2L })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 3L, null, record(3L), { acked += 3L })
+            buffer.flush()
+
+            verify(exactly = 1) {
+                payTerminateService.handleTerminations(listOf(TerminationTarget(1L, "RETRIED"), TerminationTarget(3L, null)))
+            }
+            acked shouldBe listOf(1L, 2L, 3L)
+        }
+
+        it("컨슈머 스레드의 flush 가 실패하면 잠들지 않고 컨테이너를 pause 하고, flush 스레드가 retry 횟수를 넘기면 대상을 하나씩 적재한 뒤 resume 한다") {
+            val container = listenerContainer()
+            val registry = mockk<ListenerContainerRegistry>()
+            every { registry.listenerContainers } returns listOf(container)
+            val buffer = buffer(maxRecords = 3, registry = registry)
+            val acked = mutableListOf<Long>()
+            every { payTerminateService.handleTerminations(match { targets -> targets.any { it.payAccountId == 2L } }) } throws
+                IllegalArgumentException("reason too long")
+            buffer.start()
+
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 1L, "OK", record(1L), { acked += 1L })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 2L, "TOO LONG", record(2L), { acked += 2L })
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 3L, "OK", record(3L), { acked += 3L })
+
+            verify(exactly = 1) { payTerminateService.handleTerminations(match { it.size == 3 }) }
+            verify(exactly = 1) { container.pause() }
+            acked shouldBe emptyList()
+
+            // pause 가 반영되기 전 poll 에서 받은 레코드는 flush 없이 버퍼에만 담는다
+            buffer.submit(TerminationMetrics.SOURCE_PAY, 4L, "OK", record(4L), { acked += 4L })
+            verify(exactly = 0) { payTerminateService.handleTerminations(match { it.size == 4 }) }
+
+            // flush 스레드의 재시도 max-attempts 2회 뒤 대상별 적재
+            repeat(3) {
+                Thread.sleep(15)
+                buffer.flushIfDue()
+            }
+
+            verify(exactly = 2) { payTerminateService.handleTerminations(match { it.size == 4 }) }
+            listOf(1L, 3L, 4L).forEach { id ->
+                verify(exactly = 1) { payTerminateService.handleTerminations(listOf(TerminationTarget(id, "OK"))) }
+            }
+            deadLetters.map { it.key() } shouldBe listOf("2")
+            acked shouldBe listOf(1L, 2L, 3L, 4L)
+            verify(exactly = 1) { container.resume() }
+            buffer.stop()
+        }
+    }
+})
+
+private fun record(payAccountId: Long) =
+    ConsumerRecord<String, String>("pay-account.payaccount-deleted.v2", 0, payAccountId, payAccountId.toString(), "payload")
+
+private fun listenerContainer(): MessageListenerContainer {
+    var pauseRequested = false
+    return mockk<MessageListenerContainer>(relaxed = true).also { container ->
+        every { container.isRunning } returns true
+        every { container.isPauseRequested } answers { pauseRequested }
+        every { container.pause() } answers { pauseRequested = true }
+        every { container.resume() } answers { pauseRequested = false }
+    }
+}
+
+private fun writeBehindProperties(maxRecords: Int, maxDelayMillis: Long) =
+    KafkaConsumerProperties().apply {
+        writeBehind.enabled = true
+        writeBehind.maxRecords = maxRecords
+        writeBehind.maxDelayMillis = maxDelayMillis
+        retry.intervalMillis = 10
+    }
@@ -0,0 +1,86 @@
+package com.consumer.loadtest
+
+import org.apache.kafka.clients.admin.Admin
+import org.apache.kafka.clients.admin.OffsetSpec
+import org.apache.kafka.common.TopicPartition
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowCallbackHandler
+import java.time.Duration
+
+/**
+ * 컨슈머 그룹의 커밋 오프셋이 로그 끝에 도달할 때까지 기다린다 (lag 0 = 발행한 레코드를 모두 처리·ack).
+ * 반환값은 lag 이 0 이 된 것을 처음 확인한 시각(epoch millis).
+ */
+fun awaitConsumed(admin: Admin, groupId: String, partitions: List<TopicPartition>, timeout: Duration): Long {
+    val deadline = System.nanoTime() + timeout.toNanos()
+    val endOffsets = admin.listOffsets(partitions.associateWith { OffsetSpec.latest() }).all().get()
+        .mapValues { it.value.offset() }
+
+    while (System.nanoTime() < deadline) {
+        val committed = admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get()
+        val lag = endOffsets.entries.sumOf { (partition, end) -> end - (committed[partition]?.offset() ?: 0L) }
+        if (lag == 0L) {
+            return System.currentTimeMillis()
+        }
+        Thread.sleep(POLL_INTERVAL_MILLIS)
+    }
+    throw IllegalStateException("Consumer group $groupId did not catch up within $timeout")
+}
+
+/** 테이블의 created_at 과 해당 payAccountId 의 최초 발행 시각 차이(ms)를 모은다 */
+fun produceToUpsertLatencies(jdbcTemplate: JdbcTemplate, table: String, workload: TopicWorkload): LongArray {
+    val latencies = LongArray(workload.uniquePayAccountIds)
+    var count = 0
+    jdbcTemplate.query(
+        "SELECT pay_account_id, created_at FROM $table",
+        RowCallbackHandler { rs ->
+            val upsertedAtMillis = rs.getTimestamp(2).time
+            latencies[count++] = upsertedAtMillis - workload.firstProducedAtMillis(rs.getLong(1))
+        }
+    )
+    return latencies.copyOf(count)
+}
+
+fun countRows(jdbcTemplate: JdbcTemplate, table: String): Long =
+    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM $table", Long::class.java) ?: 0L
+
+/**
+ * 두 구현을 같은 워크로드로 비교할 수 있도록 결과를 고정된 형식으로 출력한다.
+ */
+class LoadTestReport(
+    private val application: String,
+    private val settings: LoadTestSettings,
+    private val workload: LoadTestWorkload
+) {
+    fun print(
+        startedAtMillis: Long,
+        producedAtMillis: Long,
+        consumedAtMillis: Long,
+        latencies: LongArray,
+        rows: Map<String, Pair<Long, Int>>
+    ) {
+        val produceSeconds = (producedAtMillis - startedAtMillis) / 1_000.0
+        val endToEndSeconds = (consumedAtMillis - startedAtMillis) / 1_000.0
+        latencies.sort()
+
+        println(
+            """
+            |=== $application load test ===
+            |messages         : ${settings.messages} (json ${workload.consent.sent} / avro ${workload.payAccountDeleted.sent}), duplicate ratio ${settings.duplicateRatio}, partitions ${settings.partitions}
+            |produce          : %.2f s (%.0f msg/s)
+            |end-to-end       : %.2f s (%.0f records/s)
+            |produce->upsert  : p50 %d ms, p99 %d ms, max %d ms (n=${latencies.size})
+            |rows             : ${rows.entries.joinToString { (table, counts) -> "$table ${counts.first}/${counts.second}" }}
+            """.trimMargin().format(
+                produceSeconds, settings.messages / produceSeconds,
+                endToEndSeconds, settings.messages / endToEndSeconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies.lastOrNull() ?: 0L
+            )
+        )
+    }
+
+    private fun percentile(sorted: LongArray, quantile: Double): Long =
+        if (sorted.isEmpty()) 0L else sorted[(Math.ceil(quantile * sorted.size).toInt() - 1).coerceAtLeast(0)]
+}
+
+private const val POLL_INTERVAL_MILLIS = 100L
@@ -0,0 +1,100 @@
+package com.consumer.loadtest
+
+import org.apache.kafka.clients.producer.Producer
+import org.apache.kafka.clients.producer.ProducerRecord
+import java.util.SplittableRandom
+
+/**
+ * loadTest 실행 파라미터. gradle 에서는 -PloadTest.<name>=<value> 로 넘긴다.
+ */
+data class LoadTestSettings(
+    val messages: Int,
+    val duplicateRatio: Double,
+    val avroRatio: Double,
+    val partitions: Int,
+    val timeoutSeconds: Long
+) {
+    init {
+        require(messages > 0) { "loadTest.messages must be positive" }
+        require(duplicateRatio in 0.0..<1.0) { "loadTest.duplicateRatio must be in [0, 1)" }
+        require(avroRatio in 0.0..1.0) { "loadTest.avroRatio must be in [0, 1]" }
+        require(partitions > 0) { "loadTest.partitions must be positive" }
+    }
+
+    companion object {
+        fun fromSystemProperties() = LoadTestSettings(
+            messages = System.getProperty("loadTest.messages", "1000000").toInt(),
+            duplicateRatio = System.getProperty("loadTest.duplicateRatio", "0.1").toDouble(),
+            avroRatio = System.getProperty("loadTest.avroRatio", "0.5").toDouble(),
+            partitions = System.getProperty("loadTest.partitions", "3").toInt(),
+            timeoutSeconds = System.getProperty("loadTest.timeoutSeconds", "600").toLong()
+        )
+    }
+}
+
+/**
+ * 토픽 하나에 보낸 payAccountId 와 최초 발행 시각을 추적한다.
+ * payAccountId 는 1 부터 순서대로 발급하므로 (id - 1) 을 인덱스로 쓰고, 중복 메시지는 이미 발급한 id 중 하나를 다시 보낸다.
+ */
+class TopicWorkload(val topic: String, capacity: Int) {
+    private val firstProducedAtMillis = LongArray(capacity)
+
+    var sent = 0
+        private set
+    var uniquePayAccountIds = 0
+        private set
+
+    fun nextPayAccountId(duplicate: Boolean, random: SplittableRandom, nowMillis: Long): Long {
+        sent++
+        if (duplicate && uniquePayAccountIds > 0) {
+            return random.nextInt(uniquePayAccountIds) + 1L
+        }
+        firstProducedAtMillis[uniquePayAccountIds] = nowMillis
+        return (++uniquePayAccountIds).toLong()
+    }
+
+    fun firstProducedAtMillis(payAccountId: Long): Long = firstProducedAtMillis[(payAccountId - 1).toInt()]
+}
+
+/**
+ * JSON(mydata.consent.v1) 과 Avro(pay-account.payaccount-deleted.v2) 메시지를 avroRatio 비율로 섞어 발행한다.
+ * 레코드 timestamp 를 발행 시각으로 직접 지정해 DB created_at 과 비교할 기준으로 삼는다.
+ */
+class LoadTestWorkload(
+    private val settings: LoadTestSettings,
+    private val encodePayAccountDeleted: (Long) -> ByteArray,
+    seed: Long = 20_251_018L
+) {
+    private val random = SplittableRandom(seed)
+
+    val consent = TopicWorkload(CONSENT_TOPIC, settings.messages)
+    val payAccountDeleted = TopicWorkload(PAY_ACCOUNT_DELETED_TOPIC, settings.messages)
+
+    /** 첫 메시지 발행 시각(epoch millis), end-to-end 처리량의 시작점 */
+    var startedAtMillis = 0L
+        private set
+
+    /** 전체 메시지를 발행하고 flush 까지 기다린다 */
+    fun produce(producer: Producer<String, ByteArray>) {
+        startedAtMillis = System.currentTimeMillis()
+        repeat(settings.messages) {
+            val avro = random.nextDouble() < settings.avroRatio
+            val target = if (avro) payAccountDeleted else consent
+            val nowMillis = System.currentTimeMillis()
+            val payAccountId = target.nextPayAccountId(random.nextDouble() < settings.duplicateRatio, random, nowMillis)
+            val value = if (avro) encodePayAccountDeleted(payAccountId) else consentPayload(payAccountId)
+
+            producer.send(ProducerRecord(target.topic, null, nowMillis, payAccountId.toString(), value))
+        }
+        producer.flush()
+    }
+
+    private fun consentPayload(payAccountId: Long): ByteArray =
+        """{"data":{"delete_event_type":"PFM_SERVICE_CLOSED_BY_USER","pay_account_id":$payAccountId,"is_remove":true,"is_force":false},"type":"WITHDRAW"}"""
+            .toByteArray()
+
+    companion object {
+        const val CONSENT_TOPIC = "mydata.consent.v1"
+        const val PAY_ACCOUNT_DELETED_TOPIC = "pay-account.payaccount-deleted.v2"
+    }
+}